@@ -0,0 +1,1162 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.thrift.TApplicationException;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolException;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.config.ConcourseClientPreferences;
+import org.cinchapi.concourse.lang.Criteria;
+import org.cinchapi.concourse.lang.Language;
+import org.cinchapi.concourse.security.ClientSecurity;
+import org.cinchapi.concourse.thrift.AccessToken;
+import org.cinchapi.concourse.thrift.ConcourseService;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TCriteria;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.thrift.TSecurityException;
+import org.cinchapi.concourse.thrift.TTransactionException;
+import org.cinchapi.concourse.util.Conversions;
+import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.CopyingBinaryProtocol;
+import org.cinchapi.concourse.util.PrettyLinkedHashMap;
+import org.cinchapi.concourse.util.Transformers;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * <p>
+ * An {@link AsyncConcourse} is a connection to Concourse that returns a
+ * {@link ListenableFuture} for each request instead of blocking until the
+ * server responds. Requests are pipelined over a single connection: a sender
+ * thread writes each request as soon as it is submitted (without waiting for
+ * the responses to previous requests) and a receiver thread reads the
+ * responses, which the server returns in the same order, and correlates each
+ * one with its request using the Thrift sequence id. Requests that are queued
+ * while the sender is busy are written to the socket in a single batch.
+ * </p>
+ * <p>
+ * Unlike {@link Concourse}, an AsyncConcourse is safe to use from multiple
+ * threads. The server processes the requests from a connection in the order
+ * they are submitted, so a read that is submitted after a write observes the
+ * write. Each request is conducted in {@code autocommit} mode.
+ * </p>
+ * <p>
+ * At most 1024 requests can be outstanding at once. If the server falls
+ * behind, submitting another request blocks until the response to an earlier
+ * one is read.
+ * </p>
+ * <p>
+ * An AsyncConcourse only exposes a subset of the {@link Concourse} API:
+ * {@code add}, {@code describe}, {@code find} (by {@link Criteria} or by a
+ * single key and operator), {@code get}, {@code getServerVersion},
+ * {@code remove}, {@code search}, {@code select} (by record or by key and
+ * record), {@code set} and {@code verify}. There is no support for
+ * transactions, historical reads or bulk operations, which must still be
+ * performed with a {@link Concourse} connection.
+ * </p>
+ * <p>
+ * If the server rejects the credentials of a request (e.g. because the
+ * session expired), the client logs in again and resubmits the request once.
+ * No request that was submitted later is written before the login and the
+ * resubmitted requests, so the order is preserved. If the login fails, the
+ * requests that were waiting for it fail with the same error.
+ * </p>
+ * <h2>Usage</h2>
+ *
+ * <pre>
+ * AsyncConcourse concourse = AsyncConcourse.connect();
+ * ListenableFuture&lt;Map&lt;String, Set&lt;Object&gt;&gt;&gt; a = concourse.select(1);
+ * ListenableFuture&lt;Map&lt;String, Set&lt;Object&gt;&gt;&gt; b = concourse.select(2);
+ * ... // both requests are in flight
+ * a.get();
+ * b.get();
+ * concourse.close();
+ * </pre>
+ *
+ * @author Jeff Nelson
+ */
+@ThreadSafe
+public final class AsyncConcourse implements AutoCloseable {
+
+    /**
+     * Create a new connection to the environment of the Concourse Server
+     * described in {@code concourse_client.prefs} (or, if the file does not
+     * exist, the default environment of the server at localhost:1717) and
+     * return a handle to facilitate interaction.
+     *
+     * @return the handle
+     */
+    public static AsyncConcourse connect() {
+        ConcourseClientPreferences cp = ConcourseClientPreferences
+                .load(DEFAULT_PREFS_FILE);
+        return connect(cp.getHost(), cp.getPort(), cp.getUsername(),
+                new String(cp.getPassword()), cp.getEnvironment());
+    }
+
+    /**
+     * Create a new connection to the default environment of the specified
+     * Concourse Server and return a handle to facilitate interaction.
+     *
+     * @param host
+     * @param port
+     * @param username
+     * @param password
+     * @return the handle
+     */
+    public static AsyncConcourse connect(String host, int port,
+            String username, String password) {
+        return connect(host, port, username, password, "");
+    }
+
+    /**
+     * Create a new connection to the specified {@code environment} of the
+     * specified Concourse Server and return a handle to facilitate
+     * interaction. The transport is negotiated the same way as
+     * {@link Concourse#connect(String, int, String, String, String)}.
+     *
+     * @param host
+     * @param port
+     * @param username
+     * @param password
+     * @param environment
+     * @return the handle
+     */
+    public static AsyncConcourse connect(String host, int port,
+            String username, String password, String environment) {
+        TTransportException failure = null;
+        for (boolean framed : Concourse.getTransportFramings()) {
+            BatchingTransport socket = new BatchingTransport(new TSocket(host,
+                    port));
+            TTransport transport = framed ? new TFramedTransport(socket)
+                    : socket;
+            TProtocolFactory protocols = framed ? new CopyingBinaryProtocol.Factory()
+                    : new TBinaryProtocol.Factory();
+            try {
+                transport.open();
+                return new AsyncConcourse(socket, transport, protocols,
+                        ClientSecurity.encrypt(username),
+                        ClientSecurity.encrypt(password), environment);
+            }
+            catch (TTransportException e) {
+                transport.close();
+                failure = e;
+            }
+            catch (TException e) {
+                transport.close();
+                throw Throwables.propagate(e);
+            }
+        }
+        throw new RuntimeException(
+                "Could not connect to the Concourse Server at " + host + ":"
+                        + port, failure);
+    }
+
+    /**
+     * The default preferences file to use if none is specified.
+     */
+    private static final String DEFAULT_PREFS_FILE = "concourse_client.prefs";
+
+    /**
+     * The maximum number of queued requests that the sender writes to the
+     * socket before it flushes.
+     */
+    private static final int MAX_BATCH_SIZE = 128;
+
+    /**
+     * The maximum number of requests that can be queued or in flight at once.
+     */
+    @PackagePrivate
+    static final int MAX_OUTSTANDING_REQUESTS = 1024;
+
+    /**
+     * A flag that indicates whether the connection has been closed, after
+     * which no more requests are accepted.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * The {@link AccessToken} that is passed to the server with each request.
+     * It is replaced whenever the receiver thread re-authenticates.
+     */
+    private volatile AccessToken creds;
+
+    /**
+     * The environment to which the client is connected.
+     */
+    private final String environment;
+
+    /**
+     * The requests that have been written to the socket, in order, and are
+     * awaiting a response.
+     */
+    private final BlockingQueue<Call<?>> inflight = new LinkedBlockingQueue<Call<?>>();
+
+    /**
+     * An encrypted copy of the password passed to the constructor.
+     */
+    private final ByteBuffer password;
+
+    /**
+     * The requests that have been submitted, in order, and are waiting to be
+     * written to the socket. A {@link Login} and the calls that are retried
+     * after it are added to the front so that they are written before any
+     * call that was submitted later.
+     */
+    private final BlockingDeque<Call<?>> pending = new LinkedBlockingDeque<Call<?>>();
+
+    /**
+     * The permits for the requests that can be outstanding. A permit is
+     * acquired when a request is submitted and released when its future is
+     * completed, which bounds the {@link #pending} and {@link #inflight}
+     * queues and applies back-pressure to callers when the server falls
+     * behind.
+     */
+    private final Semaphore permits = new Semaphore(MAX_OUTSTANDING_REQUESTS);
+
+    /**
+     * The task that releases one of the {@link #permits}.
+     */
+    private final Runnable release = new Runnable() {
+
+        @Override
+        public void run() {
+            permits.release();
+        }
+
+    };
+
+    /**
+     * The {@link Login} that is pending, if any, so that concurrent
+     * authentication failures only cause a single re-authentication. It is
+     * only accessed from the {@link #receiverThread}.
+     */
+    private Login login = null;
+
+    /**
+     * The Thrift client that only reads responses. It is only used by the
+     * {@link #receiverThread}.
+     */
+    private final Pipeline receiver;
+
+    /**
+     * The thread that reads responses and completes their futures.
+     */
+    private final Thread receiverThread;
+
+    /**
+     * The Thrift client that only writes requests. It is only used by the
+     * {@link #senderThread}.
+     */
+    private final Pipeline sender;
+
+    /**
+     * The thread that writes batches of pending requests to the socket.
+     */
+    private final Thread senderThread;
+
+    /**
+     * The transport that is directly above the socket, which defers flushes
+     * while the sender is writing a batch.
+     */
+    private final BatchingTransport socket;
+
+    /**
+     * The outermost transport of the connection.
+     */
+    private final TTransport transport;
+
+    /**
+     * An encrypted copy of the username passed to the constructor.
+     */
+    private final ByteBuffer username;
+
+    /**
+     * Construct a new instance over the open {@code transport}, authenticate
+     * and start the sender and receiver threads.
+     *
+     * @param socket
+     * @param transport
+     * @param protocols
+     * @param username
+     * @param password
+     * @param environment
+     * @throws TException
+     */
+    private AsyncConcourse(BatchingTransport socket, TTransport transport,
+            TProtocolFactory protocols, ByteBuffer username,
+            ByteBuffer password, String environment) throws TException {
+        this.socket = socket;
+        this.transport = transport;
+        this.username = username;
+        this.password = password;
+        this.environment = environment;
+        this.sender = new Pipeline(protocols.getProtocol(transport));
+        this.receiver = new Pipeline(protocols.getProtocol(transport));
+        this.creds = sender.login(ClientSecurity.decrypt(username),
+                ClientSecurity.decrypt(password), environment);
+        this.senderThread = new Thread(new Sender(), "AsyncConcourse Sender");
+        this.receiverThread = new Thread(new Receiver(),
+                "AsyncConcourse Receiver");
+        senderThread.setDaemon(true);
+        receiverThread.setDaemon(true);
+        senderThread.start();
+        receiverThread.start();
+    }
+
+    /**
+     * Add {@code key} as {@code value} to {@code record} if it is not already
+     * contained.
+     *
+     * @param key
+     * @param value
+     * @param record
+     * @return a future for {@code true} if {@code value} is added
+     */
+    public <T> ListenableFuture<Boolean> add(final String key, final T value,
+            final long record) {
+        final TObject tValue = Convert.javaToThrift(value);
+        return submit(new Call<Boolean>() {
+
+            @Override
+            protected Boolean read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_addKeyValueRecord();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_addKeyValueRecord(key, tValue, record, creds, null,
+                        environment);
+            }
+
+        });
+    }
+
+    /**
+     * Close the connection. Any requests that have not completed fail with an
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        shutdown(new IllegalStateException("The connection is closed"));
+    }
+
+    /**
+     * Describe {@code record}.
+     *
+     * @param record
+     * @return a future for the keys that have at least one value in
+     *         {@code record}
+     */
+    public ListenableFuture<Set<String>> describe(final long record) {
+        return submit(new Call<Set<String>>() {
+
+            @Override
+            protected Set<String> read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_describeRecord();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_describeRecord(record, creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Find and return the set of records that satisfy the {@code criteria}.
+     *
+     * @param criteria
+     * @return a future for the records that match the {@code criteria}
+     */
+    public ListenableFuture<Set<Long>> find(Criteria criteria) {
+        final TCriteria tCriteria = Language
+                .translateToThriftCriteria(criteria);
+        return submit(new Call<Set<Long>>() {
+
+            @Override
+            protected Set<Long> read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_findCriteria();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_findCriteria(tCriteria, creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Find {@code key} {@code operator} {@code values}.
+     *
+     * @param key
+     * @param operator
+     * @param values
+     * @return a future for the records where {@code key} {@code operator}
+     *         {@code values} is {@code true}
+     */
+    public ListenableFuture<Set<Long>> find(final String key,
+            final Operator operator, Object... values) {
+        final List<TObject> tValues = Lists.newArrayList(Lists.transform(
+                Lists.newArrayList(values), Conversions.javaToThrift()));
+        return submit(new Call<Set<Long>>() {
+
+            @Override
+            protected Set<Long> read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_findKeyOperatorValues();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_findKeyOperatorValues(key, operator, tValues,
+                        creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Get {@code key} from {@code record}.
+     *
+     * @param key
+     * @param record
+     * @return a future for the most recently added value of {@code key} in
+     *         {@code record}, or {@code null} if there is none
+     */
+    public <T> ListenableFuture<T> get(final String key, final long record) {
+        return submit(new Call<T>() {
+
+            @SuppressWarnings("unchecked")
+            @Override
+            @Nullable
+            protected T read(ConcourseService.Client client)
+                    throws TException {
+                TObject raw = client.recv_getKeyRecord();
+                return raw == TObject.NULL ? null : (T) Convert
+                        .thriftToJava(raw);
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_getKeyRecord(key, record, creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Return the version of the server to which this client is connected.
+     *
+     * @return a future for the server version
+     */
+    public ListenableFuture<String> getServerVersion() {
+        return submit(new Call<String>() {
+
+            @Override
+            protected String read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_getServerVersion();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_getServerVersion();
+            }
+
+        });
+    }
+
+    /**
+     * Remove {@code key} as {@code value} from {@code record} if it is
+     * contained.
+     *
+     * @param key
+     * @param value
+     * @param record
+     * @return a future for {@code true} if {@code value} is removed
+     */
+    public <T> ListenableFuture<Boolean> remove(final String key,
+            final T value, final long record) {
+        final TObject tValue = Convert.javaToThrift(value);
+        return submit(new Call<Boolean>() {
+
+            @Override
+            protected Boolean read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_removeKeyValueRecord();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_removeKeyValueRecord(key, tValue, record, creds,
+                        null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Search {@code key} for {@code query}.
+     *
+     * @param key
+     * @param query
+     * @return a future for the records that match the {@code query}
+     */
+    public ListenableFuture<Set<Long>> search(final String key,
+            final String query) {
+        return submit(new Call<Set<Long>>() {
+
+            @Override
+            protected Set<Long> read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_search();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_search(key, query, creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Select all the data in {@code record}.
+     *
+     * @param record
+     * @return a future for a mapping from each key in {@code record} to its
+     *         values
+     */
+    public ListenableFuture<Map<String, Set<Object>>> select(final long record) {
+        return submit(new Call<Map<String, Set<Object>>>() {
+
+            @Override
+            protected Map<String, Set<Object>> read(
+                    ConcourseService.Client client) throws TException {
+                Map<String, Set<TObject>> raw = client.recv_selectRecord();
+                Map<String, Set<Object>> pretty = PrettyLinkedHashMap
+                        .newPrettyLinkedHashMap("Key", "Values");
+                for (Entry<String, Set<TObject>> entry : raw.entrySet()) {
+                    pretty.put(entry.getKey(), Transformers.transformSet(
+                            entry.getValue(), Conversions.thriftToJava()));
+                }
+                return pretty;
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_selectRecord(record, creds, null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Select all the values of {@code key} in {@code record}.
+     *
+     * @param key
+     * @param record
+     * @return a future for the values of {@code key} in {@code record}
+     */
+    public <T> ListenableFuture<Set<T>> select(final String key,
+            final long record) {
+        return submit(new Call<Set<T>>() {
+
+            @Override
+            protected Set<T> read(ConcourseService.Client client)
+                    throws TException {
+                Set<TObject> values = client.recv_selectKeyRecord();
+                return Transformers.transformSet(values,
+                        Conversions.<T> thriftToJavaCasted());
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_selectKeyRecord(key, record, creds, null,
+                        environment);
+            }
+
+        });
+    }
+
+    /**
+     * Atomically remove all the values of {@code key} in {@code record} and
+     * add {@code value}.
+     *
+     * @param key
+     * @param value
+     * @param record
+     * @return a future that completes when {@code value} is set
+     */
+    public <T> ListenableFuture<Void> set(final String key, final T value,
+            final long record) {
+        final TObject tValue = Convert.javaToThrift(value);
+        return submit(new Call<Void>() {
+
+            @Override
+            protected Void read(ConcourseService.Client client)
+                    throws TException {
+                client.recv_setKeyValueRecord();
+                return null;
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_setKeyValueRecord(key, tValue, record, creds, null,
+                        environment);
+            }
+
+        });
+    }
+
+    /**
+     * Verify that {@code key} equals {@code value} in {@code record}.
+     *
+     * @param key
+     * @param value
+     * @param record
+     * @return a future for {@code true} if {@code key} equals {@code value}
+     *         in {@code record}
+     */
+    public ListenableFuture<Boolean> verify(final String key,
+            final Object value, final long record) {
+        final TObject tValue = Convert.javaToThrift(value);
+        return submit(new Call<Boolean>() {
+
+            @Override
+            protected Boolean read(ConcourseService.Client client)
+                    throws TException {
+                return client.recv_verifyKeyValueRecord();
+            }
+
+            @Override
+            protected void write(ConcourseService.Client client,
+                    AccessToken creds) throws TException {
+                client.send_verifyKeyValueRecord(key, tValue, record, creds,
+                        null, environment);
+            }
+
+        });
+    }
+
+    /**
+     * Fail the futures of all the calls in {@code queue} with {@code cause}.
+     *
+     * @param queue
+     * @param cause
+     */
+    private void fail(BlockingQueue<Call<?>> queue, Throwable cause) {
+        List<Call<?>> calls = Lists.newArrayList();
+        queue.drainTo(calls);
+        for (Call<?> call : calls) {
+            call.future.setException(cause);
+        }
+    }
+
+    /**
+     * Resubmit {@code call} after it failed because its {@link AccessToken}
+     * expired. If the {@link #creds} have not been refreshed since the call
+     * was written, the call waits for a {@link Login} and is only resubmitted
+     * if the login succeeds. This method is only called from the
+     * {@link #receiverThread}.
+     *
+     * @param call
+     */
+    private void reauthenticate(Call<?> call) {
+        if(call.creds == creds) {
+            if(login == null) {
+                login = new Login();
+                pending.addFirst(login);
+            }
+            login.waiting.add(call);
+        }
+        else {
+            resubmit(Collections.<Call<?>> singletonList(call));
+        }
+    }
+
+    /**
+     * Queue {@code calls} to be written again by the {@link #senderThread},
+     * in order, before any of the calls that are already pending.
+     *
+     * @param calls
+     */
+    private void resubmit(List<Call<?>> calls) {
+        for (Call<?> call : Lists.reverse(calls)) {
+            pending.addFirst(call);
+        }
+        if(closed.get()) {
+            fail(pending, new IllegalStateException("The connection is closed"));
+        }
+    }
+
+    /**
+     * Stop accepting requests, close the connection and fail the futures of
+     * all the outstanding calls with {@code cause}.
+     *
+     * @param cause
+     */
+    private void shutdown(Throwable cause) {
+        if(closed.compareAndSet(false, true)) {
+            transport.close();
+            senderThread.interrupt();
+            receiverThread.interrupt();
+        }
+        fail(pending, cause);
+        fail(inflight, cause);
+    }
+
+    /**
+     * Queue {@code call} to be written by the {@link #senderThread} and return
+     * its future. If {@link #MAX_OUTSTANDING_REQUESTS} are already
+     * outstanding, block until one of them completes.
+     *
+     * @param call
+     * @return the future
+     */
+    private <T> ListenableFuture<T> submit(Call<T> call) {
+        if(closed.get()) {
+            throw new IllegalStateException("The connection is closed");
+        }
+        permits.acquireUninterruptibly();
+        call.future.addListener(release, MoreExecutors.sameThreadExecutor());
+        pending.add(call);
+        if(closed.get()) {
+            // The connection may have been closed after the check above, in
+            // which case the call may have missed the final drain.
+            fail(pending, new IllegalStateException("The connection is closed"));
+        }
+        return call.future;
+    }
+
+    /**
+     * A single request to the server and the future for its response.
+     *
+     * @author Jeff Nelson
+     */
+    private abstract class Call<T> {
+
+        /**
+         * The {@link AccessToken} that was sent with the request.
+         */
+        private AccessToken creds;
+
+        /**
+         * A flag that indicates whether the request has already been
+         * resubmitted after an authentication failure, so that it is not
+         * retried again.
+         */
+        private boolean retried = false;
+
+        /**
+         * The future that is completed when the response is read.
+         */
+        private final SettableFuture<T> future = SettableFuture.create();
+
+        /**
+         * The Thrift sequence id of the request, which is used to correlate
+         * the response.
+         */
+        private int seqid;
+
+        /**
+         * Read the response from the server and complete the {@link #future}.
+         * An exception is only thrown if the connection is no longer usable.
+         *
+         * @param client
+         * @throws TException
+         */
+        final void complete(ConcourseService.Client client) throws TException {
+            try {
+                future.set(read(client));
+            }
+            catch (TSecurityException e) {
+                if(isRetryable() && !retried) {
+                    retried = true;
+                    reauthenticate(this);
+                }
+                else {
+                    future.setException(e);
+                }
+            }
+            catch (TTransactionException e) {
+                future.setException(new TransactionException());
+            }
+            catch (TTransportException | TProtocolException e) {
+                future.setException(e);
+                throw e;
+            }
+            catch (TApplicationException e) {
+                future.setException(e);
+                if(e.getType() == TApplicationException.BAD_SEQUENCE_ID) {
+                    // The rest of the response was not read, so the stream is
+                    // out of sync.
+                    throw e;
+                }
+            }
+            catch (Exception e) {
+                future.setException(e);
+            }
+        }
+
+        /**
+         * Return {@code true} if the sender must wait for the response to this
+         * call before it writes any subsequent calls.
+         *
+         * @return {@code true} if this call is a barrier
+         */
+        boolean isBarrier() {
+            return false;
+        }
+
+        /**
+         * Return {@code true} if this call should be resubmitted after the
+         * client re-authenticates.
+         *
+         * @return {@code true} if this call is retryable
+         */
+        boolean isRetryable() {
+            return true;
+        }
+
+        /**
+         * Read the response for this call using {@code client}.
+         *
+         * @param client
+         * @return the result
+         * @throws TException
+         */
+        protected abstract T read(ConcourseService.Client client)
+                throws TException;
+
+        /**
+         * Write the request for this call using {@code client}.
+         *
+         * @param client
+         * @param creds
+         * @throws TException
+         */
+        protected abstract void write(ConcourseService.Client client,
+                AccessToken creds) throws TException;
+
+    }
+
+    /**
+     * A {@link Call} that re-authenticates and refreshes the {@link #creds}.
+     * The sender waits for it to complete so that the calls that are written
+     * afterwards use the new creds. The calls that failed with the old creds
+     * are resubmitted if the login succeeds and fail with the same error
+     * otherwise.
+     *
+     * @author Jeff Nelson
+     */
+    private final class Login extends Call<AccessToken> {
+
+        /**
+         * The calls to resubmit once the login completes.
+         */
+        private final List<Call<?>> waiting = Lists.newArrayList();
+
+        @Override
+        boolean isBarrier() {
+            return true;
+        }
+
+        @Override
+        boolean isRetryable() {
+            return false;
+        }
+
+        @Override
+        protected AccessToken read(ConcourseService.Client client)
+                throws TException {
+            try {
+                creds = client.recv_login();
+                resubmit(waiting);
+                return creds;
+            }
+            catch (TException | RuntimeException e) {
+                for (Call<?> call : waiting) {
+                    call.future.setException(e);
+                }
+                throw e;
+            }
+            finally {
+                login = null;
+            }
+        }
+
+        @Override
+        protected void write(ConcourseService.Client client, AccessToken creds)
+                throws TException {
+            client.send_login(ClientSecurity.decrypt(username),
+                    ClientSecurity.decrypt(password), environment);
+        }
+
+    }
+
+    /**
+     * The loop that reads each response in the order the requests were
+     * written.
+     *
+     * @author Jeff Nelson
+     */
+    private final class Receiver implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                while (!closed.get()) {
+                    Call<?> call = inflight.take();
+                    receiver.expect(call.seqid);
+                    call.complete(receiver);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (TException e) {
+                shutdown(e);
+            }
+        }
+
+    }
+
+    /**
+     * The loop that writes the pending requests in batches and flushes the
+     * socket once per batch.
+     *
+     * @author Jeff Nelson
+     */
+    private final class Sender implements Runnable {
+
+        @Override
+        public void run() {
+            List<Call<?>> batch = Lists.newArrayListWithCapacity(MAX_BATCH_SIZE);
+            try {
+                while (!closed.get()) {
+                    // A batch ends at a barrier, so that the calls which are
+                    // added to the front of the queue while the barrier is
+                    // outstanding are written next.
+                    Call<?> next = pending.take();
+                    batch.add(next);
+                    while (!next.isBarrier() && batch.size() < MAX_BATCH_SIZE
+                            && (next = pending.poll()) != null) {
+                        batch.add(next);
+                    }
+                    socket.hold();
+                    for (Call<?> call : batch) {
+                        call.creds = creds;
+                        call.seqid = sender.getSequence() + 1;
+                        inflight.add(call);
+                        call.write(sender, call.creds);
+                        if(call.isBarrier()) {
+                            socket.release();
+                            try {
+                                call.future.get();
+                            }
+                            catch (ExecutionException e) {
+                                // The failure is reported to the caller
+                                // through the future
+                            }
+                            socket.hold();
+                        }
+                    }
+                    socket.release();
+                    batch.clear();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (TException e) {
+                shutdown(e);
+            }
+            finally {
+                for (Call<?> call : batch) {
+                    call.future.setException(new IllegalStateException(
+                            "The connection is closed"));
+                }
+            }
+        }
+
+    }
+
+    /**
+     * A {@link TTransport} that defers flushes to the socket while a batch of
+     * requests is being written, so that the batch is sent together.
+     *
+     * @author Jeff Nelson
+     */
+    private static final class BatchingTransport extends TTransport {
+
+        /**
+         * The transport that is wrapped.
+         */
+        private final TTransport delegate;
+
+        /**
+         * A flag that indicates whether flushes are deferred.
+         */
+        private boolean holding = false;
+
+        /**
+         * Construct a new instance.
+         *
+         * @param delegate
+         */
+        BatchingTransport(TTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public void flush() throws TTransportException {
+            if(!holding) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void open() throws TTransportException {
+            delegate.open();
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len)
+                throws TTransportException {
+            return delegate.read(buf, off, len);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len)
+                throws TTransportException {
+            delegate.write(buf, off, len);
+        }
+
+        /**
+         * Defer flushes until {@link #release()} is called.
+         */
+        void hold() {
+            holding = true;
+        }
+
+        /**
+         * Stop deferring flushes and flush everything that was written since
+         * {@link #hold()} was called.
+         *
+         * @throws TTransportException
+         */
+        void release() throws TTransportException {
+            holding = false;
+            delegate.flush();
+        }
+
+    }
+
+    /**
+     * A {@link ConcourseService.Client} that exposes the Thrift sequence id so
+     * that responses can be read after other requests have been written.
+     *
+     * @author Jeff Nelson
+     */
+    private static final class Pipeline extends ConcourseService.Client {
+
+        /**
+         * Construct a new instance.
+         *
+         * @param protocol
+         */
+        Pipeline(TProtocol protocol) {
+            super(protocol);
+        }
+
+        /**
+         * Set the sequence id that the next response must have.
+         *
+         * @param seqid
+         */
+        void expect(int seqid) {
+            seqid_ = seqid;
+        }
+
+        /**
+         * Return the sequence id of the most recently written request.
+         *
+         * @return the sequence id
+         */
+        int getSequence() {
+            return seqid_;
+        }
+
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TCommand;
+import org.cinchapi.concourse.thrift.TCommandVerb;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.util.Convert;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * A {@link Command} is a single operation that can be sent to Concourse
+ * together with others in a {@link Concourse#batch(List) batch}, so that all
+ * of the operations only cost one round trip to the server.
+ * <p>
+ * Each factory method mirrors the {@link Concourse} method of the same name,
+ * and the result of each command in a batch has the same type that the
+ * mirrored method returns.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+@Immutable
+public final class Command {
+
+    /**
+     * Return a command that adds {@code key} as {@code value} to
+     * {@code record} if it is not already contained. The result of the
+     * command is a {@link Boolean} that indicates if {@code value} is added.
+     * 
+     * @param key
+     * @param value
+     * @param record
+     * @return the Command
+     */
+    public static Command add(String key, Object value, long record) {
+        return new Command(TCommandVerb.ADD, key, record, null, value);
+    }
+
+    /**
+     * Return a command that describes {@code record}. The result of the
+     * command is the {@link Set} of keys that have at least one value.
+     * 
+     * @param record
+     * @return the Command
+     */
+    public static Command describe(long record) {
+        return new Command(TCommandVerb.DESCRIBE, null, record, null);
+    }
+
+    /**
+     * Return a command that finds {@code key} {@code operator} each of the
+     * {@code values}. The result of the command is the {@link Set} of records
+     * that match.
+     * 
+     * @param key
+     * @param operator
+     * @param values
+     * @return the Command
+     */
+    public static Command find(String key, Operator operator, Object... values) {
+        return new Command(TCommandVerb.FIND, key, 0, operator, values);
+    }
+
+    /**
+     * Return a command that gets {@code key} from {@code record}. The result
+     * of the command is the most recently added value, or {@code null} if
+     * there is none.
+     * 
+     * @param key
+     * @param record
+     * @return the Command
+     */
+    public static Command get(String key, long record) {
+        return new Command(TCommandVerb.GET, key, record, null);
+    }
+
+    /**
+     * Return a command that removes {@code key} as {@code value} from
+     * {@code record} if it is contained. The result of the command is a
+     * {@link Boolean} that indicates if {@code value} is removed.
+     * 
+     * @param key
+     * @param value
+     * @param record
+     * @return the Command
+     */
+    public static Command remove(String key, Object value, long record) {
+        return new Command(TCommandVerb.REMOVE, key, record, null, value);
+    }
+
+    /**
+     * Return a command that searches {@code key} for {@code query}. The
+     * result of the command is the {@link Set} of records that match.
+     * 
+     * @param key
+     * @param query
+     * @return the Command
+     */
+    public static Command search(String key, String query) {
+        return new Command(TCommandVerb.SEARCH, key, 0, null, query);
+    }
+
+    /**
+     * Return a command that selects {@code key} from {@code record}. The
+     * result of the command is the {@link Set} of contained values.
+     * 
+     * @param key
+     * @param record
+     * @return the Command
+     */
+    public static Command select(String key, long record) {
+        return new Command(TCommandVerb.SELECT, key, record, null);
+    }
+
+    /**
+     * Return a command that sets {@code key} as {@code value} in
+     * {@code record}. The result of the command is always {@code null}.
+     * 
+     * @param key
+     * @param value
+     * @param record
+     * @return the Command
+     */
+    public static Command set(String key, Object value, long record) {
+        return new Command(TCommandVerb.SET, key, record, null, value);
+    }
+
+    /**
+     * Return a command that verifies {@code key} equals {@code value} in
+     * {@code record}. The result of the command is a {@link Boolean} that
+     * indicates if {@code value} is currently contained.
+     * 
+     * @param key
+     * @param value
+     * @param record
+     * @return the Command
+     */
+    public static Command verify(String key, Object value, long record) {
+        return new Command(TCommandVerb.VERIFY, key, record, null, value);
+    }
+
+    /**
+     * The representation of this command that is sent to the server.
+     */
+    private final TCommand command;
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param verb
+     * @param key
+     * @param record
+     * @param operator
+     * @param values
+     */
+    private Command(TCommandVerb verb, String key, long record,
+            Operator operator, Object... values) {
+        List<TObject> tValues = Lists.newArrayListWithCapacity(values.length);
+        for (Object value : values) {
+            tValues.add(Convert.javaToThrift(value));
+        }
+        this.command = new TCommand(verb, key, tValues, record, operator);
+    }
+
+    @Override
+    public String toString() {
+        return command.toString();
+    }
+
+    /**
+     * Return the representation of this command that is sent to the server.
+     * 
+     * @return the TCommand
+     */
+    TCommand getThriftCommand() {
+        return command;
+    }
+
+    /**
+     * Convert the {@code result} that the server returned for this command to
+     * the type that the mirrored {@link Concourse} method returns.
+     * 
+     * @param result
+     * @return the converted result
+     */
+    Object toJava(List<TObject> result) {
+        switch (command.getVerb()) {
+        case ADD:
+        case REMOVE:
+        case VERIFY:
+            return Convert.thriftToJava(result.get(0));
+        case SET:
+            return null;
+        case GET:
+            return result.isEmpty() ? null : Convert.thriftToJava(result
+                    .get(0));
+        default:
+            Set<Object> values = Sets.newLinkedHashSetWithExpectedSize(result
+                    .size());
+            for (TObject value : result) {
+                values.add(Convert.thriftToJava(value));
+            }
+            return values;
+        }
+    }
+
+}
@@ -17,6 +17,7 @@ package org.cinchapi.concourse;
 
 import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -29,6 +30,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TSocket;
 import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
@@ -41,6 +43,7 @@ import org.cinchapi.concourse.security.ClientSecurity;
 import org.cinchapi.concourse.thrift.AccessToken;
 import org.cinchapi.concourse.thrift.ConcourseService;
 import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TCommand;
 import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.thrift.TSecurityException;
 import org.cinchapi.concourse.thrift.TTransactionException;
@@ -49,13 +52,17 @@ import org.cinchapi.concourse.time.Time;
 import org.cinchapi.concourse.util.Collections;
 import org.cinchapi.concourse.util.Conversions;
 import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.CopyingBinaryProtocol;
 import org.cinchapi.concourse.util.PrettyLinkedTableMap;
 import org.cinchapi.concourse.util.Transformers;
 import org.cinchapi.concourse.util.PrettyLinkedHashMap;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -181,6 +188,26 @@ public abstract class Concourse implements AutoCloseable {
         return new Client(host, port, username, password, environment);
     }
 
+    /**
+     * Return the framings that a client should try, in order, when it connects
+     * to the server, based on the {@code transport} pref in
+     * {@code concourse_client.prefs}. A value of {@code true} means that the
+     * client should use framed transport.
+     * 
+     * @return the framings to try
+     */
+    static boolean[] getTransportFramings() {
+        if(Client.TRANSPORT.equalsIgnoreCase("framed")) {
+            return new boolean[] { true };
+        }
+        else if(Client.TRANSPORT.equalsIgnoreCase("unframed")) {
+            return new boolean[] { false };
+        }
+        else {
+            return new boolean[] { false, true };
+        }
+    }
+
     /**
      * Discard any changes that are currently staged for commit.
      * <p>
@@ -235,7 +262,7 @@ public abstract class Concourse implements AutoCloseable {
 
     /**
      * Audit {@code record} and return a log of revisions.
-     *
+     * 
      * @param record
      * @param start
      * @return a mapping from timestamp to a description of a revision
@@ -244,7 +271,7 @@ public abstract class Concourse implements AutoCloseable {
 
     /**
      * Audit {@code record} and return a log of revisions.
-     *
+     * 
      * @param record
      * @param start
      * @param end
@@ -285,6 +312,30 @@ public abstract class Concourse implements AutoCloseable {
     public abstract Map<Timestamp, String> audit(String key, long record,
             Timestamp start, Timestamp end);
 
+    /**
+     * Execute all of the {@code commands}, in order, using a single round trip
+     * to the server and return the result of each command.
+     * 
+     * @param commands
+     * @return the result of each command, in the same order as the
+     *         {@code commands}
+     */
+    public abstract List<Object> batch(List<Command> commands);
+
+    /**
+     * Execute all of the {@code commands}, in order, using a single round trip
+     * to the server and return the result of each command. If {@code atomic}
+     * is {@code true}, the commands are applied together as a single atomic
+     * operation so that no other client can observe or interleave with a
+     * partially executed batch.
+     * 
+     * @param commands
+     * @param atomic
+     * @return the result of each command, in the same order as the
+     *         {@code commands}
+     */
+    public abstract List<Object> batch(List<Command> commands, boolean atomic);
+
     /**
      * Browse all of the {@code keys} and return all the data that is indexed as
      * a mapping from value to the set of records containing the value for each
@@ -567,6 +618,34 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract Set<Long> find(Criteria criteria);
 
+    /**
+     * Find the records that satisfy the {@code criteria}, sort them by their
+     * values for the {@code order} key and return the page of at most
+     * {@code limit} records that starts at {@code offset}. This is analogous
+     * to the ORDER BY, OFFSET and LIMIT clauses in SQL.
+     * <p>
+     * A record that contains multiple values for {@code order} is sorted by
+     * its smallest value (or its largest value if {@code descending}) and the
+     * records that do not contain {@code order} come last. The sort happens on
+     * the server, so only the records in the page are returned.
+     * </p>
+     * <p>
+     * The server reads the values for {@code order} in every matching record
+     * to sort them. The cost of each call is therefore proportional to the
+     * number of matching records, no matter how small the page is or where it
+     * starts.
+     * </p>
+     * 
+     * @param criteria
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the records in the page, in order
+     */
+    public abstract List<Long> find(Criteria criteria, String order,
+            boolean descending, int offset, int limit);
+
     /**
      * Find and return the set of records that satisfy the {@code criteria}.
      * This is analogous to the SELECT action in SQL.
@@ -588,6 +667,22 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract Set<Long> find(String ccl);
 
+    /**
+     * Find the records that satisfy the {@code ccl} criteria, sort them by
+     * their values for the {@code order} key and return the page of at most
+     * {@code limit} records that starts at {@code offset}.
+     * 
+     * @param ccl
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the records in the page, in order
+     * @see #find(Criteria, String, boolean, int, int)
+     */
+    public abstract List<Long> find(String ccl, String order,
+            boolean descending, int offset, int limit);
+
     /**
      * Find and return the set of records where {@code key} is equal to
      * {@code value}. This method is a shortcut for calling
@@ -1280,6 +1375,43 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract Set<Long> search(String key, String query);
 
+    /**
+     * Search {@code key} for {@code query} and return the {@code limit}
+     * highest scoring records that match, after skipping the first
+     * {@code offset} of them, mapped to their scores. The score of a record is
+     * the number of times that {@code query} occurs in the values that are
+     * stored for {@code key}, and the returned map is sorted from the highest
+     * to the lowest score.
+     * 
+     * @param key
+     * @param query
+     * @param limit
+     * @param offset
+     * @return a page of the records that match the query mapped to their
+     *         scores
+     */
+    public abstract Map<Long, Integer> searchRanked(String key, String query,
+            int limit, int offset);
+
+    /**
+     * Search {@code key} for {@code query} and return the {@code limit}
+     * highest scoring records that match with a score of at least
+     * {@code minScore}, after skipping the first {@code offset} of them, mapped
+     * to their scores. The score of a record is the number of times that
+     * {@code query} occurs in the values that are stored for {@code key}, and
+     * the returned map is sorted from the highest to the lowest score.
+     * 
+     * @param key
+     * @param query
+     * @param limit
+     * @param offset
+     * @param minScore
+     * @return a page of the records that match the query mapped to their
+     *         scores
+     */
+    public abstract Map<Long, Integer> searchRanked(String key, String query,
+            int limit, int offset, int minScore);
+
     /**
      * Select the {@code records} and return a mapping from each record to all
      * the data that is contained as a mapping from key name to value set.
@@ -1440,6 +1572,24 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract <T> Map<Long, Map<String, Set<T>>> select(Criteria criteria);
 
+    /**
+     * Select all of the values for every key in the page of at most
+     * {@code limit} records that starts at {@code offset} when the records
+     * that match {@code criteria} are sorted by their values for the
+     * {@code order} key.
+     * 
+     * @param criteria
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the result set, in order
+     * @see #find(Criteria, String, boolean, int, int)
+     */
+    public abstract <T> Map<Long, Map<String, Set<T>>> select(
+            Criteria criteria, String order, boolean descending, int offset,
+            int limit);
+
     /**
      * Select all of the values for every key at {@code timestamp} in all the
      * records that match {@code criteria}.
@@ -1513,6 +1663,23 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract <T> Map<Long, Map<String, Set<T>>> select(String ccl);
 
+    /**
+     * Select all of the values for every key in the page of at most
+     * {@code limit} records that starts at {@code offset} when the records
+     * that match the {@code ccl} criteria are sorted by their values for the
+     * {@code order} key.
+     * 
+     * @param ccl
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the result set, in order
+     * @see #find(Criteria, String, boolean, int, int)
+     */
+    public abstract <T> Map<Long, Map<String, Set<T>>> select(String ccl,
+            String order, boolean descending, int offset, int limit);
+
     /**
      * Select {@code key} from each of the {@code records} and return a mapping
      * from each record to contained values.
@@ -1696,6 +1863,69 @@ public abstract class Concourse implements AutoCloseable {
      */
     public abstract void stage() throws TransactionException;
 
+    /**
+     * Stream all of the values for every key in all the records that match
+     * {@code criteria}.
+     * <p>
+     * Unlike {@link #select(Criteria)}, the result set is not returned all at
+     * once. The returned {@link CursorIterator} lazily fetches the records
+     * from the server one page at a time, so the entire result set never needs
+     * to fit in memory on the client or the server. Every page reflects the
+     * data as it was when this method was called.
+     * </p>
+     * <p>
+     * The server keeps a cursor open until the last record is fetched. If the
+     * iterator is abandoned before then, {@link CursorIterator#close()} it to
+     * release the cursor; otherwise it is released after it has been idle for
+     * a while, after which the iterator fails.
+     * </p>
+     * 
+     * @param criteria
+     * @return an iterator over each matching record and its data
+     */
+    public abstract <T> CursorIterator<T> stream(Criteria criteria);
+
+    /**
+     * Stream all of the values for every key in all the records that match
+     * {@code criteria}, fetching {@code pageSize} records from the server at a
+     * time.
+     * 
+     * @param criteria
+     * @param pageSize
+     * @return an iterator over each matching record and its data
+     * @see #stream(Criteria)
+     */
+    public abstract <T> CursorIterator<T> stream(
+            Criteria criteria, int pageSize);
+
+    /**
+     * Stream all of the values for each of the {@code keys} in all the records
+     * that match {@code criteria}. If {@code keys} is empty, only the matching
+     * records are streamed, which is the streaming equivalent of
+     * {@link #find(Criteria)}.
+     * 
+     * @param keys
+     * @param criteria
+     * @return an iterator over each matching record and its data
+     * @see #stream(Criteria)
+     */
+    public abstract <T> CursorIterator<T> stream(
+            Collection<String> keys, Criteria criteria);
+
+    /**
+     * Stream all of the values for each of the {@code keys} in all the records
+     * that match {@code criteria}, fetching {@code pageSize} records from the
+     * server at a time.
+     * 
+     * @param keys
+     * @param criteria
+     * @param pageSize
+     * @return an iterator over each matching record and its data
+     * @see #stream(Collection, Criteria)
+     */
+    public abstract <T> CursorIterator<T> stream(
+            Collection<String> keys, Criteria criteria, int pageSize);
+
     /**
      * Remove link from {@code key} in {@code source} to {@code destination}.
      * 
@@ -1799,6 +2029,12 @@ public abstract class Concourse implements AutoCloseable {
      */
     private final static class Client extends Concourse {
 
+        /**
+         * The number of records that are fetched from the server at a time
+         * when a result set is streamed without an explicit page size.
+         */
+        private static final int DEFAULT_PAGE_SIZE = 1000;
+
         private static String ENVIRONMENT;
         private static String PASSWORD;
         // NOTE: The configuration variables are static because we want to
@@ -1808,6 +2044,7 @@ public abstract class Concourse implements AutoCloseable {
         // immediately for new client connections.
         private static String SERVER_HOST;
         private static int SERVER_PORT;
+        private static String TRANSPORT;
         private static String USERNAME;
         static {
             ConcourseConfiguration config;
@@ -1823,12 +2060,14 @@ public abstract class Concourse implements AutoCloseable {
             USERNAME = "admin";
             PASSWORD = "admin";
             ENVIRONMENT = "";
+            TRANSPORT = "auto";
             if(config != null) {
                 SERVER_HOST = config.getString("host", SERVER_HOST);
                 SERVER_PORT = config.getInt("port", SERVER_PORT);
                 USERNAME = config.getString("username", USERNAME);
                 PASSWORD = config.getString("password", PASSWORD);
                 ENVIRONMENT = config.getString("environment", ENVIRONMENT);
+                TRANSPORT = config.getString("transport", TRANSPORT);
             }
         }
 
@@ -1931,29 +2170,20 @@ public abstract class Concourse implements AutoCloseable {
             this.username = ClientSecurity.encrypt(username);
             this.password = ClientSecurity.encrypt(password);
             this.environment = environment;
-            final TTransport transport = new TSocket(host, port);
-            try {
-                transport.open();
-                TProtocol protocol = new TBinaryProtocol(transport);
-                client = new ConcourseService.Client(protocol);
-                authenticate();
-                Runtime.getRuntime().addShutdownHook(new Thread("shutdown") {
+            this.client = connect(host, port);
+            final TTransport transport = client.getOutputProtocol()
+                    .getTransport();
+            Runtime.getRuntime().addShutdownHook(new Thread("shutdown") {
 
-                    @Override
-                    public void run() {
-                        if(transaction != null && transport.isOpen()) {
-                            abort();
-                            transport.close();
-                        }
+                @Override
+                public void run() {
+                    if(transaction != null && transport.isOpen()) {
+                        abort();
+                        transport.close();
                     }
+                }
 
-                });
-            }
-            catch (TTransportException e) {
-                throw new RuntimeException(
-                        "Could not connect to the Concourse Server at " + host
-                                + ":" + port);
-            }
+            });
         }
 
         @Override
@@ -2140,6 +2370,37 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public List<Object> batch(List<Command> commands) {
+            return batch(commands, false);
+        }
+
+        @Override
+        public List<Object> batch(final List<Command> commands,
+                final boolean atomic) {
+            return execute(new Callable<List<Object>>() {
+
+                @Override
+                public List<Object> call() throws Exception {
+                    List<TCommand> tcommands = Lists
+                            .newArrayListWithCapacity(commands.size());
+                    for (Command command : commands) {
+                        tcommands.add(command.getThriftCommand());
+                    }
+                    List<List<TObject>> results = client.executeCommands(
+                            tcommands, atomic, creds, transaction,
+                            environment);
+                    List<Object> batch = Lists.newArrayListWithCapacity(results
+                            .size());
+                    for (int i = 0; i < results.size(); i++) {
+                        batch.add(commands.get(i).toJava(results.get(i)));
+                    }
+                    return batch;
+                }
+
+            });
+        }
+
         @Override
         public Map<String, Map<Object, Set<Long>>> browse(
                 final Collection<String> keys) {
@@ -2633,6 +2894,22 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public List<Long> find(final Criteria criteria, final String order,
+                final boolean descending, final int offset, final int limit) {
+            return execute(new Callable<List<Long>>() {
+
+                @Override
+                public List<Long> call() throws Exception {
+                    return client.findCriteriaPage(
+                            Language.translateToThriftCriteria(criteria),
+                            order, descending, offset, limit, creds,
+                            transaction, environment);
+                }
+
+            });
+        }
+
         @Override
         public Set<Long> find(Object object) {
             if(object instanceof BuildableState) {
@@ -2656,6 +2933,20 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public List<Long> find(final String ccl, final String order,
+                final boolean descending, final int offset, final int limit) {
+            return execute(new Callable<List<Long>>() {
+
+                @Override
+                public List<Long> call() throws Exception {
+                    return client.findCclPage(ccl, order, descending, offset,
+                            limit, creds, transaction, environment);
+                }
+
+            });
+        }
+
         @Override
         public Set<Long> find(String key, Object value) {
             return find0(key, Operator.EQUALS, value);
@@ -3556,6 +3847,27 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public Map<Long, Integer> searchRanked(String key, String query,
+                int limit, int offset) {
+            return searchRanked(key, query, limit, offset, 0);
+        }
+
+        @Override
+        public Map<Long, Integer> searchRanked(final String key,
+                final String query, final int limit, final int offset,
+                final int minScore) {
+            return execute(new Callable<Map<Long, Integer>>() {
+
+                @Override
+                public Map<Long, Integer> call() throws Exception {
+                    return client.searchRanked(key, query, limit, offset,
+                            minScore, creds, transaction, environment);
+                }
+
+            });
+        }
+
         @Override
         public Map<Long, Map<String, Set<Object>>> select(
                 final Collection<Long> records) {
@@ -3866,6 +4178,34 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public <T> Map<Long, Map<String, Set<T>>> select(
+                final Criteria criteria, final String order,
+                final boolean descending, final int offset, final int limit) {
+            return execute(new Callable<Map<Long, Map<String, Set<T>>>>() {
+
+                @Override
+                public Map<Long, Map<String, Set<T>>> call() throws Exception {
+                    Map<Long, Map<String, Set<TObject>>> raw = client
+                            .selectCriteriaPage(Language
+                                    .translateToThriftCriteria(criteria),
+                                    order, descending, offset, limit, creds,
+                                    transaction, environment);
+                    Map<Long, Map<String, Set<T>>> pretty = PrettyLinkedTableMap
+                            .newPrettyLinkedTableMap("Record");
+                    for (Entry<Long, Map<String, Set<TObject>>> entry : raw
+                            .entrySet()) {
+                        pretty.put(entry.getKey(), Transformers
+                                .transformMapSet(entry.getValue(),
+                                        Conversions.<String> none(),
+                                        Conversions.<T> thriftToJavaCasted()));
+                    }
+                    return pretty;
+                }
+
+            });
+        }
+
         @Override
         public <T> Map<Long, Map<String, Set<T>>> select(
                 final Criteria criteria, final Timestamp timestamp) {
@@ -3979,6 +4319,32 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public <T> Map<Long, Map<String, Set<T>>> select(final String ccl,
+                final String order, final boolean descending,
+                final int offset, final int limit) {
+            return execute(new Callable<Map<Long, Map<String, Set<T>>>>() {
+
+                @Override
+                public Map<Long, Map<String, Set<T>>> call() throws Exception {
+                    Map<Long, Map<String, Set<TObject>>> raw = client
+                            .selectCclPage(ccl, order, descending, offset,
+                                    limit, creds, transaction, environment);
+                    Map<Long, Map<String, Set<T>>> pretty = PrettyLinkedTableMap
+                            .newPrettyLinkedTableMap("Record");
+                    for (Entry<Long, Map<String, Set<TObject>>> entry : raw
+                            .entrySet()) {
+                        pretty.put(entry.getKey(), Transformers
+                                .transformMapSet(entry.getValue(),
+                                        Conversions.<String> none(),
+                                        Conversions.<T> thriftToJavaCasted()));
+                    }
+                    return pretty;
+                }
+
+            });
+        }
+
         @Override
         public <T> Map<Long, Set<T>> select(final String key,
                 final Collection<Long> records) {
@@ -4241,6 +4607,55 @@ public abstract class Concourse implements AutoCloseable {
             });
         }
 
+        @Override
+        public <T> CursorIterator<T> stream(Criteria criteria) {
+            return stream(criteria, DEFAULT_PAGE_SIZE);
+        }
+
+        @Override
+        public <T> CursorIterator<T> stream(
+                final Criteria criteria, int pageSize) {
+            Preconditions.checkArgument(pageSize > 0,
+                    "The page size must be positive");
+            long cursor = execute(new Callable<Long>() {
+
+                @Override
+                public Long call() throws Exception {
+                    return client.openCursorCriteria(
+                            Language.translateToThriftCriteria(criteria),
+                            creds, transaction, environment);
+                }
+
+            });
+            return new ServerCursorIterator<T>(cursor, pageSize);
+        }
+
+        @Override
+        public <T> CursorIterator<T> stream(
+                Collection<String> keys, Criteria criteria) {
+            return stream(keys, criteria, DEFAULT_PAGE_SIZE);
+        }
+
+        @Override
+        public <T> CursorIterator<T> stream(
+                final Collection<String> keys, final Criteria criteria,
+                int pageSize) {
+            Preconditions.checkArgument(pageSize > 0,
+                    "The page size must be positive");
+            long cursor = execute(new Callable<Long>() {
+
+                @Override
+                public Long call() throws Exception {
+                    return client.openCursorKeysCriteria(
+                            Lists.newArrayList(keys),
+                            Language.translateToThriftCriteria(criteria),
+                            creds, transaction, environment);
+                }
+
+            });
+            return new ServerCursorIterator<T>(cursor, pageSize);
+        }
+
         @Override
         public String toString() {
             return "Connected to " + host + ":" + port + " as "
@@ -4328,6 +4743,146 @@ public abstract class Concourse implements AutoCloseable {
             }
         }
 
+        /**
+         * Open a connection to the server at {@code host}:{@code port},
+         * authenticate and return the Thrift client for the connection.
+         * <p>
+         * A server that uses non-blocking I/O only understands framed
+         * transport whereas a thread-per-connection server only understands
+         * unframed transport. Unless the {@code transport} pref is set to
+         * {@code framed} or {@code unframed}, the client first tries unframed
+         * transport and falls back to framed transport if the server drops
+         * the connection. Unframed transport is tried first because a
+         * non-blocking server immediately drops an unframed request, whereas
+         * a thread-per-connection server would wait for the rest of a framed
+         * request.
+         * </p>
+         * 
+         * @param host
+         * @param port
+         * @return the Thrift client
+         */
+        private ConcourseService.Client connect(String host, int port) {
+            TTransportException failure = null;
+            for (boolean framed : getTransportFramings()) {
+                TTransport transport = new TSocket(host, port);
+                if(framed) {
+                    transport = new TFramedTransport(transport);
+                }
+                try {
+                    transport.open();
+                    TProtocol protocol = framed ? new CopyingBinaryProtocol(
+                            transport) : new TBinaryProtocol(transport);
+                    ConcourseService.Client client = new ConcourseService.Client(
+                            protocol);
+                    creds = client.login(ClientSecurity.decrypt(username),
+                            ClientSecurity.decrypt(password), environment);
+                    return client;
+                }
+                catch (TTransportException e) {
+                    transport.close();
+                    failure = e;
+                }
+                catch (TException e) {
+                    transport.close();
+                    throw Throwables.propagate(e);
+                }
+            }
+            throw new RuntimeException(
+                    "Could not connect to the Concourse Server at " + host
+                            + ":" + port, failure);
+        }
+
+        /**
+         * A {@link CursorIterator} over the rows of a cursor on the server that
+         * fetches the next page of rows whenever the current one is consumed.
+         * 
+         * @author Jeff Nelson
+         */
+        private final class ServerCursorIterator<T> extends
+                AbstractIterator<Entry<Long, Map<String, Set<T>>>> implements
+                CursorIterator<T> {
+
+            /**
+             * The id of the cursor on the server.
+             */
+            private final long cursor;
+
+            /**
+             * A flag that indicates whether the server has returned the last
+             * page, after which it closes the cursor, or the cursor has been
+             * {@link #close() closed} by the client.
+             */
+            private boolean exhausted = false;
+
+            /**
+             * The rows in the current page that have not been returned yet.
+             */
+            private Iterator<Entry<Long, Map<String, Set<TObject>>>> page = Iterators
+                    .emptyIterator();
+
+            /**
+             * The number of rows to fetch in each page.
+             */
+            private final int pageSize;
+
+            /**
+             * Construct a new instance.
+             * 
+             * @param cursor
+             * @param pageSize
+             */
+            ServerCursorIterator(long cursor, int pageSize) {
+                this.cursor = cursor;
+                this.pageSize = pageSize;
+            }
+
+            @Override
+            public void close() {
+                page = Iterators.emptyIterator();
+                if(!exhausted) {
+                    exhausted = true;
+                    execute(new Callable<Void>() {
+
+                        @Override
+                        public Void call() throws Exception {
+                            client.closeCursor(cursor, creds, transaction,
+                                    environment);
+                            return null;
+                        }
+
+                    });
+                }
+            }
+
+            @Override
+            protected Entry<Long, Map<String, Set<T>>> computeNext() {
+                while (!page.hasNext()) {
+                    if(exhausted) {
+                        return endOfData();
+                    }
+                    Map<Long, Map<String, Set<TObject>>> rows = execute(new Callable<Map<Long, Map<String, Set<TObject>>>>() {
+
+                        @Override
+                        public Map<Long, Map<String, Set<TObject>>> call()
+                                throws Exception {
+                            return client.fetchCursor(cursor, pageSize, creds,
+                                    transaction, environment);
+                        }
+
+                    });
+                    exhausted = rows.size() < pageSize;
+                    page = rows.entrySet().iterator();
+                }
+                Entry<Long, Map<String, Set<TObject>>> row = page.next();
+                return Maps.immutableEntry(row.getKey(), Transformers
+                        .transformMapSet(row.getValue(),
+                                Conversions.<String> none(),
+                                Conversions.<T> thriftToJavaCasted()));
+            }
+
+        }
+
         /**
          * Execute the task defined in {@code callable}. This method contains
          * retry logic to handle cases when {@code creds} expires and must be
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * An {@link Iterator} over the records in a result set that is streamed from
+ * a cursor on the server.
+ * <p>
+ * The server releases the cursor once the last record has been returned. A
+ * client that stops iterating early should {@link #close()} the iterator so
+ * that the server can release the cursor right away instead of waiting for it
+ * to expire.
+ * </p>
+ *
+ * <pre>
+ * try (CursorIterator&lt;Object&gt; it = concourse.stream(criteria)) {
+ *     while (it.hasNext()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Jeff Nelson
+ */
+public interface CursorIterator<T> extends
+        Iterator<Entry<Long, Map<String, Set<T>>>>,
+        AutoCloseable {
+
+    /**
+     * Release the cursor on the server. After this method is called, the
+     * iterator does not return any more records. Calling this method more than
+     * once has no effect.
+     */
+    @Override
+    public void close();
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.util;
+
+import java.nio.ByteBuffer;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TTransport;
+
+/**
+ * A {@link TBinaryProtocol} that copies each binary field into its own array.
+ * <p>
+ * When the transport exposes its read buffer (i.e. a framed transport), the
+ * stock protocol returns binary fields as a view of the entire frame whose
+ * position is the offset of the field. Code that calls
+ * {@link ByteBuffer#rewind()} or {@link ByteBuffer#array()} on such a buffer
+ * sees the rest of the frame, so binary fields that are read from framed
+ * transports must go through this protocol instead.
+ * </p>
+ *
+ * @author Jeff Nelson
+ */
+public class CopyingBinaryProtocol extends TBinaryProtocol {
+
+    /**
+     * Construct a new instance.
+     *
+     * @param transport
+     */
+    public CopyingBinaryProtocol(TTransport transport) {
+        super(transport);
+    }
+
+    @Override
+    public ByteBuffer readBinary() throws TException {
+        ByteBuffer view = super.readBinary();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * A {@link TProtocolFactory} for {@link CopyingBinaryProtocol}.
+     *
+     * @author Jeff Nelson
+     */
+    public static class Factory implements TProtocolFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public TProtocol getProtocol(TTransport transport) {
+            return new CopyingBinaryProtocol(transport);
+        }
+
+    }
+
+}
@@ -37,6 +37,33 @@ final class TSymbolType {
   );
 }
 
+/**
+ * A representation for an enum that declares the operation that a TCommand
+ * performs.
+ */
+final class TCommandVerb {
+  const ADD = 1;
+  const REMOVE = 2;
+  const SET = 3;
+  const VERIFY = 4;
+  const GET = 5;
+  const SELECT = 6;
+  const DESCRIBE = 7;
+  const FIND = 8;
+  const SEARCH = 9;
+  static public $__names = array(
+    1 => 'ADD',
+    2 => 'REMOVE',
+    3 => 'SET',
+    4 => 'VERIFY',
+    5 => 'GET',
+    6 => 'SELECT',
+    7 => 'DESCRIBE',
+    8 => 'FIND',
+    9 => 'SEARCH',
+  );
+}
+
 /**
  * A lightweight wrapper for a typed Object that has been encoded
  * as binary data.
@@ -352,4 +379,204 @@ class TCriteria {
 
 }
 
+/**
+ * A representation for a single operation that can be passed over the wire
+ * in a batch via Thrift. The verb determines which of the other fields the
+ * server reads when it executes the command.
+ */
+class TCommand {
+  static $_TSPEC;
+
+  /**
+   * @var int
+   */
+  public $verb = null;
+  /**
+   * @var string
+   */
+  public $key = null;
+  /**
+   * @var \thrift\data\TObject[]
+   */
+  public $values = null;
+  /**
+   * @var int
+   */
+  public $record = null;
+  /**
+   * @var int
+   */
+  public $operator = null;
+
+  public function __construct($vals=null) {
+    if (!isset(self::$_TSPEC)) {
+      self::$_TSPEC = array(
+        1 => array(
+          'var' => 'verb',
+          'type' => TType::I32,
+          ),
+        2 => array(
+          'var' => 'key',
+          'type' => TType::STRING,
+          ),
+        3 => array(
+          'var' => 'values',
+          'type' => TType::LST,
+          'etype' => TType::STRUCT,
+          'elem' => array(
+            'type' => TType::STRUCT,
+            'class' => '\thrift\data\TObject',
+            ),
+          ),
+        4 => array(
+          'var' => 'record',
+          'type' => TType::I64,
+          ),
+        5 => array(
+          'var' => 'operator',
+          'type' => TType::I32,
+          ),
+        );
+    }
+    if (is_array($vals)) {
+      if (isset($vals['verb'])) {
+        $this->verb = $vals['verb'];
+      }
+      if (isset($vals['key'])) {
+        $this->key = $vals['key'];
+      }
+      if (isset($vals['values'])) {
+        $this->values = $vals['values'];
+      }
+      if (isset($vals['record'])) {
+        $this->record = $vals['record'];
+      }
+      if (isset($vals['operator'])) {
+        $this->operator = $vals['operator'];
+      }
+    }
+  }
+
+  public function getName() {
+    return 'TCommand';
+  }
+
+  public function read($input)
+  {
+    $xfer = 0;
+    $fname = null;
+    $ftype = 0;
+    $fid = 0;
+    $xfer += $input->readStructBegin($fname);
+    while (true)
+    {
+      $xfer += $input->readFieldBegin($fname, $ftype, $fid);
+      if ($ftype == TType::STOP) {
+        break;
+      }
+      switch ($fid)
+      {
+        case 1:
+          if ($ftype == TType::I32) {
+            $xfer += $input->readI32($this->verb);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
+        case 2:
+          if ($ftype == TType::STRING) {
+            $xfer += $input->readString($this->key);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
+        case 3:
+          if ($ftype == TType::LST) {
+            $this->values = array();
+            $_size7 = 0;
+            $_etype10 = 0;
+            $xfer += $input->readListBegin($_etype10, $_size7);
+            for ($_i11 = 0; $_i11 < $_size7; ++$_i11)
+            {
+              $elem12 = null;
+              $elem12 = new \thrift\data\TObject();
+              $xfer += $elem12->read($input);
+              $this->values []= $elem12;
+            }
+            $xfer += $input->readListEnd();
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
+        case 4:
+          if ($ftype == TType::I64) {
+            $xfer += $input->readI64($this->record);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
+        case 5:
+          if ($ftype == TType::I32) {
+            $xfer += $input->readI32($this->operator);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
+        default:
+          $xfer += $input->skip($ftype);
+          break;
+      }
+      $xfer += $input->readFieldEnd();
+    }
+    $xfer += $input->readStructEnd();
+    return $xfer;
+  }
+
+  public function write($output) {
+    $xfer = 0;
+    $xfer += $output->writeStructBegin('TCommand');
+    if ($this->verb !== null) {
+      $xfer += $output->writeFieldBegin('verb', TType::I32, 1);
+      $xfer += $output->writeI32($this->verb);
+      $xfer += $output->writeFieldEnd();
+    }
+    if ($this->key !== null) {
+      $xfer += $output->writeFieldBegin('key', TType::STRING, 2);
+      $xfer += $output->writeString($this->key);
+      $xfer += $output->writeFieldEnd();
+    }
+    if ($this->values !== null) {
+      if (!is_array($this->values)) {
+        throw new TProtocolException('Bad type in structure.', TProtocolException::INVALID_DATA);
+      }
+      $xfer += $output->writeFieldBegin('values', TType::LST, 3);
+      {
+        $output->writeListBegin(TType::STRUCT, count($this->values));
+        {
+          foreach ($this->values as $iter13)
+          {
+            $xfer += $iter13->write($output);
+          }
+        }
+        $output->writeListEnd();
+      }
+      $xfer += $output->writeFieldEnd();
+    }
+    if ($this->record !== null) {
+      $xfer += $output->writeFieldBegin('record', TType::I64, 4);
+      $xfer += $output->writeI64($this->record);
+      $xfer += $output->writeFieldEnd();
+    }
+    if ($this->operator !== null) {
+      $xfer += $output->writeFieldBegin('operator', TType::I32, 5);
+      $xfer += $output->writeI32($this->operator);
+      $xfer += $output->writeFieldEnd();
+    }
+    $xfer += $output->writeFieldStop();
+    $xfer += $output->writeStructEnd();
+    return $xfer;
+  }
+
+}
+
 
@@ -47,6 +47,45 @@ class TSymbolType:
     "TIMESTAMP": 6,
   }
 
+class TCommandVerb:
+  """
+  A representation for an enum that declares the operation that a TCommand
+  performs.
+  """
+  ADD = 1
+  REMOVE = 2
+  SET = 3
+  VERIFY = 4
+  GET = 5
+  SELECT = 6
+  DESCRIBE = 7
+  FIND = 8
+  SEARCH = 9
+
+  _VALUES_TO_NAMES = {
+    1: "ADD",
+    2: "REMOVE",
+    3: "SET",
+    4: "VERIFY",
+    5: "GET",
+    6: "SELECT",
+    7: "DESCRIBE",
+    8: "FIND",
+    9: "SEARCH",
+  }
+
+  _NAMES_TO_VALUES = {
+    "ADD": 1,
+    "REMOVE": 2,
+    "SET": 3,
+    "VERIFY": 4,
+    "GET": 5,
+    "SELECT": 6,
+    "DESCRIBE": 7,
+    "FIND": 8,
+    "SEARCH": 9,
+  }
+
 
 class TObject:
   """
@@ -300,3 +339,135 @@ class TCriteria:
 
   def __ne__(self, other):
     return not (self == other)
+
+class TCommand:
+  """
+  A representation for a single operation that can be passed over the wire
+  in a batch via Thrift. The verb determines which of the other fields the
+  server reads when it executes the command.
+
+  Attributes:
+   - verb
+   - key
+   - values
+   - record
+   - operator
+  """
+
+  thrift_spec = (
+    None, # 0
+    (1, TType.I32, 'verb', None, None, ), # 1
+    (2, TType.STRING, 'key', None, None, ), # 2
+    (3, TType.LIST, 'values', (TType.STRUCT,(TObject, TObject.thrift_spec)), None, ), # 3
+    (4, TType.I64, 'record', None, None, ), # 4
+    (5, TType.I32, 'operator', None, None, ), # 5
+  )
+
+  def __init__(self, verb=None, key=None, values=None, record=None, operator=None,):
+    self.verb = verb
+    self.key = key
+    self.values = values
+    self.record = record
+    self.operator = operator
+
+  def read(self, iprot):
+    if iprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None and fastbinary is not None:
+      fastbinary.decode_binary(self, iprot.trans, (self.__class__, self.thrift_spec))
+      return
+    iprot.readStructBegin()
+    while True:
+      (fname, ftype, fid) = iprot.readFieldBegin()
+      if ftype == TType.STOP:
+        break
+      if fid == 1:
+        if ftype == TType.I32:
+          self.verb = iprot.readI32();
+        else:
+          iprot.skip(ftype)
+      elif fid == 2:
+        if ftype == TType.STRING:
+          self.key = iprot.readString();
+        else:
+          iprot.skip(ftype)
+      elif fid == 3:
+        if ftype == TType.LIST:
+          self.values = []
+          (_etype10, _size7) = iprot.readListBegin()
+          for _i11 in xrange(_size7):
+            _elem12 = TObject()
+            _elem12.read(iprot)
+            self.values.append(_elem12)
+          iprot.readListEnd()
+        else:
+          iprot.skip(ftype)
+      elif fid == 4:
+        if ftype == TType.I64:
+          self.record = iprot.readI64();
+        else:
+          iprot.skip(ftype)
+      elif fid == 5:
+        if ftype == TType.I32:
+          self.operator = iprot.readI32();
+        else:
+          iprot.skip(ftype)
+      else:
+        iprot.skip(ftype)
+      iprot.readFieldEnd()
+    iprot.readStructEnd()
+
+  def write(self, oprot):
+    if oprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and self.thrift_spec is not None and fastbinary is not None:
+      oprot.trans.write(fastbinary.encode_binary(self, (self.__class__, self.thrift_spec)))
+      return
+    oprot.writeStructBegin('TCommand')
+    if self.verb is not None:
+      oprot.writeFieldBegin('verb', TType.I32, 1)
+      oprot.writeI32(self.verb)
+      oprot.writeFieldEnd()
+    if self.key is not None:
+      oprot.writeFieldBegin('key', TType.STRING, 2)
+      oprot.writeString(self.key)
+      oprot.writeFieldEnd()
+    if self.values is not None:
+      oprot.writeFieldBegin('values', TType.LIST, 3)
+      oprot.writeListBegin(TType.STRUCT, len(self.values))
+      for iter13 in self.values:
+        iter13.write(oprot)
+      oprot.writeListEnd()
+      oprot.writeFieldEnd()
+    if self.record is not None:
+      oprot.writeFieldBegin('record', TType.I64, 4)
+      oprot.writeI64(self.record)
+      oprot.writeFieldEnd()
+    if self.operator is not None:
+      oprot.writeFieldBegin('operator', TType.I32, 5)
+      oprot.writeI32(self.operator)
+      oprot.writeFieldEnd()
+    oprot.writeFieldStop()
+    oprot.writeStructEnd()
+
+  def validate(self):
+    if self.verb is None:
+      raise TProtocol.TProtocolException(message='Required field verb is unset!')
+    return
+
+
+  def __hash__(self):
+    value = 17
+    value = (value * 31) ^ hash(self.verb)
+    value = (value * 31) ^ hash(self.key)
+    value = (value * 31) ^ hash(self.values)
+    value = (value * 31) ^ hash(self.record)
+    value = (value * 31) ^ hash(self.operator)
+    return value
+
+  def __repr__(self):
+    L = ['%s=%r' % (key, value)
+      for key, value in self.__dict__.iteritems()]
+    return '%s(%s)' % (self.__class__.__name__, ', '.join(L))
+
+  def __eq__(self, other):
+    return isinstance(other, self.__class__) and self.__dict__ == other.__dict__
+
+  def __ne__(self, other):
+    return not (self == other)
@@ -1472,6 +1472,23 @@ module ConcourseService
       raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'search failed: unknown result')
     end
 
+    def searchRanked(key, query, limit, offset, minScore, creds, transaction, environment)
+      send_searchRanked(key, query, limit, offset, minScore, creds, transaction, environment)
+      return recv_searchRanked()
+    end
+
+    def send_searchRanked(key, query, limit, offset, minScore, creds, transaction, environment)
+      send_message('searchRanked', SearchRanked_args, :key => key, :query => query, :limit => limit, :offset => offset, :minScore => minScore, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_searchRanked()
+      result = receive_message(SearchRanked_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'searchRanked failed: unknown result')
+    end
+
     def auditRecord(record, creds, transaction, environment)
       send_auditRecord(record, creds, transaction, environment)
       return recv_auditRecord()
@@ -1790,6 +1807,159 @@ module ConcourseService
       raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'getServerVersion failed: unknown result')
     end
 
+    def executeCommands(commands, atomic, creds, transaction, environment)
+      send_executeCommands(commands, atomic, creds, transaction, environment)
+      return recv_executeCommands()
+    end
+
+    def send_executeCommands(commands, atomic, creds, transaction, environment)
+      send_message('executeCommands', ExecuteCommands_args, :commands => commands, :atomic => atomic, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_executeCommands()
+      result = receive_message(ExecuteCommands_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'executeCommands failed: unknown result')
+    end
+
+    def openCursorCriteria(criteria, creds, transaction, environment)
+      send_openCursorCriteria(criteria, creds, transaction, environment)
+      return recv_openCursorCriteria()
+    end
+
+    def send_openCursorCriteria(criteria, creds, transaction, environment)
+      send_message('openCursorCriteria', OpenCursorCriteria_args, :criteria => criteria, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_openCursorCriteria()
+      result = receive_message(OpenCursorCriteria_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'openCursorCriteria failed: unknown result')
+    end
+
+    def openCursorKeysCriteria(keys, criteria, creds, transaction, environment)
+      send_openCursorKeysCriteria(keys, criteria, creds, transaction, environment)
+      return recv_openCursorKeysCriteria()
+    end
+
+    def send_openCursorKeysCriteria(keys, criteria, creds, transaction, environment)
+      send_message('openCursorKeysCriteria', OpenCursorKeysCriteria_args, :keys => keys, :criteria => criteria, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_openCursorKeysCriteria()
+      result = receive_message(OpenCursorKeysCriteria_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'openCursorKeysCriteria failed: unknown result')
+    end
+
+    def fetchCursor(cursor, size, creds, transaction, environment)
+      send_fetchCursor(cursor, size, creds, transaction, environment)
+      return recv_fetchCursor()
+    end
+
+    def send_fetchCursor(cursor, size, creds, transaction, environment)
+      send_message('fetchCursor', FetchCursor_args, :cursor => cursor, :size => size, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_fetchCursor()
+      result = receive_message(FetchCursor_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'fetchCursor failed: unknown result')
+    end
+
+    def closeCursor(cursor, creds, transaction, environment)
+      send_closeCursor(cursor, creds, transaction, environment)
+      recv_closeCursor()
+    end
+
+    def send_closeCursor(cursor, creds, transaction, environment)
+      send_message('closeCursor', CloseCursor_args, :cursor => cursor, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_closeCursor()
+      result = receive_message(CloseCursor_result)
+      raise result.ex unless result.ex.nil?
+      return
+    end
+
+    def findCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      send_findCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      return recv_findCriteriaPage()
+    end
+
+    def send_findCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      send_message('findCriteriaPage', FindCriteriaPage_args, :criteria => criteria, :order => order, :descending => descending, :offset => offset, :limit => limit, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_findCriteriaPage()
+      result = receive_message(FindCriteriaPage_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'findCriteriaPage failed: unknown result')
+    end
+
+    def findCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      send_findCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      return recv_findCclPage()
+    end
+
+    def send_findCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      send_message('findCclPage', FindCclPage_args, :ccl => ccl, :order => order, :descending => descending, :offset => offset, :limit => limit, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_findCclPage()
+      result = receive_message(FindCclPage_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise result.ex3 unless result.ex3.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'findCclPage failed: unknown result')
+    end
+
+    def selectCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      send_selectCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      return recv_selectCriteriaPage()
+    end
+
+    def send_selectCriteriaPage(criteria, order, descending, offset, limit, creds, transaction, environment)
+      send_message('selectCriteriaPage', SelectCriteriaPage_args, :criteria => criteria, :order => order, :descending => descending, :offset => offset, :limit => limit, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_selectCriteriaPage()
+      result = receive_message(SelectCriteriaPage_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'selectCriteriaPage failed: unknown result')
+    end
+
+    def selectCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      send_selectCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      return recv_selectCclPage()
+    end
+
+    def send_selectCclPage(ccl, order, descending, offset, limit, creds, transaction, environment)
+      send_message('selectCclPage', SelectCclPage_args, :ccl => ccl, :order => order, :descending => descending, :offset => offset, :limit => limit, :creds => creds, :transaction => transaction, :environment => environment)
+    end
+
+    def recv_selectCclPage()
+      result = receive_message(SelectCclPage_result)
+      return result.success unless result.success.nil?
+      raise result.ex unless result.ex.nil?
+      raise result.ex2 unless result.ex2.nil?
+      raise result.ex3 unless result.ex3.nil?
+      raise ::Thrift::ApplicationException.new(::Thrift::ApplicationException::MISSING_RESULT, 'selectCclPage failed: unknown result')
+    end
+
   end
 
   class Processor
@@ -2931,6 +3101,19 @@ module ConcourseService
       write_result(result, oprot, 'search', seqid)
     end
 
+    def process_searchRanked(seqid, iprot, oprot)
+      args = read_args(iprot, SearchRanked_args)
+      result = SearchRanked_result.new()
+      begin
+        result.success = @handler.searchRanked(args.key, args.query, args.limit, args.offset, args.minScore, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'searchRanked', seqid)
+    end
+
     def process_auditRecord(seqid, iprot, oprot)
       args = read_args(iprot, AuditRecord_args)
       result = AuditRecord_result.new()
@@ -3178,6 +3361,125 @@ module ConcourseService
       write_result(result, oprot, 'getServerVersion', seqid)
     end
 
+    def process_executeCommands(seqid, iprot, oprot)
+      args = read_args(iprot, ExecuteCommands_args)
+      result = ExecuteCommands_result.new()
+      begin
+        result.success = @handler.executeCommands(args.commands, args.atomic, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'executeCommands', seqid)
+    end
+
+    def process_openCursorCriteria(seqid, iprot, oprot)
+      args = read_args(iprot, OpenCursorCriteria_args)
+      result = OpenCursorCriteria_result.new()
+      begin
+        result.success = @handler.openCursorCriteria(args.criteria, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'openCursorCriteria', seqid)
+    end
+
+    def process_openCursorKeysCriteria(seqid, iprot, oprot)
+      args = read_args(iprot, OpenCursorKeysCriteria_args)
+      result = OpenCursorKeysCriteria_result.new()
+      begin
+        result.success = @handler.openCursorKeysCriteria(args.keys, args.criteria, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'openCursorKeysCriteria', seqid)
+    end
+
+    def process_fetchCursor(seqid, iprot, oprot)
+      args = read_args(iprot, FetchCursor_args)
+      result = FetchCursor_result.new()
+      begin
+        result.success = @handler.fetchCursor(args.cursor, args.size, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'fetchCursor', seqid)
+    end
+
+    def process_closeCursor(seqid, iprot, oprot)
+      args = read_args(iprot, CloseCursor_args)
+      result = CloseCursor_result.new()
+      begin
+        @handler.closeCursor(args.cursor, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      end
+      write_result(result, oprot, 'closeCursor', seqid)
+    end
+
+    def process_findCriteriaPage(seqid, iprot, oprot)
+      args = read_args(iprot, FindCriteriaPage_args)
+      result = FindCriteriaPage_result.new()
+      begin
+        result.success = @handler.findCriteriaPage(args.criteria, args.order, args.descending, args.offset, args.limit, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'findCriteriaPage', seqid)
+    end
+
+    def process_findCclPage(seqid, iprot, oprot)
+      args = read_args(iprot, FindCclPage_args)
+      result = FindCclPage_result.new()
+      begin
+        result.success = @handler.findCclPage(args.ccl, args.order, args.descending, args.offset, args.limit, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      rescue ::TParseException => ex3
+        result.ex3 = ex3
+      end
+      write_result(result, oprot, 'findCclPage', seqid)
+    end
+
+    def process_selectCriteriaPage(seqid, iprot, oprot)
+      args = read_args(iprot, SelectCriteriaPage_args)
+      result = SelectCriteriaPage_result.new()
+      begin
+        result.success = @handler.selectCriteriaPage(args.criteria, args.order, args.descending, args.offset, args.limit, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      end
+      write_result(result, oprot, 'selectCriteriaPage', seqid)
+    end
+
+    def process_selectCclPage(seqid, iprot, oprot)
+      args = read_args(iprot, SelectCclPage_args)
+      result = SelectCclPage_result.new()
+      begin
+        result.success = @handler.selectCclPage(args.ccl, args.order, args.descending, args.offset, args.limit, args.creds, args.transaction, args.environment)
+      rescue ::TSecurityException => ex
+        result.ex = ex
+      rescue ::TTransactionException => ex2
+        result.ex2 = ex2
+      rescue ::TParseException => ex3
+        result.ex3 = ex3
+      end
+      write_result(result, oprot, 'selectCclPage', seqid)
+    end
+
   end
 
   # HELPER FUNCTIONS AND STRUCTURES
@@ -6976,6 +7278,56 @@ module ConcourseService
     ::Thrift::Struct.generate_accessors self
   end
 
+  class SearchRanked_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    KEY = 1
+    QUERY = 2
+    LIMIT = 3
+    OFFSET = 4
+    MINSCORE = 5
+    CREDS = 6
+    TRANSACTION = 7
+    ENVIRONMENT = 8
+
+    FIELDS = {
+      KEY => {:type => ::Thrift::Types::STRING, :name => 'key'},
+      QUERY => {:type => ::Thrift::Types::STRING, :name => 'query'},
+      LIMIT => {:type => ::Thrift::Types::I32, :name => 'limit'},
+      OFFSET => {:type => ::Thrift::Types::I32, :name => 'offset'},
+      MINSCORE => {:type => ::Thrift::Types::I32, :name => 'minScore'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class SearchRanked_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::MAP, :name => 'success', :key => {:type => ::Thrift::Types::I64}, :value => {:type => ::Thrift::Types::I32}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
   class AuditRecord_args
     include ::Thrift::Struct, ::Thrift::Struct_Union
     RECORD = 1
@@ -7811,5 +8163,421 @@ module ConcourseService
     ::Thrift::Struct.generate_accessors self
   end
 
+  class ExecuteCommands_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    COMMANDS = 1
+    ATOMIC = 2
+    CREDS = 3
+    TRANSACTION = 4
+    ENVIRONMENT = 5
+
+    FIELDS = {
+      COMMANDS => {:type => ::Thrift::Types::LIST, :name => 'commands', :element => {:type => ::Thrift::Types::STRUCT, :class => ::TCommand}},
+      ATOMIC => {:type => ::Thrift::Types::BOOL, :name => 'atomic'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class ExecuteCommands_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::LIST, :name => 'success', :element => {:type => ::Thrift::Types::LIST, :element => {:type => ::Thrift::Types::STRUCT, :class => ::TObject}}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class OpenCursorCriteria_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CRITERIA = 1
+    CREDS = 2
+    TRANSACTION = 3
+    ENVIRONMENT = 4
+
+    FIELDS = {
+      CRITERIA => {:type => ::Thrift::Types::STRUCT, :name => 'criteria', :class => ::TCriteria},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class OpenCursorCriteria_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::I64, :name => 'success'},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class OpenCursorKeysCriteria_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    KEYS = 1
+    CRITERIA = 2
+    CREDS = 3
+    TRANSACTION = 4
+    ENVIRONMENT = 5
+
+    FIELDS = {
+      KEYS => {:type => ::Thrift::Types::LIST, :name => 'keys', :element => {:type => ::Thrift::Types::STRING}},
+      CRITERIA => {:type => ::Thrift::Types::STRUCT, :name => 'criteria', :class => ::TCriteria},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class OpenCursorKeysCriteria_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::I64, :name => 'success'},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FetchCursor_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CURSOR = 1
+    SIZE = 2
+    CREDS = 3
+    TRANSACTION = 4
+    ENVIRONMENT = 5
+
+    FIELDS = {
+      CURSOR => {:type => ::Thrift::Types::I64, :name => 'cursor'},
+      SIZE => {:type => ::Thrift::Types::I32, :name => 'size'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FetchCursor_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::MAP, :name => 'success', :key => {:type => ::Thrift::Types::I64}, :value => {:type => ::Thrift::Types::MAP, :key => {:type => ::Thrift::Types::STRING}, :value => {:type => ::Thrift::Types::SET, :element => {:type => ::Thrift::Types::STRUCT, :class => ::TObject}}}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class CloseCursor_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CURSOR = 1
+    CREDS = 2
+    TRANSACTION = 3
+    ENVIRONMENT = 4
+
+    FIELDS = {
+      CURSOR => {:type => ::Thrift::Types::I64, :name => 'cursor'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class CloseCursor_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    EX = 1
+
+    FIELDS = {
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FindCriteriaPage_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CRITERIA = 1
+    ORDER = 2
+    DESCENDING = 3
+    OFFSET = 4
+    LIMIT = 5
+    CREDS = 6
+    TRANSACTION = 7
+    ENVIRONMENT = 8
+
+    FIELDS = {
+      CRITERIA => {:type => ::Thrift::Types::STRUCT, :name => 'criteria', :class => ::TCriteria},
+      ORDER => {:type => ::Thrift::Types::STRING, :name => 'order'},
+      DESCENDING => {:type => ::Thrift::Types::BOOL, :name => 'descending'},
+      OFFSET => {:type => ::Thrift::Types::I32, :name => 'offset'},
+      LIMIT => {:type => ::Thrift::Types::I32, :name => 'limit'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FindCriteriaPage_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::LIST, :name => 'success', :element => {:type => ::Thrift::Types::I64}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FindCclPage_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CCL = 1
+    ORDER = 2
+    DESCENDING = 3
+    OFFSET = 4
+    LIMIT = 5
+    CREDS = 6
+    TRANSACTION = 7
+    ENVIRONMENT = 8
+
+    FIELDS = {
+      CCL => {:type => ::Thrift::Types::STRING, :name => 'ccl'},
+      ORDER => {:type => ::Thrift::Types::STRING, :name => 'order'},
+      DESCENDING => {:type => ::Thrift::Types::BOOL, :name => 'descending'},
+      OFFSET => {:type => ::Thrift::Types::I32, :name => 'offset'},
+      LIMIT => {:type => ::Thrift::Types::I32, :name => 'limit'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class FindCclPage_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+    EX3 = 3
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::LIST, :name => 'success', :element => {:type => ::Thrift::Types::I64}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException},
+      EX3 => {:type => ::Thrift::Types::STRUCT, :name => 'ex3', :class => ::TParseException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class SelectCriteriaPage_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CRITERIA = 1
+    ORDER = 2
+    DESCENDING = 3
+    OFFSET = 4
+    LIMIT = 5
+    CREDS = 6
+    TRANSACTION = 7
+    ENVIRONMENT = 8
+
+    FIELDS = {
+      CRITERIA => {:type => ::Thrift::Types::STRUCT, :name => 'criteria', :class => ::TCriteria},
+      ORDER => {:type => ::Thrift::Types::STRING, :name => 'order'},
+      DESCENDING => {:type => ::Thrift::Types::BOOL, :name => 'descending'},
+      OFFSET => {:type => ::Thrift::Types::I32, :name => 'offset'},
+      LIMIT => {:type => ::Thrift::Types::I32, :name => 'limit'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class SelectCriteriaPage_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::MAP, :name => 'success', :key => {:type => ::Thrift::Types::I64}, :value => {:type => ::Thrift::Types::MAP, :key => {:type => ::Thrift::Types::STRING}, :value => {:type => ::Thrift::Types::SET, :element => {:type => ::Thrift::Types::STRUCT, :class => ::TObject}}}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class SelectCclPage_args
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    CCL = 1
+    ORDER = 2
+    DESCENDING = 3
+    OFFSET = 4
+    LIMIT = 5
+    CREDS = 6
+    TRANSACTION = 7
+    ENVIRONMENT = 8
+
+    FIELDS = {
+      CCL => {:type => ::Thrift::Types::STRING, :name => 'ccl'},
+      ORDER => {:type => ::Thrift::Types::STRING, :name => 'order'},
+      DESCENDING => {:type => ::Thrift::Types::BOOL, :name => 'descending'},
+      OFFSET => {:type => ::Thrift::Types::I32, :name => 'offset'},
+      LIMIT => {:type => ::Thrift::Types::I32, :name => 'limit'},
+      CREDS => {:type => ::Thrift::Types::STRUCT, :name => 'creds', :class => ::AccessToken},
+      TRANSACTION => {:type => ::Thrift::Types::STRUCT, :name => 'transaction', :class => ::TransactionToken},
+      ENVIRONMENT => {:type => ::Thrift::Types::STRING, :name => 'environment'}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
+  class SelectCclPage_result
+    include ::Thrift::Struct, ::Thrift::Struct_Union
+    SUCCESS = 0
+    EX = 1
+    EX2 = 2
+    EX3 = 3
+
+    FIELDS = {
+      SUCCESS => {:type => ::Thrift::Types::MAP, :name => 'success', :key => {:type => ::Thrift::Types::I64}, :value => {:type => ::Thrift::Types::MAP, :key => {:type => ::Thrift::Types::STRING}, :value => {:type => ::Thrift::Types::SET, :element => {:type => ::Thrift::Types::STRUCT, :class => ::TObject}}}},
+      EX => {:type => ::Thrift::Types::STRUCT, :name => 'ex', :class => ::TSecurityException},
+      EX2 => {:type => ::Thrift::Types::STRUCT, :name => 'ex2', :class => ::TTransactionException},
+      EX3 => {:type => ::Thrift::Types::STRUCT, :name => 'ex3', :class => ::TParseException}
+    }
+
+    def struct_fields; FIELDS; end
+
+    def validate
+    end
+
+    ::Thrift::Struct.generate_accessors self
+  end
+
 end
 
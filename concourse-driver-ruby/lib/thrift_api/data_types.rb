@@ -19,6 +19,20 @@ module TSymbolType
   VALID_VALUES = Set.new([CONJUNCTION, KEY, VALUE, PARENTHESIS, OPERATOR, TIMESTAMP]).freeze
 end
 
+module TCommandVerb
+  ADD = 1
+  REMOVE = 2
+  SET = 3
+  VERIFY = 4
+  GET = 5
+  SELECT = 6
+  DESCRIBE = 7
+  FIND = 8
+  SEARCH = 9
+  VALUE_MAP = {1 => "ADD", 2 => "REMOVE", 3 => "SET", 4 => "VERIFY", 5 => "GET", 6 => "SELECT", 7 => "DESCRIBE", 8 => "FIND", 9 => "SEARCH"}
+  VALID_VALUES = Set.new([ADD, REMOVE, SET, VERIFY, GET, SELECT, DESCRIBE, FIND, SEARCH]).freeze
+end
+
 # A lightweight wrapper for a typed Object that has been encoded
 # as binary data.
 class TObject
@@ -92,3 +106,37 @@ class TCriteria
   ::Thrift::Struct.generate_accessors self
 end
 
+# A representation for a single operation that can be passed over the wire
+# in a batch via Thrift. The verb determines which of the other fields the
+# server reads when it executes the command.
+class TCommand
+  include ::Thrift::Struct, ::Thrift::Struct_Union
+  VERB = 1
+  KEY = 2
+  VALUES = 3
+  RECORD = 4
+  OPERATOR = 5
+
+  FIELDS = {
+    VERB => {:type => ::Thrift::Types::I32, :name => 'verb', :enum_class => ::TCommandVerb},
+    KEY => {:type => ::Thrift::Types::STRING, :name => 'key'},
+    VALUES => {:type => ::Thrift::Types::LIST, :name => 'values', :element => {:type => ::Thrift::Types::STRUCT, :class => ::TObject}},
+    RECORD => {:type => ::Thrift::Types::I64, :name => 'record'},
+    OPERATOR => {:type => ::Thrift::Types::I32, :name => 'operator', :enum_class => ::Operator}
+  }
+
+  def struct_fields; FIELDS; end
+
+  def validate
+    raise ::Thrift::ProtocolException.new(::Thrift::ProtocolException::UNKNOWN, 'Required field verb is unset!') unless @verb
+    unless @verb.nil? || ::TCommandVerb::VALID_VALUES.include?(@verb)
+      raise ::Thrift::ProtocolException.new(::Thrift::ProtocolException::UNKNOWN, 'Invalid value of field verb!')
+    end
+    unless @operator.nil? || ::Operator::VALID_VALUES.include?(@operator)
+      raise ::Thrift::ProtocolException.new(::Thrift::ProtocolException::UNKNOWN, 'Invalid value of field operator!')
+    end
+  end
+
+  ::Thrift::Struct.generate_accessors self
+end
+
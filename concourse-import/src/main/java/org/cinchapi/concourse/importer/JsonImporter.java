@@ -23,7 +23,6 @@ import org.cinchapi.concourse.util.FileOps;
 import org.cinchapi.concourse.time.Time;
 import org.cinchapi.concourse.util.Convert;
 
-import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
@@ -68,7 +67,19 @@ public class JsonImporter extends Importer {
      * @return the records that were affected by the import
      */
     protected Set<Long> importJsonString(String json) {
-        return concourse.insert(json);
+        return importJsonString(concourse, json);
+    }
+
+    /**
+     * Given a string of JSON data, insert it into Concourse using
+     * {@code connection}.
+     * 
+     * @param connection
+     * @param json
+     * @return the records that were affected by the import
+     */
+    protected Set<Long> importJsonString(Concourse connection, String json) {
+        return connection.insert(json);
     }
 
     /**
@@ -78,18 +89,30 @@ public class JsonImporter extends Importer {
      * @return the records that were affected by the import
      */
     protected Set<Long> upsertJsonString(String json) {
+        return upsertJsonString(concourse, json);
+    }
+
+    /**
+     * Given a string of JSON data, upsert it into Concourse using
+     * {@code connection}.
+     * 
+     * @param connection
+     * @param json
+     * @return the records that were affected by the import
+     */
+    protected Set<Long> upsertJsonString(Concourse connection, String json) {
         // TODO call concourse.upsert(json) when method is ready
         // NOTE: The following implementation is very inefficient, but will
         // suffice until the upsert functionality is available
-        Set<Long> records = Sets.newHashSet();
+        Set<Long> records = Sets.newLinkedHashSet();
         for (Multimap<String, Object> data : Convert.anyJsonToJava(json)) {
-            Long record = Objects.firstNonNull((Long) Iterables.getOnlyElement(
-                    data.get(Constants.JSON_RESERVED_IDENTIFIER_NAME), null),
-                    Time.now());
+            Number id = (Number) Iterables.getOnlyElement(
+                    data.get(Constants.JSON_RESERVED_IDENTIFIER_NAME), null);
+            long record = id != null ? id.longValue() : Time.now();
             data.removeAll(Constants.JSON_RESERVED_IDENTIFIER_NAME);
             for (String key : data.keySet()) {
                 for (Object value : data.get(key)) {
-                    concourse.add(key, value, record);
+                    connection.add(key, value, record);
                 }
             }
             records.add(record);
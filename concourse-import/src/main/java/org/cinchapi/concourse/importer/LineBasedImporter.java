@@ -15,21 +15,45 @@
  */
 package org.cinchapi.concourse.importer;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
 
 import org.apache.commons.lang.StringUtils;
 import org.cinchapi.concourse.Concourse;
+import org.cinchapi.concourse.ConnectionPool;
 import org.cinchapi.concourse.Constants;
-import org.cinchapi.concourse.util.FileOps;
 import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.util.FileOps;
 import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.Numbers;
 import org.cinchapi.concourse.util.Strings;
 
 import ch.qos.logback.classic.Logger;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeRangeSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -44,6 +68,52 @@ import com.google.gson.JsonPrimitive;
  */
 public abstract class LineBasedImporter extends JsonImporter {
 
+    /**
+     * The default number of objects that are sent in each batch.
+     */
+    protected static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * The extension that is appended to the name of an imported file to get
+     * the name of its checkpoint file.
+     */
+    private static final String CHECKPOINT_EXTENSION = ".checkpoint";
+
+    /**
+     * The maximum number of objects that are sent in each batch.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * A flag that indicates whether the ids of the affected records are
+     * collected and returned from {@link #importFile(String, String)}.
+     */
+    private boolean collectRecords = true;
+
+    /**
+     * The number of records that have been affected by all the batches that
+     * this importer has shipped.
+     */
+    private final AtomicLong numRecordsAffected = new AtomicLong();
+
+    /**
+     * The pool that supplies connections to the workers, if the batches are
+     * shipped concurrently.
+     */
+    @Nullable
+    private ConnectionPool pool = null;
+
+    /**
+     * A flag that indicates whether progress is recorded in checkpoint files.
+     */
+    private boolean resumable = false;
+
+    /**
+     * The number of concurrent workers that ship batches when there is a
+     * {@link #pool}.
+     */
+    private int workers = 1;
+
     /**
      * Construct a new instance.
      * 
@@ -73,28 +143,50 @@ public abstract class LineBasedImporter extends JsonImporter {
      * <strong>Note</strong> that if {@code resolveKey} is specified, an attempt
      * will be made to add the data in from each group into the existing records
      * that are found using {@code resolveKey} and its corresponding value in
-     * the group.
+     * the group. The records for every value of {@code resolveKey} are looked
+     * up once, with a single call to {@link Concourse#browse(String)}, and
+     * reused for the rest of the import, so records that are created by the
+     * import itself are not candidates for resolution. The values are matched
+     * the same way as {@link Operator#EQUALS} on the server: numbers are
+     * compared regardless of their type and strings regardless of case.
+     * </p>
+     * <p>
+     * The file is streamed one line at a time and the parsed data is sent to
+     * the server in atomic batches of at most {@link #setBatchSize(int)
+     * batchSize} objects. The memory that the import uses still grows with
+     * the number of affected records, because their ids are collected so they
+     * can be returned, unless {@link #setCollectRecords(boolean)
+     * collectRecords} is disabled. If {@code resolveKey} is specified, it also
+     * grows with the number of values that are stored for {@code resolveKey}.
      * </p>
      * 
      * @param file
      * @param resolveKey
      * @return a collection of {@link ImportResult} objects that describes the
      *         records created/affected from the import and whether any errors
-     *         occurred.
+     *         occurred, or an empty set if the records are not collected.
      */
     public final Set<Long> importFile(String file, @Nullable String resolveKey) {
-        // TODO add option to specify batchSize, which is how many objects to
-        // send over the wire in one atomic batch
-        List<String> lines = FileOps.readLines(file);
+        file = FileOps.expandPath(file);
+        BatchWriter writer = new BatchWriter(file);
         String[] keys = header();
-        JsonArray array = new JsonArray();
+        JsonArray batch = new JsonArray();
         boolean upsert = false;
-        for (String line : lines) {
+        long first = 0; // the first line in the batch
+        long lines = 0;
+        Map<Object, Set<Long>> index = null; // resolve value -> records
+        for (String line : FileOps.readLines(file)) {
             if(keys == null) {
                 keys = parseKeys(line);
                 log.info("Parsed keys from header: " + line);
             }
+            else if(writer.isImported(++lines)) {
+                continue; // this line was imported before the last interruption
+            }
             else {
+                if(batch.size() == 0) {
+                    first = lines;
+                }
                 JsonObject object = parseLine(line, keys);
                 if(resolveKey != null && object.has(resolveKey)) {
                     upsert = true;
@@ -104,35 +196,111 @@ public abstract class LineBasedImporter extends JsonImporter {
                         temp.add(resolveValue);
                         resolveValue = temp;
                     }
+                    if(index == null) {
+                        index = browse(resolveKey);
+                        log.info("Loaded {} distinct values of resolve key {}",
+                                index.size(), resolveKey);
+                    }
+                    Set<Long> resolved = Sets.newLinkedHashSet();
                     for (int i = 0; i < resolveValue.getAsJsonArray().size(); ++i) {
                         String value = resolveValue.getAsJsonArray().get(i)
                                 .toString();
                         Object stored = Convert.stringToJava(value);
-                        Set<Long> resolved = concourse.find(resolveKey,
-                                Operator.EQUALS, stored);
-                        for (long record : resolved) {
-                            object = parseLine(line, keys); // this is
-                                                            // inefficient, but
-                                                            // there is no good
-                                                            // way to clone the
-                                                            // original object
-                            object.addProperty(
-                                    Constants.JSON_RESERVED_IDENTIFIER_NAME,
-                                    record);
-                            array.add(object);
+                        Set<Long> matches = index.get(stored);
+                        if(matches != null) {
+                            resolved.addAll(matches);
                         }
                     }
+                    for (long record : resolved) {
+                        JsonObject copy = copyOf(object);
+                        copy.addProperty(
+                                Constants.JSON_RESERVED_IDENTIFIER_NAME, record);
+                        batch.add(copy);
+                    }
                 }
                 else {
-                    array.add(object);
+                    batch.add(object);
                 }
                 log.info("Importing {}", line);
+                if(batch.size() >= batchSize) {
+                    writer.write(batch, upsert, first, lines);
+                    batch = new JsonArray();
+                    upsert = false;
+                }
             }
 
         }
-        Set<Long> records = upsert ? upsertJsonString(array.toString())
-                : importJsonString(array.toString());
-        return records;
+        if(batch.size() > 0) {
+            writer.write(batch, upsert, first, lines);
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Return the number of records that have been affected by all the batches
+     * that this importer has shipped. A record that is affected by more than
+     * one batch is counted once per batch.
+     * 
+     * @return the number of affected records
+     */
+    public long getNumRecordsAffected() {
+        return numRecordsAffected.get();
+    }
+
+    /**
+     * Set the maximum number of objects that are sent to the server in each
+     * atomic batch. By default, this is {@value #DEFAULT_BATCH_SIZE}.
+     * 
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0,
+                "The batch size must be positive");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Specify whether the ids of the records that are affected by an import
+     * are collected and returned from {@link #importFile(String, String)}. By
+     * default they are. If they are not, an empty set is returned and only
+     * the {@link #getNumRecordsAffected() number} of affected records is
+     * kept, so the memory that the import uses does not grow with the size of
+     * the file.
+     * 
+     * @param collectRecords
+     */
+    public void setCollectRecords(boolean collectRecords) {
+        this.collectRecords = collectRecords;
+    }
+
+    /**
+     * Ship the batches of each imported file concurrently using
+     * {@code workers} threads that each lease a connection from {@code pool}.
+     * By default, all the batches are sent one at a time using the
+     * importer's own connection.
+     * 
+     * @param pool
+     * @param workers
+     */
+    public void setConnectionPool(ConnectionPool pool, int workers) {
+        Preconditions.checkArgument(workers > 0,
+                "The number of workers must be positive");
+        this.pool = pool;
+        this.workers = workers;
+    }
+
+    /**
+     * Specify whether the importer should record its progress in a checkpoint
+     * file next to each imported file. If a checkpoint exists when the file
+     * is imported again, the lines that were already imported are skipped.
+     * This includes the batches that were committed out of order by concurrent
+     * workers before another batch failed. The checkpoint is deleted once the
+     * entire file has been imported.
+     * 
+     * @param resumable
+     */
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
     }
 
     /**
@@ -207,6 +375,44 @@ public abstract class LineBasedImporter extends JsonImporter {
         return element;
     }
 
+    /**
+     * Return a mapping from each value that is stored for {@code key} to the
+     * records that contain it. Values that the server considers equal (i.e.
+     * numbers of different types or strings that only differ by case) share a
+     * single entry.
+     * 
+     * @param key
+     * @return the index
+     */
+    private Map<Object, Set<Long>> browse(String key) {
+        Map<Object, Set<Long>> index = Maps.newTreeMap(ValueSorter.INSTANCE);
+        for (Entry<Object, Set<Long>> entry : concourse.browse(key)
+                .entrySet()) {
+            Set<Long> records = index.get(entry.getKey());
+            if(records == null) {
+                records = Sets.newLinkedHashSet();
+                index.put(entry.getKey(), records);
+            }
+            records.addAll(entry.getValue());
+        }
+        return index;
+    }
+
+    /**
+     * Return a shallow copy of {@code object} that can be given its own
+     * record identifier.
+     * 
+     * @param object
+     * @return the copy
+     */
+    private static JsonObject copyOf(JsonObject object) {
+        JsonObject copy = new JsonObject();
+        for (Entry<String, JsonElement> entry : object.entrySet()) {
+            copy.add(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
     /**
      * Parse the keys from the {@code line}. The delimiter can be specified by
      * the subclass in the {@link #delimiter()} method.
@@ -244,4 +450,411 @@ public abstract class LineBasedImporter extends JsonImporter {
         return json;
     }
 
+    /**
+     * A {@link Comparator} that orders values using the same weak typing as
+     * the server, so that a lookup matches the values that the server
+     * considers {@link Operator#EQUALS equal}.
+     * 
+     * @author Jeff Nelson
+     */
+    private static enum ValueSorter implements Comparator<Object> {
+        INSTANCE;
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            if(o1 instanceof Number && o2 instanceof Number) {
+                return Numbers.compare((Number) o1, (Number) o2);
+            }
+            else if(o1 instanceof Number) {
+                return -1;
+            }
+            else if(o2 instanceof Number) {
+                return 1;
+            }
+            else {
+                return o1.toString().compareToIgnoreCase(o2.toString());
+            }
+        }
+
+    }
+
+    /**
+     * A {@link BatchWriter} ships the batches that are parsed from a single
+     * file to Concourse, either inline or on a pool of concurrent workers, and
+     * keeps track of the affected records, the throughput of the import and
+     * the checkpoint from which an interrupted import can resume.
+     * <p>
+     * Batches may finish out of order when there are multiple workers, so the
+     * results of a batch are only accepted once all the batches before it have
+     * finished. This keeps the returned records in the same order as the lines
+     * in the file. The checkpoint records the number of lines through the last
+     * contiguous batch followed by the ranges of lines in the batches that
+     * finished out of order, so a resumed import neither skips a line that was
+     * not imported nor imports a line twice.
+     * </p>
+     * 
+     * @author Jeff Nelson
+     */
+    private final class BatchWriter {
+
+        /**
+         * The number of lines that were contiguously imported before the last
+         * interruption and should be skipped.
+         */
+        private final long checkpoint;
+
+        /**
+         * The file where progress is recorded, if the import is resumable.
+         */
+        @Nullable
+        private final Path checkpointFile;
+
+        /**
+         * The ranges of lines after {@link #lines} that have been imported,
+         * either before the last interruption or by batches that finished
+         * before all the batches ahead of them.
+         */
+        private final RangeSet<Long> completed = TreeRangeSet.create();
+
+        /**
+         * The first error that was thrown by a worker, if any.
+         */
+        @Nullable
+        private Throwable error = null;
+
+        /**
+         * The workers that ship the batches, if there is a {@link #pool}.
+         */
+        @Nullable
+        private final ExecutorService executor;
+
+        /**
+         * The file that is being imported.
+         */
+        private final String file;
+
+        /**
+         * The batches that finished before all the batches ahead of them,
+         * mapped from sequence number to the last line in the batch and the
+         * records the batch affected.
+         */
+        private final Map<Long, Entry<Long, Set<Long>>> finished = Maps
+                .newHashMap();
+
+        /**
+         * Bounds the number of batches that have been parsed but not yet
+         * shipped so that the reader cannot get arbitrarily far ahead of the
+         * workers.
+         */
+        @Nullable
+        private final Semaphore inflight;
+
+        /**
+         * The number of lines that have been imported, through the last
+         * contiguous batch that finished.
+         */
+        private long lines;
+
+        /**
+         * The sequence number of the next batch whose results can be accepted.
+         */
+        private long next = 0;
+
+        /**
+         * The number of records that were affected by the import.
+         */
+        private long numRecords = 0;
+
+        /**
+         * The records that were affected by the import, in file order, if they
+         * are collected.
+         */
+        private final Set<Long> records = Sets.newLinkedHashSet();
+
+        /**
+         * The sequence number to assign to the next batch that is written.
+         */
+        private long sequence = 0;
+
+        /**
+         * The ranges of lines after the {@link #checkpoint} that were imported
+         * before the last interruption and should be skipped.
+         */
+        private final RangeSet<Long> skipped = TreeRangeSet.create();
+
+        /**
+         * Measures the throughput of the import.
+         */
+        private final Stopwatch watch = Stopwatch.createStarted();
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param file
+         */
+        BatchWriter(String file) {
+            this.file = file;
+            this.checkpointFile = resumable ? Paths.get(file
+                    + CHECKPOINT_EXTENSION) : null;
+            this.checkpoint = readCheckpoint(skipped);
+            this.lines = checkpoint;
+            this.completed.addAll(skipped);
+            if(checkpoint > 0) {
+                log.info("Resuming the import of {} after line {}", file,
+                        checkpoint);
+            }
+            if(pool != null) {
+                this.executor = Executors.newFixedThreadPool(workers,
+                        new ThreadFactoryBuilder().setDaemon(true)
+                                .setNameFormat("import-worker-%d").build());
+                this.inflight = new Semaphore(workers * 2);
+            }
+            else {
+                this.executor = null;
+                this.inflight = null;
+            }
+        }
+
+        /**
+         * Wait for all the batches to finish and return the records that were
+         * affected by the import.
+         * 
+         * @return the records, in file order, or an empty set if they are not
+         *         collected
+         */
+        Set<Long> finish() {
+            if(executor != null) {
+                executor.shutdown();
+                awaitTermination();
+            }
+            checkForErrors();
+            if(checkpointFile != null) {
+                try {
+                    Files.deleteIfExists(checkpointFile);
+                }
+                catch (IOException e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+            log.info("Imported {} lines from {} into {} records in {} "
+                    + "seconds ({} lines/sec)", new Object[] { lines, file,
+                    numRecords,
+                    watch.elapsed(TimeUnit.MILLISECONDS) / 1000.0,
+                    throughput() });
+            return records;
+        }
+
+        /**
+         * Return {@code true} if {@code line} was imported before the last
+         * interruption and should be skipped.
+         * 
+         * @param line
+         * @return {@code true} if the line is already imported
+         */
+        boolean isImported(long line) {
+            return line <= checkpoint || skipped.contains(line);
+        }
+
+        /**
+         * Ship {@code batch}, which contains the data from line number
+         * {@code first} through line number {@code lines} of the file.
+         * 
+         * @param batch
+         * @param upsert
+         * @param first
+         * @param lines
+         */
+        void write(JsonArray batch, final boolean upsert, final long first,
+                final long lines) {
+            final long sequence = this.sequence++;
+            final String json = batch.toString();
+            if(executor == null) {
+                accept(sequence, first, lines, upsert ? upsertJsonString(json)
+                        : importJsonString(json));
+            }
+            else {
+                checkForErrors();
+                inflight.acquireUninterruptibly();
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            Concourse connection = pool.request();
+                            try {
+                                accept(sequence, first, lines,
+                                        upsert ? upsertJsonString(connection,
+                                                json) : importJsonString(
+                                                connection, json));
+                            }
+                            finally {
+                                pool.release(connection);
+                            }
+                        }
+                        catch (Throwable t) {
+                            fail(t);
+                        }
+                        finally {
+                            inflight.release();
+                        }
+                    }
+
+                });
+            }
+        }
+
+        /**
+         * Record that the batch with {@code sequence} number, which contains
+         * the data from line number {@code first} through line number
+         * {@code lines}, affected {@code records} and update the checkpoint.
+         * If all the batches before it have also finished, the progress is
+         * logged.
+         * 
+         * @param sequence
+         * @param first
+         * @param lines
+         * @param records
+         */
+        private synchronized void accept(long sequence, long first,
+                long lines, Set<Long> records) {
+            completed.add(Range.closedOpen(first, lines + 1));
+            finished.put(sequence, Maps.immutableEntry(lines, records));
+            Entry<Long, Set<Long>> entry;
+            boolean advanced = false;
+            while ((entry = finished.remove(next)) != null) {
+                this.lines = entry.getKey();
+                this.numRecords += entry.getValue().size();
+                numRecordsAffected.addAndGet(entry.getValue().size());
+                if(collectRecords) {
+                    // The server assigns ids to new records in increasing
+                    // order, but the set that comes back over the wire is
+                    // unordered
+                    this.records.addAll(Sets.newTreeSet(entry.getValue()));
+                }
+                next++;
+                advanced = true;
+            }
+            completed.remove(Range.lessThan(this.lines + 1));
+            writeCheckpoint();
+            if(advanced) {
+                log.info("Imported {} lines from {} ({} lines/sec)",
+                        new Object[] { this.lines, file, throughput() });
+            }
+        }
+
+        /**
+         * Wait for the workers to finish the batches that have been shipped.
+         */
+        private void awaitTermination() {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE,
+                        TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+
+        /**
+         * Throw the first error that was thrown by a worker, if any, after
+         * cancelling the batches that have not been shipped and waiting for
+         * the rest to finish, so that the checkpoint is final.
+         */
+        private void checkForErrors() {
+            Throwable error;
+            synchronized (this) {
+                error = this.error;
+            }
+            if(error != null) {
+                executor.shutdownNow();
+                awaitTermination();
+                throw Throwables.propagate(error);
+            }
+        }
+
+        /**
+         * Record that a worker failed with {@code error}.
+         * 
+         * @param error
+         */
+        private synchronized void fail(Throwable error) {
+            if(this.error == null) {
+                this.error = error;
+            }
+        }
+
+        /**
+         * Return the number of contiguously checkpointed lines for the file
+         * and add the ranges of lines after them that were also imported to
+         * {@code ranges}. If the import is not resumable or there is no
+         * checkpoint, return {@code 0}.
+         * 
+         * @param ranges
+         * @return the number of lines to skip
+         */
+        private long readCheckpoint(RangeSet<Long> ranges) {
+            if(checkpointFile != null && Files.exists(checkpointFile)) {
+                try {
+                    String[] toks = new String(
+                            Files.readAllBytes(checkpointFile),
+                            StandardCharsets.UTF_8).trim().split("\\s+");
+                    for (int i = 1; i < toks.length; ++i) {
+                        String[] bounds = toks[i].split("-");
+                        ranges.add(Range.closedOpen(Long.parseLong(bounds[0]),
+                                Long.parseLong(bounds[1]) + 1));
+                    }
+                    return Long.parseLong(toks[0]);
+                }
+                catch (IOException e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+            else {
+                return 0;
+            }
+        }
+
+        /**
+         * Return the number of lines that have been imported per second since
+         * the import started or resumed.
+         * 
+         * @return the throughput
+         */
+        private long throughput() {
+            long elapsed = Math.max(1, watch.elapsed(TimeUnit.MILLISECONDS));
+            return (lines - checkpoint) * 1000 / elapsed;
+        }
+
+        /**
+         * Record the number of lines that have been contiguously imported,
+         * followed by the ranges of lines that have been imported after them,
+         * in the checkpoint file, if the import is resumable.
+         */
+        private void writeCheckpoint() {
+            if(checkpointFile != null) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(lines);
+                for (Range<Long> range : completed.asRanges()) {
+                    sb.append(' ').append(range.lowerEndpoint()).append('-')
+                            .append(range.upperEndpoint() - 1);
+                }
+                // Write a temporary file and move it into place so that an
+                // interruption cannot leave a partially written checkpoint
+                Path temp = checkpointFile.resolveSibling(checkpointFile
+                        .getFileName() + ".tmp");
+                try {
+                    Files.write(temp,
+                            sb.toString().getBytes(StandardCharsets.UTF_8));
+                    Files.move(temp, checkpointFile,
+                            StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (IOException e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+        }
+
+    }
+
 }
@@ -26,10 +26,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
+import org.cinchapi.concourse.ConnectionPool;
 import org.cinchapi.concourse.cli.CommandLineInterface;
 import org.cinchapi.concourse.cli.Options;
 import org.cinchapi.concourse.importer.CsvImporter;
-import org.cinchapi.concourse.importer.Importer;
+import org.cinchapi.concourse.importer.LineBasedImporter;
 import org.cinchapi.concourse.util.FileOps;
 
 import com.beust.jcommander.Parameter;
@@ -55,7 +58,14 @@ public class ImportCli extends CommandLineInterface {
     /**
      * The importer.
      */
-    private final Importer importer;
+    private final LineBasedImporter importer;
+
+    /**
+     * The pool that supplies connections to the workers that ship batches
+     * concurrently, if there are multiple workers per file.
+     */
+    @Nullable
+    private final ConnectionPool pool;
 
     /**
      * Construct a new instance.
@@ -64,7 +74,22 @@ public class ImportCli extends CommandLineInterface {
      */
     public ImportCli(String[] args) {
         super(new ImportOptions(), args);
-        this.importer = new CsvImporter(this.concourse, log);
+        ImportOptions opts = (ImportOptions) options;
+        CsvImporter importer = new CsvImporter(this.concourse, log);
+        importer.setBatchSize(opts.batchSize);
+        importer.setResumable(opts.resume);
+        // The ids of the imported records are only needed to print them
+        importer.setCollectRecords(opts.verbose);
+        if(opts.numWorkers > 1) {
+            this.pool = ConnectionPool.newFixedConnectionPool(opts.host,
+                    opts.port, opts.username, opts.password, opts.environment,
+                    opts.numWorkers * opts.numThreads);
+            importer.setConnectionPool(pool, opts.numWorkers);
+        }
+        else {
+            this.pool = null;
+        }
+        this.importer = importer;
     }
 
     @Override
@@ -76,29 +101,44 @@ public class ImportCli extends CommandLineInterface {
         String data = opts.data;
         List<String> files = scan(Paths.get(FileOps.expandPath(data)));
         Stopwatch watch = Stopwatch.createStarted();
-        final Set<Long> records = Sets.newConcurrentHashSet();
+        final Set<Long> records = opts.verbose ? Sets
+                .<Long> newConcurrentHashSet() : null;
         for (final String file : files) {
             executor.execute(new Runnable() {
 
                 @Override
                 public void run() {
-                    records.addAll(importer.importFile(file));
+                    Set<Long> imported = importer.importFile(file);
+                    if(records != null) {
+                        records.addAll(imported);
+                    }
                 }
 
             });
         }
         executor.shutdown();
-        while (!executor.isTerminated()) {
-            continue; // block until all tasks are completed
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            if(pool != null) {
+                pool.close();
+            }
+        }
+        catch (Exception e) {
+            throw Throwables.propagate(e);
         }
         watch.stop();
         long elapsed = watch.elapsed(TimeUnit.MILLISECONDS);
         double seconds = elapsed / 1000.0;
-        if(options.verbose) {
+        long numRecords;
+        if(records != null) {
             System.out.println(records);
+            numRecords = records.size();
+        }
+        else {
+            numRecords = importer.getNumRecordsAffected();
         }
         System.out.println(MessageFormat.format("Imported data "
-                + "into {0} records in {1} seconds", records.size(), seconds));
+                + "into {0} records in {1} seconds", numRecords, seconds));
     }
 
     /**
@@ -145,6 +185,15 @@ public class ImportCli extends CommandLineInterface {
         @Parameter(names = { "-r", "--resolveKey" }, description = "The key to use when resolving data into existing records")
         public String resolveKey = null;
 
+        @Parameter(names = "--batchSize", description = "The maximum number of objects to send to the server in each atomic batch")
+        public int batchSize = 1000;
+
+        @Parameter(names = "--numWorkers", description = "The number of connections to use for concurrently sending the batches of each file")
+        public int numWorkers = 1;
+
+        @Parameter(names = "--resume", description = "Checkpoint the progress of each file so that an interrupted import resumes where it left off")
+        public boolean resume = false;
+
     }
 
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TSecurityException;
+import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Unit tests that check the operational correctness of the
+ * {@link AsyncConcourse} API methods.
+ *
+ * @author Jeff Nelson
+ */
+public class AsyncConcourseTest extends ConcourseIntegrationTest {
+
+    /**
+     * The asynchronous connection to the test server.
+     */
+    private AsyncConcourse async;
+
+    @Override
+    protected void afterEachTest() {
+        async.close();
+    }
+
+    @Override
+    protected void beforeEachTest() {
+        async = AsyncConcourse.connect(SERVER_HOST, SERVER_PORT, "admin",
+                "admin");
+    }
+
+    @Test
+    public void testPipelinedReadsReturnCorrelatedResults()
+            throws InterruptedException, ExecutionException {
+        String key = TestData.getString();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            client.add(key, i, i);
+        }
+        List<ListenableFuture<Integer>> futures = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            futures.add(async.<Integer> get(key, i));
+        }
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, (int) futures.get(i).get());
+        }
+    }
+
+    @Test
+    public void testReadObservesPrecedingWrite() throws InterruptedException,
+            ExecutionException {
+        String key = TestData.getString();
+        Object value = TestData.getObject();
+        long record = TestData.getLong();
+        ListenableFuture<Boolean> added = async.add(key, value, record);
+        ListenableFuture<Boolean> verified = async.verify(key, value, record);
+        Assert.assertTrue(added.get());
+        Assert.assertTrue(verified.get());
+    }
+
+    @Test
+    public void testFind() throws InterruptedException, ExecutionException {
+        String key = TestData.getString();
+        Set<Long> expected = Sets.newHashSet();
+        for (long record = 0; record < TestData.getScaleCount(); record++) {
+            client.add(key, 1, record);
+            expected.add(record);
+        }
+        Assert.assertEquals(expected,
+                async.find(key, Operator.EQUALS, 1).get());
+    }
+
+    @Test
+    public void testRequestsFailWhenCredentialsExpire()
+            throws InterruptedException, TimeoutException {
+        grantAccess("admin", "admin2");
+        List<ListenableFuture<Set<String>>> futures = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            futures.add(async.describe(i));
+        }
+        for (ListenableFuture<Set<String>> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                Assert.fail("Expecting TSecurityException");
+            }
+            catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TSecurityException);
+            }
+        }
+    }
+
+    @Test
+    public void testOrderIsPreservedWhenRequestsAreRetried()
+            throws InterruptedException, ExecutionException {
+        String key = TestData.getString();
+        long record = TestData.getLong();
+        int count = TestData.getScaleCount() * 10;
+        grantAccess("admin", "admin"); // expires the session
+        List<ListenableFuture<Void>> futures = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            futures.add(async.set(key, i, record));
+        }
+        for (ListenableFuture<Void> future : futures) {
+            future.get();
+        }
+        Assert.assertEquals(count - 1,
+                (int) async.<Integer> get(key, record).get());
+    }
+
+    @Test(timeout = 60000)
+    public void testSubmittingMoreThanTheMaxOutstandingRequests()
+            throws InterruptedException, ExecutionException {
+        String key = TestData.getString();
+        long record = TestData.getLong();
+        client.add(key, 1, record);
+        List<ListenableFuture<Integer>> futures = Lists.newArrayList();
+        for (int i = 0; i < AsyncConcourse.MAX_OUTSTANDING_REQUESTS * 2; i++) {
+            futures.add(async.<Integer> get(key, record));
+        }
+        for (ListenableFuture<Integer> future : futures) {
+            Assert.assertEquals(1, (int) future.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCannotSubmitAfterClose() {
+        async.close();
+        async.getServerVersion();
+    }
+
+}
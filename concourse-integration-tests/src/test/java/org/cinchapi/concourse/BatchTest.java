@@ -0,0 +1,106 @@
+/*
+ * Licensed to Cinchapi, Inc, under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. Cinchapi, Inc. licenses this
+ * file to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.List;
+
+import org.cinchapi.concourse.thrift.Operator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for executing a batch of {@link Command commands} in a single
+ * round trip.
+ * 
+ * @author Jeff Nelson
+ */
+public class BatchTest extends ConcourseIntegrationTest {
+
+    @Test
+    public void testBatchResultsAreInOrder() {
+        List<Object> results = client.batch(Lists.newArrayList(
+                Command.add("foo", 1, 1), Command.add("foo", 1, 1),
+                Command.add("foo", 2, 1), Command.get("foo", 1),
+                Command.select("foo", 1), Command.verify("foo", 1, 1),
+                Command.remove("foo", 1, 1), Command.verify("foo", 1, 1),
+                Command.describe(1), Command.get("bar", 1)));
+        Assert.assertEquals(
+                Lists.<Object> newArrayList(true, false, true, 2,
+                        ImmutableSet.of(1, 2), true, true, false,
+                        ImmutableSet.of("foo"), null), results);
+    }
+
+    @Test
+    public void testBatchSet() {
+        client.add("foo", 1, 1);
+        client.add("foo", 2, 1);
+        List<Object> results = client.batch(Lists.newArrayList(
+                Command.set("foo", 3, 1), Command.select("foo", 1)));
+        Assert.assertNull(results.get(0));
+        Assert.assertEquals(ImmutableSet.of(3), results.get(1));
+    }
+
+    @Test
+    public void testBatchFindAndSearch() {
+        client.add("age", 10, 1);
+        client.add("age", 20, 2);
+        client.add("age", 30, 3);
+        client.add("name", "jeff nelson", 1);
+        client.add("name", "john doe", 2);
+        List<Object> results = client.batch(Lists.newArrayList(
+                Command.find("age", Operator.GREATER_THAN, 15),
+                Command.find("age", Operator.BETWEEN, 10, 30),
+                Command.search("name", "jeff")));
+        Assert.assertEquals(ImmutableSet.of(2L, 3L), results.get(0));
+        Assert.assertEquals(ImmutableSet.of(1L, 2L), results.get(1));
+        Assert.assertEquals(ImmutableSet.of(1L), results.get(2));
+    }
+
+    @Test
+    public void testAtomicBatch() {
+        List<Object> results = client.batch(Lists.newArrayList(
+                Command.add("foo", "bar", 1), Command.set("baz", 1, 1),
+                Command.get("foo", 1)), true);
+        Assert.assertEquals(Lists.<Object> newArrayList(true, null, "bar"),
+                results);
+        Assert.assertEquals(1, client.get("baz", 1));
+    }
+
+    @Test
+    public void testBatchInTransaction() {
+        client.stage();
+        client.batch(Lists.newArrayList(Command.add("foo", "bar", 1)), true);
+        client.abort();
+        Assert.assertFalse(client.verify("foo", "bar", 1));
+    }
+
+    @Test
+    public void testMalformedBatchIsRejectedBeforeAnyCommandRuns() {
+        try {
+            client.batch(Lists.newArrayList(Command.add("foo", "bar", 1),
+                    Command.add(null, "bar", 1)));
+            Assert.fail("Expected the malformed batch to be rejected");
+        }
+        catch (RuntimeException e) {
+            Assert.assertFalse(client.verify("foo", "bar", 1));
+        }
+    }
+
+}
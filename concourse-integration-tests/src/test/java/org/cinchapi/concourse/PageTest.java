@@ -0,0 +1,97 @@
+/*
+ * Licensed to Cinchapi, Inc, under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. Cinchapi, Inc. licenses this
+ * file to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.cinchapi.concourse.lang.Criteria;
+import org.cinchapi.concourse.thrift.Operator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for finding and selecting a sorted page of the records that
+ * match a criteria.
+ *
+ * @author Jeff Nelson
+ */
+public class PageTest extends ConcourseIntegrationTest {
+
+    @Override
+    protected void beforeEachTest() {
+        client.add("age", 30, 1);
+        client.add("age", 10, 2);
+        client.add("age", 20, 3);
+        client.add("age", 40, 4);
+        client.add("name", "jeff", 1);
+        client.add("name", "ashleah", 2);
+        client.add("name", "john", 3);
+        client.add("name", "jenna", 4);
+        client.add("name", "zoe", 5);
+    }
+
+    @Test
+    public void testFindCriteriaPage() {
+        Criteria criteria = Criteria.where().key("age")
+                .operator(Operator.GREATER_THAN).value(0).build();
+        Assert.assertEquals(Lists.newArrayList(2L, 3L),
+                client.find(criteria, "age", false, 0, 2));
+        Assert.assertEquals(Lists.newArrayList(1L, 3L),
+                client.find(criteria, "age", true, 1, 2));
+    }
+
+    @Test
+    public void testFindCclPageWithMissingValues() {
+        Assert.assertEquals(Lists.newArrayList(4L, 3L, 5L),
+                client.find("name regex j.*n.* or name = zoe", "age", true, 0,
+                        10));
+    }
+
+    @Test
+    public void testFindPagePastTheEnd() {
+        Assert.assertTrue(client.find("age > 0", "age", false, 10, 10)
+                .isEmpty());
+    }
+
+    @Test
+    public void testSelectCclPage() {
+        Map<Long, Map<String, Set<Object>>> page = client.select(
+                "age > 10", "name", false, 0, 2);
+        Assert.assertEquals(Lists.newArrayList(1L, 4L),
+                Lists.newArrayList(page.keySet()));
+        Assert.assertEquals(ImmutableSet.of("jenna"), page.get(4L).get("name"));
+    }
+
+    @Test
+    public void testSelectCriteriaPage() {
+        Map<Long, Map<String, Set<Object>>> page = client.select(Criteria
+                .where().key("name").operator(Operator.NOT_EQUALS)
+                .value("zoe").build(), "age", false, 3, 5);
+        Assert.assertEquals(Lists.newArrayList(4L),
+                Lists.newArrayList(page.keySet()));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNegativeLimitIsRejected() {
+        client.find("age > 0", "age", false, 0, -1);
+    }
+
+}
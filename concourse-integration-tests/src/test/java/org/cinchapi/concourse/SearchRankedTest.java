@@ -0,0 +1,75 @@
+/*
+ * Licensed to Cinchapi, Inc, under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. Cinchapi, Inc. licenses this
+ * file to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for ranking the records that match a search through the
+ * {@code searchRanked} API.
+ *
+ * @author Jeff Nelson
+ */
+public class SearchRankedTest extends ConcourseIntegrationTest {
+
+    @Override
+    protected void beforeEachTest() {
+        client.add("bio", "foo bar", 1);
+        client.add("bio", "foo bar", 2);
+        client.add("bio", "foo baz", 2);
+        client.add("bio", "foo qux", 2);
+        client.add("bio", "foo bar", 3);
+        client.add("bio", "foo baz", 3);
+        client.add("bio", "bar baz", 4);
+    }
+
+    @Test
+    public void testSearchRankedIsOrderedByScore() {
+        Map<Long, Integer> ranked = client.searchRanked("bio", "foo", 0, 0);
+        Assert.assertEquals(Lists.newArrayList(2L, 3L, 1L),
+                Lists.newArrayList(ranked.keySet()));
+        Assert.assertEquals(Lists.newArrayList(3, 2, 1),
+                Lists.newArrayList(ranked.values()));
+    }
+
+    @Test
+    public void testSearchRankedPage() {
+        Assert.assertEquals(Lists.newArrayList(3L, 1L), Lists
+                .newArrayList(client.searchRanked("bio", "foo", 2, 1)
+                        .keySet()));
+        Assert.assertTrue(client.searchRanked("bio", "foo", 2, 3).isEmpty());
+    }
+
+    @Test
+    public void testSearchRankedMinScore() {
+        Assert.assertEquals(Lists.newArrayList(2L, 3L), Lists
+                .newArrayList(client.searchRanked("bio", "foo", 0, 0, 2)
+                        .keySet()));
+    }
+
+    @Test
+    public void testSearchRankedMatchesSearch() {
+        Assert.assertEquals(client.search("bio", "foo"),
+                client.searchRanked("bio", "foo", 0, 0).keySet());
+    }
+
+}
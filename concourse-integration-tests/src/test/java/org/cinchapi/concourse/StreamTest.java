@@ -0,0 +1,185 @@
+/*
+ * Licensed to Cinchapi, Inc, under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. Cinchapi, Inc. licenses this
+ * file to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Map.Entry;
+
+import org.cinchapi.concourse.lang.Criteria;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TSecurityException;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Reflection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests for streaming a result set from the server one page at a time.
+ *
+ * @author Jeff Nelson
+ */
+public class StreamTest extends ConcourseIntegrationTest {
+
+    @Test
+    public void testStreamMatchesSelect() {
+        for (long record = 1; record <= 25; record++) {
+            client.add("age", (int) record, record);
+            client.add("name", "name" + record, record);
+        }
+        Criteria criteria = Criteria.where().key("age")
+                .operator(Operator.GREATER_THAN).value(5).build();
+        Map<Long, Map<String, Set<Object>>> streamed = Maps.newLinkedHashMap();
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client.stream(
+                criteria, 7);
+        while (it.hasNext()) {
+            Entry<Long, Map<String, Set<Object>>> entry = it.next();
+            streamed.put(entry.getKey(), entry.getValue());
+        }
+        Map<Long, Map<String, Set<Object>>> selected = client.select(criteria);
+        Assert.assertEquals(20, streamed.size());
+        Assert.assertEquals(selected, streamed);
+        Assert.assertEquals(Lists.newArrayList(selected.keySet()),
+                Lists.newArrayList(streamed.keySet()));
+    }
+
+    @Test
+    public void testStreamKeys() {
+        client.add("age", 10, 1);
+        client.add("name", "jeff", 1);
+        client.add("age", 20, 2);
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client.stream(
+                Lists.newArrayList("name"),
+                Criteria.where().key("age").operator(Operator.GREATER_THAN)
+                        .value(0).build(), 1);
+        Entry<Long, Map<String, Set<Object>>> entry = it.next();
+        Assert.assertEquals(Long.valueOf(1), entry.getKey());
+        Assert.assertEquals(ImmutableSet.of("jeff"),
+                entry.getValue().get("name"));
+        entry = it.next();
+        Assert.assertEquals(Long.valueOf(2), entry.getKey());
+        Assert.assertTrue(entry.getValue().get("name").isEmpty());
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamRecordsOnly() {
+        client.add("age", 10, 1);
+        client.add("age", 20, 2);
+        Criteria criteria = Criteria.where().key("age")
+                .operator(Operator.GREATER_THAN).value(0).build();
+        Set<Long> records = Sets.newLinkedHashSet();
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client.stream(
+                Collections.<String> emptyList(), criteria);
+        while (it.hasNext()) {
+            Entry<Long, Map<String, Set<Object>>> entry = it.next();
+            Assert.assertTrue(entry.getValue().isEmpty());
+            records.add(entry.getKey());
+        }
+        Assert.assertEquals(client.find(criteria), records);
+    }
+
+    @Test
+    public void testStreamIsSnapshot() {
+        client.add("age", 10, 1);
+        client.add("age", 20, 2);
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client.stream(
+                Criteria.where().key("age").operator(Operator.GREATER_THAN)
+                        .value(0).build(), 1);
+        Assert.assertEquals(Long.valueOf(1), it.next().getKey());
+        client.set("age", 30, 2);
+        Assert.assertEquals(ImmutableSet.of(20), it.next().getValue()
+                .get("age"));
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamEmptyResult() {
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client
+                .stream(Criteria.where().key("age")
+                        .operator(Operator.GREATER_THAN).value(0).build());
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamInTransaction() {
+        client.stage();
+        client.add("age", 10, 1);
+        Iterator<Entry<Long, Map<String, Set<Object>>>> it = client.stream(
+                Criteria.where().key("age").operator(Operator.GREATER_THAN)
+                        .value(0).build());
+        Assert.assertEquals(Long.valueOf(1), it.next().getKey());
+        Assert.assertFalse(it.hasNext());
+        client.abort();
+    }
+
+    @Test
+    public void testCloseReleasesCursor() {
+        for (long record = 1; record <= 10; record++) {
+            client.add("age", (int) record, record);
+        }
+        CursorIterator<Object> it = client.stream(Criteria.where().key("age")
+                .operator(Operator.GREATER_THAN).value(0).build(), 3);
+        Assert.assertEquals(Long.valueOf(1), it.next().getKey());
+        Assert.assertEquals(1, getCursors().size());
+        it.close();
+        Assert.assertTrue(getCursors().isEmpty());
+        Assert.assertFalse(it.hasNext());
+        it.close();
+    }
+
+    @Test
+    public void testIdleCursorIsClosed() {
+        client.add("age", 10, 1);
+        client.add("age", 20, 2);
+        Criteria criteria = Criteria.where().key("age")
+                .operator(Operator.GREATER_THAN).value(0).build();
+        CursorIterator<Object> idle = client.stream(criteria, 1);
+        long timestamp = Time.now();
+        CursorIterator<Object> active = client.stream(criteria, 1);
+        Reflection.call(Reflection.get("server", this), "closeIdleCursors",
+                timestamp);
+        Assert.assertEquals(1, getCursors().size());
+        Assert.assertEquals(Long.valueOf(1), active.next().getKey());
+        try {
+            idle.next();
+            Assert.fail("Expecting the idle cursor to be closed");
+        }
+        catch (RuntimeException e) {
+            Assert.assertTrue(Throwables.getRootCause(e) instanceof
+                    TSecurityException);
+        }
+    }
+
+    /**
+     * Return the cursors that are open on the server.
+     *
+     * @return the cursors
+     */
+    private Map<Long, ?> getCursors() {
+        return Reflection.get("cursors", Reflection.get("server", this));
+    }
+
+}
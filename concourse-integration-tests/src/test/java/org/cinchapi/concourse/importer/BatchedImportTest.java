@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.cinchapi.concourse.Concourse;
+import org.cinchapi.concourse.ConnectionPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+
+/**
+ * Unit tests for importing college.csv in small batches that are shipped
+ * concurrently over a {@link ConnectionPool}.
+ *
+ * @author Jeff Nelson
+ */
+public class BatchedImportTest extends CsvImportTest {
+
+    /**
+     * The pool that supplies connections to the import workers.
+     */
+    private ConnectionPool pool;
+
+    @Override
+    public void beforeEachTest() {
+        pool = ConnectionPool.newFixedConnectionPool(SERVER_HOST, SERVER_PORT,
+                "admin", "admin", 3);
+        super.beforeEachTest();
+    }
+
+    @Override
+    public void afterEachTest() {
+        try {
+            pool.close();
+        }
+        catch (Exception e) {}
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws IOException {
+        File file = File.createTempFile("batched", ".csv");
+        File checkpoint = new File(file.getAbsolutePath() + ".checkpoint");
+        file.deleteOnExit();
+        Files.write("name,age\njeff,1\nashleah,2\njohn,3\njenna,4\n", file,
+                StandardCharsets.UTF_8);
+        Files.write("2", checkpoint, StandardCharsets.UTF_8);
+        importer.setResumable(true);
+        Set<Long> records = importer.importFile(file.getAbsolutePath());
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("john",
+                client.get("name", (long) Iterables.get(records, 0)));
+        Assert.assertEquals("jenna",
+                client.get("name", (long) Iterables.get(records, 1)));
+        Assert.assertTrue(client.find("name = jeff").isEmpty());
+        Assert.assertFalse(checkpoint.exists());
+    }
+
+    @Test
+    public void testResumeAfterWorkerFailure() throws IOException,
+            InterruptedException {
+        File file = File.createTempFile("batched", ".csv");
+        File checkpoint = new File(file.getAbsolutePath() + ".checkpoint");
+        file.deleteOnExit();
+        Files.write("name,age\njeff,1\nashleah,2\njohn,3\njenna,4\n", file,
+                StandardCharsets.UTF_8);
+        // The batch for the first line fails after the other batches commit
+        final CountDownLatch committed = new CountDownLatch(3);
+        LineBasedImporter failing = new CsvImporter(client) {
+
+            @Override
+            protected Set<Long> importJsonString(Concourse connection,
+                    String json) {
+                if(json.contains("jeff")) {
+                    try {
+                        committed.await();
+                    }
+                    catch (InterruptedException e) {
+                        throw Throwables.propagate(e);
+                    }
+                    throw new IllegalStateException("worker failure");
+                }
+                else {
+                    Set<Long> records = super
+                            .importJsonString(connection, json);
+                    committed.countDown();
+                    return records;
+                }
+            }
+
+        };
+        failing.setBatchSize(1);
+        failing.setConnectionPool(pool, 3);
+        failing.setResumable(true);
+        try {
+            failing.importFile(file.getAbsolutePath());
+            Assert.fail("Expecting the worker failure");
+        }
+        catch (IllegalStateException e) {
+            Assert.assertEquals("worker failure", e.getMessage());
+        }
+        Assert.assertTrue(checkpoint.exists());
+        importer.setResumable(true);
+        Set<Long> records = importer.importFile(file.getAbsolutePath());
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals("jeff",
+                client.get("name", (long) Iterables.getOnlyElement(records)));
+        for (String name : new String[] { "jeff", "ashleah", "john", "jenna" }) {
+            Assert.assertEquals(1, client.find("name = " + name).size());
+        }
+        Assert.assertFalse(checkpoint.exists());
+    }
+
+    @Test
+    public void testImportWithoutCollectingRecords() throws IOException {
+        File file = File.createTempFile("batched", ".csv");
+        File temp = new File(file.getAbsolutePath() + ".checkpoint.tmp");
+        file.deleteOnExit();
+        Files.write("name,age\njeff,1\nashleah,2\njohn,3\njenna,4\n", file,
+                StandardCharsets.UTF_8);
+        importer.setBatchSize(1);
+        importer.setResumable(true);
+        importer.setCollectRecords(false);
+        Set<Long> records = importer.importFile(file.getAbsolutePath());
+        Assert.assertTrue(records.isEmpty());
+        Assert.assertEquals(4, importer.getNumRecordsAffected());
+        for (String name : new String[] { "jeff", "ashleah", "john", "jenna" }) {
+            Assert.assertEquals(1, client.find("name = " + name).size());
+        }
+        Assert.assertFalse(temp.exists());
+    }
+
+    @Override
+    protected LineBasedImporter getImporter() {
+        LineBasedImporter importer = super.getImporter();
+        importer.setBatchSize(7);
+        importer.setConnectionPool(pool, 3);
+        return importer;
+    }
+
+    @Override
+    protected String getImportPath() {
+        return "college.csv";
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package org.cinchapi.concourse.importer;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Set;
@@ -26,7 +29,9 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
 
 /**
  * Unit tests to validate the resolve key functionality.
@@ -45,6 +50,44 @@ public class ResolveKeyTest extends CsvImportTest {
     @Ignore
     public void testImport() {/* noop */}
 
+    @Test
+    public void testResolveKeyFromBrowsedIndex() throws IOException {
+        client.add("code", 1, 1);
+        client.add("code", 2, 2);
+        client.add("code", 2, 3);
+        File file = File.createTempFile("resolve", ".csv");
+        file.deleteOnExit();
+        Files.write("code,name\n1,foo\n2,bar\n3,baz\n", file,
+                StandardCharsets.UTF_8);
+        Set<Long> records = importer.importFile(file.getAbsolutePath(),
+                "code");
+        Assert.assertEquals(ImmutableSet.of(1L, 2L, 3L), records);
+        Assert.assertEquals("foo", client.get("name", 1));
+        Assert.assertEquals("bar", client.get("name", 2));
+        Assert.assertEquals("bar", client.get("name", 3));
+        Assert.assertTrue(client.find("name = baz").isEmpty());
+    }
+
+    @Test
+    public void testResolveKeyMatchesLikeServerEquals() throws IOException {
+        client.add("code", 1.0, 1);
+        client.add("code", 2L, 2);
+        client.add("code", 2, 3);
+        client.add("code", "Foo", 4);
+        File file = File.createTempFile("resolve", ".csv");
+        file.deleteOnExit();
+        Files.write("code,name\n1,one\n2,two\nfoo,three\n", file,
+                StandardCharsets.UTF_8);
+        Set<Long> records = importer.importFile(file.getAbsolutePath(),
+                "code");
+        Assert.assertEquals(ImmutableSet.of(1L, 2L, 3L, 4L), records);
+        Assert.assertEquals("one", client.get("name", 1));
+        Assert.assertEquals("two", client.get("name", 2));
+        Assert.assertEquals("two", client.get("name", 3));
+        Assert.assertEquals("three", client.get("name", 4));
+        Assert.assertEquals(client.find("code = 1"), client.find("name = one"));
+    }
+
     @Test
     @Ignore
     public void testResolveKey() {
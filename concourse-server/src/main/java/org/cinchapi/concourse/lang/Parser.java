@@ -87,6 +87,30 @@ public final class Parser {
         return operandStack.pop();
     }
 
+    /**
+     * Convert a valid and well-formed {@code queue} of symbols in postfix
+     * notation into an {@link AST}.
+     * 
+     * @param queue
+     * @return the symbols in an AST
+     */
+    public static AST toAbstractSyntaxTree(Queue<PostfixNotationSymbol> queue) {
+        Deque<AST> stack = new ArrayDeque<AST>();
+        for (PostfixNotationSymbol symbol : queue) {
+            if(symbol instanceof Expression) {
+                stack.push(ExpressionTree.create((Expression) symbol));
+            }
+            else {
+                addASTNode(stack, symbol);
+            }
+        }
+        if(stack.size() != 1) {
+            throw new SyntaxException(MessageFormat.format(
+                    "Syntax error in {0}: Unbalanced conjunctions", queue));
+        }
+        return stack.pop();
+    }
+
     /**
      * Convert a valid and well-formed list of {@link Symbol} objects into a
      * Queue in postfix notation.
@@ -22,13 +22,15 @@ import java.net.ServerSocket;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Map.Entry;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 import javax.management.InstanceAlreadyExistsException;
@@ -40,27 +42,25 @@ import javax.management.ObjectName;
 
 import org.apache.thrift.TException;
 import org.apache.thrift.server.TServer;
-import org.apache.thrift.server.TThreadPoolServer;
-import org.apache.thrift.server.TThreadPoolServer.Args;
-import org.apache.thrift.transport.TServerSocket;
 import org.apache.thrift.transport.TTransportException;
 import org.cinchapi.concourse.annotate.Alias;
 import org.cinchapi.concourse.annotate.Atomic;
 import org.cinchapi.concourse.annotate.AutoRetry;
 import org.cinchapi.concourse.annotate.Batch;
 import org.cinchapi.concourse.annotate.HistoricalRead;
+import org.cinchapi.concourse.annotate.PackagePrivate;
 import org.cinchapi.concourse.annotate.VersionControl;
-import org.cinchapi.concourse.lang.ConjunctionSymbol;
-import org.cinchapi.concourse.lang.Expression;
 import org.cinchapi.concourse.lang.Parser;
 import org.cinchapi.concourse.lang.PostfixNotationSymbol;
 import org.cinchapi.concourse.lang.Symbol;
 import org.cinchapi.concourse.lang.Language;
 import org.cinchapi.concourse.security.AccessManager;
+import org.cinchapi.concourse.server.concurrent.ConcourseExecutors;
 import org.cinchapi.concourse.server.http.HttpServer;
 import org.cinchapi.concourse.server.io.FileSystem;
 import org.cinchapi.concourse.server.jmx.ConcourseServerMXBean;
 import org.cinchapi.concourse.server.jmx.ManagedOperation;
+import org.cinchapi.concourse.server.query.QueryPlanner;
 import org.cinchapi.concourse.server.storage.AtomicOperation;
 import org.cinchapi.concourse.server.storage.AtomicStateException;
 import org.cinchapi.concourse.server.storage.BufferedStore;
@@ -72,6 +72,7 @@ import org.cinchapi.concourse.server.storage.TransactionStateException;
 import org.cinchapi.concourse.shell.CommandLine;
 import org.cinchapi.concourse.thrift.AccessToken;
 import org.cinchapi.concourse.thrift.ConcourseService;
+import org.cinchapi.concourse.thrift.TCommand;
 import org.cinchapi.concourse.thrift.TCriteria;
 import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.thrift.ConcourseService.Iface;
@@ -88,6 +89,7 @@ import org.cinchapi.concourse.util.DataServices;
 import org.cinchapi.concourse.util.Environments;
 import org.cinchapi.concourse.util.Logger;
 import org.cinchapi.concourse.util.TCollections;
+import org.cinchapi.concourse.util.TMaps;
 import org.cinchapi.concourse.util.TSets;
 import org.cinchapi.concourse.util.Timestamps;
 import org.cinchapi.concourse.util.Version;
@@ -104,7 +106,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 
@@ -237,6 +238,21 @@ public class ConcourseServer implements
         }
     }
 
+    /**
+     * Check to make sure that {@code offset} and {@code limit} describe a
+     * valid page of results.
+     * 
+     * @param offset
+     * @param limit
+     * @throws IllegalArgumentException
+     */
+    private static void checkPage(int offset, int limit)
+            throws IllegalArgumentException {
+        Preconditions.checkArgument(offset >= 0,
+                "The offset cannot be negative");
+        Preconditions.checkArgument(limit > 0, "The limit must be positive");
+    }
+
     /**
      * Do the work to chronologize (generate a chronology of values) for
      * {@code key} in {@code record}. If {@code history} and {@code result} are
@@ -283,6 +299,63 @@ public class ConcourseServer implements
         }
     }
 
+    /**
+     * Check that each of the {@code commands} has all the fields that its verb
+     * needs so that a malformed command is rejected before any of the
+     * {@code commands} are executed.
+     * 
+     * @param commands
+     * @throws TException if any of the {@code commands} is malformed
+     */
+    @PackagePrivate
+    static void checkCommands(List<TCommand> commands) throws TException {
+        for (int i = 0; i < commands.size(); ++i) {
+            TCommand command = commands.get(i);
+            if(command == null || !isWellFormed(command)) {
+                throw new TException("Command " + i + " is malformed: "
+                        + command);
+            }
+        }
+    }
+
+    /**
+     * Return {@code true} if {@code command} has all the fields that its verb
+     * needs to be executed.
+     * 
+     * @param command
+     * @return {@code true} if the {@code command} is well formed
+     */
+    private static boolean isWellFormed(TCommand command) {
+        if(command.getVerb() == null) {
+            return false;
+        }
+        int numValues = command.isSetValues() ? command.getValuesSize() : 0;
+        if(numValues > 0 && command.getValues().contains(null)) {
+            return false;
+        }
+        boolean hasKey = command.isSetKey();
+        boolean hasRecord = command.isSetRecord();
+        switch (command.getVerb()) {
+        case ADD:
+        case REMOVE:
+        case SET:
+        case VERIFY:
+            return hasKey && hasRecord && numValues == 1;
+        case GET:
+        case SELECT:
+            return hasKey && hasRecord;
+        case DESCRIBE:
+            return hasRecord;
+        case FIND:
+            return hasKey && command.isSetOperator() && numValues > 0;
+        case SEARCH:
+            return hasKey && numValues == 1
+                    && command.getValues().get(0).getType() == Type.STRING;
+        default:
+            return false;
+        }
+    }
+
     /**
      * Remove all the values mapped from the {@code key} in {@code record} using
      * the specified {@code atomic} operation.
@@ -298,6 +371,71 @@ public class ConcourseServer implements
         }
     }
 
+    /**
+     * Do the work to execute {@code command} against the {@code store} and
+     * return the values that make up its result.
+     * 
+     * @param command
+     * @param store
+     * @return the result of the command
+     */
+    private static List<TObject> execute0(TCommand command, BufferedStore store) {
+        String key = command.getKey();
+        List<TObject> values = command.getValues();
+        long record = command.getRecord();
+        List<TObject> result = Lists.newArrayList();
+        switch (command.getVerb()) {
+        case ADD:
+            TObject value = values.get(0);
+            boolean added = (value.getType() != Type.LINK || isValidLink(
+                    (Link) Convert.thriftToJava(value), record))
+                    && store.add(key, value, record);
+            result.add(Convert.javaToThrift(added));
+            break;
+        case REMOVE:
+            result.add(Convert.javaToThrift(store.remove(key, values.get(0),
+                    record)));
+            break;
+        case SET:
+            store.set(key, values.get(0), record);
+            break;
+        case VERIFY:
+            result.add(Convert.javaToThrift(store.verify(key, values.get(0),
+                    record)));
+            break;
+        case GET:
+            Set<TObject> selected = store.select(key, record);
+            if(!selected.isEmpty()) {
+                result.add(Iterables.getLast(selected));
+            }
+            break;
+        case SELECT:
+            result.addAll(store.select(key, record));
+            break;
+        case DESCRIBE:
+            for (String described : store.describe(record)) {
+                result.add(Convert.javaToThrift(described));
+            }
+            break;
+        case FIND:
+            TObject[] tValues = values.toArray(new TObject[values.size()]);
+            for (long found : store.find(key, command.getOperator(), tValues)) {
+                result.add(Convert.javaToThrift(found));
+            }
+            break;
+        case SEARCH:
+            String query = (String) Convert.thriftToJava(values.get(0));
+            for (long found : store.search(key, query)) {
+                result.add(Convert.javaToThrift(found));
+            }
+            break;
+        default:
+            throw new UnsupportedOperationException(command.getVerb()
+                    .toString());
+        }
+        return result;
+    }
+
     /**
      * Do the work necessary to complete a complex find operation based on the
      * {@code queue} of symbols.
@@ -308,31 +446,31 @@ public class ConcourseServer implements
      */
     private static void find0(Queue<PostfixNotationSymbol> queue,
             Deque<Set<Long>> stack, AtomicOperation atomic) {
-        // NOTE: there is room to do some query planning/optimization by going
-        // through the pfn and plotting an Abstract Syntax Tree and looking for
-        // the optimal routes to start with
         Preconditions.checkArgument(stack.isEmpty());
-        for (PostfixNotationSymbol symbol : queue) {
-            if(symbol == ConjunctionSymbol.AND) {
-                stack.push(TSets.intersection(stack.pop(), stack.pop()));
-            }
-            else if(symbol == ConjunctionSymbol.OR) {
-                stack.push(TSets.union(stack.pop(), stack.pop()));
-            }
-            else if(symbol instanceof Expression) {
-                Expression exp = (Expression) symbol;
-                stack.push(exp.getTimestampRaw() == 0 ? atomic.find(
-                        exp.getKeyRaw(), exp.getOperatorRaw(),
-                        exp.getValuesRaw()) : atomic.find(
-                        exp.getTimestampRaw(), exp.getKeyRaw(),
-                        exp.getOperatorRaw(), exp.getValuesRaw()));
-            }
-            else {
-                // If we reach here, then the conversion to postfix notation
-                // failed :-/
-                throw new IllegalStateException();
-            }
-        }
+        stack.push(QueryPlanner.find(Parser.toAbstractSyntaxTree(queue),
+                atomic));
+    }
+
+    /**
+     * Do the work necessary to find the records that match the {@code queue}
+     * of symbols, sort them by {@code order} and return the page of at most
+     * {@code limit} records that starts at {@code offset}.
+     * 
+     * @param queue
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @param atomic
+     * @return the records in the page, in order
+     */
+    private static List<Long> findPage0(Queue<PostfixNotationSymbol> queue,
+            String order, boolean descending, int offset, int limit,
+            AtomicOperation atomic) {
+        Deque<Set<Long>> stack = new ArrayDeque<Set<Long>>();
+        find0(queue, stack, atomic);
+        return QueryPlanner.page(stack.pop(), order, descending, offset,
+                limit, atomic);
     }
 
     /**
@@ -472,18 +610,39 @@ public class ConcourseServer implements
      */
     private static final String ACCESS_FILE = ".access";
 
-    private static final int MIN_HEAP_SIZE = 268435456; // 256 MB
+    /**
+     * The number of milliseconds that a {@link Cursor} may go without being
+     * fetched before it is closed by the {@link #scheduler}.
+     */
+    private static final long CURSOR_IDLE_TIMEOUT_IN_MILLIS = TimeUnit.MINUTES
+            .toMillis(10);
+
+    /**
+     * The number of milliseconds between each check for idle {@link Cursor
+     * cursors}.
+     */
+    private static final long CURSOR_SWEEP_FREQUENCY_IN_MILLIS = TimeUnit.MINUTES
+            .toMillis(1);
 
-    private static final int NUM_WORKER_THREADS = 100; // This may become
-                                                       // configurable in a
-                                                       // prefs file in a
-                                                       // future release.
+    private static final int MIN_HEAP_SIZE = 268435456; // 256 MB
 
     /**
      * The base location where the indexed buffer pages are stored.
      */
     private final String bufferStore;
 
+    /**
+     * The server maintains a collection of {@link Cursor} objects so that
+     * clients can page through large result sets. When the client makes a call
+     * to {@link #openCursorCriteria(TCriteria, AccessToken, TransactionToken, String)}
+     * a Cursor is opened on the server and its id is used for the client to
+     * fetch pages from that Cursor in future calls. A Cursor is removed once
+     * it is exhausted, when the client calls
+     * {@link #closeCursor(long, AccessToken, TransactionToken, String)} or
+     * after it has been idle for {@link #CURSOR_IDLE_TIMEOUT_IN_MILLIS}.
+     */
+    private final Map<Long, Cursor> cursors = new NonBlockingHashMap<Long, Cursor>();
+
     /**
      * The base location where the indexed database records are stored.
      */
@@ -503,6 +662,13 @@ public class ConcourseServer implements
      */
     private final AccessManager manager;
 
+    /**
+     * The executor that is used to schedule some regular tasks. It is created
+     * when the server {@link #start() starts} so that constructing a server
+     * does not spawn any threads.
+     */
+    private ScheduledExecutorService scheduler;
+
     /**
      * The Thrift server controls the RPC protocol. Use
      * https://github.com/m1ch1/mapkeeper/wiki/Thrift-Java-Servers-Compared for
@@ -554,16 +720,10 @@ public class ConcourseServer implements
         FileSystem.mkdirs(dbStore);
         FileSystem.lock(bufferStore);
         FileSystem.lock(dbStore);
-        TServerSocket socket = new TServerSocket(port);
         ConcourseService.Processor<Iface> processor = new ConcourseService.Processor<Iface>(
                 this);
-        Args args = new TThreadPoolServer.Args(socket);
-        args.processor(processor);
-        args.maxWorkerThreads(NUM_WORKER_THREADS);
-        args.executorService(Executors
-                .newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
-                        "Client Worker" + " %d").build()));
-        this.server = new TThreadPoolServer(args);
+        this.server = RpcServerMode.forName(RPC_SERVER_MODE).create(processor,
+                port, RPC_WORKER_THREADS, MAX_CLIENT_CONNECTIONS);
         this.bufferStore = bufferStore;
         this.dbStore = dbStore;
         this.engines = Maps.newConcurrentMap();
@@ -578,6 +738,7 @@ public class ConcourseServer implements
             String env) throws TException {
         checkAccess(creds, transaction);
         transactions.remove(transaction).abort();
+        closeCursors(transaction);
     }
 
     @Override
@@ -1060,6 +1221,17 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public void closeCursor(long cursor, AccessToken creds,
+            TransactionToken transaction, String environment)
+            throws TException {
+        checkAccess(creds, transaction);
+        Cursor open = cursors.get(cursor);
+        if(open != null && open.isOwnedBy(creds, transaction, environment)) {
+            cursors.remove(cursor);
+        }
+    }
+
     @Override
     public boolean commit(AccessToken creds, TransactionToken transaction,
             String env) throws TException {
@@ -1070,6 +1242,15 @@ public class ConcourseServer implements
         catch (TransactionStateException e) {
             throw new TTransactionException();
         }
+        finally {
+            closeCursors(transaction);
+        }
+    }
+
+    @Override
+    @ManagedOperation
+    public void compact(String env) {
+        getEngine(env).compact();
     }
 
     @Override
@@ -1160,6 +1341,68 @@ public class ConcourseServer implements
         return getEngine(env).dump(id);
     }
 
+    @Override
+    @Batch
+    public List<List<TObject>> executeCommands(List<TCommand> commands,
+            boolean atomic, AccessToken creds, TransactionToken transaction,
+            String environment) throws TException {
+        checkAccess(creds, transaction);
+        checkCommands(commands);
+        try {
+            Compoundable store = getStore(transaction, environment);
+            List<List<TObject>> result = Lists.newArrayListWithCapacity(commands
+                    .size());
+            if(atomic) {
+                AtomicOperation operation = null;
+                while (operation == null || !operation.commit()) {
+                    operation = store.startAtomicOperation();
+                    result.clear();
+                    try {
+                        for (TCommand command : commands) {
+                            result.add(execute0(command, operation));
+                        }
+                    }
+                    catch (AtomicStateException e) {
+                        operation = null;
+                    }
+                }
+            }
+            else {
+                for (TCommand command : commands) {
+                    result.add(execute0(command, (BufferedStore) store));
+                }
+            }
+            return result;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+    }
+
+    @Override
+    public Map<Long, Map<String, Set<TObject>>> fetchCursor(long cursor,
+            int size, AccessToken creds, TransactionToken transaction,
+            String environment) throws TException {
+        checkAccess(creds, transaction);
+        Preconditions.checkArgument(size > 0, "The page size must be positive");
+        Cursor open = cursors.get(cursor);
+        if(open == null || !open.isOwnedBy(creds, transaction, environment)) {
+            throw new TSecurityException("Invalid cursor");
+        }
+        try {
+            Map<Long, Map<String, Set<TObject>>> page = open.next(size,
+                    getStore(transaction, environment));
+            if(page.size() < size) {
+                cursors.remove(cursor);
+            }
+            return page;
+        }
+        catch (TransactionStateException e) {
+            cursors.remove(cursor);
+            throw new TTransactionException();
+        }
+    }
+
     @Override
     public Set<Long> find(AccessToken creds, TransactionToken transaction,
             String environment) throws TException {
@@ -1200,6 +1443,37 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public List<Long> findCclPage(String ccl, String order,
+            boolean descending, int offset, int limit, AccessToken creds,
+            TransactionToken transaction, String environment) throws TException {
+        checkAccess(creds, transaction);
+        checkPage(offset, limit);
+        try {
+            Queue<PostfixNotationSymbol> queue = Parser.toPostfixNotation(ccl);
+            Compoundable store = getStore(transaction, environment);
+            List<Long> page = null;
+            AtomicOperation atomic = null;
+            while (atomic == null || !atomic.commit()) {
+                atomic = store.startAtomicOperation();
+                try {
+                    page = findPage0(queue, order, descending, offset, limit,
+                            atomic);
+                }
+                catch (AtomicStateException e) {
+                    atomic = null;
+                }
+            }
+            return page;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+        catch (Exception e) {
+            throw new TParseException(e.getMessage());
+        }
+    }
+
     @Override
     @Atomic
     @Batch
@@ -1227,6 +1501,34 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public List<Long> findCriteriaPage(TCriteria criteria, String order,
+            boolean descending, int offset, int limit, AccessToken creds,
+            TransactionToken transaction, String environment) throws TException {
+        checkAccess(creds, transaction);
+        checkPage(offset, limit);
+        try {
+            Queue<PostfixNotationSymbol> queue = parse0(criteria);
+            Compoundable store = getStore(transaction, environment);
+            List<Long> page = null;
+            AtomicOperation atomic = null;
+            while (atomic == null || !atomic.commit()) {
+                atomic = store.startAtomicOperation();
+                try {
+                    page = findPage0(queue, order, descending, offset, limit,
+                            atomic);
+                }
+                catch (AtomicStateException e) {
+                    atomic = null;
+                }
+            }
+            return page;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+    }
+
     @Override
     public Set<Long> findKeyOperatorValues(String key, Operator operator,
             List<TObject> values, AccessToken creds,
@@ -1472,6 +1774,24 @@ public class ConcourseServer implements
         return getEngine(env).getDumpList();
     }
 
+    @Override
+    @ManagedOperation
+    public String getCompactionStatus(String env) {
+        return getEngine(env).getCompactionStatus();
+    }
+
+    @Override
+    @ManagedOperation
+    public String getTransportStatus(String env) {
+        return getEngine(env).getTransportStatus();
+    }
+
+    @Override
+    @ManagedOperation
+    public String getExecutorStats() {
+        return ConcourseExecutors.getStats();
+    }
+
     @Override
     public Map<Long, TObject> getKeyCcl(String key, String ccl,
             AccessToken creds, TransactionToken transaction, String environment)
@@ -2082,6 +2402,7 @@ public class ConcourseServer implements
             AtomicOperation atomic = null;
             while (atomic == null || !atomic.commit()) {
                 atomic = store.startAtomicOperation();
+                records.clear(); // forget the records from a failed commit
                 try {
                     for (Multimap<String, Object> object : objects) {
                         long record = Time.now();
@@ -2096,7 +2417,6 @@ public class ConcourseServer implements
                 }
                 catch (AtomicStateException e) {
                     atomic = null;
-                    records.clear();
                 }
             }
             return records;
@@ -2249,6 +2569,20 @@ public class ConcourseServer implements
     public void logout(AccessToken creds, String env) throws TException {
         checkAccess(creds, null);
         manager.expireAccessToken(creds);
+        closeCursors(creds);
+    }
+
+    @Override
+    public long openCursorCriteria(TCriteria criteria, AccessToken creds,
+            TransactionToken transaction, String environment) throws TException {
+        return openCursor0(null, criteria, creds, transaction, environment);
+    }
+
+    @Override
+    public long openCursorKeysCriteria(List<String> keys, TCriteria criteria,
+            AccessToken creds, TransactionToken transaction, String environment)
+            throws TException {
+        return openCursor0(keys, criteria, creds, transaction, environment);
     }
 
     @Override
@@ -2460,6 +2794,12 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    @ManagedOperation
+    public void setTransportMode(String mode, String env) {
+        getEngine(env).setTransportMode(mode);
+    }
+
     @Override
     @ManagedOperation
     public void revoke(byte[] username) {
@@ -2479,6 +2819,20 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public Map<Long, Integer> searchRanked(String key, String query,
+            int limit, int offset, int minScore, AccessToken creds,
+            TransactionToken transaction, String env) throws TException {
+        checkAccess(creds, transaction);
+        try {
+            return TMaps.top(getStore(transaction, env).rank(key, query),
+                    offset, limit, minScore);
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+    }
+
     @Override
     public Map<Long, Map<String, Set<TObject>>> selectCcl(String ccl,
             AccessToken creds, TransactionToken transaction, String environment)
@@ -2519,6 +2873,46 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public Map<Long, Map<String, Set<TObject>>> selectCclPage(
+            String ccl, String order, boolean descending, int offset,
+            int limit, AccessToken creds, TransactionToken transaction,
+            String environment) throws TException {
+        checkAccess(creds, transaction);
+        checkPage(offset, limit);
+        try {
+            Queue<PostfixNotationSymbol> queue = Parser.toPostfixNotation(ccl);
+            Compoundable store = getStore(transaction, environment);
+            Map<Long, Map<String, Set<TObject>>> result = Maps
+                    .newLinkedHashMap();
+            AtomicOperation atomic = null;
+            while (atomic == null || !atomic.commit()) {
+                atomic = store.startAtomicOperation();
+                try {
+                    for (long record : findPage0(queue, order, descending,
+                            offset, limit, atomic)) {
+                        Map<String, Set<TObject>> entry = Maps.newHashMap();
+                        for (String key : atomic.describe(record)) {
+                            entry.put(key, atomic.select(key, record));
+                        }
+                        result.put(record, entry);
+                    }
+                }
+                catch (AtomicStateException e) {
+                    result.clear();
+                    atomic = null;
+                }
+            }
+            return result;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+        catch (Exception e) {
+            throw new TParseException(e.getMessage());
+        }
+    }
+
     @Override
     public Map<Long, Map<String, Set<TObject>>> selectCclTime(String ccl,
             long timestamp, AccessToken creds, TransactionToken transaction,
@@ -2597,6 +2991,43 @@ public class ConcourseServer implements
         }
     }
 
+    @Override
+    public Map<Long, Map<String, Set<TObject>>> selectCriteriaPage(
+            TCriteria criteria, String order, boolean descending, int offset,
+            int limit, AccessToken creds, TransactionToken transaction,
+            String environment) throws TException {
+        checkAccess(creds, transaction);
+        checkPage(offset, limit);
+        try {
+            Queue<PostfixNotationSymbol> queue = parse0(criteria);
+            Compoundable store = getStore(transaction, environment);
+            Map<Long, Map<String, Set<TObject>>> result = Maps
+                    .newLinkedHashMap();
+            AtomicOperation atomic = null;
+            while (atomic == null || !atomic.commit()) {
+                atomic = store.startAtomicOperation();
+                try {
+                    for (long record : findPage0(queue, order, descending,
+                            offset, limit, atomic)) {
+                        Map<String, Set<TObject>> entry = Maps.newHashMap();
+                        for (String key : atomic.describe(record)) {
+                            entry.put(key, atomic.select(key, record));
+                        }
+                        result.put(record, entry);
+                    }
+                }
+                catch (AtomicStateException e) {
+                    result.clear();
+                    atomic = null;
+                }
+            }
+            return result;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+    }
+
     @Override
     public Map<Long, Map<String, Set<TObject>>> selectCriteriaTime(
             TCriteria criteria, long timestamp, AccessToken creds,
@@ -3270,6 +3701,20 @@ public class ConcourseServer implements
             engine.start();
         }
         httpServer.start();
+        scheduler = ConcourseExecutors
+                .newSingleThreadScheduledExecutor("Server Scheduler");
+        scheduler.scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                closeIdleCursors(Time.now()
+                        - TimeUnit.MICROSECONDS.convert(
+                                CURSOR_IDLE_TIMEOUT_IN_MILLIS,
+                                TimeUnit.MILLISECONDS));
+            }
+
+        }, CURSOR_SWEEP_FREQUENCY_IN_MILLIS, CURSOR_SWEEP_FREQUENCY_IN_MILLIS,
+                TimeUnit.MILLISECONDS);
         System.out.println("The Concourse server has started");
         server.serve();
     }
@@ -3281,6 +3726,7 @@ public class ConcourseServer implements
         if(server.isServing()) {
             server.stop();
             httpServer.stop();
+            scheduler.shutdownNow();
             for (Engine engine : engines.values()) {
                 engine.stop();
             }
@@ -3391,6 +3837,50 @@ public class ConcourseServer implements
                     .containsKey(transaction)) || transaction == null);
     }
 
+    /**
+     * Close all of the {@link #cursors} that were opened by {@code creds}.
+     * 
+     * @param creds
+     */
+    private void closeCursors(AccessToken creds) {
+        Iterator<Cursor> it = cursors.values().iterator();
+        while (it.hasNext()) {
+            if(it.next().isOwnedBy(creds)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Close all of the {@link #cursors} that have not been fetched since
+     * {@code timestamp}.
+     * 
+     * @param timestamp
+     */
+    private void closeIdleCursors(long timestamp) {
+        Iterator<Cursor> it = cursors.values().iterator();
+        while (it.hasNext()) {
+            if(it.next().isIdleSince(timestamp)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Close all of the {@link #cursors} that were opened within
+     * {@code transaction}.
+     * 
+     * @param transaction
+     */
+    private void closeCursors(TransactionToken transaction) {
+        Iterator<Cursor> it = cursors.values().iterator();
+        while (it.hasNext()) {
+            if(it.next().isWithin(transaction)) {
+                it.remove();
+            }
+        }
+    }
+
     /**
      * Return the {@link Engine} that is associated with the
      * {@link Default#ENVIRONMENT}.
@@ -3462,6 +3952,54 @@ public class ConcourseServer implements
         return login(username, password, DEFAULT_ENVIRONMENT);
     }
 
+    /**
+     * Open a {@link Cursor} over the {@code keys} in the records that match
+     * {@code criteria} and return its id. If {@code keys} is {@code null},
+     * every key in each record is read.
+     * 
+     * @param keys
+     * @param criteria
+     * @param creds
+     * @param transaction
+     * @param environment
+     * @return the id of the Cursor
+     * @throws TException
+     */
+    private long openCursor0(@Nullable List<String> keys, TCriteria criteria,
+            AccessToken creds, TransactionToken transaction, String environment)
+            throws TException {
+        checkAccess(creds, transaction);
+        try {
+            Queue<PostfixNotationSymbol> queue = parse0(criteria);
+            Compoundable store = getStore(transaction, environment);
+            Set<Long> records = null;
+            long timestamp = 0;
+            AtomicOperation atomic = null;
+            while (atomic == null || !atomic.commit()) {
+                atomic = store.startAtomicOperation();
+                try {
+                    Deque<Set<Long>> stack = new ArrayDeque<Set<Long>>();
+                    find0(queue, stack, atomic);
+                    records = Sets.newTreeSet(stack.pop());
+                    // Any write that changes the matches after this point
+                    // fails the commit, so the matches are current as of
+                    // the timestamp.
+                    timestamp = Time.now();
+                }
+                catch (AtomicStateException e) {
+                    atomic = null;
+                }
+            }
+            long cursor = Time.now();
+            cursors.put(cursor, new Cursor(records, keys, timestamp, creds,
+                    transaction, environment));
+            return cursor;
+        }
+        catch (TransactionStateException e) {
+            throw new TTransactionException();
+        }
+    }
+
     /**
      * Validate that the {@code username} and {@code password} pair represent
      * correct credentials. If not, throw a TSecurityException.
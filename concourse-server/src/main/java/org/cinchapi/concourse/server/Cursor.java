@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.cinchapi.concourse.server.storage.Store;
+import org.cinchapi.concourse.thrift.AccessToken;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.thrift.TransactionToken;
+import org.cinchapi.concourse.time.Time;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+
+/**
+ * A {@link Cursor} remembers the records that matched a query so that the data
+ * in those records can be returned to the client one page at a time instead of
+ * in a single response.
+ * <p>
+ * Only the ids of the matching records are held between pages, so a cursor
+ * uses memory in proportion to the number of matches and not the amount of
+ * data they contain. Every page is read as of the {@code timestamp} when the
+ * cursor was opened, so the client sees a consistent snapshot even if the
+ * records are modified while it is paging through them.
+ * </p>
+ *
+ * @author Jeff Nelson
+ */
+@ThreadSafe
+final class Cursor {
+
+    /**
+     * The credentials of the client that opened the cursor.
+     */
+    private final AccessToken creds;
+
+    /**
+     * The environment that contains the records.
+     */
+    private final String environment;
+
+    /**
+     * The keys to read from each record, or {@code null} to read all the keys
+     * that each record contains.
+     */
+    @Nullable
+    private final List<String> keys;
+
+    /**
+     * The time when the cursor was opened or last fetched.
+     */
+    private volatile long lastAccessTime = Time.now();
+
+    /**
+     * The records that have not been returned yet.
+     */
+    private final Iterator<Long> records;
+
+    /**
+     * The timestamp at which the records are read.
+     */
+    private final long timestamp;
+
+    /**
+     * The transaction in which the cursor was opened, if any.
+     */
+    @Nullable
+    private final TransactionToken transaction;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param records
+     * @param keys
+     * @param timestamp
+     * @param creds
+     * @param transaction
+     * @param environment
+     */
+    Cursor(Set<Long> records, @Nullable List<String> keys, long timestamp,
+            AccessToken creds, @Nullable TransactionToken transaction,
+            String environment) {
+        this.records = records.iterator();
+        this.keys = keys;
+        this.timestamp = timestamp;
+        this.creds = creds;
+        this.transaction = transaction;
+        this.environment = environment;
+    }
+
+    /**
+     * Return {@code true} if the cursor was opened by the client that is
+     * identified by {@code creds} within the same {@code transaction} and
+     * {@code environment}.
+     *
+     * @param creds
+     * @param transaction
+     * @param environment
+     * @return {@code true} if the client may read from the cursor
+     */
+    boolean isOwnedBy(AccessToken creds,
+            @Nullable TransactionToken transaction, String environment) {
+        return this.creds.equals(creds)
+                && Objects.equal(this.transaction, transaction)
+                && this.environment.equals(environment);
+    }
+
+    /**
+     * Return {@code true} if the cursor was opened by the client that is
+     * identified by {@code creds}.
+     *
+     * @param creds
+     * @return {@code true} if {@code creds} opened the cursor
+     */
+    boolean isOwnedBy(AccessToken creds) {
+        return this.creds.equals(creds);
+    }
+
+    /**
+     * Return {@code true} if the cursor has not been opened or fetched since
+     * {@code timestamp}.
+     *
+     * @param timestamp
+     * @return {@code true} if the cursor is idle
+     */
+    boolean isIdleSince(long timestamp) {
+        return lastAccessTime < timestamp;
+    }
+
+    /**
+     * Return {@code true} if the cursor was opened within {@code transaction}.
+     *
+     * @param transaction
+     * @return {@code true} if the cursor belongs to {@code transaction}
+     */
+    boolean isWithin(TransactionToken transaction) {
+        return transaction.equals(this.transaction);
+    }
+
+    /**
+     * Read the next page of at most {@code size} records from {@code store}.
+     * If the returned page contains fewer than {@code size} records, the
+     * cursor is exhausted.
+     *
+     * @param size
+     * @param store
+     * @return a mapping from each record in the page to its data
+     */
+    synchronized Map<Long, Map<String, Set<TObject>>> next(int size,
+            Store store) {
+        Map<Long, Map<String, Set<TObject>>> page = Maps.newLinkedHashMap();
+        while (page.size() < size && records.hasNext()) {
+            long record = records.next();
+            Map<String, Set<TObject>> entry = Maps.newHashMap();
+            for (String key : keys != null ? keys : store.describe(record,
+                    timestamp)) {
+                entry.put(key, store.select(key, record, timestamp));
+            }
+            page.put(record, entry);
+        }
+        lastAccessTime = Time.now();
+        return page;
+    }
+
+}
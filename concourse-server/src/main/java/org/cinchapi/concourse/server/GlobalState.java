@@ -90,6 +90,62 @@ public final class GlobalState extends Constants {
      */
     public static int BUFFER_PAGE_SIZE = 8192;
 
+    /**
+     * The number of microseconds that the Buffer waits for other writers to
+     * join a group commit before it forces the pending writes to disk. With
+     * group commit, concurrent writers append to the current page without
+     * syncing and a single background thread performs one sync on behalf of
+     * the entire group, so the number of syncs grows with time instead of
+     * with the number of writes. A value of 0 disables group commit, in which
+     * case each write is synced as soon as it is appended.
+     */
+    public static int BUFFER_GROUP_COMMIT_WINDOW = 0;
+
+    /**
+     * The name of the policy that each environment initially uses to decide
+     * how aggressively Writes are transported from the Buffer to the
+     * Database (i.e. adaptive, throughput, low-latency-reads or idle-only).
+     * The policy for an environment can be changed at runtime over JMX.
+     */
+    public static String TRANSPORT_MODE = "adaptive";
+
+    /**
+     * The maximum number of bytes that are merged into a single Block when
+     * the Database compacts adjacent Blocks in the background. Compaction
+     * keeps the number of Blocks (and therefore the cost of each read) from
+     * growing with uptime, but each merge must fit in memory. A value of 0
+     * disables compaction.
+     */
+    public static long MAX_COMPACTION_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * The engine that is used to index full text search data in a newly
+     * created environment. The INFIX engine indexes every substring of each
+     * term, which is fast to query but requires space that grows with the
+     * square of the term length. The NGRAM engine only indexes substrings of
+     * at most 3 characters, which requires space that grows linearly with the
+     * term length, and verifies longer queries by their character offsets. An
+     * existing environment always keeps the engine that created it.
+     */
+    public static String SEARCH_ENGINE = "ngram";
+
+    /**
+     * The maximum number of bytes of search postings that each environment
+     * caches in memory. The postings for each term that is searched in a key
+     * are cached so that repeated searches (i.e. autocomplete) do not seek
+     * every search block on disk. A value of 0 disables the cache.
+     */
+    public static long SEARCH_CACHE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The number of Blocks at or above which the Database seeks the Blocks
+     * for an uncached record in parallel instead of one after another on the
+     * caller's thread. Each Block is read and decoded on a dedicated
+     * fork-join pool and the revisions are then appended to the record in
+     * Block order. A value of 0 disables parallel seeks.
+     */
+    public static int PARALLEL_SEEK_THRESHOLD = 16;
+
     /**
      * The listener port (1-65535) for client connections. Choose a port between
      * 49152 and 65535 to minimize the possibility of conflicts with other
@@ -97,6 +153,32 @@ public final class GlobalState extends Constants {
      */
     public static int CLIENT_PORT = 1717;
 
+    /**
+     * The I/O model of the server that accepts client connections (i.e.
+     * thread-pool, hsha or selector). The thread-pool server dedicates a
+     * thread to each connection, so each idle connection still costs a
+     * thread. The hsha and selector servers multiplex every connection over a
+     * few selector threads and process requests on a bounded pool of
+     * rpc_worker_threads, but they require clients to use framed transport
+     * (which the Java driver negotiates automatically).
+     */
+    public static String RPC_SERVER_MODE = "thread-pool";
+
+    /**
+     * The number of threads that process client requests when the
+     * rpc_server_mode is hsha or selector. A value of 0 uses one thread per
+     * processor.
+     */
+    public static int RPC_WORKER_THREADS = 0;
+
+    /**
+     * The maximum number of client connections that may be open at once when
+     * the rpc_server_mode is hsha or selector. Additional connections are
+     * closed as soon as they are accepted. A value of 0 means that there is no
+     * limit.
+     */
+    public static int MAX_CLIENT_CONNECTIONS = 0;
+
     /**
      * The port on which the ShutdownRunner listens. Choose a port between
      * 49152 and 65535 to minimize the possibility of conflicts with other
@@ -198,8 +280,34 @@ public final class GlobalState extends Constants {
             BUFFER_PAGE_SIZE = (int) config.getSize("buffer_page_size",
                     BUFFER_PAGE_SIZE);
 
+            BUFFER_GROUP_COMMIT_WINDOW = config.getInt(
+                    "buffer_group_commit_window", BUFFER_GROUP_COMMIT_WINDOW);
+
+            TRANSPORT_MODE = config.getString("transport_mode",
+                    TRANSPORT_MODE);
+
+            MAX_COMPACTION_SIZE = config.getSize("max_compaction_size",
+                    MAX_COMPACTION_SIZE);
+
+            SEARCH_ENGINE = config.getString("search_engine", SEARCH_ENGINE);
+
+            SEARCH_CACHE_SIZE = config.getSize("search_cache_size",
+                    SEARCH_CACHE_SIZE);
+
+            PARALLEL_SEEK_THRESHOLD = config.getInt("parallel_seek_threshold",
+                    PARALLEL_SEEK_THRESHOLD);
+
             CLIENT_PORT = config.getInt("client_port", CLIENT_PORT);
 
+            RPC_SERVER_MODE = config.getString("rpc_server_mode",
+                    RPC_SERVER_MODE);
+
+            RPC_WORKER_THREADS = config.getInt("rpc_worker_threads",
+                    RPC_WORKER_THREADS);
+
+            MAX_CLIENT_CONNECTIONS = config.getInt("max_client_connections",
+                    MAX_CLIENT_CONNECTIONS);
+
             SHUTDOWN_PORT = config.getInt("shutdown_port",
                     Networking.getCompanionPort(CLIENT_PORT, 2));
 
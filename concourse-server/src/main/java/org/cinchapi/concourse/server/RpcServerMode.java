@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.server.ServerContext;
+import org.apache.thrift.server.THsHaServer;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TServerEventHandler;
+import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TNonblockingServerSocket;
+import org.apache.thrift.transport.TNonblockingSocket;
+import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.cinchapi.concourse.server.concurrent.ConcourseExecutors;
+import org.cinchapi.concourse.util.CopyingBinaryProtocol;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The I/O model of the Thrift server that accepts client connections.
+ * <p>
+ * The {@link #THREAD_POOL} server dedicates a thread to each connection for
+ * the lifetime of the connection, which is simple but means that idle pooled
+ * connections each pin a thread (and its stack). The {@link #HSHA} and
+ * {@link #SELECTOR} servers multiplex all the connections over a small number
+ * of selector threads and only hand a request to a bounded pool of worker
+ * threads once the entire request has been read, so the number of threads
+ * depends on the number of processors instead of the number of connections.
+ * The non-blocking servers require clients to use framed transport, read
+ * requests with a {@link CopyingBinaryProtocol} and can limit the number of
+ * connections that are open at once.
+ * </p>
+ *
+ * @author Jeff Nelson
+ */
+public enum RpcServerMode {
+
+    /**
+     * Dedicate a thread from an unbounded pool to each connection.
+     */
+    THREAD_POOL {
+
+        @Override
+        public TServer create(TProcessor processor, int port,
+                int workerThreads, int maxConnections)
+                throws TTransportException {
+            TServerSocket socket = new TServerSocket(port);
+            TThreadPoolServer.Args args = new TThreadPoolServer.Args(socket);
+            args.processor(processor);
+            args.maxWorkerThreads(NUM_WORKER_THREADS);
+            args.executorService(Executors
+                    .newCachedThreadPool(new ThreadFactoryBuilder()
+                            .setNameFormat("Client Worker" + " %d").build()));
+            return new TThreadPoolServer(args);
+        }
+
+    },
+
+    /**
+     * Read and write all the connections on a single selector thread and
+     * process requests on a bounded pool of worker threads.
+     */
+    HSHA {
+
+        @Override
+        public TServer create(TProcessor processor, int port,
+                int workerThreads, int maxConnections)
+                throws TTransportException {
+            ConnectionLimit limit = new ConnectionLimit(maxConnections);
+            THsHaServer.Args args = new THsHaServer.Args(
+                    new LimitedServerSocket(port, limit));
+            args.processor(processor);
+            args.transportFactory(new TFramedTransport.Factory());
+            args.protocolFactory(new CopyingBinaryProtocol.Factory());
+            args.executorService(newWorkerPool(workerThreads,
+                    maxConnections));
+            TServer server = new THsHaServer(args);
+            server.setServerEventHandler(limit);
+            return server;
+        }
+
+    },
+
+    /**
+     * Accept connections on a dedicated thread, read and write them on a
+     * small number of selector threads and process requests on a bounded pool
+     * of worker threads.
+     */
+    SELECTOR {
+
+        @Override
+        public TServer create(TProcessor processor, int port,
+                int workerThreads, int maxConnections)
+                throws TTransportException {
+            ConnectionLimit limit = new ConnectionLimit(maxConnections);
+            TThreadedSelectorServer.Args args = new TThreadedSelectorServer.Args(
+                    new LimitedServerSocket(port, limit));
+            args.processor(processor);
+            args.transportFactory(new TFramedTransport.Factory());
+            args.protocolFactory(new CopyingBinaryProtocol.Factory());
+            args.executorService(newWorkerPool(workerThreads,
+                    maxConnections));
+            TServer server = new TThreadedSelectorServer(args);
+            server.setServerEventHandler(limit);
+            return server;
+        }
+
+    };
+
+    /**
+     * Return the RpcServerMode with the case insensitive {@code name}, in
+     * which words may be separated by spaces, dashes or underscores.
+     *
+     * @param name
+     * @return the RpcServerMode
+     */
+    public static RpcServerMode forName(String name) {
+        return valueOf(name.trim().replaceAll("[\\s-]+", "_").toUpperCase());
+    }
+
+    /**
+     * The maximum number of worker threads for the {@link #THREAD_POOL}
+     * server.
+     */
+    private static final int NUM_WORKER_THREADS = 100;
+
+    /**
+     * The maximum number of requests that wait for a worker thread in a
+     * non-blocking server that doesn't limit the number of connections.
+     */
+    private static final int MAX_QUEUED_REQUESTS = 1024;
+
+    /**
+     * Return a fixed size pool of {@code workerThreads} threads (or one thread
+     * per processor if {@code workerThreads} is not positive) that processes
+     * the requests for a non-blocking server. Each connection has at most one
+     * request in flight, so the queue is bounded by {@code maxConnections}
+     * (or {@link #MAX_QUEUED_REQUESTS} if there is no limit). If the queue is
+     * ever full, the selector thread processes the request itself, which
+     * stops it from reading more requests until the workers catch up.
+     *
+     * @param workerThreads
+     * @param maxConnections
+     * @return the worker pool
+     */
+    private static ExecutorService newWorkerPool(int workerThreads,
+            int maxConnections) {
+        return ConcourseExecutors.newBoundedExecutor("rpc-worker-thread",
+                workerThreads > 0 ? workerThreads : Runtime.getRuntime()
+                        .availableProcessors(),
+                maxConnections > 0 ? maxConnections : MAX_QUEUED_REQUESTS);
+    }
+
+    /**
+     * Return a new server that listens for client connections on {@code port}
+     * and uses {@code processor} to handle requests.
+     *
+     * @param processor
+     * @param port
+     * @param workerThreads the number of threads that process requests for
+     *            a non-blocking server, or 0 for one per processor
+     * @param maxConnections the maximum number of connections that a
+     *            non-blocking server keeps open at once, or 0 for no limit
+     * @return the server
+     * @throws TTransportException
+     */
+    public abstract TServer create(TProcessor processor, int port,
+            int workerThreads, int maxConnections) throws TTransportException;
+
+    /**
+     * A {@link TServerEventHandler} that counts the open connections of a
+     * server so that the {@link LimitedServerSocket} can refuse new
+     * connections once the limit is reached.
+     *
+     * @author Jeff Nelson
+     */
+    private static final class ConnectionLimit implements TServerEventHandler {
+
+        /**
+         * The number of connections that are currently open.
+         */
+        private final AtomicInteger connections = new AtomicInteger(0);
+
+        /**
+         * The maximum number of open connections, or 0 for no limit.
+         */
+        private final int max;
+
+        /**
+         * Construct a new instance.
+         *
+         * @param max
+         */
+        ConnectionLimit(int max) {
+            this.max = max;
+        }
+
+        @Override
+        public ServerContext createContext(TProtocol input, TProtocol output) {
+            connections.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        public void deleteContext(ServerContext context, TProtocol input,
+                TProtocol output) {
+            connections.decrementAndGet();
+        }
+
+        /**
+         * Return {@code true} if the server cannot accept another connection.
+         *
+         * @return {@code true} if the limit is reached
+         */
+        boolean isReached() {
+            return max > 0 && connections.get() >= max;
+        }
+
+        @Override
+        public void preServe() {}
+
+        @Override
+        public void processContext(ServerContext context,
+                TTransport inputTransport, TTransport outputTransport) {}
+
+    }
+
+    /**
+     * A {@link TNonblockingServerSocket} that closes each new connection
+     * while its {@link ConnectionLimit} is reached.
+     *
+     * @author Jeff Nelson
+     */
+    private static final class LimitedServerSocket extends
+            TNonblockingServerSocket {
+
+        /**
+         * The limit that is checked before each connection is accepted.
+         */
+        private final ConnectionLimit limit;
+
+        /**
+         * Construct a new instance.
+         *
+         * @param port
+         * @param limit
+         * @throws TTransportException
+         */
+        LimitedServerSocket(int port, ConnectionLimit limit)
+                throws TTransportException {
+            super(port);
+            this.limit = limit;
+        }
+
+        @Override
+        protected TNonblockingSocket acceptImpl() throws TTransportException {
+            TNonblockingSocket socket = super.acceptImpl();
+            if(socket != null && limit.isReached()) {
+                socket.close();
+                throw new TTransportException("Refused a client connection "
+                        + "because the server has reached the limit of "
+                        + limit.max + " connections");
+            }
+            return socket;
+        }
+
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.cinchapi.concourse.Constants;
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.GlobalState;
+import org.cinchapi.concourse.server.jmx.ConcourseServerMXBean;
+import org.cinchapi.concourse.server.storage.db.BulkLoader;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.Convert.ResolvableLink;
+import org.cinchapi.concourse.util.Environments;
+import org.cinchapi.concourse.util.FileOps;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.google.common.base.CaseFormat;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+
+/**
+ * A CLI that seeds an environment by writing data directly into the Blocks of
+ * its Database with a {@link BulkLoader}. This avoids the cost of sending each
+ * write through the Buffer, but it can only be used while Concourse Server is
+ * stopped.
+ * <p>
+ * The input file must contain one JSON object per line, in the same format
+ * that is accepted by the {@code insert} method. Each object is loaded into a
+ * new record unless it specifies a record with the
+ * {@value Constants#JSON_RESERVED_IDENTIFIER_NAME} key. A value that is already
+ * stored for a key in a record, either in the Database or earlier in the
+ * file, is skipped.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+public final class BulkLoadCli {
+
+    /**
+     * Run the program...
+     * 
+     * @param args
+     */
+    public static void main(String... args) {
+        BulkLoadCli cli = new BulkLoadCli(args);
+        cli.run();
+    }
+
+    /**
+     * The CLI options.
+     */
+    private final BulkLoadOptions options = new BulkLoadOptions();
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param args
+     */
+    public BulkLoadCli(String[] args) {
+        try {
+            JCommander parser = new JCommander(options, args);
+            parser.setProgramName(CaseFormat.UPPER_CAMEL.to(
+                    CaseFormat.LOWER_HYPHEN, this.getClass().getSimpleName()));
+            if(options.help) {
+                parser.usage();
+                System.exit(1);
+            }
+        }
+        catch (ParameterException e) {
+            die(e.getMessage());
+        }
+    }
+
+    /**
+     * Run the CLI. This method should only be called from the main method.
+     */
+    public void run() {
+        if(isServerRunning()) {
+            die("Concourse Server must be stopped before data "
+                    + "can be bulk loaded.");
+        }
+        String environment = Environments.sanitize(options.environment);
+        try {
+            System.out.println(load(GlobalState.BUFFER_DIRECTORY
+                    + File.separator + environment,
+                    GlobalState.DATABASE_DIRECTORY + File.separator
+                            + environment));
+        }
+        catch (Exception e) {
+            die(e.getMessage());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Load the data file into the Database in {@code dbStore}, skipping the
+     * values that have writes in the Buffer in {@code bufferStore}, and return
+     * a summary of the load. If the load fails, all the Blocks that it
+     * created are deleted before the exception is thrown.
+     * 
+     * @param bufferStore
+     * @param dbStore
+     * @return the summary
+     */
+    @PackagePrivate
+    String load(String bufferStore, String dbStore) {
+        Stopwatch watch = Stopwatch.createStarted();
+        BulkLoader loader = new BulkLoader(dbStore, bufferStore,
+                options.blockSize);
+        try {
+            for (String line : FileOps.readLines(FileOps
+                    .expandPath(options.data))) {
+                for (Multimap<String, Object> data : Convert
+                        .anyJsonToJava(line)) {
+                    Number id = (Number) Iterables.getOnlyElement(
+                            data.removeAll(Constants.JSON_RESERVED_IDENTIFIER_NAME),
+                            null);
+                    long record = id != null ? id.longValue() : Time.now();
+                    for (String key : data.keySet()) {
+                        for (Object value : data.get(key)) {
+                            if(value instanceof ResolvableLink) {
+                                throw new UnsupportedOperationException(
+                                        "Resolvable links cannot be bulk loaded");
+                            }
+                            loader.add(key, Convert.javaToThrift(value), record);
+                        }
+                    }
+                }
+            }
+            loader.close();
+        }
+        catch (RuntimeException e) {
+            loader.abort();
+            throw e;
+        }
+        return MessageFormat.format("Loaded {0} values into {1} in {2} "
+                + "seconds and skipped {3} values that were already stored",
+                loader.getCount(), dbStore,
+                watch.elapsed(TimeUnit.MILLISECONDS) / 1000.0,
+                loader.getSkippedCount());
+    }
+
+    /**
+     * Print {@code message} to stderr and exit with a non-zero status.
+     * 
+     * @param message
+     */
+    private void die(String message) {
+        System.err.println("ERROR: " + message);
+        System.exit(2);
+    }
+
+    /**
+     * Return {@code true} if a Concourse Server is accepting management
+     * connections, which means that it might be using the Database.
+     * 
+     * @return {@code true} if the server is running
+     */
+    private boolean isServerRunning() {
+        try {
+            JMXConnectorFactory.connect(
+                    new JMXServiceURL(ConcourseServerMXBean.JMX_SERVICE_URL))
+                    .close();
+            return true;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The options that can be passed to the main method of this script.
+     * 
+     * @author Jeff Nelson
+     */
+    private static final class BulkLoadOptions extends EnvironmentOptions {
+
+        @Parameter(names = { "-d", "--data" }, description = "The path to a file with one JSON object to load per line", required = true)
+        public String data;
+
+        @Parameter(names = "--blockSize", description = "The number of values to store in each block")
+        public int blockSize = BulkLoader.DEFAULT_BLOCK_SIZE;
+
+    }
+
+}
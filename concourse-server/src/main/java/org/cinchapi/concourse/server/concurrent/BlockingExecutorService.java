@@ -17,10 +17,17 @@ package org.cinchapi.concourse.server.concurrent;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -49,6 +56,16 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
  * thread B but have thread B's tasks finish before thread A's.
  * </p>
  * <p>
+ * A service can either grow to as many threads as there are concurrent tasks
+ * or be {@link #create(String, int, int) bounded} to a fixed number of threads
+ * and a fixed number of queued tasks. When the queue of a bounded service is
+ * full, the submitting thread runs the task itself, which applies back-pressure
+ * to the caller instead of creating more threads or rejecting work. Once a
+ * service is shut down, every submission is rejected with a
+ * {@link RejectedExecutionException} so that no caller waits on a task that
+ * will never run.
+ * </p>
+ * <p>
  * <strong>NOTE:</strong> All the threads used by this service are daemon
  * threads, so they don't need to be stopped explicitly. The downside to this is
  * that it is possible for the JVM to shutdown while this service is in the
@@ -79,7 +96,35 @@ public class BlockingExecutorService {
      * @return the BlockingExecutorService
      */
     public static BlockingExecutorService create(String threadNamePrefix) {
-        return new BlockingExecutorService(threadNamePrefix);
+        return new BlockingExecutorService(threadNamePrefix, 0,
+                Integer.MAX_VALUE, new SynchronousQueue<Runnable>());
+    }
+
+    /**
+     * Return a new {@link BlockingExecutorService} that uses the specified
+     * {@code threadNamePrefix}, runs at most {@code threads} tasks at once and
+     * queues at most {@code capacity} tasks before the submitting thread must
+     * run a task itself.
+     * 
+     * @param threadNamePrefix
+     * @param threads
+     * @param capacity
+     * @return the BlockingExecutorService
+     */
+    public static BlockingExecutorService create(String threadNamePrefix,
+            int threads, int capacity) {
+        return new BlockingExecutorService(threadNamePrefix, threads, threads,
+                new ArrayBlockingQueue<Runnable>(capacity));
+    }
+
+    /**
+     * Block until all of the {@code futures} that were returned from
+     * {@link #submit(Runnable)} are done.
+     * 
+     * @param futures
+     */
+    public static void await(Future<?>... futures) {
+        waitForCompletion(futures);
     }
 
     /**
@@ -103,17 +148,50 @@ public class BlockingExecutorService {
     /**
      * The underlying Executor that actually accomplishes task execution.
      */
-    private final ExecutorService executor;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The prefix for the names of the threads in the service.
+     */
+    private final String threadNamePrefix;
+
+    /**
+     * The number of tasks that the submitting thread had to run itself
+     * because the queue was full.
+     */
+    private final AtomicLong callerRuns = new AtomicLong(0);
 
     /**
      * Construct a new instance.
      * 
      * @param threadNamePrefix
+     * @param coreThreads
+     * @param maxThreads
+     * @param queue
      */
-    private BlockingExecutorService(String threadNamePrefix) {
-        this.executor = Executors
-                .newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true)
-                        .setNameFormat(threadNamePrefix + "-%d").build());
+    private BlockingExecutorService(final String threadNamePrefix,
+            int coreThreads, int maxThreads, BlockingQueue<Runnable> queue) {
+        this.threadNamePrefix = threadNamePrefix;
+        this.executor = new ThreadPoolExecutor(coreThreads, maxThreads, 60L,
+                TimeUnit.SECONDS, queue, new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat(threadNamePrefix + "-%d").build(),
+                new RejectedExecutionHandler() {
+
+                    @Override
+                    public void rejectedExecution(Runnable task,
+                            ThreadPoolExecutor executor) {
+                        if(executor.isShutdown()) {
+                            throw new RejectedExecutionException(
+                                    threadNamePrefix + " has been shut down");
+                        }
+                        else {
+                            callerRuns.incrementAndGet();
+                            task.run();
+                        }
+                    }
+
+                });
     }
 
     /**
@@ -160,4 +238,44 @@ public class BlockingExecutorService {
         }
         waitForCompletion(futures);
     }
+
+    /**
+     * Return a description of the size of the service and the number of tasks
+     * that it has completed, is running and has queued.
+     * 
+     * @return the stats
+     */
+    public String getStats() {
+        return threadNamePrefix + ": " + executor.getPoolSize() + " threads ("
+                + executor.getLargestPoolSize() + " max), "
+                + executor.getActiveCount() + " active, "
+                + executor.getQueue().size() + " queued, "
+                + executor.getCompletedTaskCount() + " completed, "
+                + callerRuns.get() + " run by caller";
+    }
+
+    /**
+     * Return the underlying {@link ExecutorService} so that the service can
+     * be handed to code that submits tasks without blocking (i.e. a server
+     * that dispatches requests to a worker pool). Whoever shuts down the
+     * returned service shuts down this one, so this should only be used for
+     * a service that isn't shared.
+     * 
+     * @return the ExecutorService
+     */
+    public ExecutorService getExecutorService() {
+        return executor;
+    }
+
+    /**
+     * Submit {@code task} for execution without blocking until it completes.
+     * Use {@link #await(Future...)} to block until the returned Future is
+     * done.
+     * 
+     * @param task
+     * @return the Future result of the task
+     */
+    public Future<?> submit(Runnable task) {
+        return executor.submit(task);
+    }
 }
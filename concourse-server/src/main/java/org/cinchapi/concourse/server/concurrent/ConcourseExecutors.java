@@ -16,9 +16,10 @@
 package org.cinchapi.concourse.server.concurrent;
 
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
@@ -49,11 +50,75 @@ public final class ConcourseExecutors {
         BlockingExecutorService executor = executors.get(threadNamePrefix);
         if(executor == null) {
             executor = BlockingExecutorService.create(threadNamePrefix);
-            executors.put(threadNamePrefix, executor);
+            BlockingExecutorService existing = executors.putIfAbsent(
+                    threadNamePrefix, executor);
+            executor = existing != null ? existing : executor;
         }
         executor.execute(commands);
     }
 
+    /**
+     * Return the long-lived {@link BlockingExecutorService} whose threads are
+     * prefixed with {@code threadNamePrefix}. If the service does not exist,
+     * it is created with {@code threads} threads and room to queue
+     * {@code capacity} tasks before submitting threads must run tasks
+     * themselves.
+     * 
+     * @param threadNamePrefix
+     * @param threads
+     * @param capacity
+     * @return the BlockingExecutorService
+     */
+    public static BlockingExecutorService getExecutor(String threadNamePrefix,
+            int threads, int capacity) {
+        BlockingExecutorService executor = executors.get(threadNamePrefix);
+        if(executor == null) {
+            executor = BlockingExecutorService.create(threadNamePrefix,
+                    threads, capacity);
+            BlockingExecutorService existing = executors.putIfAbsent(
+                    threadNamePrefix, executor);
+            executor = existing != null ? existing : executor;
+        }
+        return executor;
+    }
+
+    /**
+     * Return a new {@link ExecutorService} whose threads are prefixed with
+     * {@code threadNamePrefix}, that runs at most {@code threads} tasks at
+     * once and queues at most {@code capacity} tasks before the submitting
+     * thread must run tasks itself. Unlike the long-lived executors, the
+     * returned service belongs to the caller, which is responsible for
+     * shutting it down. Its stats are reported until another service is
+     * created with the same {@code threadNamePrefix}.
+     * 
+     * @param threadNamePrefix
+     * @param threads
+     * @param capacity
+     * @return the ExecutorService
+     */
+    public static ExecutorService newBoundedExecutor(String threadNamePrefix,
+            int threads, int capacity) {
+        BlockingExecutorService executor = BlockingExecutorService.create(
+                threadNamePrefix, threads, capacity);
+        executors.put(threadNamePrefix, executor);
+        return executor.getExecutorService();
+    }
+
+    /**
+     * Return a description of the stats for each of the long-lived
+     * executors, one per line.
+     * 
+     * @return the stats
+     */
+    public static String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (BlockingExecutorService executor : executors.values()) {
+            sb.append(executor.getStats());
+            sb.append(System.getProperty("line.separator"));
+        }
+        return sb.toString();
+    }
+
     /**
      * Create a temporary {@link ExecutorService} thread pool with enough
      * threads to execute {@code commands} and block until all the tasks have
@@ -83,6 +148,19 @@ public final class ConcourseExecutors {
                 .newCachedThreadPool(getThreadFactory(threadNamePrefix));
     }
 
+    /**
+     * Return a {@link ScheduledExecutorService} that runs tasks on a single
+     * thread whose name is prefixed with {@code threadNamePrefix}.
+     * 
+     * @param threadNamePrefix
+     * @return a new scheduled executor
+     */
+    public static ScheduledExecutorService newSingleThreadScheduledExecutor(
+            String threadNamePrefix) {
+        return Executors.newSingleThreadScheduledExecutor(getThreadFactory(
+                threadNamePrefix));
+    }
+
     /**
      * Return a {@link ExecutorService} thread pool with {@code num} threads,
      * each whose name is prefixed with {@code threadNamePrefix}.
@@ -113,8 +191,8 @@ public final class ConcourseExecutors {
      * A cache of ExecutorServices that are associated with a given
      * threadNamePrefix.
      */
-    private static final Map<String, BlockingExecutorService> executors = Maps
-            .newHashMap();
+    private static final ConcurrentMap<String, BlockingExecutorService> executors = Maps
+            .newConcurrentMap();
 
     /**
      * Catches exceptions thrown from pooled threads. For the Database,
@@ -33,6 +33,16 @@ public interface ConcourseServerMXBean {
     public static final String JMX_SERVICE_URL = "service:jmx:rmi:///jndi/rmi://localhost:"
             + GlobalState.JMX_PORT + "/jmxrmi";
 
+    /**
+     * Merge the adjacent storage blocks in {@code environment} that are worth
+     * compacting. Compaction normally happens in the background, so this is
+     * only necessary for maintenance.
+     * 
+     * @param environment
+     */
+    @ManagedOperation
+    public void compact(String environment);
+
     /**
      * Return a string that contains the dumps for all the storage units (i.e.
      * buffer, primary, secondary, search) identified by {@code id}.
@@ -58,6 +68,37 @@ public interface ConcourseServerMXBean {
     @ManagedOperation
     public String dump(String id, String environment);
 
+    /**
+     * Return a string that describes the progress of the block compaction
+     * that is running in {@code environment} (if any) and the compactions that
+     * have completed since the server started.
+     * 
+     * @param environment
+     * @return the compaction status
+     */
+    @ManagedOperation
+    public String getCompactionStatus(String environment);
+
+    /**
+     * Return a string that describes the policy that {@code environment} uses
+     * to transport data from the buffer to the database and the signals that
+     * the policy is currently reacting to.
+     * 
+     * @param environment
+     * @return the transport status
+     */
+    @ManagedOperation
+    public String getTransportStatus(String environment);
+
+    /**
+     * Return a string that describes the size, activity and backlog of each of
+     * the long-lived executors that the server uses for background work.
+     * 
+     * @return the executor stats
+     */
+    @ManagedOperation
+    public String getExecutorStats();
+
     /**
      * Return a string that contains a list of the ids for all the blocks that
      * can be dumped using {@link #dump(String)}.
@@ -139,6 +180,17 @@ public interface ConcourseServerMXBean {
     @ManagedOperation
     public boolean login(byte[] username, byte[] password);
 
+    /**
+     * Change the policy that {@code environment} uses to transport data from
+     * the buffer to the database to {@code mode} (i.e. adaptive, throughput,
+     * low-latency-reads or idle-only).
+     * 
+     * @param mode
+     * @param environment
+     */
+    @ManagedOperation
+    public void setTransportMode(String mode, String environment);
+
     /**
      * Remove the user identified by {@code username}.
      * 
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.query;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.lang.ConjunctionSymbol;
+import org.cinchapi.concourse.lang.Expression;
+import org.cinchapi.concourse.lang.ast.AST;
+import org.cinchapi.concourse.lang.ast.AndTree;
+import org.cinchapi.concourse.lang.ast.ConjunctionTree;
+import org.cinchapi.concourse.lang.ast.ExpressionTree;
+import org.cinchapi.concourse.lang.ast.OrTree;
+import org.cinchapi.concourse.server.model.TObjectSorter;
+import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.storage.AtomicOperation;
+import org.cinchapi.concourse.server.storage.Stores;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.util.TSets;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * The {@link QueryPlanner} evaluates an {@link AST} of criteria using
+ * cardinality estimates to pick the cheapest route through the tree.
+ * <p>
+ * The operands of each chain of AND conjunctions are evaluated in order of
+ * increasing estimated cardinality so that the most selective criteria is
+ * always resolved first. Each subsequent operand only needs to consider the
+ * records that survived the previous ones, so it is resolved by probing those
+ * candidates directly (i.e. with a verify or select) whenever that is cheaper
+ * than finding all the matches and intersecting. The chain stops as soon as
+ * there are no more candidates. OR conjunctions are resolved as a union of
+ * their operands.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+public final class QueryPlanner {
+
+    /**
+     * Return the records that match the criteria in {@code ast} within the
+     * {@code atomic} operation.
+     * 
+     * @param ast
+     * @param atomic
+     * @return the matching records
+     */
+    public static Set<Long> find(AST ast, AtomicOperation atomic) {
+        return find(ast, atomic, MAX_NUM_PROBES);
+    }
+
+    /**
+     * Sort the {@code records} by their values for {@code key} within the
+     * {@code atomic} operation and return the page of at most {@code limit}
+     * records that starts at {@code offset}.
+     * <p>
+     * Each record is sorted by its smallest value for {@code key}, or its
+     * largest value if {@code descending}. Ties are broken by record id and the
+     * records that do not contain {@code key} come last. Each record is probed
+     * for its values, so the cost is proportional to the number of
+     * {@code records} no matter where the page is, and the {@code atomic}
+     * operation only depends on {@code key} in those {@code records}.
+     * </p>
+     * 
+     * @param records
+     * @param key
+     * @param descending
+     * @param offset
+     * @param limit
+     * @param atomic
+     * @return the records in the page, in order
+     */
+    public static List<Long> page(Set<Long> records, String key,
+            boolean descending, int offset, int limit, AtomicOperation atomic) {
+        List<Long> sorted = sortByProbing(records, key, descending, atomic);
+        if(sorted.size() <= offset) {
+            return Collections.emptyList();
+        }
+        else {
+            return Lists.newArrayList(sorted.subList(offset,
+                    (int) Math.min((long) offset + limit, sorted.size())));
+        }
+    }
+
+    /**
+     * Return the records that match the criteria in {@code ast} within the
+     * {@code atomic} operation, probing at most {@code maxNumProbes}
+     * candidates to resolve an expression.
+     * 
+     * @param ast
+     * @param atomic
+     * @param maxNumProbes
+     * @return the matching records
+     */
+    @PackagePrivate
+    static Set<Long> find(AST ast, AtomicOperation atomic, int maxNumProbes) {
+        return new QueryPlanner(atomic, maxNumProbes).evaluate(ast, null);
+    }
+
+    /**
+     * Add all the operands of the conjunction chain that starts at
+     * {@code tree} to the {@code operands}. A chain is a run of conjunctions
+     * that all have the same {@code symbol}, so the order of evaluation within
+     * the chain has no bearing on the result.
+     * 
+     * @param tree
+     * @param symbol
+     * @param operands
+     */
+    private static void flatten(AST tree, ConjunctionSymbol symbol,
+            List<AST> operands) {
+        if(tree instanceof ConjunctionTree && tree.getSymbol() == symbol) {
+            flatten(((ConjunctionTree) tree).getLeftChild(), symbol, operands);
+            flatten(((ConjunctionTree) tree).getRightChild(), symbol, operands);
+        }
+        else {
+            operands.add(tree);
+        }
+    }
+
+    /**
+     * Return all of the {@code records} sorted by their values for {@code key}
+     * by selecting the values in each record.
+     * 
+     * @param records
+     * @param key
+     * @param descending
+     * @param atomic
+     * @return the sorted records
+     */
+    private static List<Long> sortByProbing(Set<Long> records, String key,
+            final boolean descending, AtomicOperation atomic) {
+        final Map<Long, TObject> values = Maps.newHashMap();
+        List<Long> sorted = Lists.newArrayList();
+        List<Long> missing = Lists.newArrayList();
+        for (long record : records) {
+            Set<TObject> stored = atomic.select(key, record);
+            if(stored.isEmpty()) {
+                missing.add(record);
+            }
+            else {
+                values.put(record, descending ? Collections.max(stored,
+                        TObjectSorter.INSTANCE) : Collections.min(stored,
+                        TObjectSorter.INSTANCE));
+                sorted.add(record);
+            }
+        }
+        Collections.sort(sorted, new Comparator<Long>() {
+
+            @Override
+            public int compare(Long o1, Long o2) {
+                int c = TObjectSorter.INSTANCE.compare(values.get(o1),
+                        values.get(o2));
+                return c != 0 ? (descending ? -c : c) : o1.compareTo(o2);
+            }
+
+        });
+        Collections.sort(missing);
+        sorted.addAll(missing);
+        return sorted;
+    }
+
+    /**
+     * The maximum number of candidate records that will be individually probed
+     * to resolve an expression. If there are more candidates than this, it is
+     * assumed to be cheaper to resolve the expression with a find and
+     * intersect the results because each probe must scan the Buffer.
+     */
+    private static final int MAX_NUM_PROBES = 1000;
+
+    /**
+     * The operation within which all reads are performed.
+     */
+    private final AtomicOperation atomic;
+
+    /**
+     * The maximum number of candidate records that are individually probed to
+     * resolve an expression.
+     */
+    private final int maxNumProbes;
+
+    /**
+     * A cache of the estimated cardinality of each node that is planned, so
+     * that an estimate is never computed more than once per query.
+     */
+    private final Map<AST, Long> estimates = Maps.newIdentityHashMap();
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param atomic
+     * @param maxNumProbes
+     */
+    private QueryPlanner(AtomicOperation atomic, int maxNumProbes) {
+        this.atomic = atomic;
+        this.maxNumProbes = maxNumProbes;
+    }
+
+    /**
+     * Return the estimated number of records that match {@code tree}.
+     * 
+     * @param tree
+     * @return the estimated cardinality
+     */
+    private long estimate(AST tree) {
+        Long estimate = estimates.get(tree);
+        if(estimate == null) {
+            if(tree instanceof ExpressionTree) {
+                Expression expression = (Expression) tree.getSymbol();
+                estimate = atomic.estimateCardinality(expression.getKeyRaw(),
+                        expression.getOperatorRaw(),
+                        expression.getValuesRaw());
+            }
+            else if(tree instanceof AndTree) {
+                estimate = Math.min(
+                        estimate(((ConjunctionTree) tree).getLeftChild()),
+                        estimate(((ConjunctionTree) tree).getRightChild()));
+            }
+            else {
+                estimate = estimate(((ConjunctionTree) tree).getLeftChild())
+                        + estimate(((ConjunctionTree) tree).getRightChild());
+            }
+            estimates.put(tree, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Return the records that match {@code tree}. If {@code candidates} is not
+     * {@code null}, only those records are considered and the result is a
+     * subset of them.
+     * 
+     * @param tree
+     * @param candidates
+     * @return the matching records
+     */
+    private Set<Long> evaluate(AST tree, @Nullable Set<Long> candidates) {
+        if(tree instanceof ExpressionTree) {
+            return evaluate((Expression) tree.getSymbol(), tree, candidates);
+        }
+        else if(tree instanceof AndTree) {
+            List<AST> operands = Lists.newArrayList();
+            flatten(tree, ConjunctionSymbol.AND, operands);
+            Collections.sort(operands, new Comparator<AST>() {
+
+                @Override
+                public int compare(AST o1, AST o2) {
+                    return Long.compare(estimate(o1), estimate(o2));
+                }
+
+            });
+            Set<Long> results = candidates;
+            for (AST operand : operands) {
+                results = evaluate(operand, results);
+                if(results.isEmpty()) {
+                    break;
+                }
+            }
+            return results;
+        }
+        else if(tree instanceof OrTree) {
+            List<AST> operands = Lists.newArrayList();
+            flatten(tree, ConjunctionSymbol.OR, operands);
+            Set<Long> results = Sets.newLinkedHashSet();
+            for (AST operand : operands) {
+                results.addAll(evaluate(operand, candidates));
+            }
+            return results;
+        }
+        else {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Return the records that match {@code expression}. If {@code candidates}
+     * is not {@code null}, only those records are considered and the result is
+     * a subset of them.
+     * 
+     * @param expression
+     * @param tree the node that holds the {@code expression}
+     * @param candidates
+     * @return the matching records
+     */
+    private Set<Long> evaluate(Expression expression, AST tree,
+            @Nullable Set<Long> candidates) {
+        if(candidates != null && candidates.size() <= maxNumProbes
+                && candidates.size() < estimate(tree)) {
+            return probe(expression, candidates);
+        }
+        else {
+            Set<Long> results = expression.getTimestampRaw() == 0 ? atomic
+                    .find(expression.getKeyRaw(),
+                            expression.getOperatorRaw(),
+                            expression.getValuesRaw()) : atomic.find(
+                    expression.getTimestampRaw(), expression.getKeyRaw(),
+                    expression.getOperatorRaw(), expression.getValuesRaw());
+            return candidates == null ? results : TSets.intersection(
+                    candidates, results);
+        }
+    }
+
+    /**
+     * Return the {@code candidates} that match {@code expression} by
+     * individually checking each one instead of finding all the matches for
+     * the {@code expression}.
+     * 
+     * @param expression
+     * @param candidates
+     * @return the matching records
+     */
+    private Set<Long> probe(Expression expression, Set<Long> candidates) {
+        String key = expression.getKeyRaw();
+        long timestamp = expression.getTimestampRaw();
+        TObject[] values = expression.getValuesRaw();
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = Stores.normalizeValue(expression.getOperatorRaw(),
+                    values[i]);
+        }
+        Operator operator = Stores.normalizeOperator(expression
+                .getOperatorRaw());
+        Set<Long> results = Sets.newLinkedHashSet();
+        for (long record : candidates) {
+            if(operator == Operator.EQUALS) {
+                if(timestamp == 0 ? atomic.verify(key, values[0], record)
+                        : atomic.verify(key, values[0], record, timestamp)) {
+                    results.add(record);
+                }
+            }
+            else {
+                for (TObject stored : timestamp == 0 ? atomic.select(key,
+                        record) : atomic.select(key, record, timestamp)) {
+                    if(Stores.matches(Value.wrap(stored), operator, values)) {
+                        results.add(record);
+                        break;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+}
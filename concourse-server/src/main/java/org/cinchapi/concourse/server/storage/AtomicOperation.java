@@ -59,7 +59,8 @@ import com.google.common.collect.TreeRangeSet;
  * @author Jeff Nelson
  */
 public class AtomicOperation extends BufferedStore implements
-        VersionChangeListener {
+        VersionChangeListener,
+        CardinalityEstimator {
     // NOTE: This class does not need to do any locking on operations (until
     // commit time) because it is assumed to be isolated to one thread and the
     // destination is assumed to have its own concurrency control scheme in
@@ -317,6 +318,14 @@ public class AtomicOperation extends BufferedStore implements
         return super.select(key, record, timestamp);
     }
 
+    @Override
+    public long estimateCardinality(String key, Operator operator,
+            TObject... values) {
+        // NOTE: Estimates are only used for planning, so there is no need to
+        // check state or register a read.
+        return source.estimateCardinality(key, operator, values);
+    }
+
     @Override
     @Restricted
     public void onVersionChange(Token token) {
@@ -344,6 +353,13 @@ public class AtomicOperation extends BufferedStore implements
         return super.remove(key, value, record, true, true, false);
     }
 
+    @Override
+    public Map<Long, Integer> rank(String key, String query)
+            throws AtomicStateException {
+        checkState();
+        return super.rank(key, query);
+    }
+
     @Override
     public Set<Long> search(String key, String query)
             throws AtomicStateException {
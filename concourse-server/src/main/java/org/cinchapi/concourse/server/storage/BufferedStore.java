@@ -27,6 +27,7 @@ import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.time.Time;
 import org.cinchapi.concourse.util.DataServices;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -161,6 +162,21 @@ public abstract class BufferedStore extends BaseStore {
         return remove(key, value, record, true, true, true);
     }
 
+    @Override
+    public Map<Long, Integer> rank(String key, String query) {
+        // NOTE: A record matches if it is ranked by exactly one of the stores,
+        // which mirrors #search(String, String).
+        Map<Long, Integer> scores = Maps.newHashMap(destination.rank(key,
+                query));
+        for (Map.Entry<Long, Integer> entry : buffer.rank(key, query)
+                .entrySet()) {
+            if(scores.remove(entry.getKey()) == null) {
+                scores.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return scores;
+    }
+
     @Override
     public Set<Long> search(String key, String query) {
         // FIXME: should this be implemented using a context instead?
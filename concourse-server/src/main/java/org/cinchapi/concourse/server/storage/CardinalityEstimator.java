@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage;
+
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TObject;
+
+/**
+ * A class that can cheaply estimate how many records satisfy a criteria
+ * without materializing the matching records. Estimates are used to plan
+ * queries and are never used to compute results, so they are allowed to be
+ * approximate.
+ * 
+ * @author Jeff Nelson
+ */
+public interface CardinalityEstimator {
+
+    /**
+     * Return an estimate of the number of records where {@code key}
+     * {@code operator} {@code values} is <em>currently</em> true.
+     * 
+     * @param key
+     * @param operator
+     * @param values
+     * @return the estimated number of matching records
+     */
+    public long estimateCardinality(String key, Operator operator,
+            TObject... values);
+
+}
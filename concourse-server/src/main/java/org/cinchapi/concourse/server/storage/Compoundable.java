@@ -29,7 +29,8 @@ import org.cinchapi.concourse.thrift.TObject;
 public interface Compoundable extends
         PermanentStore,
         VersionGetter,
-        VersionChangeNotifier {
+        VersionChangeNotifier,
+        CardinalityEstimator {
 
     /**
      * This method returns a log of revisions in {@code record} as
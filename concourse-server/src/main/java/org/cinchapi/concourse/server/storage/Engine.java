@@ -51,6 +51,7 @@ import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.db.Database;
 import org.cinchapi.concourse.server.storage.temp.Buffer;
+import org.cinchapi.concourse.server.storage.temp.TransportMode;
 import org.cinchapi.concourse.server.storage.temp.Write;
 import org.cinchapi.concourse.thrift.Operator;
 import org.cinchapi.concourse.thrift.TObject;
@@ -320,6 +321,14 @@ public final class Engine extends BufferedStore implements
         accept(write, true);
     }
 
+    @Override
+    @DoNotInvoke
+    public void accept(List<Write> writes) {
+        for (Write write : writes) {
+            accept(write);
+        }
+    }
+
     /**
      * <p>
      * The Engine is the destination for Transaction commits, which means that
@@ -567,6 +576,25 @@ public final class Engine extends BufferedStore implements
         }
     }
 
+    @Override
+    public long estimateCardinality(String key, Operator operator,
+            TObject... values) {
+        // NOTE: The Buffer is not consulted because it does not index its
+        // data, so counting the matches therein would cost as much as the
+        // query being planned. The Buffer only holds a small fraction of the
+        // data, so the Database alone is a good enough estimate.
+        return ((Database) destination).estimateCardinality(key, operator,
+                values);
+    }
+
+    /**
+     * Public interface for the {@link Database#compact()} method.
+     */
+    @ManagedOperation
+    public void compact() {
+        ((Database) destination).compact();
+    }
+
     /**
      * Public interface for the {@link Database#dump(String)} method.
      * 
@@ -637,6 +665,40 @@ public final class Engine extends BufferedStore implements
         return sb.toString();
     }    
     
+    /**
+     * Public interface for the {@link Buffer#getTransportStatus()} method.
+     * 
+     * @return the transport status
+     */
+    @ManagedOperation
+    public String getTransportStatus() {
+        return ((Buffer) buffer).getTransportStatus();
+    }
+
+    /**
+     * Change the {@link TransportMode} that the Buffer uses to the one with
+     * the case insensitive {@code name}.
+     * 
+     * @param name
+     */
+    @ManagedOperation
+    public void setTransportMode(String name) {
+        TransportMode mode = TransportMode.forName(name);
+        ((Buffer) buffer).setTransportMode(mode);
+        Logger.info("Changed the transport mode for the '{}' environment "
+                + "to {}", environment, mode);
+    }
+
+    /**
+     * Public interface for the {@link Database#getCompactionStatus()} method.
+     * 
+     * @return the compaction status
+     */
+    @ManagedOperation
+    public String getCompactionStatus() {
+        return ((Database) destination).getCompactionStatus();
+    }
+
     @Override
     public long getVersion(long record) {
         return Math.max(buffer.getVersion(record),
@@ -720,6 +782,19 @@ public final class Engine extends BufferedStore implements
         // manual cleanup because the GC will take care of it.
     }
 
+    @Override
+    public Map<Long, Integer> rank(String key, String query) {
+        // NOTE: Just like #search(String, String), a ranked search is not
+        // range locked.
+        transportLock.readLock().lock();
+        try {
+            return super.rank(key, query);
+        }
+        finally {
+            transportLock.readLock().unlock();
+        }
+    }
+
     @Override
     public Set<Long> search(String key, String query) {
         // NOTE: Range locking for a search query requires too much overhead, so
@@ -15,6 +15,8 @@
  */
 package org.cinchapi.concourse.server.storage;
 
+import java.util.List;
+
 import org.cinchapi.concourse.server.storage.temp.Write;
 
 /**
@@ -43,6 +45,16 @@ public interface PermanentStore extends Store {
      */
     public void accept(Write write, boolean sync);
 
+    /**
+     * Process and store each of the {@code writes}, in order, as a single
+     * batch. This is equivalent to calling {@link #accept(Write)} for each of
+     * the {@code writes}, but allows the store to amortize the coordination
+     * that is necessary to index each Write over the entire batch.
+     * 
+     * @param writes
+     */
+    public void accept(List<Write> writes);
+
     /**
      * Force the store to sync all of its writes to disk to guarantee that they
      * are durably persisted. Generally, this method will "fsync" pending writes
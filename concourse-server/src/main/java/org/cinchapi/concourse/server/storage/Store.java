@@ -218,6 +218,25 @@ public interface Store {
      */
     public Set<Long> search(String key, String query);
 
+    /**
+     * Search {@code key} for {@code query} and return the score of each
+     * matching record.
+     * <p>
+     * This method matches the same records as {@link #search(String, String)},
+     * but it also returns the number of times that {@code query} occurs in the
+     * data that is <em>currently</em> mapped from {@code key} in each record.
+     * The returned map is <strong>not</strong> ordered by score; use
+     * {@link org.cinchapi.concourse.util.TMaps#top(Map, int, int, int)
+     * TMaps.top} to rank it.
+     * </p>
+     * 
+     * @param key
+     * @param query
+     * @return a mapping from the primary key of each record that matches the
+     *         search to its score
+     */
+    public Map<Long, Integer> rank(String key, String query);
+
     /**
      * Browse {@code record}.
      * <p>
@@ -16,11 +16,14 @@
 package org.cinchapi.concourse.server.storage;
 
 import org.cinchapi.concourse.Link;
+import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.thrift.Operator;
 import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.TStrings;
 
+import com.google.common.base.Preconditions;
+
 /**
  * {@link Store} based utility functions.
  * 
@@ -28,6 +31,46 @@ import org.cinchapi.concourse.util.TStrings;
  */
 public final class Stores {
 
+    /**
+     * Return {@code true} if {@code input} matches {@code operator} in relation
+     * to {@code values}.
+     * 
+     * @param input
+     * @param operator
+     * @param values
+     * @return {@code true} if {@code input} matches
+     */
+    public static boolean matches(Value input, Operator operator,
+            TObject... values) {
+        Value v1 = Value.wrap(values[0]);
+        switch (operator) {
+        case EQUALS:
+            return v1.equals(input);
+        case NOT_EQUALS:
+            return !v1.equals(input);
+        case GREATER_THAN:
+            return v1.compareTo(input) < 0;
+        case GREATER_THAN_OR_EQUALS:
+            return v1.compareTo(input) <= 0;
+        case LESS_THAN:
+            return v1.compareTo(input) > 0;
+        case LESS_THAN_OR_EQUALS:
+            return v1.compareTo(input) >= 0;
+        case BETWEEN:
+            Preconditions.checkArgument(values.length > 1);
+            Value v2 = Value.wrap(values[1]);
+            return v1.compareTo(input) <= 0 && v2.compareTo(input) > 0;
+        case REGEX:
+            return input.getObject().toString()
+                    .matches(v1.getObject().toString());
+        case NOT_REGEX:
+            return !input.getObject().toString()
+                    .matches(v1.getObject().toString());
+        default:
+            throw new UnsupportedOperationException();
+        }
+    }
+
     /**
      * Perform any necessary normalization on {@code operator} so that it can be
      * properly utilized in {@link Store} methods (i.e. convert a utility
@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -155,6 +156,13 @@ public final class Transaction extends AtomicOperation implements Compoundable {
 
     }
 
+    @Override
+    public void accept(List<Write> writes) {
+        for (Write write : writes) {
+            accept(write);
+        }
+    }
+
     @Override
     @Restricted
     public void addVersionChangeListener(Token token,
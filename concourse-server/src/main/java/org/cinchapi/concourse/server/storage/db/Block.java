@@ -24,8 +24,10 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
@@ -50,6 +52,8 @@ import org.cinchapi.concourse.util.Logger;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
 import com.google.common.collect.SortedMultiset;
 import com.google.common.collect.TreeMultiset;
 
@@ -116,6 +120,22 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         return new SearchBlock(id, directory, false);
     }
 
+    /**
+     * Return a new SearchBlock that will be stored in {@code directory} and
+     * index terms using {@code engine}.
+     * 
+     * @param id
+     * @param directory
+     * @param engine
+     * @return the SearchBlock
+     */
+    public static SearchBlock createSearchBlock(String id, String directory,
+            SearchEngine engine) {
+        SearchBlock block = createSearchBlock(id, directory);
+        block.setEngine(engine);
+        return block;
+    }
+
     /**
      * Return a new SecondaryBlock that will be stored in {@code directory}.
      * 
@@ -145,7 +165,28 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
      * bloom filter, but no larger than necessary since we must keep all bloom
      * filters in memory.
      */
-    private static final int EXPECTED_INSERTIONS = GlobalState.BUFFER_PAGE_SIZE;
+    @PackagePrivate
+    static final int EXPECTED_INSERTIONS = GlobalState.BUFFER_PAGE_SIZE;
+
+    /**
+     * The number of bytes in the buffer that each thread reuses to stage
+     * revisions while a Block is synced to disk.
+     */
+    private static final int SYNC_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The buffer that each thread reuses to stage revisions while a Block is
+     * synced to disk, so syncing does not allocate memory in proportion to the
+     * size of the Block.
+     */
+    private static final ThreadLocal<ByteBuffer> SYNC_BUFFER = new ThreadLocal<ByteBuffer>() {
+
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(SYNC_BUFFER_SIZE);
+        }
+
+    };
 
     /**
      * The extension for the {@link BloomFilter} file.
@@ -270,6 +311,21 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
      *            from {@code directory} on disk
      */
     protected Block(String id, String directory, boolean diskLoad) {
+        this(id, directory, diskLoad, EXPECTED_INSERTIONS);
+    }
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param id
+     * @param directory
+     * @param diskLoad - set to {@code true} to deserialize the block {@code id}
+     *            from {@code directory} on disk
+     * @param expectedInsertions - the number of insertions used to size the
+     *            filter and index of a mutable Block
+     */
+    protected Block(String id, String directory, boolean diskLoad,
+            int expectedInsertions) {
         FileSystem.mkdirs(directory);
         this.id = id;
         this.file = directory + File.separator + id + BLOCK_NAME_EXTENSION;
@@ -293,9 +349,9 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
             this.revisions = createBackingStore(Sorter.INSTANCE);
             this.filter = BloomFilter.create(
                     (directory + File.separator + id + FILTER_NAME_EXTENSION),
-                    EXPECTED_INSERTIONS);
+                    expectedInsertions);
             this.index = BlockIndex.create(directory + File.separator + id
-                    + INDEX_NAME_EXTENSION, EXPECTED_INSERTIONS);
+                    + INDEX_NAME_EXTENSION, expectedInsertions);
         }
         this.softRevisions = new SoftReference<SortedMultiset<Revision<L, K, V>>>(
                 revisions);
@@ -304,63 +360,11 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
 
     @Override
     public void copyTo(ByteBuffer buffer) {
-        Locks.lockIfCondition(read, mutable);
         try {
-            L locator = null;
-            K key = null;
-            int position = 0;
-            boolean populated = false;
-            for (Revision<L, K, V> revision : revisions) {
-                populated = true;
-                buffer.putInt(revision.size());
-                revision.copyTo(buffer);
-                position = buffer.position() - revision.size() - 4;
-                /*
-                 * States that trigger this condition to be true:
-                 * 1. This is the first locator we've seen
-                 * 2. This locator is different than the last one we've seen
-                 */
-                if(locator == null || !locator.equals(revision.getLocator())) {
-                    index.putStart(position, revision.getLocator());
-                    if(locator != null) {
-                        // There was a locator before us (we are not the first!)
-                        // and we need to record the end index.
-                        index.putEnd(position - 1, locator);
-                    }
-                }
-                /*
-                 * NOTE: IF key == null, then it must be the case that locator
-                 * == null since they are set at the same time. Therefore we do
-                 * not need to explicitly check for that condition below
-                 * 
-                 * States that trigger this condition to be true:
-                 * 1. This is the first key we've seen
-                 * 2. This key is different than the last one we've seen
-                 * (regardless of whether the locator is different or the same!)
-                 * 3. This key is the same as the last one we've seen, but the
-                 * locator is different.
-                 */
-                if(key == null || !key.equals(revision.getKey())
-                        || !locator.equals(revision.getLocator())) {
-                    index.putStart(position, revision.getLocator(),
-                            revision.getKey());
-                    if(key != null) {
-                        // There was a locator, key before us (we are not the
-                        // first!) and we need to record the end index.
-                        index.putEnd(position - 1, locator, key);
-                    }
-                }
-                locator = revision.getLocator();
-                key = revision.getKey();
-            }
-            if(populated) {
-                position = buffer.position() - 1;
-                index.putEnd(position, locator);
-                index.putEnd(position, locator, key);
-            }
+            copyTo(buffer, null);
         }
-        finally {
-            Locks.unlockIfCondition(read, mutable);
+        catch (IOException e) {
+            throw Throwables.propagate(e);
         }
     }
 
@@ -441,6 +445,32 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         }
     }
 
+    /**
+     * Insert all the revisions that are stored in the immutable {@code block}
+     * into this Block. Revisions are copied as they are, so this method can be
+     * used to merge the content of several Blocks into a single one.
+     * 
+     * @param block
+     * @throws IllegalStateException if this Block is not mutable
+     */
+    @PackagePrivate
+    void insert(Block<L, K, V> block) throws IllegalStateException {
+        Iterator<Revision<L, K, V>> it = block.iterator();
+        while (it.hasNext()) {
+            Revision<L, K, V> revision = it.next();
+            if(concurrent) {
+                insertUnsafe(revision.getLocator(), revision.getKey(),
+                        revision.getValue(), revision.getVersion(),
+                        revision.getType());
+            }
+            else {
+                insert(revision.getLocator(), revision.getKey(),
+                        revision.getValue(), revision.getVersion(),
+                        revision.getType());
+            }
+        }
+    }
+
     /**
      * Return {@code true} if this Block might contain revisions involving
      * {@code key} as {@code value} in {@code locator}. This method <em>may</em>
@@ -513,7 +543,9 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
             if(mutable && sizeImpl() > 0) {
                 mutable = false;
                 FileChannel channel = FileSystem.getFileChannel(file);
-                channel.write(getBytes());
+                ByteBuffer buffer = SYNC_BUFFER.get();
+                buffer.clear();
+                copyTo(buffer, channel);
                 channel.force(true);
                 filter.sync();
                 index.sync();
@@ -543,6 +575,117 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         return getClass().getSimpleName() + " " + id;
     }
 
+    /**
+     * Serialize each revision into {@code buffer} and populate the
+     * {@link #index} with the position of each locator and locator/key pair.
+     * <p>
+     * If {@code channel} is {@code null}, {@code buffer} is the destination
+     * and must be large enough to hold the entire Block. Otherwise,
+     * {@code buffer} is only used to stage revisions, which are written to
+     * {@code channel} whenever the buffer cannot fit the next one, so the
+     * memory that is needed to serialize the Block does not grow with its
+     * size.
+     * </p>
+     * 
+     * @param buffer
+     * @param channel
+     * @throws IOException
+     */
+    private void copyTo(ByteBuffer buffer, @Nullable WritableByteChannel channel)
+            throws IOException {
+        Locks.lockIfCondition(read, mutable);
+        try {
+            L locator = null;
+            K key = null;
+            int position = channel == null ? buffer.position() : 0;
+            boolean populated = false;
+            for (Revision<L, K, V> revision : revisions) {
+                populated = true;
+                int length = revision.size() + 4;
+                if(channel != null && buffer.remaining() < length) {
+                    flush(buffer, channel);
+                    if(buffer.remaining() < length) {
+                        // The revision is larger than the staging buffer, so
+                        // write it on its own.
+                        ByteBuffer large = ByteBuffer.allocate(length);
+                        large.putInt(revision.size());
+                        revision.copyTo(large);
+                        flush(large, channel);
+                    }
+                }
+                if(channel == null || length <= buffer.capacity()) {
+                    buffer.putInt(revision.size());
+                    revision.copyTo(buffer);
+                }
+                /*
+                 * States that trigger this condition to be true:
+                 * 1. This is the first locator we've seen
+                 * 2. This locator is different than the last one we've seen
+                 */
+                if(locator == null || !locator.equals(revision.getLocator())) {
+                    index.putStart(position, revision.getLocator());
+                    if(locator != null) {
+                        // There was a locator before us (we are not the first!)
+                        // and we need to record the end index.
+                        index.putEnd(position - 1, locator);
+                    }
+                }
+                /*
+                 * NOTE: IF key == null, then it must be the case that locator
+                 * == null since they are set at the same time. Therefore we do
+                 * not need to explicitly check for that condition below
+                 * 
+                 * States that trigger this condition to be true:
+                 * 1. This is the first key we've seen
+                 * 2. This key is different than the last one we've seen
+                 * (regardless of whether the locator is different or the same!)
+                 * 3. This key is the same as the last one we've seen, but the
+                 * locator is different.
+                 */
+                if(key == null || !key.equals(revision.getKey())
+                        || !locator.equals(revision.getLocator())) {
+                    index.putStart(position, revision.getLocator(),
+                            revision.getKey());
+                    if(key != null) {
+                        // There was a locator, key before us (we are not the
+                        // first!) and we need to record the end index.
+                        index.putEnd(position - 1, locator, key);
+                    }
+                }
+                locator = revision.getLocator();
+                key = revision.getKey();
+                position += length;
+            }
+            if(populated) {
+                index.putEnd(position - 1, locator);
+                index.putEnd(position - 1, locator, key);
+            }
+            if(channel != null) {
+                flush(buffer, channel);
+            }
+        }
+        finally {
+            Locks.unlockIfCondition(read, mutable);
+        }
+    }
+
+    /**
+     * Write all the bytes that have been put into {@code buffer} to
+     * {@code channel} and clear the buffer so that it can be reused.
+     * 
+     * @param buffer
+     * @param channel
+     * @throws IOException
+     */
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
     /**
      * Attempt to repair the Block from the symptoms of the specified exception.
      * Generally speaking, a repair is only possible if the exception pertains
@@ -585,15 +728,61 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         }
     }
 
+    /**
+     * Return the revisions that contain {@code key} in {@code locator}, in the
+     * order that {@link #seek(Object, Object, Record)} would append them, if
+     * it is <em>likely</em> that those revisions exist in this Block. Unlike a
+     * seek, this method does not touch any Record, so it can be called for
+     * many Blocks concurrently.
+     * 
+     * @param locator
+     * @param key
+     * @return the revisions
+     */
+    @PackagePrivate
+    List<Revision<L, K, V>> collect(L locator, K key) {
+        return collect((Byteable) locator, (Byteable) key);
+    }
+
+    /**
+     * Return the revisions that contain any key in {@code locator}, in the
+     * order that {@link #seek(Object, Record)} would append them, if it is
+     * <em>likely</em> that those revisions exist in this Block.
+     * 
+     * @param locator
+     * @return the revisions
+     * @see #collect(Object, Object)
+     */
+    @PackagePrivate
+    List<Revision<L, K, V>> collect(L locator) {
+        return collect((Byteable) locator);
+    }
+
     /**
      * Seek revisions that contain components from {@code byteables} and append
-     * them to {@code record}. The seek will be perform in memory iff this block
-     * is mutable, otherwise, the seek happens on disk.
+     * them to {@code record}.
      * 
      * @param record
      * @param byteables
      */
     private void seek(Record<L, K, V> record, Byteable... byteables) {
+        for (Revision<L, K, V> revision : collect(byteables)) {
+            Logger.debug("Attempting to append {} from {} to {}", revision,
+                    this, record);
+            record.append(revision);
+        }
+    }
+
+    /**
+     * Return the revisions that contain components from {@code byteables}.
+     * The seek will be perform in memory iff this block is mutable,
+     * otherwise, the seek happens on disk.
+     * 
+     * @param byteables
+     * @return the revisions
+     */
+    private List<Revision<L, K, V>> collect(Byteable... byteables) {
+        List<Revision<L, K, V>> collected = Lists.newArrayList();
         Locks.lockIfCondition(read, mutable);
         try {
             if(filter.mightContain(byteables)) {
@@ -615,7 +804,7 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
                                 && ((checkSecond && revision.getKey().equals(
                                         byteables[1])) || !checkSecond)) {
                             processing = true;
-                            record.append(revision);
+                            collected.add(revision);
                         }
                         else if(processing) {
                             break;
@@ -631,12 +820,71 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
                         Iterator<ByteBuffer> it = ByteableCollections
                                 .iterator(bytes);
                         while (it.hasNext()) {
-                            Revision<L, K, V> revision = Byteables.read(
-                                    it.next(), xRevisionClass());
-                            Logger.debug("Attempting to append {} from {} to "
-                                    + "{}", revision, this, record);
+                            collected.add(Byteables.read(it.next(),
+                                    xRevisionClass()));
+                        }
+                    }
+                }
+            }
+            return collected;
+        }
+        finally {
+            Locks.unlockIfCondition(read, mutable);
+        }
+    }
+
+    /**
+     * Seek revisions that contain {@code locator} and a key that is within
+     * {@code range} and append them to {@code record} if it is <em>likely</em>
+     * that those revisions exist in this Block. Since revisions are sorted by
+     * key within a locator, reading stops as soon as a key above the
+     * {@code range} is encountered.
+     * 
+     * @param locator
+     * @param range
+     * @param start - a key that was indexed in this Block and is strictly less
+     *            than every key in the {@code range}, from which to start
+     *            reading on disk, or {@code null} to start from the first
+     *            revision for {@code locator}
+     * @param record
+     */
+    protected void seek(L locator, Range<K> range, @Nullable K start,
+            Record<L, K, V> record) {
+        Locks.lockIfCondition(read, mutable);
+        try {
+            if(filter.mightContain(locator)) {
+                SortedMultiset<Revision<L, K, V>> revisions = softRevisions
+                        .get();
+                Iterator<Revision<L, K, V>> it = null;
+                if(revisions != null) {
+                    it = revisions.iterator();
+                }
+                else {
+                    int position = start != null ? index
+                            .getStart(locator, start) : BlockIndex.NO_ENTRY;
+                    position = position == BlockIndex.NO_ENTRY ? index
+                            .getStart(locator) : position;
+                    int length = index.getEnd(locator) - (position - 1);
+                    if(position != BlockIndex.NO_ENTRY && length > 0) {
+                        it = iterator(position, length);
+                    }
+                }
+                boolean processing = false;
+                while (it != null && it.hasNext()) {
+                    Revision<L, K, V> revision = it.next();
+                    if(revision.getLocator().equals(locator)) {
+                        processing = true;
+                        K key = revision.getKey();
+                        if(range.contains(key)) {
                             record.append(revision);
                         }
+                        else if(range.hasUpperBound()
+                                && key.compareTo(range.upperEndpoint()) >= 0) {
+                            break;
+                        }
+                    }
+                    else if(processing) {
+                        break;
                     }
                 }
             }
@@ -646,6 +894,37 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         }
     }
 
+    /**
+     * Return an iterator over the revisions that are stored in the
+     * {@code length} bytes of the block file starting at {@code position}.
+     * 
+     * @param position
+     * @param length
+     * @return the iterator
+     */
+    private Iterator<Revision<L, K, V>> iterator(int position, int length) {
+        final Iterator<ByteBuffer> it = ByteableCollections.iterator(FileSystem
+                .map(file, MapMode.READ_ONLY, position, length));
+        return new Iterator<Revision<L, K, V>>() {
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Revision<L, K, V> next() {
+                return Byteables.read(it.next(), xRevisionClass());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
     /**
      * Internal implementation to return size of this Block without grabbing any
      * locks.
@@ -717,6 +996,22 @@ abstract class Block<L extends Byteable & Comparable<L>, K extends Byteable & Co
         }
     }
 
+    /**
+     * Return an iterator over all the revisions in the block file. This method
+     * should only be called on an immutable Block.
+     * <p>
+     * NOTE: This method will map an entire immutable block into memory, so
+     * please use with caution.
+     * </p>
+     * 
+     * @return the iterator
+     */
+    protected Iterator<Revision<L, K, V>> iterator() {
+        Preconditions.checkState(!mutable,
+                "Cannot read the block file for a block that is mutable");
+        return iterator(0, (int) FileSystem.getFileSize(file));
+    }
+
     protected Revision<L, K, V> insertUnsafe(L locator, K key, V value,
             long version, Action type) throws IllegalStateException {
         Preconditions.checkState(mutable,
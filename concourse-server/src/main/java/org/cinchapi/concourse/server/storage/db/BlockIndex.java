@@ -16,20 +16,25 @@
 package org.cinchapi.concourse.server.storage.db;
 
 import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import javax.annotation.Nullable;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
 import org.cinchapi.concourse.server.io.Byteable;
 import org.cinchapi.concourse.server.io.ByteableCollections;
 import org.cinchapi.concourse.server.io.Composite;
 import org.cinchapi.concourse.server.io.FileSystem;
 import org.cinchapi.concourse.server.io.Syncable;
 import org.cinchapi.concourse.util.ByteBuffers;
+import org.cinchapi.concourse.util.Logger;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -41,6 +46,18 @@ import com.google.common.collect.Maps;
  * objects. A BlockIndex is associated with each {@link Block} to determine
  * where to look on disk for a particular {@code locator} or {@code locator}/
  * {@code key} pair.
+ * <p>
+ * While a BlockIndex is mutable, its entries are kept in memory. When it is
+ * synced, the entries are written to disk as a sorted array of fixed width
+ * (hash, start, end, key position, key size) records followed by the bytes of
+ * each key. An immutable BlockIndex memory maps that file and binary searches
+ * it in place, so lookups never depend on (or compete for) heap space. A
+ * lookup hashes the sought key in a reusable thread local buffer instead of
+ * allocating a {@link Composite} and checks the stored key on each hash hit,
+ * so collisions are never mistaken for matches. An index file that was
+ * written in the older variable width format is rewritten in the fixed width
+ * format the first time it is used.
+ * </p>
  * 
  * @author Jeff Nelson
  */
@@ -67,14 +84,201 @@ public class BlockIndex implements Byteable, Syncable {
         return new BlockIndex(file);
     }
 
+    /**
+     * Compare the 128 bit hashes {@code (a0, a1)} and {@code (b0, b1)}.
+     * 
+     * @param a0
+     * @param a1
+     * @param b0
+     * @param b1
+     * @return the comparison
+     */
+    private static int compare(long a0, long a1, long b0, long b1) {
+        return a0 != b0 ? Long.compare(a0, b0) : Long.compare(a1, b1);
+    }
+
+    /**
+     * Compute the 128 bit murmur3 hash of the bytes between the position and
+     * the limit of {@code bytes} and store it in {@code hash} as a pair of
+     * longs. The result is identical to that of Guava's
+     * {@code Hashing.murmur3_128()} when its bytes are read in big endian
+     * order, but nothing is allocated.
+     * 
+     * @param bytes
+     * @param hash - the array of length 2 where the hash is stored
+     */
+    @PackagePrivate
+    static void hash(ByteBuffer bytes, long[] hash) {
+        int offset = bytes.position();
+        int length = bytes.remaining();
+        long h1 = 0;
+        long h2 = 0;
+        int i = 0;
+        for (; i + 16 <= length; i += 16) {
+            long k1 = Long.reverseBytes(bytes.getLong(offset + i));
+            long k2 = Long.reverseBytes(bytes.getLong(offset + i + 8));
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int remaining = length - i;
+        for (int j = remaining - 1; j >= 8; --j) {
+            k2 ^= (long) (bytes.get(offset + i + j) & 0xff) << (8 * (j - 8));
+        }
+        for (int j = Math.min(remaining, 8) - 1; j >= 0; --j) {
+            k1 ^= (long) (bytes.get(offset + i + j) & 0xff) << (8 * j);
+        }
+        if(remaining > 0) {
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        hash[0] = Long.reverseBytes(h1);
+        hash[1] = Long.reverseBytes(h2);
+    }
+
+    /**
+     * The final avalanche step of the murmur3 hash.
+     * 
+     * @param k
+     * @return the mixed value
+     */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Mix the first half of a block for the murmur3 hash.
+     * 
+     * @param k1
+     * @return the mixed value
+     */
+    private static long mixK1(long k1) {
+        k1 *= MURMUR_C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= MURMUR_C2;
+        return k1;
+    }
+
+    /**
+     * Mix the second half of a block for the murmur3 hash.
+     * 
+     * @param k2
+     * @return the mixed value
+     */
+    private static long mixK2(long k2) {
+        k2 *= MURMUR_C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= MURMUR_C1;
+        return k2;
+    }
+
+    /**
+     * Write the bytes of the Composite for {@code byteables} to the thread
+     * local {@link #SCRATCH} buffer and return it, ready to be read. The
+     * buffer is only reallocated if it is too small.
+     * 
+     * @param byteables
+     * @return the buffer that contains the key
+     */
+    private static ByteBuffer serialize(Byteable... byteables) {
+        int size = 0;
+        for (Byteable byteable : byteables) {
+            size += byteable.size();
+        }
+        ByteBuffer buffer = SCRATCH.get();
+        if(buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size,
+                    buffer.capacity() * 2));
+            SCRATCH.set(buffer);
+        }
+        buffer.clear();
+        for (Byteable byteable : byteables) {
+            byteable.copyTo(buffer);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
     /**
      * Represents an entry that has not been recorded.
      */
     public static final int NO_ENTRY = -1;
 
     /**
-     * The entries contained in the index.
+     * The size of each entry in the fixed width format: the hash (16), start
+     * (4), end (4), key position (4) and key size (4).
      */
+    private static final int ENTRY_SIZE = 32;
+
+    /**
+     * The marker at the beginning of an index file that uses the fixed width
+     * format. An index file that was written in the variable width format
+     * starts with the (positive) size of its first entry instead.
+     */
+    private static final int FIXED_WIDTH_FORMAT = -2;
+
+    /**
+     * The size of the header in the fixed width format: the format marker (4)
+     * and number of entries (4).
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The constants for the murmur3 hash.
+     */
+    private static final long MURMUR_C1 = 0x87c37b91114253d5L;
+    private static final long MURMUR_C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * A reusable buffer for each thread that looks up an entry, which holds
+     * the bytes of the sought key.
+     */
+    private static final ThreadLocal<ByteBuffer> SCRATCH = new ThreadLocal<ByteBuffer>() {
+
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(256);
+        }
+
+    };
+
+    /**
+     * A reusable array for each thread that looks up an entry, which holds
+     * the hash of the sought key.
+     */
+    private static final ThreadLocal<long[]> HASH = new ThreadLocal<long[]>() {
+
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+
+    };
+
+    /**
+     * The entries contained in the index while it is mutable.
+     */
+    @Nullable
     private Map<Composite, Entry> entries;
 
     /**
@@ -82,6 +286,13 @@ public class BlockIndex implements Byteable, Syncable {
      */
     private final String file;
 
+    /**
+     * The memory mapped content of the {@link #file} for an immutable index,
+     * which is lazily populated by {@link #mapped()}.
+     */
+    @Nullable
+    private volatile MappedByteBuffer mapped;
+
     /**
      * Lock used to ensure the object is ThreadSafe. This lock provides access
      * to a masterLock.readLock()() and masterLock.writeLock()().
@@ -94,17 +305,6 @@ public class BlockIndex implements Byteable, Syncable {
      */
     private boolean mutable;
 
-    /**
-     * The running size of the index in bytes.
-     */
-    private transient int size = 0;
-
-    /**
-     * A {@link SoftReference} to the entries contained in the index that is
-     * used to reduce memory overhead.
-     */
-    private SoftReference<Map<Composite, Entry>> softEntries;
-
     /**
      * Lazily construct an existing instance from the data in {@code file}.
      * 
@@ -114,7 +314,7 @@ public class BlockIndex implements Byteable, Syncable {
         this.file = file;
         this.mutable = false;
         this.entries = null;
-        this.softEntries = null;
+        this.mapped = null;
     }
 
     /**
@@ -125,7 +325,7 @@ public class BlockIndex implements Byteable, Syncable {
     private BlockIndex(String file, int expectedInsertions) {
         this.file = file;
         this.entries = Maps.newHashMapWithExpectedSize(expectedInsertions);
-        this.softEntries = null;
+        this.mapped = null;
         this.mutable = true;
     }
 
@@ -154,13 +354,15 @@ public class BlockIndex implements Byteable, Syncable {
     public int getEnd(Byteable... byteables) {
         masterLock.readLock().lock();
         try {
-            Composite composite = Composite.create(byteables);
-            Entry entry = entries().get(composite);
-            if(entry != null) {
-                return entry.getEnd();
+            if(mutable) {
+                Entry entry = entries.get(Composite.create(byteables));
+                return entry != null ? entry.getEnd() : NO_ENTRY;
             }
             else {
-                return NO_ENTRY;
+                MappedByteBuffer bytes = mapped();
+                int position = search(bytes, byteables);
+                return position != NO_ENTRY ? bytes.getInt(position + 20)
+                        : NO_ENTRY;
             }
         }
         finally {
@@ -178,13 +380,15 @@ public class BlockIndex implements Byteable, Syncable {
     public int getStart(Byteable... byteables) {
         masterLock.readLock().lock();
         try {
-            Composite composite = Composite.create(byteables);
-            Entry entry = entries().get(composite);
-            if(entry != null) {
-                return entry.getStart();
+            if(mutable) {
+                Entry entry = entries.get(Composite.create(byteables));
+                return entry != null ? entry.getStart() : NO_ENTRY;
             }
             else {
-                return NO_ENTRY;
+                MappedByteBuffer bytes = mapped();
+                int position = search(bytes, byteables);
+                return position != NO_ENTRY ? bytes.getInt(position + 16)
+                        : NO_ENTRY;
             }
         }
         finally {
@@ -205,7 +409,7 @@ public class BlockIndex implements Byteable, Syncable {
         masterLock.writeLock().lock();
         try {
             Composite composite = Composite.create(byteables);
-            Entry entry = entries().get(composite);
+            Entry entry = entries.get(composite);
             Preconditions.checkState(entry != null,
                     "Cannot set the end position before setting "
                             + "the start position. Tried to put %s", end);
@@ -229,11 +433,10 @@ public class BlockIndex implements Byteable, Syncable {
         masterLock.writeLock().lock();
         try {
             Composite composite = Composite.create(byteables);
-            Entry entry = entries().get(composite);
+            Entry entry = entries.get(composite);
             if(entry == null) {
                 entry = new Entry(composite);
                 entries.put(composite, entry);
-                size += entry.size() + 4;
             }
             entry.setStart(start);
         }
@@ -246,7 +449,8 @@ public class BlockIndex implements Byteable, Syncable {
     public int size() {
         masterLock.readLock().lock();
         try {
-            return size;
+            return mutable ? size(entries.values()) : (int) FileSystem
+                    .getFileSize(file);
         }
         finally {
             masterLock.readLock().unlock();
@@ -256,12 +460,11 @@ public class BlockIndex implements Byteable, Syncable {
     @Override
     public void sync() {
         Preconditions.checkState(mutable);
-        masterLock.readLock().lock();
+        masterLock.writeLock().lock();
         FileChannel channel = FileSystem.getFileChannel(file);
         try {
             channel.write(getBytes());
             channel.force(true);
-            softEntries = new SoftReference<Map<Composite, Entry>>(entries);
             mutable = false;
             entries = null;
         }
@@ -270,7 +473,7 @@ public class BlockIndex implements Byteable, Syncable {
         }
         finally {
             FileSystem.closeFileChannel(channel); // CON-162
-            masterLock.readLock().unlock();
+            masterLock.writeLock().unlock();
         }
     }
 
@@ -279,10 +482,7 @@ public class BlockIndex implements Byteable, Syncable {
         Preconditions.checkState(mutable);
         masterLock.readLock().lock();
         try {
-            for (Entry entry : entries.values()) {
-                buffer.putInt(entry.size());
-                entry.copyTo(buffer);
-            }
+            copyTo(entries.values(), buffer);
         }
         finally {
             masterLock.readLock().unlock();
@@ -298,8 +498,7 @@ public class BlockIndex implements Byteable, Syncable {
     protected boolean isLoaded() { // visible for testing
         masterLock.readLock().lock();
         try {
-            return mutable
-                    || (softEntries != null && softEntries.get() != null);
+            return mutable || mapped != null;
         }
         finally {
             masterLock.readLock().unlock();
@@ -307,39 +506,201 @@ public class BlockIndex implements Byteable, Syncable {
     }
 
     /**
-     * Return the entries in this index. This method will lazily load the
-     * entries on demand if they do not currently exist in memory.
+     * Return the number of bytes that are needed to write {@code entries} in
+     * the fixed width format.
+     * 
+     * @param entries
+     * @return the size
+     */
+    private static int size(Iterable<Entry> entries) {
+        int size = HEADER_SIZE;
+        for (Entry entry : entries) {
+            size += ENTRY_SIZE + entry.getKey().size();
+        }
+        return size;
+    }
+
+    /**
+     * Write {@code entries} to {@code buffer} in the fixed width format.
      * 
-     * @return the entries
-     */
-    private synchronized Map<Composite, Entry> entries() {
-        if(mutable && entries != null) {
-            return entries;
-        }
-        else if(!mutable && (softEntries == null || softEntries.get() == null)) { // do
-                                                                                  // lazy
-                                                                                  // load
-            ByteBuffer bytes = FileSystem.map(file, MapMode.READ_ONLY, 0,
-                    FileSystem.getFileSize(file));
-            Iterator<ByteBuffer> it = ByteableCollections.iterator(bytes);
-            Map<Composite, Entry> entries = Maps
-                    .newHashMapWithExpectedSize(bytes.capacity()
-                            / Entry.CONSTANT_SIZE);
-            while (it.hasNext()) {
-                Entry entry = new Entry(it.next());
-                entries.put(entry.getKey(), entry);
+     * @param entries
+     * @param buffer
+     */
+    private void copyTo(Iterable<Entry> entries, ByteBuffer buffer) {
+        int count = 0;
+        for (Entry entry : entries) {
+            entry.hash = new long[2];
+            hash(entry.getKey().getBytes(), entry.hash);
+            ++count;
+        }
+        Entry[] sorted = new Entry[count];
+        int i = 0;
+        for (Entry entry : entries) {
+            sorted[i] = entry;
+            ++i;
+        }
+        Arrays.sort(sorted);
+        buffer.putInt(FIXED_WIDTH_FORMAT);
+        buffer.putInt(count);
+        int keyPosition = HEADER_SIZE + count * ENTRY_SIZE;
+        for (Entry entry : sorted) {
+            buffer.putLong(entry.hash[0]);
+            buffer.putLong(entry.hash[1]);
+            buffer.putInt(entry.getStart());
+            buffer.putInt(entry.getEnd());
+            buffer.putInt(keyPosition);
+            buffer.putInt(entry.getKey().size());
+            keyPosition += entry.getKey().size();
+        }
+        for (Entry entry : sorted) {
+            entry.getKey().copyTo(buffer);
+        }
+    }
+
+    /**
+     * Return the memory mapped content of the index file. This method will
+     * lazily map the file on demand and upgrade it to the fixed width format
+     * if necessary.
+     * 
+     * @return the mapped content
+     */
+    private MappedByteBuffer mapped() {
+        MappedByteBuffer bytes = mapped;
+        if(bytes == null) {
+            synchronized (this) {
+                bytes = mapped;
+                if(bytes == null) {
+                    long size = FileSystem.getFileSize(file);
+                    bytes = FileSystem.map(file, MapMode.READ_ONLY, 0, size);
+                    if(size < HEADER_SIZE
+                            || bytes.getInt(0) != FIXED_WIDTH_FORMAT) {
+                        upgrade(bytes);
+                        bytes = FileSystem.map(file, MapMode.READ_ONLY, 0,
+                                FileSystem.getFileSize(file));
+                    }
+                    mapped = bytes;
+                }
             }
-            softEntries = new SoftReference<Map<Composite, Entry>>(entries);
-            return softEntries.get();
         }
-        else if(!mutable && softEntries.get() != null) {
-            return softEntries.get();
+        return bytes;
+    }
+
+    /**
+     * Return the position of the entry for {@code byteables} in the mapped
+     * {@code bytes}, or {@link #NO_ENTRY} if it does not exist.
+     * 
+     * @param bytes
+     * @param byteables
+     * @return the entry position
+     */
+    private int search(MappedByteBuffer bytes, Byteable... byteables) {
+        ByteBuffer key = serialize(byteables);
+        long[] hash = HASH.get();
+        hash(key, hash);
+        int count = bytes.getInt(4);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = HEADER_SIZE + mid * ENTRY_SIZE;
+            int comparison = compare(bytes.getLong(position),
+                    bytes.getLong(position + 8), hash[0], hash[1]);
+            if(comparison < 0) {
+                low = mid + 1;
+            }
+            else if(comparison > 0) {
+                high = mid - 1;
+            }
+            else {
+                // Keys whose hashes collide are stored next to each other, so
+                // check each of them against the sought key.
+                while (mid > 0 && hasHash(bytes, position - ENTRY_SIZE, hash)) {
+                    --mid;
+                    position -= ENTRY_SIZE;
+                }
+                while (mid < count && hasHash(bytes, position, hash)) {
+                    if(hasKey(bytes, position, key)) {
+                        return position;
+                    }
+                    ++mid;
+                    position += ENTRY_SIZE;
+                }
+                return NO_ENTRY;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Return {@code true} if the entry at {@code position} in the mapped
+     * {@code bytes} has {@code hash}.
+     * 
+     * @param bytes
+     * @param position
+     * @param hash
+     * @return {@code true} if the hashes are equal
+     */
+    private static boolean hasHash(MappedByteBuffer bytes, int position,
+            long[] hash) {
+        return bytes.getLong(position) == hash[0]
+                && bytes.getLong(position + 8) == hash[1];
+    }
+
+    /**
+     * Return {@code true} if the entry at {@code position} in the mapped
+     * {@code bytes} has the same key as the bytes between the position and
+     * limit of {@code key}.
+     * 
+     * @param bytes
+     * @param position
+     * @param key
+     * @return {@code true} if the keys are equal
+     */
+    private static boolean hasKey(MappedByteBuffer bytes, int position,
+            ByteBuffer key) {
+        int stored = bytes.getInt(position + 24);
+        int size = bytes.getInt(position + 28);
+        if(size != key.remaining()) {
+            return false;
+        }
+        for (int i = 0; i < size; ++i) {
+            if(bytes.get(stored + i) != key.get(key.position() + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rewrite the index {@code file}, whose content is in the variable width
+     * format, in the fixed width format.
+     * 
+     * @param bytes - the mapped content of the index file
+     */
+    private void upgrade(ByteBuffer bytes) {
+        Iterator<ByteBuffer> it = ByteableCollections.iterator(bytes);
+        Map<Composite, Entry> entries = Maps.newHashMap();
+        while (it.hasNext()) {
+            Entry entry = new Entry(it.next());
+            entries.put(entry.getKey(), entry);
+        }
+        ByteBuffer upgraded = ByteBuffer.allocate(size(entries.values()));
+        copyTo(entries.values(), upgraded);
+        upgraded.rewind();
+        String temp = file + ".tmp";
+        FileChannel channel = FileSystem.getFileChannel(temp);
+        try {
+            channel.write(upgraded);
+            channel.force(true);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
         }
-        else {
-            // "If i'm really an engineer thats worth a damn, we won't ever get
-            // to this point" -jnelson
-            throw new IllegalStateException();
+        finally {
+            FileSystem.closeFileChannel(channel);
         }
+        FileSystem.replaceFile(file, temp);
+        Logger.info("Upgraded {} to the fixed width index format", file);
     }
 
     /**
@@ -347,7 +708,7 @@ public class BlockIndex implements Byteable, Syncable {
      * 
      * @author Jeff Nelson
      */
-    private final class Entry implements Byteable {
+    private final class Entry implements Byteable, Comparable<Entry> {
 
         private static final int CONSTANT_SIZE = 8; // start(4), end(4)
 
@@ -355,12 +716,19 @@ public class BlockIndex implements Byteable, Syncable {
         private final Composite key;
         private int start = NO_ENTRY;
 
+        /**
+         * The hash of the {@link #key}, which is only computed when the
+         * entry is written in the fixed width format.
+         */
+        private long[] hash;
+
         /**
          * Construct an instance that represents an existing Entry from a
-         * ByteBuffer. This constructor is public so as to comply with the
-         * {@link Byteable} interface. Calling this constructor directly is not
-         * recommend. Use {@link #fromByteBuffer(ByteBuffer)} instead to take
-         * advantage of reference caching.
+         * ByteBuffer in the variable width format. This constructor is public
+         * so as to comply with the {@link Byteable} interface. Calling this
+         * constructor directly is not recommend. Use
+         * {@link #fromByteBuffer(ByteBuffer)} instead to take advantage of
+         * reference caching.
          * 
          * @param bytes
          */
@@ -380,6 +748,11 @@ public class BlockIndex implements Byteable, Syncable {
             this.key = key;
         }
 
+        @Override
+        public int compareTo(Entry o) {
+            return compare(hash[0], hash[1], o.hash[0], o.hash[1]);
+        }
+
         @Override
         public ByteBuffer getBytes() {
             ByteBuffer bytes = ByteBuffer.allocate(size());
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.io.ByteableCollections;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.io.Syncable;
+import org.cinchapi.concourse.server.model.Text;
+import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.storage.Action;
+import org.cinchapi.concourse.thrift.Type;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SortedMultiset;
+import com.google.common.collect.TreeMultiset;
+
+/**
+ * The {@link ColumnStats} for each key that is stored in a
+ * {@link SecondaryBlock}. Like the {@link BlockIndex}, the stats are
+ * accumulated while the Block is mutable, written to disk when the Block is
+ * synced and lazily loaded from disk afterwards.
+ * 
+ * @author Jeff Nelson
+ */
+@ThreadSafe
+@PackagePrivate
+final class BlockStats implements Syncable {
+
+    /**
+     * Return a newly created BlockStats.
+     * 
+     * @param file
+     * @return the BlockStats
+     */
+    public static BlockStats create(String file) {
+        return new BlockStats(file, true);
+    }
+
+    /**
+     * Return the BlockStats that are stored in {@code file}.
+     * 
+     * @param file
+     * @return the BlockStats
+     */
+    public static BlockStats open(String file) {
+        return new BlockStats(file, false);
+    }
+
+    /**
+     * The data that is accumulated for each key while the stats are mutable.
+     */
+    @Nullable
+    private Map<Text, Accumulator> accumulators;
+
+    /**
+     * The file where the stats are stored.
+     */
+    private final String file;
+
+    /**
+     * A flag that indicates if the stats are mutable. The stats are no longer
+     * mutable after they have been synced.
+     */
+    private boolean mutable;
+
+    /**
+     * A {@link SoftReference} to the stats for each key that is used to reduce
+     * memory overhead.
+     */
+    @Nullable
+    private SoftReference<Map<Text, ColumnStats>> softStats;
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param file
+     * @param mutable
+     */
+    private BlockStats(String file, boolean mutable) {
+        this.file = file;
+        this.mutable = mutable;
+        this.accumulators = mutable ? Maps.<Text, Accumulator> newHashMap()
+                : null;
+        this.softStats = null;
+    }
+
+    /**
+     * Return the {@link ColumnStats} for {@code key} or {@code null} if no
+     * values for {@code key} are described.
+     * 
+     * @param key
+     * @return the ColumnStats
+     */
+    @Nullable
+    public synchronized ColumnStats get(Text key) {
+        if(mutable) {
+            Accumulator accumulator = accumulators.get(key);
+            return accumulator != null ? accumulator.compute(key) : null;
+        }
+        else {
+            return stats().get(key);
+        }
+    }
+
+    /**
+     * Record a revision for {@code key} as {@code value} with {@code type}.
+     * 
+     * @param key
+     * @param value
+     * @param type
+     */
+    public synchronized void put(Text key, Value value, Action type) {
+        Preconditions.checkState(mutable,
+                "Cannot modify stats that are not mutable");
+        Accumulator accumulator = accumulators.get(key);
+        if(accumulator == null) {
+            accumulator = new Accumulator();
+            accumulators.put(key, accumulator);
+        }
+        if(accumulator.min == null || value.compareTo(accumulator.min) < 0) {
+            accumulator.min = value;
+        }
+        if(accumulator.max == null || value.compareTo(accumulator.max) > 0) {
+            accumulator.max = value;
+        }
+        if(type == Action.ADD) {
+            accumulator.values.add(value);
+            accumulator.types[value.getType().ordinal()]++;
+        }
+        else {
+            accumulator.removes++;
+        }
+    }
+
+    @Override
+    public synchronized void sync() {
+        Preconditions.checkState(mutable);
+        Map<Text, ColumnStats> stats = Maps
+                .newHashMapWithExpectedSize(accumulators.size());
+        for (Map.Entry<Text, Accumulator> entry : accumulators.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().compute(entry.getKey()));
+        }
+        FileChannel channel = FileSystem.getFileChannel(file);
+        try {
+            channel.write(ByteableCollections.toByteBuffer(stats.values()));
+            channel.force(true);
+            softStats = new SoftReference<Map<Text, ColumnStats>>(stats);
+            mutable = false;
+            accumulators = null;
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        finally {
+            FileSystem.closeFileChannel(channel);
+        }
+    }
+
+    /**
+     * Return the stats for each key. This method will lazily load the stats on
+     * demand if they do not currently exist in memory.
+     * 
+     * @return the stats
+     */
+    private Map<Text, ColumnStats> stats() {
+        Map<Text, ColumnStats> stats = softStats != null ? softStats.get()
+                : null;
+        if(stats == null) {
+            ByteBuffer bytes = FileSystem.map(file, MapMode.READ_ONLY, 0,
+                    FileSystem.getFileSize(file));
+            Iterator<ByteBuffer> it = ByteableCollections.iterator(bytes);
+            stats = Maps.newHashMap();
+            while (it.hasNext()) {
+                ColumnStats columnStats = ColumnStats.fromByteBuffer(it.next());
+                stats.put(columnStats.getKey(), columnStats);
+            }
+            softStats = new SoftReference<Map<Text, ColumnStats>>(stats);
+        }
+        return stats;
+    }
+
+    /**
+     * The data that is accumulated for a single key.
+     * 
+     * @author Jeff Nelson
+     */
+    private static final class Accumulator {
+
+        private Value max = null;
+        private Value min = null;
+        private long removes = 0;
+        private final long[] types = new long[Type.values().length];
+        private final SortedMultiset<Value> values = TreeMultiset
+                .create(Value.Sorter.INSTANCE);
+
+        /**
+         * Return the {@link ColumnStats} for {@code key} based on the data
+         * that has been accumulated.
+         * 
+         * @param key
+         * @return the ColumnStats
+         */
+        private ColumnStats compute(Text key) {
+            return ColumnStats.compute(key, values, removes, types, min, max);
+        }
+    }
+
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.cinchapi.concourse.server.concurrent.ConcourseExecutors;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.model.PrimaryKey;
+import org.cinchapi.concourse.server.model.Text;
+import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.storage.temp.Buffer;
+import org.cinchapi.concourse.server.storage.temp.Write;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * A {@link BulkLoader} seeds a {@link Database} by writing data directly into
+ * new Blocks in its {@code backingStore} instead of sending each write through
+ * the Buffer and then transporting it to the Database.
+ * <p>
+ * Writes are inserted into a trio of mutable {@link PrimaryBlock},
+ * {@link SecondaryBlock} and {@link SearchBlock}, which sort the revisions in
+ * memory. Once the trio holds {@code blockSize} writes, the Blocks are synced,
+ * along with their filters and indexes, and a new trio is started. The Database
+ * discovers every Block in its directory when it {@link Database#start()
+ * starts}, so the loaded data is available as soon as the server starts again.
+ * </p>
+ * <p>
+ * A Block must never contain the same value for a key in a record twice
+ * without a removal in between, so the loader skips any write that is already
+ * pending, already loaded or, if {@code backingStore} already contains data,
+ * already stored in the Database. Checking the Database requires a seek for
+ * each write, so loading into an empty Database is much faster. The writes in
+ * the environment's Buffer are transported into the Database after the loaded
+ * Blocks, so the loader also skips any write to a key, value and record that
+ * the Buffer has a write for.
+ * </p>
+ * <p>
+ * If the load fails, it can be {@link #abort() aborted} to delete all the
+ * Blocks that the loader created and leave {@code backingStore} as it was.
+ * </p>
+ * <p>
+ * <strong>NOTE:</strong> The loader assumes that it has exclusive access to
+ * {@code backingStore}, so it must only be used while the server is stopped.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+@NotThreadSafe
+public final class BulkLoader implements AutoCloseable {
+
+    /**
+     * The default number of writes to store in each trio of Blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1000000;
+
+    /**
+     * The number of writes that are collected before they are inserted into
+     * each of the Blocks in parallel.
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    /**
+     * The prefix for the names of the threads that insert into the Blocks.
+     */
+    private static final String THREAD_NAME_PREFIX = "bulk-loader";
+
+    /**
+     * The directory of the Database that is being loaded.
+     */
+    private final String backingStore;
+
+    /**
+     * The writes that are stored in the environment's Buffer and have not
+     * necessarily been transported to the Database.
+     */
+    private final Set<Write> buffered;
+
+    /**
+     * The maximum number of writes to store in each trio of Blocks.
+     */
+    private final int blockSize;
+
+    /**
+     * A flag that indicates whether the loader has been closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * The number of writes that are stored in the current Blocks.
+     */
+    private int count = 0;
+
+    /**
+     * The Blocks that are currently being filled, or {@code null} if new ones
+     * must be created before the next batch is inserted.
+     */
+    private PrimaryBlock cpb0 = null;
+    private SecondaryBlock csb0 = null;
+    private SearchBlock ctb0 = null;
+
+    /**
+     * The ids of all the trios of Blocks that this loader has created.
+     */
+    private final List<String> created = Lists.newArrayList();
+
+    /**
+     * The engine that the Database uses to index search terms.
+     */
+    private final SearchEngine engine;
+
+    /**
+     * The Database over the data that was in {@code backingStore} before the
+     * load started, or {@code null} if there was none.
+     */
+    @Nullable
+    private final Database existing;
+
+    /**
+     * The PrimaryBlocks that have been synced by this loader, in order.
+     */
+    private final List<PrimaryBlock> loaded = Lists.newArrayList();
+
+    /**
+     * The writes that have not been inserted into the Blocks yet.
+     */
+    private final Set<Write> pending = Sets
+            .newLinkedHashSetWithExpectedSize(BATCH_SIZE);
+
+    /**
+     * The number of writes that were skipped because the value was already
+     * contained in the record or the Buffer has a write for it.
+     */
+    private long skipped = 0;
+
+    /**
+     * The total number of writes that have been loaded.
+     */
+    private long total = 0;
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param backingStore
+     * @param bufferStore
+     */
+    public BulkLoader(String backingStore, String bufferStore) {
+        this(backingStore, bufferStore, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param backingStore
+     * @param bufferStore - the directory of the Buffer for the same
+     *            environment as {@code backingStore}
+     * @param blockSize
+     */
+    public BulkLoader(String backingStore, String bufferStore, int blockSize) {
+        Preconditions.checkArgument(blockSize > 0,
+                "The block size must be positive");
+        this.backingStore = backingStore;
+        this.blockSize = blockSize;
+        this.buffered = readBuffer(bufferStore);
+        this.engine = Database.loadSearchEngine(backingStore,
+                hasBlocks(Database.SEARCH_BLOCK_DIRECTORY));
+        if(hasBlocks(Database.PRIMARY_BLOCK_DIRECTORY)) {
+            this.existing = new Database(backingStore);
+            existing.start();
+        }
+        else {
+            this.existing = null;
+        }
+    }
+
+    /**
+     * Add {@code key} as {@code value} to {@code record} if it is not already
+     * contained.
+     * 
+     * @param key
+     * @param value
+     * @param record
+     * @return {@code true} if the value is added
+     */
+    public boolean add(String key, TObject value, long record) {
+        Preconditions.checkState(!closed, "The loader is closed");
+        Write write = Write.add(key, value, record);
+        if(pending.contains(write)
+                || buffered.contains(write)
+                || isLoaded(write)
+                || (existing != null && existing.verify(key, value, record))) {
+            skipped++;
+            return false;
+        }
+        else {
+            pending.add(write);
+            if(pending.size() >= Math.min(BATCH_SIZE, blockSize)) {
+                flush();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Discard any pending writes and delete all the Blocks that have been
+     * created by this loader, including the ones that were already synced, so
+     * that {@code backingStore} is left as it was before the load started.
+     */
+    public void abort() {
+        if(!closed) {
+            closed = true;
+            pending.clear();
+            loaded.clear();
+            cpb0 = null;
+            csb0 = null;
+            ctb0 = null;
+            for (String id : created) {
+                delete(id);
+            }
+            if(existing != null) {
+                existing.stop();
+            }
+            Logger.warn("Aborted the bulk load into {} and deleted the {} "
+                    + "trios of Blocks that it created", backingStore,
+                    created.size());
+        }
+    }
+
+    /**
+     * Insert any pending writes and sync the current Blocks to disk.
+     */
+    @Override
+    public void close() {
+        if(!closed) {
+            flush();
+            sync();
+            closed = true;
+            if(existing != null) {
+                existing.stop();
+            }
+            Logger.info("Bulk loaded {} writes into {} and skipped {} "
+                    + "duplicates", total, backingStore, skipped);
+        }
+    }
+
+    /**
+     * Return the total number of writes that have been loaded.
+     * 
+     * @return the number of writes
+     */
+    public long getCount() {
+        return total + pending.size();
+    }
+
+    /**
+     * Return the number of writes that were skipped because the value was
+     * already contained in the record or the Buffer has a write for it.
+     * 
+     * @return the number of skipped writes
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Return all the writes that are stored in the Buffer in
+     * {@code bufferStore}, if it has any pages.
+     * 
+     * @param bufferStore
+     * @return the buffered writes
+     */
+    private static Set<Write> readBuffer(String bufferStore) {
+        Set<Write> writes = Sets.newHashSet();
+        File[] files = new File(bufferStore).listFiles();
+        boolean hasPages = false;
+        if(files != null) {
+            for (File file : files) {
+                hasPages |= !file.isDirectory();
+            }
+        }
+        if(hasPages) {
+            Buffer buffer = new Buffer(bufferStore);
+            buffer.start();
+            try {
+                Iterators.addAll(writes, buffer.iterator());
+            }
+            finally {
+                buffer.stop();
+            }
+            Logger.info("Found {} writes in the Buffer in {} that will "
+                    + "not be bulk loaded", writes.size(), bufferStore);
+        }
+        return writes;
+    }
+
+    /**
+     * Delete the files for the trio of Blocks with {@code id}.
+     * 
+     * @param id
+     */
+    private void delete(String id) {
+        for (String directory : new String[] {
+                Database.PRIMARY_BLOCK_DIRECTORY,
+                Database.SECONDARY_BLOCK_DIRECTORY,
+                Database.SEARCH_BLOCK_DIRECTORY }) {
+            File[] files = new File(backingStore + File.separator + directory)
+                    .listFiles();
+            if(files != null) {
+                for (File file : files) {
+                    if(file.getName().startsWith(id + ".")) {
+                        FileSystem.deleteFile(file.getAbsolutePath());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return {@code true} if the {@code directory} for a type of Block in the
+     * {@code backingStore} contains any Blocks.
+     * 
+     * @param directory
+     * @return {@code true} if there are Blocks
+     */
+    private boolean hasBlocks(String directory) {
+        File[] files = new File(backingStore + File.separator + directory)
+                .listFiles();
+        if(files != null) {
+            for (File file : files) {
+                if(file.getName().endsWith(Block.BLOCK_NAME_EXTENSION)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return {@code true} if {@code write} has already been inserted into one
+     * of the PrimaryBlocks for this load.
+     * 
+     * @param write
+     * @return {@code true} if the write is loaded
+     */
+    private boolean isLoaded(Write write) {
+        PrimaryKey record = write.getRecord();
+        Text key = write.getKey();
+        Value value = write.getValue();
+        PrimaryRecord partial = null;
+        for (PrimaryBlock block : Iterables.concat(loaded,
+                cpb0 != null ? Collections.singleton(cpb0)
+                        : Collections.<PrimaryBlock> emptySet())) {
+            if(block.mightContain(record, key, value)) {
+                if(partial == null) {
+                    partial = Record.createPrimaryRecordPartial(record, key);
+                }
+                block.seek(record, key, partial);
+            }
+        }
+        return partial != null && partial.verify(key, value);
+    }
+
+    /**
+     * Insert the {@link #pending} writes into each of the current Blocks in
+     * parallel and sync the Blocks if they are full.
+     */
+    private void flush() {
+        if(!pending.isEmpty()) {
+            if(cpb0 == null) {
+                String id = Long.toString(Time.now());
+                created.add(id);
+                cpb0 = new PrimaryBlock(id, backingStore + File.separator
+                        + Database.PRIMARY_BLOCK_DIRECTORY, false, blockSize);
+                csb0 = new SecondaryBlock(id, backingStore + File.separator
+                        + Database.SECONDARY_BLOCK_DIRECTORY, false, blockSize);
+                ctb0 = Block.createSearchBlock(id, backingStore
+                        + File.separator + Database.SEARCH_BLOCK_DIRECTORY,
+                        engine);
+            }
+            final Set<Write> batch = pending;
+            ConcourseExecutors.executeAndAwaitTermination(THREAD_NAME_PREFIX,
+                    new Runnable() {
+
+                        @Override
+                        public void run() {
+                            for (Write write : batch) {
+                                cpb0.insert(write.getRecord(), write.getKey(),
+                                        write.getValue(), write.getVersion(),
+                                        write.getType());
+                            }
+                        }
+
+                    }, new Runnable() {
+
+                        @Override
+                        public void run() {
+                            for (Write write : batch) {
+                                csb0.insert(write.getKey(), write.getValue(),
+                                        write.getRecord(), write.getVersion(),
+                                        write.getType());
+                            }
+                        }
+
+                    }, new Runnable() {
+
+                        @Override
+                        public void run() {
+                            for (Write write : batch) {
+                                ctb0.insert(write.getKey(), write.getValue(),
+                                        write.getRecord(), write.getVersion(),
+                                        write.getType());
+                            }
+                        }
+
+                    });
+            count += batch.size();
+            total += batch.size();
+            pending.clear();
+            if(count >= blockSize) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * Sync the current Blocks, if any, so that the next batch is inserted
+     * into new ones.
+     */
+    private void sync() {
+        if(cpb0 != null) {
+            ConcourseExecutors.executeAndAwaitTermination(THREAD_NAME_PREFIX,
+                    new BlockSyncer(cpb0), new BlockSyncer(csb0),
+                    new BlockSyncer(ctb0));
+            Logger.info("Bulk loaded {} writes into Block {}", count,
+                    cpb0.getId());
+            loaded.add(cpb0);
+            cpb0 = null;
+            csb0 = null;
+            ctb0 = null;
+            count = 0;
+        }
+    }
+
+    /**
+     * A runnable that syncs a Block to disk.
+     * 
+     * @author Jeff Nelson
+     */
+    private static final class BlockSyncer implements Runnable {
+
+        private final Block<?, ?, ?> block;
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param block
+         */
+        BlockSyncer(Block<?, ?, ?> block) {
+            this.block = block;
+        }
+
+        @Override
+        public void run() {
+            block.sync();
+        }
+
+    }
+
+}
@@ -0,0 +1,614 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.io.Byteable;
+import org.cinchapi.concourse.server.model.Text;
+import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.Type;
+import org.cinchapi.concourse.util.ByteBuffers;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.SortedMultiset;
+
+/**
+ * Statistics about the values that are stored for a single key, either within
+ * one {@link SecondaryBlock} or merged across many of them.
+ * <p>
+ * The statistics include the number of add and remove revisions, the number of
+ * distinct values, the min and max value across all revisions, a breakdown of
+ * values by type and an equi-depth histogram of the values. Statistics are
+ * computed from revisions, so they describe what was written and not what is
+ * currently present. They are meant to provide cheap cardinality estimates and
+ * should never be used to compute query results.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+@Immutable
+public final class ColumnStats implements Byteable {
+
+    /**
+     * Return the ColumnStats encoded in {@code bytes} so long as those bytes
+     * adhere to the format specified by the {@link #getBytes()} method.
+     * 
+     * @param bytes
+     * @return the ColumnStats
+     */
+    public static ColumnStats fromByteBuffer(ByteBuffer bytes) {
+        Text key = Text.fromByteBuffer(ByteBuffers.get(bytes, bytes.getInt()));
+        long adds = bytes.getLong();
+        long removes = bytes.getLong();
+        long distinct = bytes.getLong();
+        Value min = Value.fromByteBuffer(ByteBuffers.get(bytes,
+                bytes.getInt()));
+        Value max = Value.fromByteBuffer(ByteBuffers.get(bytes,
+                bytes.getInt()));
+        long[] types = new long[Type.values().length];
+        int numTypes = bytes.getInt();
+        for (int i = 0; i < numTypes; ++i) {
+            int ordinal = bytes.getInt();
+            long count = bytes.getLong();
+            if(ordinal < types.length) {
+                types[ordinal] = count;
+            }
+        }
+        int numBuckets = bytes.getInt();
+        List<Bucket> histogram = Lists.newArrayListWithCapacity(numBuckets);
+        for (int i = 0; i < numBuckets; ++i) {
+            long count = bytes.getLong();
+            long bucketDistinct = bytes.getLong();
+            Value lower = Value.fromByteBuffer(ByteBuffers.get(bytes,
+                    bytes.getInt()));
+            Value upper = Value.fromByteBuffer(ByteBuffers.get(bytes,
+                    bytes.getInt()));
+            histogram.add(new Bucket(lower, upper, count, bucketDistinct));
+        }
+        return new ColumnStats(key, adds, removes, distinct, min, max, types,
+                histogram);
+    }
+
+    /**
+     * Return ColumnStats for {@code key} that describe the {@code values} that
+     * were added, the number of {@code removes}, the breakdown of added
+     * values by {@code types} (indexed by {@link Type#ordinal()}) and the
+     * {@code min} and {@code max} value of any revision (including removes).
+     * 
+     * @param key
+     * @param values - the values that were added, sorted by
+     *            {@link Value.Sorter}
+     * @param removes
+     * @param types
+     * @param min
+     * @param max
+     * @return the ColumnStats
+     */
+    @PackagePrivate
+    static ColumnStats compute(Text key, SortedMultiset<Value> values,
+            long removes, long[] types, Value min, Value max) {
+        long adds = values.size();
+        long depth = Math.max(1, (adds + MAX_NUM_BUCKETS - 1)
+                / MAX_NUM_BUCKETS);
+        List<Bucket> histogram = Lists.newArrayList();
+        Value lower = null;
+        Value upper = null;
+        long count = 0;
+        long distinct = 0;
+        for (Multiset.Entry<Value> entry : values.entrySet()) {
+            if(lower == null) {
+                lower = entry.getElement();
+            }
+            upper = entry.getElement();
+            count += entry.getCount();
+            distinct++;
+            if(count >= depth) {
+                histogram.add(new Bucket(lower, upper, count, distinct));
+                lower = null;
+                count = 0;
+                distinct = 0;
+            }
+        }
+        if(lower != null) {
+            histogram.add(new Bucket(lower, upper, count, distinct));
+        }
+        return new ColumnStats(key, adds, removes, values.elementSet().size(),
+                min, max, types.clone(), histogram);
+    }
+
+    /**
+     * Return ColumnStats for {@code key} that combine each of the
+     * {@code stats}, which must all describe {@code key}. The histogram of the
+     * result is built from the buckets of each input, so the buckets may
+     * overlap. The distinct count of the result is the sum of the inputs and
+     * may therefore overcount values that appear in more than one.
+     * 
+     * @param key
+     * @param stats
+     * @return the merged ColumnStats
+     */
+    public static ColumnStats merge(Text key, Iterable<ColumnStats> stats) {
+        long adds = 0;
+        long removes = 0;
+        long distinct = 0;
+        Value min = null;
+        Value max = null;
+        long[] types = new long[Type.values().length];
+        List<Bucket> histogram = Lists.newArrayList();
+        for (ColumnStats stat : stats) {
+            Preconditions.checkArgument(key.equals(stat.key),
+                    "Cannot merge stats for %s into stats for %s", stat.key,
+                    key);
+            adds += stat.adds;
+            removes += stat.removes;
+            distinct += stat.distinct;
+            min = min == null || stat.min.compareTo(min) < 0 ? stat.min : min;
+            max = max == null || stat.max.compareTo(max) > 0 ? stat.max : max;
+            for (int i = 0; i < types.length; ++i) {
+                types[i] += stat.types[i];
+            }
+            histogram.addAll(stat.histogram);
+        }
+        Collections.sort(histogram, BUCKET_SORTER);
+        while (histogram.size() > MAX_NUM_MERGED_BUCKETS) {
+            // Combine neighbouring buckets to keep the cost of estimation
+            // bounded regardless of how many Blocks have been merged.
+            List<Bucket> combined = Lists.newArrayListWithCapacity((histogram
+                    .size() + 1) / 2);
+            for (int i = 0; i < histogram.size(); i += 2) {
+                combined.add(i + 1 < histogram.size() ? Bucket.combine(
+                        histogram.get(i), histogram.get(i + 1)) : histogram
+                        .get(i));
+            }
+            histogram = combined;
+        }
+        return new ColumnStats(key, adds, removes, distinct, min, max, types,
+                histogram);
+    }
+
+    /**
+     * The maximum number of buckets in the histogram for a single Block.
+     */
+    @PackagePrivate
+    static final int MAX_NUM_BUCKETS = 32;
+
+    /**
+     * The maximum number of buckets in a histogram that is merged from many
+     * Blocks.
+     */
+    @PackagePrivate
+    static final int MAX_NUM_MERGED_BUCKETS = 1024;
+
+    /**
+     * A Comparator that sorts buckets by their lower bound.
+     */
+    private static final Comparator<Bucket> BUCKET_SORTER = new Comparator<Bucket>() {
+
+        @Override
+        public int compare(Bucket o1, Bucket o2) {
+            return o1.lower.compareTo(o2.lower);
+        }
+
+    };
+
+    /**
+     * The number of add revisions.
+     */
+    private final long adds;
+
+    /**
+     * The number of distinct values that were added.
+     */
+    private final long distinct;
+
+    /**
+     * The equi-depth histogram of the values that were added, sorted by lower
+     * bound.
+     */
+    private final List<Bucket> histogram;
+
+    /**
+     * The key that is described.
+     */
+    private final Text key;
+
+    /**
+     * The largest value in any revision or {@code null} if there are no
+     * revisions.
+     */
+    @Nullable
+    private final Value max;
+
+    /**
+     * The smallest value in any revision or {@code null} if there are no
+     * revisions.
+     */
+    @Nullable
+    private final Value min;
+
+    /**
+     * The number of remove revisions.
+     */
+    private final long removes;
+
+    /**
+     * The number of added values of each {@link Type}, indexed by ordinal.
+     */
+    private final long[] types;
+
+    /**
+     * Construct a new instance.
+     * 
+     * @param key
+     * @param adds
+     * @param removes
+     * @param distinct
+     * @param min
+     * @param max
+     * @param types
+     * @param histogram
+     */
+    private ColumnStats(Text key, long adds, long removes, long distinct,
+            @Nullable Value min, @Nullable Value max, long[] types,
+            List<Bucket> histogram) {
+        this.key = key;
+        this.adds = adds;
+        this.removes = removes;
+        this.distinct = distinct;
+        this.min = min;
+        this.max = max;
+        this.types = types;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void copyTo(ByteBuffer buffer) {
+        Preconditions.checkState(min != null && max != null,
+                "Cannot serialize stats that do not describe any revisions");
+        buffer.putInt(key.size());
+        key.copyTo(buffer);
+        buffer.putLong(adds);
+        buffer.putLong(removes);
+        buffer.putLong(distinct);
+        buffer.putInt(min.size());
+        min.copyTo(buffer);
+        buffer.putInt(max.size());
+        max.copyTo(buffer);
+        buffer.putInt(numTypes());
+        for (int i = 0; i < types.length; ++i) {
+            if(types[i] > 0) {
+                buffer.putInt(i);
+                buffer.putLong(types[i]);
+            }
+        }
+        buffer.putInt(histogram.size());
+        for (Bucket bucket : histogram) {
+            buffer.putLong(bucket.count);
+            buffer.putLong(bucket.distinct);
+            buffer.putInt(bucket.lower.size());
+            bucket.lower.copyTo(buffer);
+            buffer.putInt(bucket.upper.size());
+            bucket.upper.copyTo(buffer);
+        }
+    }
+
+    /**
+     * Return an estimate of the number of values that currently satisfy
+     * {@code operator} in relation to {@code values}. The operator and values
+     * are assumed to be normalized.
+     * <p>
+     * Buckets that are entirely covered by the criteria contribute all of
+     * their values, buckets that partially overlap the criteria contribute
+     * half of their values and equality is estimated using the average number
+     * of values per distinct value in a bucket. The result is scaled down by
+     * the fraction of add revisions that have been offset by removes.
+     * </p>
+     * 
+     * @param operator
+     * @param values
+     * @return the estimated cardinality
+     */
+    public long estimateCardinality(Operator operator, Value... values) {
+        Value value = values[0];
+        double estimate;
+        switch (operator) {
+        case EQUALS:
+            estimate = estimateEquals(value);
+            break;
+        case NOT_EQUALS:
+            estimate = adds - estimateEquals(value);
+            break;
+        case GREATER_THAN:
+            estimate = estimateRange(value, false, Value.POSITIVE_INFINITY,
+                    false);
+            break;
+        case GREATER_THAN_OR_EQUALS:
+            estimate = estimateRange(value, true, Value.POSITIVE_INFINITY,
+                    false);
+            break;
+        case LESS_THAN:
+            estimate = estimateRange(Value.NEGATIVE_INFINITY, false, value,
+                    false);
+            break;
+        case LESS_THAN_OR_EQUALS:
+            estimate = estimateRange(Value.NEGATIVE_INFINITY, false, value,
+                    true);
+            break;
+        case BETWEEN:
+            Preconditions.checkArgument(values.length > 1);
+            estimate = estimateRange(value, true, values[1], false);
+            break;
+        default:
+            estimate = adds;
+            break;
+        }
+        return adds == 0 ? 0 : Math.round(estimate * getLiveCount() / adds);
+    }
+
+    /**
+     * Return the number of add revisions.
+     * 
+     * @return the number of adds
+     */
+    public long getAddCount() {
+        return adds;
+    }
+
+    @Override
+    public ByteBuffer getBytes() {
+        ByteBuffer bytes = ByteBuffer.allocate(size());
+        copyTo(bytes);
+        bytes.rewind();
+        return bytes;
+    }
+
+    /**
+     * Return the number of distinct values that were added.
+     * 
+     * @return the distinct count
+     */
+    public long getDistinctCount() {
+        return distinct;
+    }
+
+    /**
+     * Return the key that is described.
+     * 
+     * @return the key
+     */
+    public Text getKey() {
+        return key;
+    }
+
+    /**
+     * Return the number of adds that have not been offset by a remove.
+     * 
+     * @return the live count
+     */
+    public long getLiveCount() {
+        return Math.max(0, adds - removes);
+    }
+
+    /**
+     * Return the greatest value that has a histogram bucket starting at it and
+     * is strictly less than {@code value}, or {@code null} if there is no such
+     * value. For the stats of a single Block, the result is guaranteed to be a
+     * value that was added in the Block.
+     * <p>
+     * The result is strictly less than {@code value} because values that
+     * compare as equal (i.e. the same number as different types or the same
+     * string in a different case) are not necessarily stored next to each
+     * other in a Block, so reading from the first revision of {@code value}
+     * itself could skip an equal value that is stored before it.
+     * </p>
+     * 
+     * @param value
+     * @return the lower value
+     */
+    @Nullable
+    public Value lower(Value value) {
+        Value lower = null;
+        for (Bucket bucket : histogram) {
+            if(bucket.lower.compareTo(value) < 0) {
+                lower = bucket.lower;
+            }
+            else {
+                break;
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Return the largest value in any revision (including removes) or
+     * {@code null} if there are no revisions.
+     * 
+     * @return the max value
+     */
+    @Nullable
+    public Value getMax() {
+        return max;
+    }
+
+    /**
+     * Return the smallest value in any revision (including removes) or
+     * {@code null} if there are no revisions.
+     * 
+     * @return the min value
+     */
+    @Nullable
+    public Value getMin() {
+        return min;
+    }
+
+    /**
+     * Return the number of remove revisions.
+     * 
+     * @return the number of removes
+     */
+    public long getRemoveCount() {
+        return removes;
+    }
+
+    /**
+     * Return the number of added values that have {@code type}.
+     * 
+     * @param type
+     * @return the number of values of the type
+     */
+    public long getTypeCount(Type type) {
+        return types[type.ordinal()];
+    }
+
+    @Override
+    public int size() {
+        int size = 4 + key.size() + 24 + 8 + min.size() + max.size() + 4
+                + (numTypes() * 12) + 4;
+        for (Bucket bucket : histogram) {
+            size += 24 + bucket.lower.size() + bucket.upper.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStats for " + key + ": adds=" + adds + ", removes="
+                + removes + ", distinct=" + distinct + ", min=" + getMin()
+                + ", max=" + getMax() + ", buckets=" + histogram.size();
+    }
+
+    /**
+     * Return the estimated number of added values that are equal to
+     * {@code value}.
+     * 
+     * @param value
+     * @return the estimate
+     */
+    private double estimateEquals(Value value) {
+        double estimate = 0;
+        for (Bucket bucket : histogram) {
+            if(bucket.lower.compareTo(value) <= 0
+                    && bucket.upper.compareTo(value) >= 0) {
+                estimate += (double) bucket.count
+                        / Math.max(1, bucket.distinct);
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * Return the estimated number of added values that fall between
+     * {@code lower} and {@code upper}.
+     * 
+     * @param lower
+     * @param lowerInclusive
+     * @param upper
+     * @param upperInclusive
+     * @return the estimate
+     */
+    private double estimateRange(Value lower, boolean lowerInclusive,
+            Value upper, boolean upperInclusive) {
+        double estimate = 0;
+        for (Bucket bucket : histogram) {
+            int lowerVsMin = lower.compareTo(bucket.lower);
+            int lowerVsMax = lower.compareTo(bucket.upper);
+            int upperVsMin = upper.compareTo(bucket.lower);
+            int upperVsMax = upper.compareTo(bucket.upper);
+            boolean disjoint = lowerVsMax > 0
+                    || (lowerVsMax == 0 && !lowerInclusive) || upperVsMin < 0
+                    || (upperVsMin == 0 && !upperInclusive);
+            boolean covered = (lowerVsMin < 0 || (lowerVsMin == 0
+                    && lowerInclusive))
+                    && (upperVsMax > 0 || (upperVsMax == 0 && upperInclusive));
+            if(covered) {
+                estimate += bucket.count;
+            }
+            else if(!disjoint) {
+                estimate += bucket.count / 2.0;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * Return the number of types that have a non-zero count.
+     * 
+     * @return the number of types
+     */
+    private int numTypes() {
+        int count = 0;
+        for (long type : types) {
+            if(type > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A single bucket in an equi-depth histogram.
+     * 
+     * @author Jeff Nelson
+     */
+    @Immutable
+    private static final class Bucket {
+
+        private final long count;
+        private final long distinct;
+        private final Value lower;
+        private final Value upper;
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param lower - inclusive
+         * @param upper - inclusive
+         * @param count
+         * @param distinct
+         */
+        Bucket(Value lower, Value upper, long count, long distinct) {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+            this.distinct = distinct;
+        }
+
+        /**
+         * Return a Bucket that spans both {@code a} and {@code b}, where
+         * {@code a} does not have a greater lower bound than {@code b}.
+         * 
+         * @param a
+         * @param b
+         * @return the combined Bucket
+         */
+        static Bucket combine(Bucket a, Bucket b) {
+            return new Bucket(a.lower, a.upper.compareTo(b.upper) >= 0 ? a.upper
+                    : b.upper, a.count + b.count, a.distinct + b.distinct);
+        }
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.util.Logger;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * A Compaction replaces a run of adjacent immutable Blocks (of every type) with
+ * a single Block that contains all of their revisions.
+ * <p>
+ * The merged Blocks are first written to a staging directory. Once they are
+ * completely synced, a manifest that names the new block id and the replaced
+ * block ids is atomically written, which is the point at which the Compaction
+ * is committed. Applying a committed Compaction moves the staged files into
+ * place and deletes the files for the replaced blocks. Both of those steps are
+ * idempotent, so if the server crashes before the Compaction is fully applied,
+ * {@link #recover(String, String...)} finishes the job on startup. A
+ * Compaction that is not committed is simply discarded.
+ * </p>
+ *
+ * @author Jeff Nelson
+ */
+@PackagePrivate
+final class Compaction {
+
+    /**
+     * Finish any Compaction that was committed, but not fully applied, in
+     * {@code backingStore} and discard any that was not committed. This method
+     * must be called before the blocks in {@code directories} are loaded.
+     *
+     * @param backingStore
+     * @param directories
+     */
+    public static void recover(String backingStore, String... directories) {
+        String staging = backingStore + File.separator + DIRECTORY_NAME;
+        String manifest = staging + File.separator + MANIFEST_NAME;
+        if(FileSystem.hasFile(manifest)) {
+            List<String> ids = Lists.newArrayList(Splitter.on('\n')
+                    .omitEmptyStrings().trimResults()
+                    .split(Charsets.UTF_8.decode(FileSystem.readBytes(manifest))));
+            Compaction compaction = new Compaction(backingStore, ids.get(0),
+                    ids.subList(1, ids.size()), directories);
+            compaction.apply();
+            Logger.warn("Finished applying compaction of blocks {} into {} "
+                    + "that was interrupted by a server shutdown",
+                    compaction.replaced, compaction.id);
+        }
+        else if(FileSystem.hasDir(staging)) {
+            FileSystem.deleteDirectory(staging);
+        }
+    }
+
+    /**
+     * Return the block id from the name of {@code file}, which may be a block
+     * file or any of its sidecar files.
+     *
+     * @param file
+     * @return the block id
+     */
+    private static String getId(File file) {
+        String name = file.getName();
+        int index = name.indexOf('.');
+        return index > 0 ? name.substring(0, index) : name;
+    }
+
+    /**
+     * The name of the directory under the backing store where compacted blocks
+     * are staged.
+     */
+    @PackagePrivate
+    static final String DIRECTORY_NAME = "compaction";
+
+    /**
+     * The name of the file that marks a Compaction as committed.
+     */
+    private static final String MANIFEST_NAME = "manifest";
+
+    /**
+     * The directory that holds the block directories.
+     */
+    private final String backingStore;
+
+    /**
+     * The names of the block directories under {@link #backingStore}.
+     */
+    private final String[] directories;
+
+    /**
+     * The id of the block that replaces the {@link #replaced} ones.
+     */
+    private final String id;
+
+    /**
+     * The number of bytes from the {@link #replaced} blocks that have been
+     * merged so far.
+     */
+    private final AtomicLong merged = new AtomicLong(0);
+
+    /**
+     * The ids of the blocks that are replaced.
+     */
+    private final List<String> replaced;
+
+    /**
+     * The total number of bytes in the {@link #replaced} blocks.
+     */
+    private final long size;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param backingStore
+     * @param id
+     * @param replaced
+     * @param size
+     * @param directories
+     */
+    public Compaction(String backingStore, String id, List<String> replaced,
+            long size, String... directories) {
+        this.backingStore = backingStore;
+        this.id = id;
+        this.replaced = Collections.unmodifiableList(replaced);
+        this.size = size;
+        this.directories = directories;
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param backingStore
+     * @param id
+     * @param replaced
+     * @param directories
+     */
+    private Compaction(String backingStore, String id, List<String> replaced,
+            String... directories) {
+        this(backingStore, id, replaced, 0, directories);
+    }
+
+    /**
+     * Discard everything that has been staged for this Compaction. This
+     * method should only be called if the Compaction was not committed.
+     */
+    public void abort() {
+        String staging = getStagingDirectory();
+        if(FileSystem.hasDir(staging)) {
+            FileSystem.deleteDirectory(staging);
+        }
+    }
+
+    /**
+     * Move the staged blocks into place and delete the files for the
+     * {@link #replaced} blocks. This method should only be called after the
+     * Compaction is {@link #commit() committed}.
+     */
+    public void apply() {
+        for (String directory : directories) {
+            File staged = new File(getStagingDirectory(directory));
+            File target = new File(backingStore + File.separator + directory);
+            if(staged.isDirectory()) {
+                for (File file : staged.listFiles()) {
+                    FileSystem.replaceFile(target.getAbsolutePath()
+                            + File.separator + file.getName(),
+                            file.getAbsolutePath());
+                }
+            }
+            if(target.isDirectory()) {
+                for (File file : target.listFiles()) {
+                    if(file.isFile() && replaced.contains(getId(file))) {
+                        FileSystem.deleteFile(file.getAbsolutePath());
+                    }
+                }
+            }
+        }
+        FileSystem.deleteFile(getManifest());
+        FileSystem.deleteDirectory(getStagingDirectory());
+    }
+
+    /**
+     * Atomically write the manifest that commits this Compaction. After this
+     * method returns, the Compaction will be applied even if the server
+     * crashes.
+     */
+    public void commit() {
+        String manifest = getManifest();
+        String temp = manifest + ".tmp";
+        List<String> ids = Lists.newArrayList(id);
+        ids.addAll(replaced);
+        FileChannel channel = FileSystem.getFileChannel(temp);
+        try {
+            channel.write(ByteBuffer.wrap(Joiner.on('\n').join(ids)
+                    .getBytes(Charsets.UTF_8)));
+            channel.force(true);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        finally {
+            FileSystem.closeFileChannel(channel);
+        }
+        FileSystem.replaceFile(manifest, temp);
+    }
+
+    /**
+     * Return the id of the block that replaces the {@link #getReplaced()
+     * replaced} ones.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Return the percentage of the bytes in the replaced blocks that have been
+     * merged.
+     *
+     * @return the progress
+     */
+    public int getProgress() {
+        return size > 0 ? (int) Math.min(100, merged.get() * 100 / size) : 0;
+    }
+
+    /**
+     * Return the ids of the blocks that are replaced.
+     *
+     * @return the replaced block ids
+     */
+    public List<String> getReplaced() {
+        return replaced;
+    }
+
+    /**
+     * Return the directory where the merged block for {@code directory} is
+     * staged.
+     *
+     * @param directory
+     * @return the staging directory
+     */
+    public String getStagingDirectory(String directory) {
+        return getStagingDirectory() + File.separator + directory;
+    }
+
+    /**
+     * Record that {@code bytes} from the replaced blocks have been merged.
+     *
+     * @param bytes
+     */
+    public void progress(long bytes) {
+        merged.addAndGet(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "Compaction of " + replaced.size() + " blocks into " + id + " ("
+                + getProgress() + "%)";
+    }
+
+    /**
+     * Return the path to the manifest file.
+     *
+     * @return the manifest path
+     */
+    private String getManifest() {
+        return getStagingDirectory() + File.separator + MANIFEST_NAME;
+    }
+
+    /**
+     * Return the root staging directory.
+     *
+     * @return the staging directory
+     */
+    private String getStagingDirectory() {
+        return backingStore + File.separator + DIRECTORY_NAME;
+    }
+
+}
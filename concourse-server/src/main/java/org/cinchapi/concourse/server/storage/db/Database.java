@@ -19,30 +19,48 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import org.cinchapi.concourse.annotate.PackagePrivate;
 import org.cinchapi.concourse.annotate.Restricted;
 import org.cinchapi.concourse.server.GlobalState;
+import org.cinchapi.concourse.server.concurrent.BlockingExecutorService;
 import org.cinchapi.concourse.server.concurrent.ConcourseExecutors;
+import org.cinchapi.concourse.server.concurrent.RangeToken;
+import org.cinchapi.concourse.server.concurrent.RangeTokens;
+import org.cinchapi.concourse.server.io.Byteable;
 import org.cinchapi.concourse.server.io.Composite;
 import org.cinchapi.concourse.server.io.FileSystem;
 import org.cinchapi.concourse.server.jmx.ManagedOperation;
+import org.cinchapi.concourse.server.model.Position;
 import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.TObjectSorter;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.Action;
 import org.cinchapi.concourse.server.storage.BaseStore;
+import org.cinchapi.concourse.server.storage.CardinalityEstimator;
 import org.cinchapi.concourse.server.storage.Functions;
 import org.cinchapi.concourse.server.storage.PermanentStore;
+import org.cinchapi.concourse.server.storage.Stores;
 import org.cinchapi.concourse.server.storage.VersionGetter;
 import org.cinchapi.concourse.server.storage.temp.Buffer;
 import org.cinchapi.concourse.server.storage.temp.Write;
@@ -56,11 +74,17 @@ import org.cinchapi.concourse.util.TLists;
 import org.cinchapi.concourse.util.TStrings;
 import org.cinchapi.concourse.util.Transformers;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
@@ -79,7 +103,8 @@ import static org.cinchapi.concourse.server.GlobalState.*;
 @ThreadSafe
 public final class Database extends BaseStore implements
         PermanentStore,
-        VersionGetter {
+        VersionGetter,
+        CardinalityEstimator {
 
     /**
      * Return a cache for records of type {@code T}.
@@ -91,6 +116,31 @@ public final class Database extends BaseStore implements
                 .build();
     }
 
+    /**
+     * Return a new instance of the Block type {@code clazz}.
+     * 
+     * @param clazz
+     * @param id
+     * @param directory
+     * @param diskLoad
+     * @param expectedInsertions
+     * @return the Block
+     */
+    private static <T extends Block<?, ?, ?>> T createBlock(Class<T> clazz,
+            String id, String directory, boolean diskLoad,
+            int expectedInsertions) {
+        try {
+            Constructor<T> constructor = clazz.getDeclaredConstructor(
+                    String.class, String.class, Boolean.TYPE, Integer.TYPE);
+            constructor.setAccessible(true);
+            return constructor.newInstance(id, directory, diskLoad,
+                    expectedInsertions);
+        }
+        catch (ReflectiveOperationException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
     /**
      * Return the Block identified by {@code id} if it exists in {@code list},
      * otherwise {@code null}.
@@ -112,6 +162,108 @@ public final class Database extends BaseStore implements
         return null;
     }
 
+    /**
+     * Return the {@link SearchEngine} that is recorded for the Database in
+     * {@code backingStore}. If no engine is recorded, the Database either
+     * predates the ability to choose one, in which case its existing
+     * SearchBlocks (if {@code hasSearchBlocks}) were written by the
+     * {@link SearchEngine#INFIX} engine, or it is brand new, in which case the
+     * {@link GlobalState#SEARCH_ENGINE configured} engine is used. Either way,
+     * the engine is recorded so that it never changes for the Database.
+     * 
+     * @param backingStore
+     * @param hasSearchBlocks
+     * @return the SearchEngine
+     */
+    static SearchEngine loadSearchEngine(String backingStore,
+            boolean hasSearchBlocks) {
+        String directory = backingStore + File.separator
+                + SEARCH_BLOCK_DIRECTORY;
+        File file = new File(directory + File.separator
+                + SEARCH_ENGINE_FILE_NAME);
+        try {
+            SearchEngine engine;
+            if(file.exists()) {
+                engine = SearchEngine.forName(Files.toString(file,
+                        Charsets.UTF_8));
+            }
+            else {
+                engine = hasSearchBlocks ? SearchEngine.INFIX : SearchEngine
+                        .forName(SEARCH_ENGINE);
+                FileSystem.mkdirs(directory);
+                Files.write(engine.name(), file, Charsets.UTF_8);
+            }
+            Logger.info("Database uses the {} search engine", engine);
+            return engine;
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * Seek the revisions for {@code key} in {@code locator} (or for every key
+     * in {@code locator} if {@code key} is {@code null}) from each of the
+     * {@code blocks} and append them to {@code record}.
+     * <p>
+     * If there are at least {@link GlobalState#PARALLEL_SEEK_THRESHOLD}
+     * Blocks, the revisions are collected from all of them concurrently in the
+     * {@link #seeker} executor, so the disk reads and deserialization for a
+     * cold record overlap. Either way, the revisions are appended in the order
+     * of the Blocks (which is chronological) so the record sees the same
+     * sequence of versions that a serial seek would produce.
+     * </p>
+     * 
+     * @param blocks
+     * @param locator
+     * @param key
+     * @param record
+     */
+    @SuppressWarnings("unchecked")
+    private static <L extends Byteable & Comparable<L>, K extends Byteable & Comparable<K>, V extends Byteable & Comparable<V>> void seek(
+            List<? extends Block<L, K, V>> blocks, final L locator,
+            @Nullable final K key, Record<L, K, V> record) {
+        if(PARALLEL_SEEK_THRESHOLD > 0
+                && blocks.size() >= PARALLEL_SEEK_THRESHOLD) {
+            List<Callable<List<Revision<L, K, V>>>> tasks = Lists
+                    .newArrayListWithCapacity(blocks.size());
+            for (final Block<L, K, V> block : blocks) {
+                tasks.add(new Callable<List<Revision<L, K, V>>>() {
+
+                    @Override
+                    public List<Revision<L, K, V>> call() throws Exception {
+                        return key == null ? block.collect(locator) : block
+                                .collect(locator, key);
+                    }
+
+                });
+            }
+            try {
+                for (Future<?> future : seeker.execute(tasks
+                        .toArray(new Callable<?>[tasks.size()]))) {
+                    for (Revision<L, K, V> revision : (List<Revision<L, K, V>>) future
+                            .get()) {
+                        record.append(revision);
+                    }
+                }
+            }
+            catch (InterruptedException | ExecutionException e) {
+                throw Throwables.propagate(e instanceof ExecutionException ? e
+                        .getCause() : e);
+            }
+        }
+        else {
+            for (Block<L, K, V> block : blocks) {
+                if(key == null) {
+                    block.seek(locator, record);
+                }
+                else {
+                    block.seek(locator, key, record);
+                }
+            }
+        }
+    }
+
     /*
      * BLOCK DIRECTORIES
      * -----------------
@@ -123,11 +275,77 @@ public final class Database extends BaseStore implements
      * Therefore, the only way to distinguish blocks of different types from one
      * another is by the directory in which they are stored.
      */
-    private static final String PRIMARY_BLOCK_DIRECTORY = "cpb";
+    static final String PRIMARY_BLOCK_DIRECTORY = "cpb";
+
+    static final String SEARCH_BLOCK_DIRECTORY = "ctb";
+    static final String SECONDARY_BLOCK_DIRECTORY = "csb";
+
+    /**
+     * The name of the file in the {@link #SEARCH_BLOCK_DIRECTORY} that records
+     * the {@link SearchEngine} for the Database.
+     */
+    private static final String SEARCH_ENGINE_FILE_NAME = "engine";
 
-    private static final String SEARCH_BLOCK_DIRECTORY = "ctb";
-    private static final String SECONDARY_BLOCK_DIRECTORY = "csb";
-    private static final String threadNamePrefix = "database-write-thread";
+    /**
+     * The long-lived executor that inserts each batch of transported Writes
+     * into the current PrimaryBlock and SecondaryBlock. The executors are
+     * static (and therefore shared by each Database) so that the number of
+     * threads doesn't grow with the number of environments.
+     */
+    private static final BlockingExecutorService writer = ConcourseExecutors
+            .getExecutor("database-write-thread", Math.max(2, Runtime
+                    .getRuntime().availableProcessors()), 1024);
+
+    /**
+     * The long-lived executor that inserts each batch of transported Writes
+     * into the current SearchBlock. Search indexing is kept apart from the
+     * other Block writes because it is far more expensive, so it must not
+     * occupy the threads that the cheaper writes need.
+     */
+    private static final BlockingExecutorService indexer = ConcourseExecutors
+            .getExecutor("database-index-thread", Runtime.getRuntime()
+                    .availableProcessors(), 1024);
+
+    /**
+     * The long-lived executor that syncs the current Blocks to disk.
+     */
+    private static final BlockingExecutorService syncer = ConcourseExecutors
+            .getExecutor("database-sync-thread", 3, 64);
+
+    /**
+     * The long-lived executor that compacts Blocks in the background. The
+     * executor has a single thread and is shared by each Database so that
+     * only one compaction at a time competes with the foreground for disk
+     * I/O. Each Database schedules at most one compaction at a time, so the
+     * queue never fills up in practice.
+     */
+    private static final BlockingExecutorService compactor = ConcourseExecutors
+            .getExecutor("database-compaction-thread", 1, 64);
+
+    /**
+     * The long-lived executor that collects revisions from many Blocks at once
+     * when a record that is not cached must be loaded. The executor is sized
+     * to the number of processors since the seeks are a mix of disk reads and
+     * CPU bound deserialization. If its queue is full, the reading thread
+     * seeks the Blocks itself.
+     */
+    private static final BlockingExecutorService seeker = ConcourseExecutors
+            .getExecutor("database-seek-thread", Runtime.getRuntime()
+                    .availableProcessors(), 1024);
+
+    /**
+     * The minimum number of adjacent Blocks that are merged in a single
+     * compaction.
+     */
+    @PackagePrivate
+    static final int MIN_COMPACTION_RUN_LENGTH = 4;
+
+    /**
+     * A range query only seeks the matching revisions instead of loading (and
+     * caching) the entire SecondaryRecord if the range is estimated to match
+     * less than 1/{@value} of the values for the key.
+     */
+    private static final int MIN_RANGE_SEEK_SELECTIVITY = 2;
 
     /**
      * A flag to indicate if the Database has verified the data it is seeing is
@@ -163,6 +381,14 @@ public final class Database extends BaseStore implements
     private transient PrimaryBlock cpb0;
     private transient SecondaryBlock csb0;
     private transient SearchBlock ctb0;
+
+    /**
+     * The {@link SearchEngine} that indexes the SearchBlocks in this Database.
+     * The engine is chosen when the Database is first created and recorded in
+     * the {@link #SEARCH_ENGINE_FILE_NAME} file because the SearchBlocks can
+     * only be read by the engine that wrote them.
+     */
+    private transient SearchEngine searchEngine;
     /*
      * RECORD CACHES
      * -------------
@@ -175,9 +401,49 @@ public final class Database extends BaseStore implements
     private final Cache<Composite, PrimaryRecord> cppc = buildCache();
     private final Cache<Composite, SecondaryRecord> csc = buildCache();
 
-    
+    /*
+     * COLUMN STATS CACHE
+     * ------------------
+     * The ColumnStats for a key are merged across all the synced
+     * SecondaryBlocks and cached. Whenever the current SecondaryBlock is
+     * synced, its stats are merged into the relevant cached entries so that
+     * the view is maintained incrementally instead of being recomputed.
+     */
+    private final Cache<Composite, ColumnStats> css = buildCache();
+
+    /*
+     * SEARCH TERM CACHE
+     * -----------------
+     * A SearchRecord for an entire key has the potential to be VERY large, so
+     * we only cache the postings for each individual (key, term) pair that has
+     * been searched. The cache is bounded by the number of Positions it holds
+     * instead of the number of entries, and new SearchRevisions are appended
+     * to the relevant cached entries so the postings don't grow stale.
+     */
+    private final Cache<Composite, SearchRecord> ctc = CacheBuilder
+            .newBuilder().maximumWeight(SEARCH_CACHE_SIZE)
+            .weigher(new Weigher<Composite, SearchRecord>() {
+
+                @Override
+                public int weigh(Composite key, SearchRecord value) {
+                    return (int) Math.min(Integer.MAX_VALUE,
+                            (long) value.getPositionCount() * Position.SIZE);
+                }
+
+            }).build();
 
-    
+    /*
+     * COMPACTION STATE
+     * ----------------
+     * Only one compaction runs at a time. The current compaction (if any) and
+     * the running totals are tracked so that progress can be reported.
+     */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+    private final AtomicLong compactionCount = new AtomicLong(0);
+    private final AtomicLong compactedBlockCount = new AtomicLong(0);
+    @Nullable
+    private volatile Compaction compaction = null;
 
     /**
      * Lock used to ensure the object is ThreadSafe. This lock provides access
@@ -212,29 +478,43 @@ public final class Database extends BaseStore implements
 
     @Override
     public void accept(Write write) {
+        accept(Collections.singletonList(write));
+    }
+
+    @Override
+    public void accept(List<Write> writes) {
         // CON-83: Keeping manually verifying writes until we find one that is
         // acceptable, after which assume all subsequent writes are acceptable.
-        if(!acceptable
-                && ((write.getType() == Action.ADD && !verify(write.getKey()
-                        .toString(), write.getValue().getTObject(), write
-                        .getRecord().longValue())) || (write.getType() == Action.REMOVE && verify(
-                        write.getKey().toString(), write.getValue()
-                                .getTObject(), write.getRecord().longValue())))) {
-            acceptable = true;
-        }
-        if(acceptable) {
+        int start = 0;
+        while (!acceptable && start < writes.size()) {
+            Write write = writes.get(start);
+            if((write.getType() == Action.ADD && !verify(write.getKey()
+                    .toString(), write.getValue().getTObject(), write
+                    .getRecord().longValue()))
+                    || (write.getType() == Action.REMOVE && verify(write
+                            .getKey().toString(), write.getValue()
+                            .getTObject(), write.getRecord().longValue()))) {
+                acceptable = true;
+            }
+            else {
+                Logger.warn("The Engine refused to accept {} because "
+                        + "it appears that the data was already transported. "
+                        + "This indicates that the server shutdown "
+                        + "prematurely.", write);
+                ++start;
+            }
+        }
+        if(start < writes.size()) {
             // NOTE: Write locking happens in each individual Block, and
             // furthermore this method is only called from the Buffer, which
-            // transports data serially.
-            ConcourseExecutors.executeAndAwaitTermination(threadNamePrefix,
-                    new BlockWriter(cpb0, write), new BlockWriter(csb0, write),
-                    new BlockWriter(ctb0, write));
-        }
-        else {
-            Logger.warn("The Engine refused to accept {} because "
-                    + "it appears that the data was already transported. "
-                    + "This indicates that the server shutdown prematurely.",
-                    write);
+            // transports data serially. Each Block ingests the entire batch
+            // in order, so the Blocks only rendezvous once per batch instead
+            // of once per Write.
+            List<Write> batch = writes.subList(start, writes.size());
+            Future<?> indexing = indexer.submit(new BlockWriter(ctb0, batch));
+            writer.execute(new BlockWriter(cpb0, batch), new BlockWriter(csb0,
+                    batch));
+            BlockingExecutorService.await(indexing);
         }
     }
 
@@ -292,13 +572,39 @@ public final class Database extends BaseStore implements
                 TObjectSorter.INSTANCE);
     }
 
+    /**
+     * Merge runs of adjacent immutable Blocks into larger ones until there are
+     * no more runs that are worth compacting. Each merged Block is swapped in
+     * for the Blocks that it replaces atomically, so reads are never blocked
+     * while revisions are merged.
+     * <p>
+     * Compaction happens automatically in the background after each sync, so
+     * it is generally only necessary to call this method directly for
+     * maintenance.
+     * </p>
+     */
+    @ManagedOperation
+    public void compact() {
+        compactionLock.lock();
+        try {
+            while (running && compactNext()) {
+                continue;
+            }
+        }
+        finally {
+            compactionLock.unlock();
+        }
+    }
+
     @Override
     public Map<Long, Set<TObject>> doExplore(long timestamp, String key,
             Operator operator, TObject... values) {
-        SecondaryRecord record = getSecondaryRecord(Text.wrapCached(key));
+        Value[] values0 = Transformers.transformArray(values,
+                Functions.TOBJECT_TO_VALUE, Value.class);
+        SecondaryRecord record = getSecondaryRecord(Text.wrapCached(key),
+                operator, values0);
         Map<PrimaryKey, Set<Value>> map = record.explore(timestamp, operator,
-                Transformers.transformArray(values, Functions.TOBJECT_TO_VALUE,
-                        Value.class));
+                values0);
         return Transformers.transformTreeMapSet(map,
                 Functions.PRIMARY_KEY_TO_LONG, Functions.VALUE_TO_TOBJECT,
                 Comparators.LONG_COMPARATOR);
@@ -307,15 +613,38 @@ public final class Database extends BaseStore implements
     @Override
     public Map<Long, Set<TObject>> doExplore(String key, Operator operator,
             TObject... values) {
-        SecondaryRecord record = getSecondaryRecord(Text.wrapCached(key));
-        Map<PrimaryKey, Set<Value>> map = record.explore(operator,
-                Transformers.transformArray(values, Functions.TOBJECT_TO_VALUE,
-                        Value.class));
+        Value[] values0 = Transformers.transformArray(values,
+                Functions.TOBJECT_TO_VALUE, Value.class);
+        SecondaryRecord record = getSecondaryRecord(Text.wrapCached(key),
+                operator, values0);
+        Map<PrimaryKey, Set<Value>> map = record.explore(operator, values0);
         return Transformers.transformTreeMapSet(map,
                 Functions.PRIMARY_KEY_TO_LONG, Functions.VALUE_TO_TOBJECT,
                 Comparators.LONG_COMPARATOR);
     }
 
+    @Override
+    public long estimateCardinality(String key, Operator operator,
+            TObject... values) {
+        Value[] normalized = new Value[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            normalized[i] = Value.wrap(Stores.normalizeValue(operator,
+                    values[i]));
+        }
+        operator = Stores.normalizeOperator(operator);
+        SecondaryRecord record = csc.getIfPresent(Composite.create(Text
+                .wrapCached(key)));
+        if(record != null) {
+            // The record is already in memory, so its exact counts are
+            // cheaper than the stats and more accurate
+            return record.estimateCardinality(operator, normalized);
+        }
+        else {
+            return getColumnStats(key).estimateCardinality(operator,
+                    normalized);
+        }
+    }
+
     /**
      * Return dumps for all the blocks identified by {@code id}. This method IS
      * NOT necessarily optimized for performance, so it should be used with
@@ -365,6 +694,54 @@ public final class Database extends BaseStore implements
         return backingStore;
     }
 
+    /**
+     * Return the {@link ColumnStats} that describe all the values that have
+     * been stored for {@code key}, merged across every Block.
+     * 
+     * @param key
+     * @return the ColumnStats
+     */
+    public ColumnStats getColumnStats(String key) {
+        Text key0 = Text.wrapCached(key);
+        masterLock.readLock().lock();
+        try {
+            ColumnStats stats = getSyncedColumnStats(key0);
+            ColumnStats current = csb0.getColumnStats(key0);
+            return current == null ? stats : ColumnStats.merge(key0,
+                    Lists.newArrayList(stats, current));
+        }
+        finally {
+            masterLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return a description of the compaction that is currently in progress
+     * (if any) and the compactions that have completed since the Database
+     * started.
+     * 
+     * @return the compaction status
+     */
+    @ManagedOperation
+    public String getCompactionStatus() {
+        Compaction current = compaction;
+        StringBuilder sb = new StringBuilder();
+        sb.append(current != null ? current : "No compaction is running");
+        sb.append(System.getProperty("line.separator"));
+        sb.append("Completed ").append(compactionCount.get())
+                .append(" compactions that merged ")
+                .append(compactedBlockCount.get()).append(" blocks");
+        sb.append(System.getProperty("line.separator"));
+        masterLock.readLock().lock();
+        try {
+            sb.append("There are ").append(cpb.size()).append(" blocks");
+        }
+        finally {
+            masterLock.readLock().unlock();
+        }
+        return sb.toString();
+    }
+
     /**
      * Return a the list of ids for all the blocks that are currently in scope.
      * 
@@ -398,11 +775,18 @@ public final class Database extends BaseStore implements
                 .getVersion();
     }
 
+    @Override
+    public Map<Long, Integer> rank(String key, String query) {
+        return Transformers.transformMap(SearchRecord.score(Text.wrap(query),
+                searchEngine, getSearchPostings(key)),
+                Functions.PRIMARY_KEY_TO_LONG);
+    }
+
     @Override
     public Set<Long> search(String key, String query) {
-        return Transformers.transformSet(
-                getSearchRecord(Text.wrapCached(key), Text.wrap(query)).search(
-                        Text.wrap(query)), Functions.PRIMARY_KEY_TO_LONG);
+        return Transformers.transformSet(SearchRecord.search(Text.wrap(query),
+                searchEngine, getSearchPostings(key)),
+                Functions.PRIMARY_KEY_TO_LONG);
     }
 
     @Override
@@ -410,6 +794,8 @@ public final class Database extends BaseStore implements
         if(!running) {
             running = true;
             Logger.info("Database configured to store data in {}", backingStore);
+            Compaction.recover(backingStore, PRIMARY_BLOCK_DIRECTORY,
+                    SECONDARY_BLOCK_DIRECTORY, SEARCH_BLOCK_DIRECTORY);
             ConcourseExecutors.executeAndAwaitTerminationAndShutdown(
                     "Storage Block Loader", new BlockLoader<PrimaryBlock>(
                             PrimaryBlock.class, PRIMARY_BLOCK_DIRECTORY, cpb),
@@ -431,6 +817,8 @@ public final class Database extends BaseStore implements
             // missing to assume that the server crashed. :-/
             TLists.retainIntersection(cpb, csb);
             ctb.retainAll(cpb);
+            generateMissingStats();
+            searchEngine = loadSearchEngine();
             triggerSync(false);
         }
     }
@@ -439,6 +827,10 @@ public final class Database extends BaseStore implements
     public void stop() {
         if(running) {
             running = false;
+            // Wait for any in-flight compaction to finish so that it doesn't
+            // touch the block files after the Database is stopped.
+            compactionLock.lock();
+            compactionLock.unlock();
         }
     }
 
@@ -469,6 +861,256 @@ public final class Database extends BaseStore implements
                 Value.wrap(value), timestamp);
     }
 
+    /**
+     * Find the next run of adjacent immutable Blocks that is worth compacting
+     * and replace it with a single merged Block.
+     * <p>
+     * Blocks are only merged with their neighbours because the revisions for a
+     * record must be read from the Blocks in chronological order. A run is
+     * worth compacting if it has at least {@link #MIN_COMPACTION_RUN_LENGTH}
+     * Blocks that fit within {@link GlobalState#MAX_COMPACTION_SIZE} and no
+     * single Block is larger than all the others combined. That size-tiered
+     * rule ensures that small Blocks are merged with one another before they
+     * are merged into large ones, so each revision is only rewritten a
+     * logarithmic number of times.
+     * </p>
+     * 
+     * @return {@code true} if a run of Blocks was compacted
+     */
+    @GuardedBy("compactionLock")
+    private boolean compactNext() {
+        List<PrimaryBlock> primary = Lists.newArrayList();
+        List<SecondaryBlock> secondary = Lists.newArrayList();
+        List<SearchBlock> search = Lists.newArrayList();
+        List<String> ids = Lists.newArrayList();
+        String id = null;
+        long size = 0;
+        masterLock.readLock().lock();
+        try {
+            // The last block in each collection is the mutable one, so it is
+            // never compacted
+            int count = cpb.size() - 1;
+            long[] sizes = new long[count];
+            Map<String, SecondaryBlock> secondaries = Maps.newHashMap();
+            Map<String, SearchBlock> searches = Maps.newHashMap();
+            for (SecondaryBlock block : csb) {
+                secondaries.put(block.getId(), block);
+            }
+            for (SearchBlock block : ctb) {
+                searches.put(block.getId(), block);
+            }
+            for (int i = 0; i < count; ++i) {
+                String blockId = cpb.get(i).getId();
+                SecondaryBlock csbi = secondaries.get(blockId);
+                SearchBlock ctbi = searches.get(blockId);
+                sizes[i] = csbi == null ? -1 : cpb.get(i).size()
+                        + csbi.size() + (ctbi != null ? ctbi.size() : 0);
+            }
+            for (int i = 0; i < count && id == null; ++i) {
+                long total = 0;
+                long max = 0;
+                int j = i;
+                while (j < count && sizes[j] >= 0
+                        && total + sizes[j] <= MAX_COMPACTION_SIZE) {
+                    total += sizes[j];
+                    max = Math.max(max, sizes[j]);
+                    ++j;
+                }
+                if(j - i >= MIN_COMPACTION_RUN_LENGTH && max * 2 <= total) {
+                    ids.clear();
+                    for (int k = i; k < j; ++k) {
+                        ids.add(cpb.get(k).getId());
+                    }
+                    id = getCompactionId(ids, cpb.get(j).getId());
+                    if(id != null) {
+                        size = total;
+                        for (int k = i; k < j; ++k) {
+                            String blockId = cpb.get(k).getId();
+                            primary.add(cpb.get(k));
+                            secondary.add(secondaries.get(blockId));
+                            if(searches.containsKey(blockId)) {
+                                search.add(searches.get(blockId));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            masterLock.readLock().unlock();
+        }
+        if(id != null) {
+            Compaction compaction = new Compaction(backingStore, id, ids,
+                    size, PRIMARY_BLOCK_DIRECTORY, SECONDARY_BLOCK_DIRECTORY,
+                    SEARCH_BLOCK_DIRECTORY);
+            this.compaction = compaction;
+            try {
+                // The merged blocks are staged without holding the master lock
+                // because the blocks that are being merged are immutable and
+                // only a compaction can remove them
+                merge(compaction, PrimaryBlock.class, PRIMARY_BLOCK_DIRECTORY,
+                        primary);
+                merge(compaction, SecondaryBlock.class,
+                        SECONDARY_BLOCK_DIRECTORY, secondary);
+                merge(compaction, SearchBlock.class, SEARCH_BLOCK_DIRECTORY,
+                        search);
+                compaction.commit();
+            }
+            catch (RuntimeException e) {
+                compaction.abort();
+                this.compaction = null;
+                throw e;
+            }
+            masterLock.writeLock().lock();
+            try {
+                compaction.apply();
+                swap(compaction, PrimaryBlock.class, PRIMARY_BLOCK_DIRECTORY,
+                        cpb);
+                swap(compaction, SecondaryBlock.class,
+                        SECONDARY_BLOCK_DIRECTORY, csb);
+                swap(compaction, SearchBlock.class, SEARCH_BLOCK_DIRECTORY,
+                        ctb);
+            }
+            finally {
+                masterLock.writeLock().unlock();
+                this.compaction = null;
+            }
+            compactionCount.incrementAndGet();
+            compactedBlockCount.addAndGet(ids.size());
+            Logger.info("Compacted blocks {} into {}", ids, id);
+            return true;
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Generate the {@link ColumnStats} for each SecondaryBlock that was synced
+     * before stats were tracked. Generating the stats reads the entire Block,
+     * so it is done once, in parallel, while the Database starts instead of
+     * on the first read, which would hold the {@link #masterLock} the whole
+     * time.
+     */
+    private void generateMissingStats() {
+        ExecutorService executor = null;
+        for (final SecondaryBlock block : csb) {
+            if(block.isMissingStats()) {
+                if(executor == null) {
+                    executor = ConcourseExecutors.newThreadPool(Runtime
+                            .getRuntime().availableProcessors(),
+                            "Storage Stats Generator");
+                }
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        block.generateStats();
+                    }
+
+                });
+            }
+        }
+        if(executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+    }
+
+    /**
+     * Return an id for the Block that replaces the Blocks identified by
+     * {@code ids}, which must sort between the ids of the Blocks around them
+     * without colliding with any existing id, or {@code null} if there is no
+     * such id.
+     * 
+     * @param ids - the sorted ids of the Blocks to replace
+     * @param next - the id of the Block that follows the last one in
+     *            {@code ids}
+     * @return the id for the merged Block
+     */
+    @Nullable
+    private String getCompactionId(List<String> ids, String next) {
+        try {
+            long first = Long.parseLong(ids.get(0));
+            long last = Long.parseLong(ids.get(ids.size() - 1));
+            if(last + 1 < Long.parseLong(next)) {
+                return Long.toString(last + 1);
+            }
+            for (long id = last - 1; id > first; --id) {
+                if(!ids.contains(Long.toString(id))) {
+                    return Long.toString(id);
+                }
+            }
+        }
+        catch (NumberFormatException e) {
+            // The blocks were not created by the Database, so don't touch
+            // them
+        }
+        return null;
+    }
+
+    /**
+     * Merge all the revisions from {@code blocks} into a single Block of type
+     * {@code clazz} that is synced to the staging {@code directory} for the
+     * {@code compaction}.
+     * 
+     * @param compaction
+     * @param clazz
+     * @param directory
+     * @param blocks
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T extends Block<?, ?, ?>> void merge(Compaction compaction,
+            Class<T> clazz, String directory, List<T> blocks) {
+        if(!blocks.isEmpty()) {
+            T merged = createBlock(clazz, compaction.getId(),
+                    compaction.getStagingDirectory(directory), false,
+                    blocks.size() * Block.EXPECTED_INSERTIONS);
+            for (T block : blocks) {
+                ((Block) merged).insert((Block) block);
+                compaction.progress(block.size());
+            }
+            merged.sync();
+        }
+    }
+
+    /**
+     * Replace the Blocks in {@code blocks} that were merged by the applied
+     * {@code compaction} with the merged Block of type {@code clazz} from
+     * {@code directory}.
+     * 
+     * @param compaction
+     * @param clazz
+     * @param directory
+     * @param blocks
+     */
+    @GuardedBy("masterLock.writeLock()")
+    private <T extends Block<?, ?, ?>> void swap(Compaction compaction,
+            Class<T> clazz, String directory, List<T> blocks) {
+        int index = -1;
+        int position = 0;
+        Iterator<T> it = blocks.iterator();
+        while (it.hasNext()) {
+            if(compaction.getReplaced().contains(it.next().getId())) {
+                index = index < 0 ? position : index;
+                it.remove();
+            }
+            else {
+                ++position;
+            }
+        }
+        if(index >= 0) {
+            blocks.add(index, createBlock(clazz, compaction.getId(),
+                    backingStore + File.separator + directory, true,
+                    Block.EXPECTED_INSERTIONS));
+        }
+    }
+
     /**
      * Return the PrimaryRecord identifier by {@code primaryKey}.
      * 
@@ -482,9 +1124,7 @@ public final class Database extends BaseStore implements
             PrimaryRecord record = cpc.getIfPresent(composite);
             if(record == null) {
                 record = Record.createPrimaryRecord(pkey);
-                for (PrimaryBlock block : cpb) {
-                    block.seek(pkey, record);
-                }
+                seek(cpb, pkey, null, record);
                 cpc.put(composite, record);
             }
             return record;
@@ -509,9 +1149,7 @@ public final class Database extends BaseStore implements
             PrimaryRecord record = cppc.getIfPresent(composite);
             if(record == null) {
                 record = Record.createPrimaryRecordPartial(pkey, key);
-                for (PrimaryBlock block : cpb) {
-                    block.seek(pkey, key, record);
-                }
+                seek(cpb, pkey, key, record);
                 cppc.put(composite, record);
             }
             return record;
@@ -522,29 +1160,41 @@ public final class Database extends BaseStore implements
     }
 
     /**
-     * Return the SearchRecord identified by {@code key}.
+     * Return the function that returns the cached Positions that are mapped
+     * from a term in {@code key}.
+     * 
+     * @param key
+     * @return the postings function
+     */
+    private Function<Text, Set<Position>> getSearchPostings(String key) {
+        final Text key0 = Text.wrapCached(key);
+        return new Function<Text, Set<Position>>() {
+
+            @Override
+            public Set<Position> apply(Text term) {
+                return getSearchRecord(key0, term).locate(term);
+            }
+
+        };
+    }
+
+    /**
+     * Return the SearchRecord that contains the postings for {@code term} in
+     * {@code key}.
      * 
      * @param key
-     * @param query
+     * @param term
      * @return the SearchRecord
      */
-    private SearchRecord getSearchRecord(Text key, Text query) {
-        // NOTE: We do not cache SearchRecords because they have the potential
-        // to be VERY large. Holding references to them in a cache would prevent
-        // them from being garbage collected resulting in more OOMs.
+    private SearchRecord getSearchRecord(Text key, Text term) {
         masterLock.readLock().lock();
         try {
-            SearchRecord record = Record.createSearchRecordPartial(key, query);
-            for (SearchBlock block : ctb) {
-                // Seek each word in the query to make sure that multi word
-                // search works.
-                String[] toks = query
-                        .toString()
-                        .toLowerCase()
-                        .split(TStrings.REGEX_GROUP_OF_ONE_OR_MORE_WHITESPACE_CHARS);
-                for (String tok : toks) {
-                    block.seek(key, Text.wrap(tok), record);
-                }
+            Composite composite = Composite.create(key, term);
+            SearchRecord record = ctc.getIfPresent(composite);
+            if(record == null) {
+                record = Record.createSearchRecordPartial(key, term);
+                seek(ctb, key, term, record);
+                ctc.put(composite, record);
             }
             return record;
         }
@@ -553,6 +1203,32 @@ public final class Database extends BaseStore implements
         }
     }
 
+    /**
+     * Return the {@link ColumnStats} for {@code key} merged across all the
+     * synced SecondaryBlocks.
+     * 
+     * @param key
+     * @return the ColumnStats
+     */
+    @GuardedBy("masterLock.readLock()")
+    private ColumnStats getSyncedColumnStats(Text key) {
+        Composite composite = Composite.create(key);
+        ColumnStats stats = css.getIfPresent(composite);
+        if(stats == null) {
+            List<ColumnStats> all = Lists.newArrayList();
+            for (SecondaryBlock block : csb) {
+                ColumnStats blockStats = block != csb0 ? block
+                        .getColumnStats(key) : null;
+                if(blockStats != null) {
+                    all.add(blockStats);
+                }
+            }
+            stats = ColumnStats.merge(key, all);
+            css.put(composite, stats);
+        }
+        return stats;
+    }
+
     /**
      * Return the SecondaryRecord identified by {@code key}.
      * 
@@ -566,9 +1242,7 @@ public final class Database extends BaseStore implements
             SecondaryRecord record = csc.getIfPresent(composite);
             if(record == null) {
                 record = Record.createSecondaryRecord(key);
-                for (SecondaryBlock block : csb) {
-                    block.seek(key, record);
-                }
+                seek(csb, key, null, record);
                 csc.put(composite, record);
             }
             return record;
@@ -578,6 +1252,65 @@ public final class Database extends BaseStore implements
         }
     }
 
+    /**
+     * Return a SecondaryRecord for {@code key} that can answer a query for
+     * {@code operator} in relation to {@code values}.
+     * <p>
+     * If the full SecondaryRecord is not cached and the query is for a range
+     * that the {@link ColumnStats} show is selective, the returned record only
+     * contains the revisions with values in the range. Such a record is not
+     * cached because it cannot answer other queries, but loading it skips all
+     * the Blocks that cannot contain the range, so the cost is proportional
+     * to the matching data instead of the number of Blocks.
+     * </p>
+     * 
+     * @param key
+     * @param operator
+     * @param values
+     * @return the SecondaryRecord
+     */
+    private SecondaryRecord getSecondaryRecord(Text key, Operator operator,
+            Value... values) {
+        if(operator == Operator.GREATER_THAN
+                || operator == Operator.GREATER_THAN_OR_EQUALS
+                || operator == Operator.LESS_THAN
+                || operator == Operator.LESS_THAN_OR_EQUALS
+                || operator == Operator.BETWEEN) {
+            masterLock.readLock().lock();
+            try {
+                if(csc.getIfPresent(Composite.create(key)) == null) {
+                    ColumnStats stats = getColumnStats(key.toString());
+                    if(stats.estimateCardinality(operator, values)
+                            * MIN_RANGE_SEEK_SELECTIVITY < stats.getLiveCount()) {
+                        Range<Value> range = Iterables.getOnlyElement(RangeTokens
+                                .convertToRange(RangeToken.forReading(key,
+                                        operator, values)));
+                        SecondaryRecord record = Record
+                                .createSecondaryRecord(key);
+                        for (SecondaryBlock block : csb) {
+                            block.seek(key, range, record);
+                        }
+                        return record;
+                    }
+                }
+            }
+            finally {
+                masterLock.readLock().unlock();
+            }
+        }
+        return getSecondaryRecord(key);
+    }
+
+    /**
+     * Return the {@link SearchEngine} that is recorded for this Database.
+     * 
+     * @return the SearchEngine
+     * @see #loadSearchEngine(String, boolean)
+     */
+    private SearchEngine loadSearchEngine() {
+        return loadSearchEngine(backingStore, !ctb.isEmpty());
+    }
+
     /**
      * Create new mutable blocks and sync the current blocks to disk if
      * {@code doSync} is {@code true}.
@@ -593,9 +1326,18 @@ public final class Database extends BaseStore implements
             if(doSync) {
                 // TODO we need a transactional file system to ensure that these
                 // blocks are written atomically (all or nothing)
-                ConcourseExecutors.executeAndAwaitTermination(threadNamePrefix,
-                        new BlockSyncer(cpb0), new BlockSyncer(csb0),
+                syncer.execute(new BlockSyncer(cpb0), new BlockSyncer(csb0),
                         new BlockSyncer(ctb0));
+                for (Map.Entry<Composite, ColumnStats> entry : css.asMap()
+                        .entrySet()) {
+                    ColumnStats stats = csb0.getColumnStats(entry.getValue()
+                            .getKey());
+                    if(stats != null) {
+                        css.put(entry.getKey(), ColumnStats.merge(
+                                stats.getKey(),
+                                Lists.newArrayList(entry.getValue(), stats)));
+                    }
+                }
             }
             String id = Long.toString(Time.now());
             cpb.add((cpb0 = Block.createPrimaryBlock(id, backingStore
@@ -603,11 +1345,15 @@ public final class Database extends BaseStore implements
             csb.add((csb0 = Block.createSecondaryBlock(id, backingStore
                     + File.separator + SECONDARY_BLOCK_DIRECTORY)));
             ctb.add((ctb0 = Block.createSearchBlock(id, backingStore
-                    + File.separator + SEARCH_BLOCK_DIRECTORY)));
+                    + File.separator + SEARCH_BLOCK_DIRECTORY, searchEngine)));
         }
         finally {
             masterLock.writeLock().unlock();
         }
+        if(doSync && MAX_COMPACTION_SIZE > 0
+                && compactionScheduled.compareAndSet(false, true)) {
+            compactor.submit(new BlockCompactor());
+        }
     }
 
     /**
@@ -691,6 +1437,28 @@ public final class Database extends BaseStore implements
 
     }
 
+    /**
+     * A runnable that compacts the Blocks in the background.
+     * 
+     * @author Jeff Nelson
+     */
+    private final class BlockCompactor implements Runnable {
+
+        @Override
+        public void run() {
+            compactionScheduled.set(false);
+            try {
+                compact();
+            }
+            catch (RuntimeException e) {
+                Logger.error("An error occured while compacting the blocks "
+                        + "in {}", backingStore);
+                Logger.error("", e);
+            }
+        }
+
+    }
+
     /**
      * A runnable that will sync a block to disk.
      * 
@@ -718,28 +1486,40 @@ public final class Database extends BaseStore implements
     }
 
     /**
-     * A runnable that will insert a Writer into a block.
+     * A runnable that will insert a batch of Writes into a block.
      * 
      * @author Jeff Nelson
      */
     private final class BlockWriter implements Runnable {
 
         private final Block<?, ?, ?> block;
-        private final Write write;
+        private final List<Write> writes;
 
         /**
          * Construct a new instance.
          * 
          * @param block
-         * @param write
+         * @param writes
          */
-        public BlockWriter(Block<?, ?, ?> block, Write write) {
+        public BlockWriter(Block<?, ?, ?> block, List<Write> writes) {
             this.block = block;
-            this.write = write;
+            this.writes = writes;
         }
 
         @Override
         public void run() {
+            for (Write write : writes) {
+                insert(write);
+            }
+        }
+
+        /**
+         * Insert {@code write} into the {@link #block} and append the
+         * resulting revisions to any cached records that they affect.
+         * 
+         * @param write
+         */
+        private void insert(Write write) {
             Logger.debug("Writing {} to {}", write, block);
             if(block instanceof PrimaryBlock) {
                 PrimaryRevision revision = (PrimaryRevision) ((PrimaryBlock) block)
@@ -770,12 +1550,20 @@ public final class Database extends BaseStore implements
                 }
             }
             else if(block instanceof SearchBlock) {
-                ((SearchBlock) block).insert(write.getKey(), write.getValue(),
-                        write.getRecord(), write.getVersion(), write.getType());
-                // NOTE: We do not cache SearchRecords because they have the
-                // potential to be VERY large. Holding references to them in a
-                // cache would prevent them from being garbage collected
-                // resulting in more OOMs.
+                List<SearchRevision> revisions = ((SearchBlock) block).insert(
+                        write.getKey(), write.getValue(), write.getRecord(),
+                        write.getVersion(), write.getType());
+                if(ctc.size() > 0) {
+                    for (SearchRevision revision : revisions) {
+                        Composite composite = Composite.create(write.getKey(),
+                                revision.getKey());
+                        SearchRecord record = ctc.getIfPresent(composite);
+                        if(record != null) {
+                            record.append(revision);
+                            ctc.put(composite, record); // re-weigh
+                        }
+                    }
+                }
             }
             else {
                 throw new IllegalArgumentException();
@@ -45,6 +45,21 @@ final class PrimaryBlock extends Block<PrimaryKey, Text, Value> {
     PrimaryBlock(String id, String directory, boolean diskLoad) {
         super(id, directory, diskLoad);
     }
+
+    /**
+     * DO NOT CALL!!
+     * 
+     * @param id
+     * @param directory
+     * @param diskLoad
+     * @param expectedInsertions
+     */
+    @PackagePrivate
+    @DoNotInvoke
+    PrimaryBlock(String id, String directory, boolean diskLoad,
+            int expectedInsertions) {
+        super(id, directory, diskLoad, expectedInsertions);
+    }
     
     @Override
     public final PrimaryRevision insert(PrimaryKey locator, Text key,
@@ -57,6 +57,13 @@ import com.google.common.collect.Sets;
 @SuppressWarnings("unchecked")
 abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & Comparable<K>, V extends Byteable & Comparable<V>> {
 
+    /**
+     * The number of revisions for a key between each snapshot of its values
+     * that is used to speed up historical reads.
+     */
+    @PackagePrivate
+    static final int CHECKPOINT_INTERVAL = 1000;
+
     /**
      * Return a PrimaryRecord for {@code primaryKey}.
      * 
@@ -153,9 +160,18 @@ abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & C
      * This index is used to efficiently handle historical reads. Given a
      * revision (e.g key/value pair), and historical timestamp, we can count the
      * number of times that the value appears <em>beforehand</em> at determine
-     * if the mapping existed or not.
+     * if the mapping existed or not. The subclass should specify the
+     * appropriate type of key sorting via the returned type for
+     * {@link #historyMapType()}.
+     */
+    protected final transient Map<K, List<CompactRevision<V>>> history = historyMapType();
+
+    /**
+     * Periodic snapshots of the {@link #history} for each key that has at
+     * least {@link #CHECKPOINT_INTERVAL} revisions, so that historical reads
+     * can start from the nearest snapshot instead of replaying every revision.
      */
-    protected final transient HashMap<K, List<CompactRevision<V>>> history = Maps
+    private final transient HashMap<K, Checkpoints<V>> checkpoints = Maps
             .newHashMap();
 
     /**
@@ -271,6 +287,16 @@ abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & C
                 history.put(revision.getKey(), revisions);
             }
             revisions.add(revision.compact());
+            Checkpoints<V> checkpoints = this.checkpoints.get(revision
+                    .getKey());
+            if(checkpoints == null
+                    && revisions.size() >= CHECKPOINT_INTERVAL) {
+                checkpoints = new Checkpoints<V>(revisions);
+                this.checkpoints.put(revision.getKey(), checkpoints);
+            }
+            if(checkpoints != null) {
+                checkpoints.update(revisions, get(revision.getKey()));
+            }
 
             // Update metadata
             version = Math.max(version, revision.getVersion());
@@ -396,9 +422,16 @@ abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & C
         try {
             Set<V> values = emptyValues;
             List<CompactRevision<V>> stored = history.get(key);
-            if(stored != null) {
+            if(stored != null && stored.get(0).getVersion() <= timestamp) {
+                // NOTE: A key whose first revision is after the timestamp is
+                // skipped without allocating a set of values to replay into.
                 values = Sets.newLinkedHashSet();
-                Iterator<CompactRevision<V>> it = stored.iterator();
+                int start = 0;
+                Checkpoints<V> checkpoints = this.checkpoints.get(key);
+                if(checkpoints != null) {
+                    start = checkpoints.restore(timestamp, values);
+                }
+                Iterator<CompactRevision<V>> it = stored.listIterator(start);
                 while (it.hasNext()) {
                     CompactRevision<V> revision = it.next();
                     if(revision.getVersion() <= timestamp) {
@@ -428,6 +461,16 @@ abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & C
      */
     protected abstract Map<K, Set<V>> mapType();
 
+    /**
+     * Initialize the appropriate data structure for the {@link #history}. By
+     * default, the keys are not sorted.
+     * 
+     * @return the initialized mappings
+     */
+    protected Map<K, List<CompactRevision<V>>> historyMapType() {
+        return Maps.newHashMap();
+    }
+
     /**
      * Return {@code true} if the action associated with {@code revision}
      * offsets the last action for an equal revision.
@@ -442,6 +485,115 @@ abstract class Record<L extends Byteable & Comparable<L>, K extends Byteable & C
                 .getType() == Action.REMOVE && contained)) ? true : false;
     }
 
+    /**
+     * The snapshots of the values for a single key that are taken after every
+     * {@link Record#CHECKPOINT_INTERVAL} revisions in its history.
+     * <p>
+     * A snapshot is only useful if every revision before it has a lower
+     * version than every revision after it. That is always true for
+     * PrimaryRecords, but the revisions in other Records may be appended in
+     * an order that is not based on version, in which case no snapshots are
+     * kept. Snapshots of value sets that are larger than the interval are
+     * skipped so that the snapshots never use more memory than the history
+     * itself.
+     * </p>
+     * 
+     * @author Jeff Nelson
+     * @param <V> - the value type
+     */
+    private static final class Checkpoints<V extends Comparable<V>> {
+
+        /**
+         * A flag that indicates whether the history is in version order.
+         */
+        private boolean ordered = true;
+
+        /**
+         * The number of revisions that each snapshot covers.
+         */
+        private final List<Integer> sizes = Lists.newArrayList();
+
+        /**
+         * The values after the last revision that each snapshot covers.
+         */
+        private final List<Set<V>> snapshots = Lists.newArrayList();
+
+        /**
+         * The version of the last revision that each snapshot covers, in
+         * ascending order.
+         */
+        private final List<Long> versions = Lists.newArrayList();
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param history
+         */
+        Checkpoints(List<CompactRevision<V>> history) {
+            for (int i = 1; i < history.size() && ordered; ++i) {
+                ordered = history.get(i - 1).getVersion() <= history.get(i)
+                        .getVersion();
+            }
+        }
+
+        /**
+         * Add the values from the latest snapshot that only covers revisions
+         * at or before {@code timestamp} to {@code values} and return the
+         * number of revisions that the snapshot covers, which is the position
+         * in the history where replay should continue.
+         * 
+         * @param timestamp
+         * @param values
+         * @return the number of revisions that do not need to be replayed
+         */
+        int restore(long timestamp, Set<V> values) {
+            int index = Collections.binarySearch(versions, timestamp);
+            if(index < 0) {
+                index = -index - 2; // the last snapshot before the insertion
+                                    // point
+            }
+            else {
+                while (index + 1 < versions.size()
+                        && versions.get(index + 1) == timestamp) {
+                    index++;
+                }
+            }
+            if(index >= 0) {
+                values.addAll(snapshots.get(index));
+                return sizes.get(index);
+            }
+            else {
+                return 0;
+            }
+        }
+
+        /**
+         * Take a snapshot of the {@code current} values if another interval of
+         * revisions has been appended to the {@code history}.
+         * 
+         * @param history
+         * @param current
+         */
+        void update(List<CompactRevision<V>> history, Set<V> current) {
+            int size = history.size();
+            if(ordered && size > 1
+                    && history.get(size - 2).getVersion() > history.get(
+                            size - 1).getVersion()) {
+                ordered = false;
+                sizes.clear();
+                snapshots.clear();
+                versions.clear();
+            }
+            if(ordered && size % CHECKPOINT_INTERVAL == 0
+                    && current.size() <= CHECKPOINT_INTERVAL) {
+                sizes.add(size);
+                snapshots.add(Sets.newLinkedHashSet(current));
+                versions.add(history.get(size - 1).getVersion());
+            }
+        }
+
+    }
+
     /**
      * An empty Set of type V that cannot be modified, but won't throw
      * exceptions. This returned in instances when a key does not map to any
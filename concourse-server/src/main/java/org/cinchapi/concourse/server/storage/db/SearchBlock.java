@@ -20,7 +20,8 @@ import static org.cinchapi.concourse.server.GlobalState.STOPWORDS;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -40,10 +41,9 @@ import org.cinchapi.concourse.util.ConcurrentSkipListMultiset;
 import org.cinchapi.concourse.util.TStrings;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.SortedMultiset;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -56,6 +56,8 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
  * query is for 'fo ar' then value 'foo bar' will match, etc).
  * </p>
  * <p>
+ * The substrings that are stored for each term are determined by the block's
+ * {@link SearchEngine}.
  * </p>
  * 
  * @author Jeff Nelson
@@ -77,6 +79,13 @@ final class SearchBlock extends Block<Text, Text, Position> {
                     new ThreadFactoryBuilder().setDaemon(true)
                             .setNameFormat("Search Indexer" + " %d").build());
 
+    /**
+     * The {@link SearchEngine} that determines which substrings are indexed
+     * for each term that is inserted. This is only relevant while the block is
+     * mutable.
+     */
+    private SearchEngine engine = SearchEngine.INFIX;
+
     @SuppressWarnings("rawtypes")
     @Override
     protected SortedMultiset<Revision<Text, Text, Position>> createBackingStore(
@@ -98,6 +107,22 @@ final class SearchBlock extends Block<Text, Text, Position> {
         this.concurrent = true;
     }
 
+    /**
+     * DO NOT CALL!!
+     * 
+     * @param id
+     * @param directory
+     * @param diskLoad
+     * @param expectedInsertions
+     */
+    @PackagePrivate
+    @DoNotInvoke
+    SearchBlock(String id, String directory, boolean diskLoad,
+            int expectedInsertions) {
+        super(id, directory, diskLoad, expectedInsertions);
+        this.concurrent = true;
+    }
+
     /**
      * DO NOT CALL. Use {@link #insert(Text, Value, PrimaryKey)} instead.
      */
@@ -117,9 +142,11 @@ final class SearchBlock extends Block<Text, Text, Position> {
      * @param record
      * @param version
      * @param type
+     * @return the SearchRevisions that were inserted for each of the indexed
+     *         substrings of {@code value}
      */
-    public final void insert(Text key, Value value, PrimaryKey record,
-            long version, Action type) {
+    public final List<SearchRevision> insert(Text key, Value value,
+            PrimaryKey record, long version, Action type) {
         Preconditions.checkState(mutable,
                 "Cannot modify a block that is not mutable");
         if(value.getType() == Type.STRING) {
@@ -127,22 +154,41 @@ final class SearchBlock extends Block<Text, Text, Position> {
             String[] toks = string
                     .split(TStrings.REGEX_GROUP_OF_ONE_OR_MORE_WHITESPACE_CHARS);
             int pos = 0;
-            List<Future<?>> futures = Lists.newArrayList();
+            List<Future<SearchRevision>> futures = Lists.newArrayList();
             for (String tok : toks) {
                 futures.addAll(process(key, tok, pos, record, version, type));
                 ++pos;
             }
-            for (Future<?> future : futures) { // wait for completion
+            List<SearchRevision> revisions = Lists
+                    .newArrayListWithCapacity(futures.size());
+            for (Future<SearchRevision> future : futures) { // wait for
+                                                            // completion
                 try {
-                    future.get();
+                    revisions.add(future.get());
                 }
                 catch (ExecutionException | InterruptedException e) {
                     throw Throwables.propagate(e);
                 }
             }
+            return revisions;
+        }
+        else {
+            return Collections.emptyList();
         }
     }
 
+    /**
+     * Set the {@link SearchEngine} that determines which substrings are
+     * indexed for each term that is inserted. This method must be called
+     * before any data is inserted.
+     * 
+     * @param engine
+     */
+    @PackagePrivate
+    void setEngine(SearchEngine engine) {
+        this.engine = engine;
+    }
+
     @Override
     protected SearchRevision makeRevision(Text locator, Text key,
             Position value, long version, Action type) {
@@ -163,16 +209,19 @@ final class SearchBlock extends Block<Text, Text, Position> {
      * @param value
      * @param version
      * @param type
+     * @return the inserted SearchRevision
      */
-    private final void doInsert(Text locator, Text key, Position value,
-            long version, Action type) {
-        super.insertUnsafe(locator, key, value, version, type);
+    private final SearchRevision doInsert(Text locator, Text key,
+            Position value, long version, Action type) {
+        return (SearchRevision) super.insertUnsafe(locator, key, value,
+                version, type);
     }
 
     /**
-     * Calculate all possible substrings for {@code term} and submit a task to
-     * the {@link #indexer} that will store a revision for the {@code term} at
-     * {@code position} for {@code key} in {@code record} at {@code version}.
+     * Calculate the substrings of {@code term} that the {@link #engine} indexes
+     * and submit a task to the {@link #indexer} that will store a revision for
+     * each of them at {@code position} for {@code key} in {@code record} at
+     * {@code version}.
      * 
      * @param key
      * @param term
@@ -181,44 +230,30 @@ final class SearchBlock extends Block<Text, Text, Position> {
      * @param version
      * @param type
      * @return {@link Future Futures} that can be used to wait for all the
-     *         submitted tasks to complete
+     *         submitted tasks to complete and get the inserted revisions
      */
-    private List<Future<?>> process(final Text key, final String term,
+    private List<Future<SearchRevision>> process(final Text key,
+            final String term,
             final int position, final PrimaryKey record, final long version,
             final Action type) {
         if(!STOPWORDS.contains(term)) {
-            int upperBound = (int) Math.pow(term.length(), 2);
-            List<Future<?>> futures = Lists
-                    .newArrayListWithCapacity(upperBound);
-
-            // The set of substrings that have been indexed from {@code term} at
-            // {@code position} for {@code key} in {@code record} at {@code
-            // version}. This is used to ensure that we do not add duplicate
-            // indexes (i.e. 'abrakadabra')
-            Set<String> indexed = Sets.newHashSetWithExpectedSize(upperBound);
-
-            for (int i = 0; i < term.length(); ++i) {
-                for (int j = i + 1; j < term.length() + 1; ++j) {
-                    final String substring = term.substring(i, j).trim();
-                    if(!Strings.isNullOrEmpty(substring)
-                            && !STOPWORDS.contains(substring)
-                            && !indexed.contains(substring)) {
-                        indexed.add(substring);
-                        futures.add(indexer.submit(new Runnable() {
-
-                            @Override
-                            public void run() {
-                                doInsert(key, Text.wrap(substring),
-                                        Position.wrap(record, position),
-                                        version, type);
-                            }
-
-                        }));
+            // The engine does not return duplicate indexes (i.e. for
+            // 'abrakadabra')
+            Multimap<String, Integer> indexes = engine.index(term, position);
+            List<Future<SearchRevision>> futures = Lists
+                    .newArrayListWithCapacity(indexes.size());
+            for (final Map.Entry<String, Integer> index : indexes.entries()) {
+                futures.add(indexer.submit(new Callable<SearchRevision>() {
+
+                    @Override
+                    public SearchRevision call() {
+                        return doInsert(key, Text.wrap(index.getKey()),
+                                Position.wrap(record, index.getValue()),
+                                version, type);
                     }
 
-                }
+                }));
             }
-            indexed = null; // make eligible for immediate GC
             return futures;
         }
         else {
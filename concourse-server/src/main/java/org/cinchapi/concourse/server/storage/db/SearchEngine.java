@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import static org.cinchapi.concourse.server.GlobalState.STOPWORDS;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.model.Position;
+import org.cinchapi.concourse.server.model.Text;
+
+import com.google.common.base.Function;
+import com.google.common.base.Strings;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+/**
+ * The strategy that determines which substrings of a term are stored in a
+ * {@link SearchBlock} and how a {@link SearchRecord} uses them to find the
+ * terms that contain a query token.
+ * <p>
+ * Both engines have the same infix semantics: a query token matches a term if
+ * it is a substring of that term. They only differ in the amount of data that
+ * is written for each term. Since the revisions in a SearchBlock can only be
+ * interpreted by the engine that wrote them, an environment keeps the engine
+ * with which it was created.
+ * </p>
+ *
+ * @author Jeff Nelson
+ */
+@PackagePrivate
+enum SearchEngine {
+
+    /**
+     * Index every distinct substring of each term at the position of the term.
+     * A query token is found with a single lookup, but the number of revisions
+     * that are written for a term grows with the square of its length.
+     */
+    INFIX {
+
+        @Override
+        public Multimap<String, Integer> index(String term, int position) {
+            Multimap<String, Integer> indexes = LinkedHashMultimap.create();
+            for (int i = 0; i < term.length(); ++i) {
+                for (int j = i + 1; j < term.length() + 1; ++j) {
+                    String substring = term.substring(i, j).trim();
+                    if(!Strings.isNullOrEmpty(substring)
+                            && !STOPWORDS.contains(substring)) {
+                        indexes.put(substring, position);
+                    }
+                }
+            }
+            return indexes;
+        }
+
+        @Override
+        public Set<Position> find(Function<Text, Set<Position>> postings,
+                String token) {
+            return postings.apply(Text.wrap(token));
+        }
+
+        @Override
+        public List<String> getSeekTerms(String token) {
+            return Collections.singletonList(token);
+        }
+
+    },
+
+    /**
+     * Index each distinct substring of a term that is shorter than
+     * {@link #GRAM_LENGTH} characters along with every substring of exactly
+     * {@link #GRAM_LENGTH} characters at each offset where it occurs, so the
+     * number of revisions that are written for a term is linear in its length.
+     * <p>
+     * A query token that is no longer than a gram is found with a single
+     * lookup. A longer token is covered by a sequence of overlapping grams and
+     * only matches a term that contains each of those grams at the expected
+     * distance from the first one, which is exactly the set of terms that
+     * contain the token.
+     * </p>
+     * <p>
+     * The word position and the character offset are both packed into the
+     * {@link Position} index, so the grams of a term that is longer than
+     * {@value #MAX_OFFSET} characters are only indexed up to that offset and
+     * words after the {@value #MAX_WORD_POSITION}th in a value are not indexed
+     * at all.
+     * </p>
+     */
+    NGRAM {
+
+        @Override
+        public Multimap<String, Integer> index(String term, int position) {
+            Multimap<String, Integer> indexes = LinkedHashMultimap.create();
+            if(position <= MAX_WORD_POSITION) {
+                for (int i = 0; i < term.length(); ++i) {
+                    for (int j = i + 1; j < Math.min(term.length() + 1, i
+                            + GRAM_LENGTH); ++j) {
+                        String substring = term.substring(i, j);
+                        if(!STOPWORDS.contains(substring)) {
+                            indexes.put(substring, encode(position, 0));
+                        }
+                    }
+                    if(i + GRAM_LENGTH <= term.length() && i <= MAX_OFFSET) {
+                        indexes.put(term.substring(i, i + GRAM_LENGTH),
+                                encode(position, i));
+                    }
+                }
+            }
+            return indexes;
+        }
+
+        @Override
+        public Set<Position> find(Function<Text, Set<Position>> postings,
+                String token) {
+            Set<Position> positions = Sets.newHashSet();
+            if(token.length() <= GRAM_LENGTH) {
+                for (Position position : postings.apply(Text.wrap(token))) {
+                    positions.add(Position.wrap(position.getPrimaryKey(),
+                            position.getIndex() >>> OFFSET_BITS));
+                }
+            }
+            else {
+                List<String> grams = getSeekTerms(token);
+                List<Set<Position>> candidates = Lists
+                        .newArrayListWithCapacity(grams.size());
+                for (String gram : grams) {
+                    candidates.add(postings.apply(Text.wrap(gram)));
+                }
+                outer: for (Position first : candidates.get(0)) {
+                    int index = first.getIndex();
+                    for (int i = 1; i < grams.size(); ++i) {
+                        int offset = Math.min(i * GRAM_LENGTH, token.length()
+                                - GRAM_LENGTH);
+                        if((index & MAX_OFFSET) + offset > MAX_OFFSET
+                                || !candidates.get(i).contains(
+                                        Position.wrap(first.getPrimaryKey(),
+                                                index + offset))) {
+                            continue outer;
+                        }
+                    }
+                    positions.add(Position.wrap(first.getPrimaryKey(),
+                            index >>> OFFSET_BITS));
+                }
+            }
+            return positions;
+        }
+
+        @Override
+        public List<String> getSeekTerms(String token) {
+            if(token.length() <= GRAM_LENGTH) {
+                return Collections.singletonList(token);
+            }
+            else {
+                // Cover the token with grams that start at every GRAM_LENGTH
+                // characters, plus one that ends at the last character.
+                List<String> grams = Lists.newArrayList();
+                for (int i = 0; i + GRAM_LENGTH < token.length(); i += GRAM_LENGTH) {
+                    grams.add(token.substring(i, i + GRAM_LENGTH));
+                }
+                grams.add(token.substring(token.length() - GRAM_LENGTH));
+                return grams;
+            }
+        }
+
+    };
+
+    /**
+     * Return the SearchEngine with the case insensitive {@code name}.
+     *
+     * @param name
+     * @return the SearchEngine
+     */
+    public static SearchEngine forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Pack the word {@code position} and the character {@code offset} into a
+     * single {@link Position} index.
+     *
+     * @param position
+     * @param offset
+     * @return the encoded index
+     */
+    private static int encode(int position, int offset) {
+        return (position << OFFSET_BITS) | offset;
+    }
+
+    /**
+     * The number of characters in the grams that are used by the
+     * {@link #NGRAM} engine.
+     */
+    @PackagePrivate
+    static final int GRAM_LENGTH = 3;
+
+    /**
+     * The number of low order bits of a {@link #NGRAM} Position index that
+     * hold the character offset.
+     */
+    private static final int OFFSET_BITS = 12;
+
+    /**
+     * The largest character offset that can be encoded in a {@link #NGRAM}
+     * Position index.
+     */
+    private static final int MAX_OFFSET = (1 << OFFSET_BITS) - 1;
+
+    /**
+     * The largest word position that can be encoded in a {@link #NGRAM}
+     * Position index.
+     */
+    private static final int MAX_WORD_POSITION = Integer.MAX_VALUE >>> OFFSET_BITS;
+
+    /**
+     * Return the substrings of {@code term}, which is found at
+     * {@code position} in a value, that must be indexed, each mapped to the
+     * {@link Position} indexes at which it is stored.
+     *
+     * @param term
+     * @param position
+     * @return the indexes for {@code term}
+     */
+    public abstract Multimap<String, Integer> index(String term, int position);
+
+    /**
+     * Return the Positions (whose indexes are word positions) of the terms
+     * that contain {@code token}, given the {@code postings} function that
+     * returns the Positions that are indexed for each of the
+     * {@link #getSeekTerms(String) seek terms} of {@code token}.
+     *
+     * @param postings
+     * @param token
+     * @return the Positions of the matching terms
+     */
+    public abstract Set<Position> find(
+            Function<Text, Set<Position>> postings, String token);
+
+    /**
+     * Return the substrings that must be sought from the SearchBlocks in
+     * order to {@link #find(SearchRecord, String) find} {@code token}.
+     *
+     * @param token
+     * @return the seek terms
+     */
+    public abstract List<String> getSeekTerms(String token);
+
+}
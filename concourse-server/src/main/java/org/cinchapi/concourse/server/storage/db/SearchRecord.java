@@ -32,7 +32,9 @@ import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.util.TStrings;
 
+import com.google.common.base.Function;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
@@ -50,6 +52,94 @@ import com.google.common.collect.TreeMultimap;
 @ThreadSafe
 final class SearchRecord extends Record<Text, Text, Position> {
 
+    /**
+     * Return the Set of primary keys for records that match {@code query},
+     * using the revisions that were indexed by {@code engine} and the
+     * {@code postings} function that returns the Positions that are mapped
+     * from a term.
+     * 
+     * @param query
+     * @param engine
+     * @param postings
+     * @return the Set of PrimaryKeys
+     */
+    @PackagePrivate
+    static Set<PrimaryKey> search(Text query, SearchEngine engine,
+            Function<Text, Set<Position>> postings) {
+        Multimap<Integer, PrimaryKey> sorted = TreeMultimap.create(
+                Collections.<Integer> reverseOrder(),
+                PrimaryKey.Sorter.INSTANCE);
+        for (Entry<PrimaryKey, Integer> entry : score(query, engine, postings)
+                .entrySet()) {
+            sorted.put(entry.getValue(), entry.getKey());
+        }
+        return Sets.newLinkedHashSet(sorted.values());
+    }
+
+    /**
+     * Return a mapping from the primary key of each record that matches
+     * {@code query} to its score, using the revisions that were indexed by
+     * {@code engine} and the {@code postings} function that returns the
+     * Positions that are mapped from a term. The returned map is not sorted.
+     * 
+     * @param query
+     * @param engine
+     * @param postings
+     * @return the score of each matching PrimaryKey
+     */
+    @PackagePrivate
+    static Map<PrimaryKey, Integer> score(Text query, SearchEngine engine,
+            Function<Text, Set<Position>> postings) {
+        Multimap<PrimaryKey, Integer> reference = HashMultimap.create();
+        String[] toks = query
+                .toString()
+                .toLowerCase()
+                .split(TStrings.REGEX_GROUP_OF_ONE_OR_MORE_WHITESPACE_CHARS);
+        boolean initial = true;
+        int offset = 0;
+        for (String tok : toks) {
+            Multimap<PrimaryKey, Integer> temp = HashMultimap.create();
+            if(STOPWORDS.contains(tok)) {
+                // When skipping a stop word, we must record an offset to
+                // correctly determine if the next term match is in the
+                // correct relative position to the previous term match
+                ++offset;
+                continue;
+            }
+            Set<Position> positions = engine.find(postings, tok);
+            for (Position position : positions) {
+                PrimaryKey key = position.getPrimaryKey();
+                int pos = position.getIndex();
+                if(initial) {
+                    temp.put(key, pos);
+                }
+                else {
+                    for (int current : reference.get(key)) {
+                        if(pos == current + 1 + offset) {
+                            temp.put(key, pos);
+                        }
+                    }
+                }
+            }
+            initial = false;
+            reference = temp;
+            offset = 0;
+        }
+
+        // Result Scoring: Scoring is simply the number of times the query
+        // appears in a document [e.g. the number of Positions mapped from
+        // key: #reference.get(key).size()]. The total number of positions
+        // in #reference is equal to the total number of times a document
+        // appears in the corpus [e.g. reference.asMap().values().size()].
+        Map<PrimaryKey, Integer> scores = Maps
+                .newHashMapWithExpectedSize(reference.keySet().size());
+        for (Entry<PrimaryKey, Collection<Integer>> entry : reference
+                .asMap().entrySet()) {
+            scores.put(entry.getKey(), entry.getValue().size());
+        }
+        return scores;
+    }
+
     /**
      * DO NOT INVOKE. Use {@link Record#createSearchRecord(Text)} or
      * {@link Record#createSearchRecordPartial(Text, Text)} instead.
@@ -70,57 +160,70 @@ final class SearchRecord extends Record<Text, Text, Position> {
      * @return the Set of PrimaryKeys
      */
     public Set<PrimaryKey> search(Text query) {
+        return search(query, SearchEngine.INFIX);
+    }
+
+    /**
+     * Return the Set of primary keys for records that match {@code query},
+     * using the revisions that were indexed by {@code engine}.
+     * 
+     * @param query
+     * @param engine
+     * @return the Set of PrimaryKeys
+     */
+    public Set<PrimaryKey> search(Text query, SearchEngine engine) {
         read.lock();
         try {
-            Multimap<PrimaryKey, Integer> reference = HashMultimap.create();
-            String[] toks = query
-                    .toString()
-                    .toLowerCase()
-                    .split(TStrings.REGEX_GROUP_OF_ONE_OR_MORE_WHITESPACE_CHARS);
-            boolean initial = true;
-            int offset = 0;
-            for (String tok : toks) {
-                Multimap<PrimaryKey, Integer> temp = HashMultimap.create();
-                if(STOPWORDS.contains(tok)) {
-                    // When skipping a stop word, we must record an offset to
-                    // correctly determine if the next term match is in the
-                    // correct relative position to the previous term match
-                    ++offset;
-                    continue;
-                }
-                Set<Position> positions = get(Text.wrap(tok));
-                for (Position position : positions) {
-                    PrimaryKey key = position.getPrimaryKey();
-                    int pos = position.getIndex();
-                    if(initial) {
-                        temp.put(key, pos);
-                    }
-                    else {
-                        for (int current : reference.get(key)) {
-                            if(pos == current + 1 + offset) {
-                                temp.put(key, pos);
-                            }
-                        }
-                    }
+            return search(query, engine, new Function<Text, Set<Position>>() {
+
+                @Override
+                public Set<Position> apply(Text input) {
+                    return get(input);
                 }
-                initial = false;
-                reference = temp;
-                offset = 0;
-            }
 
-            // Result Scoring: Scoring is simply the number of times the query
-            // appears in a document [e.g. the number of Positions mapped from
-            // key: #reference.get(key).size()]. The total number of positions
-            // in #reference is equal to the total number of times a document
-            // appears in the corpus [e.g. reference.asMap().values().size()].
-            Multimap<Integer, PrimaryKey> sorted = TreeMultimap.create(
-                    Collections.<Integer> reverseOrder(),
-                    PrimaryKey.Sorter.INSTANCE);
-            for (Entry<PrimaryKey, Collection<Integer>> entry : reference
-                    .asMap().entrySet()) {
-                sorted.put(entry.getValue().size(), entry.getKey());
+            });
+        }
+        finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Return the number of Positions that are currently mapped from all the
+     * terms in this record.
+     * 
+     * @return the number of Positions
+     */
+    @PackagePrivate
+    int getPositionCount() {
+        read.lock();
+        try {
+            int count = 0;
+            for (Set<Position> positions : present.values()) {
+                count += positions.size();
             }
-            return Sets.newLinkedHashSet(sorted.values());
+            return count;
+        }
+        finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Return a copy of the Positions that are currently mapped from
+     * {@code term}. Unlike {@link #get(Text)}, the returned Set is safe to
+     * iterate while revisions are concurrently appended to this record.
+     * 
+     * @param term
+     * @return the Positions for {@code term}
+     */
+    @PackagePrivate
+    Set<Position> locate(Text term) {
+        read.lock();
+        try {
+            Set<Position> positions = get(term);
+            return positions.isEmpty() ? Collections.<Position> emptySet()
+                    : ImmutableSet.copyOf(positions);
         }
         finally {
             read.unlock();
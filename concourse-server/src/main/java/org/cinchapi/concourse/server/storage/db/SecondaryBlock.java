@@ -15,14 +15,23 @@
  */
 package org.cinchapi.concourse.server.storage.db;
 
+import java.io.File;
+import java.util.Iterator;
+
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.cinchapi.concourse.annotate.DoNotInvoke;
 import org.cinchapi.concourse.annotate.PackagePrivate;
+import org.cinchapi.concourse.server.io.FileSystem;
 import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.Action;
+import org.cinchapi.concourse.util.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
 
 /**
  * A Block that stores SecondaryRevision data to be used in a SecondaryRecord.
@@ -33,6 +42,24 @@ import org.cinchapi.concourse.server.storage.Action;
 @PackagePrivate
 final class SecondaryBlock extends Block<Text, Value, PrimaryKey> {
 
+    /**
+     * The extension for the {@link BlockStats} file.
+     */
+    private static final String STATS_NAME_EXTENSION = ".stts";
+
+    /**
+     * The {@link ColumnStats} for each key in the Block.
+     */
+    private final BlockStats stats;
+
+    /**
+     * A flag that indicates that the Block was loaded from disk without a
+     * stats file (i.e. it was synced before stats were tracked), so the
+     * {@link #stats} must be generated from the block file (see
+     * {@link #generateStats()}) before they are used.
+     */
+    private volatile boolean statsMissing;
+
     /**
      * DO NOT CALL!!
      * 
@@ -43,14 +70,102 @@ final class SecondaryBlock extends Block<Text, Value, PrimaryKey> {
     @PackagePrivate
     @DoNotInvoke
     SecondaryBlock(String id, String directory, boolean diskLoad) {
-        super(id, directory, diskLoad);
+        this(id, directory, diskLoad, EXPECTED_INSERTIONS);
     }
-    
+
+    /**
+     * DO NOT CALL!!
+     * 
+     * @param id
+     * @param directory
+     * @param diskLoad
+     * @param expectedInsertions
+     */
+    @PackagePrivate
+    @DoNotInvoke
+    SecondaryBlock(String id, String directory, boolean diskLoad,
+            int expectedInsertions) {
+        super(id, directory, diskLoad, expectedInsertions);
+        String file = directory + File.separator + id + STATS_NAME_EXTENSION;
+        this.statsMissing = diskLoad && !FileSystem.hasFile(file);
+        this.stats = diskLoad && !statsMissing ? BlockStats.open(file)
+                : BlockStats.create(file);
+    }
+
+    /**
+     * Return the {@link ColumnStats} that describe the values for {@code key}
+     * in this Block or {@code null} if the Block does not contain {@code key}.
+     * 
+     * @param key
+     * @return the ColumnStats
+     */
+    @Nullable
+    public ColumnStats getColumnStats(Text key) {
+        Preconditions.checkState(!statsMissing,
+                "The stats for %s have not been generated", this);
+        return stats.get(key);
+    }
+
+    /**
+     * Return {@code true} if the Block was loaded from disk without its stats,
+     * which must be generated with {@link #generateStats()} before they are
+     * used.
+     * 
+     * @return {@code true} if the stats are missing
+     */
+    public boolean isMissingStats() {
+        return statsMissing;
+    }
+
     @Override
     public final SecondaryRevision insert(Text locator, Value key,
             PrimaryKey value, long version, Action type) {
-        return (SecondaryRevision) super
-                .insert(locator, Value.optimize(key), value, version, type);
+        SecondaryRevision revision = (SecondaryRevision) super.insert(locator,
+                Value.optimize(key), value, version, type);
+        stats.put(revision.getLocator(), revision.getKey(), revision.getType());
+        return revision;
+    }
+
+    /**
+     * Seek revisions that contain {@code locator} and a value within
+     * {@code range} and append them to {@code record}. An immutable Block is
+     * skipped entirely if the {@link ColumnStats} for {@code locator} show
+     * that none of its values can be within {@code range}. Otherwise, reading
+     * starts from the closest histogram bucket strictly below the
+     * {@code range} so that only the revisions near the {@code range} are read
+     * from disk.
+     * 
+     * @param locator
+     * @param range
+     * @param record
+     */
+    public void seek(Text locator, Range<Value> range,
+            Record<Text, Value, PrimaryKey> record) {
+        if(mutable) {
+            seek(locator, range, null, record);
+        }
+        else {
+            ColumnStats stats = getColumnStats(locator);
+            if(stats != null) {
+                Range<Value> bounds = Range.closed(stats.getMin(),
+                        stats.getMax());
+                if(range.isConnected(bounds)
+                        && !range.intersection(bounds).isEmpty()) {
+                    seek(locator, range,
+                            range.hasLowerBound() ? stats.lower(range
+                                    .lowerEndpoint()) : null, record);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void sync() {
+        boolean syncStats = mutable && size() > 0;
+        super.sync();
+        if(syncStats) {
+            stats.sync();
+        }
     }
 
     @Override
@@ -64,4 +179,23 @@ final class SecondaryBlock extends Block<Text, Value, PrimaryKey> {
     protected Class<SecondaryRevision> xRevisionClass() {
         return SecondaryRevision.class;
     }
+
+    /**
+     * Generate and sync the {@link #stats} from the revisions in the block
+     * file if they are missing. This reads the entire block file, so it should
+     * be done once, before the Block is read.
+     */
+    public synchronized void generateStats() {
+        if(statsMissing) {
+            Iterator<Revision<Text, Value, PrimaryKey>> it = iterator();
+            while (it.hasNext()) {
+                Revision<Text, Value, PrimaryKey> revision = it.next();
+                stats.put(revision.getLocator(), revision.getKey(),
+                        revision.getType());
+            }
+            stats.sync();
+            statsMissing = false;
+            Logger.info("Generated missing stats for {}", this);
+        }
+    }
 }
@@ -15,7 +15,10 @@
  */
 package org.cinchapi.concourse.server.storage.db;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -61,6 +64,53 @@ final class SecondaryRecord extends BrowsableRecord<Text, Value, PrimaryKey> {
         super(locator, key);
     }
 
+    /**
+     * Return an estimate of the number of PrimaryKeys that <em>currently</em>
+     * satisfy {@code operator} in relation to the specified {@code values}.
+     * <p>
+     * The estimate is computed from the sizes of the present value buckets, so
+     * no PrimaryKeys are materialized. A PrimaryKey that is mapped from more
+     * than one matching value is counted once for each of those values, so the
+     * estimate may exceed the true number of matches. Operators that cannot be
+     * answered from the bucket sizes (i.e. REGEX and NOT_REGEX) are estimated
+     * as the worst case.
+     * </p>
+     * 
+     * @param operator
+     * @param values
+     * @return the estimated number of matching PrimaryKeys
+     */
+    public long estimateCardinality(Operator operator, Value... values) {
+        read.lock();
+        try {
+            NavigableMap<Value, Set<PrimaryKey>> buckets = (NavigableMap<Value, Set<PrimaryKey>>) present;
+            Value value = values[0];
+            switch (operator) {
+            case EQUALS:
+                return get(value).size();
+            case NOT_EQUALS:
+                return count(buckets.values()) - get(value).size();
+            case GREATER_THAN:
+                return count(buckets.tailMap(value, false).values());
+            case GREATER_THAN_OR_EQUALS:
+                return count(buckets.tailMap(value, true).values());
+            case LESS_THAN:
+                return count(buckets.headMap(value, false).values());
+            case LESS_THAN_OR_EQUALS:
+                return count(buckets.headMap(value, true).values());
+            case BETWEEN:
+                Preconditions.checkArgument(values.length > 1);
+                return count(buckets.subMap(value, true, values[1], false)
+                        .values());
+            default:
+                return count(buckets.values());
+            }
+        }
+        finally {
+            read.unlock();
+        }
+    }
+
     /**
      * Return the PrimaryKeys that satisfied {@code operator} in relation to the
      * specified {@code values} at {@code timestamp}.
@@ -118,6 +168,11 @@ final class SecondaryRecord extends BrowsableRecord<Text, Value, PrimaryKey> {
         return explore(false, 0, operator, values);
     }
 
+    @Override
+    protected Map<Value, List<CompactRevision<PrimaryKey>>> historyMapType() {
+        return Maps.newTreeMap(Value.Sorter.INSTANCE);
+    }
+
     @Override
     protected Map<Value, Set<PrimaryKey>> mapType() {
         return Maps.newTreeMap(Value.Sorter.INSTANCE);
@@ -145,6 +200,8 @@ final class SecondaryRecord extends BrowsableRecord<Text, Value, PrimaryKey> {
         try {
             Map<PrimaryKey, Set<Value>> data = Maps.newHashMap();
             Value value = values[0];
+            NavigableSet<Value> stored = (NavigableSet<Value>) (historical ? history
+                    .keySet() : present.keySet());
             if(operator == Operator.EQUALS) {
                 for (PrimaryKey record : historical ? get(value, timestamp)
                         : get(value)) {
@@ -152,103 +209,55 @@ final class SecondaryRecord extends BrowsableRecord<Text, Value, PrimaryKey> {
                 }
             }
             else if(operator == Operator.NOT_EQUALS) {
-                for (Value stored : historical ? history.keySet() : present
-                        .keySet()) {
-                    if(!value.equals(stored)) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
+                for (Value candidate : stored) {
+                    if(!value.equals(candidate)) {
+                        explore(data, candidate, historical, timestamp);
                     }
                 }
             }
             else if(operator == Operator.GREATER_THAN) {
-                for (Value stored : historical ? history.keySet()
-                        : ((NavigableSet<Value>) present.keySet()).tailSet(
-                                value, false)) {
-                    if(!historical || stored.compareTo(value) > 0) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
-                    }
+                for (Value candidate : stored.tailSet(value, false)) {
+                    explore(data, candidate, historical, timestamp);
                 }
             }
             else if(operator == Operator.GREATER_THAN_OR_EQUALS) {
-                for (Value stored : historical ? history.keySet()
-                        : ((NavigableSet<Value>) present.keySet()).tailSet(
-                                value, true)) {
-                    if(!historical || stored.compareTo(value) >= 0) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
-                    }
+                for (Value candidate : stored.tailSet(value, true)) {
+                    explore(data, candidate, historical, timestamp);
                 }
             }
             else if(operator == Operator.LESS_THAN) {
-                for (Value stored : historical ? history.keySet()
-                        : ((NavigableSet<Value>) present.keySet()).headSet(
-                                value, false)) {
-                    if(!historical || stored.compareTo(value) < 0) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
-                    }
+                for (Value candidate : stored.headSet(value, false)) {
+                    explore(data, candidate, historical, timestamp);
                 }
             }
             else if(operator == Operator.LESS_THAN_OR_EQUALS) {
-                for (Value stored : historical ? history.keySet()
-                        : ((NavigableSet<Value>) present.keySet()).headSet(
-                                value, true)) {
-                    if(!historical || stored.compareTo(value) <= 0) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
-                    }
+                for (Value candidate : stored.headSet(value, true)) {
+                    explore(data, candidate, historical, timestamp);
                 }
             }
             else if(operator == Operator.BETWEEN) {
                 Preconditions.checkArgument(values.length > 1);
                 Value value2 = values[1];
-                for (Value stored : historical ? history.keySet()
-                        : ((NavigableSet<Value>) present.keySet()).subSet(
-                                value, true, value2, false)) {
-                    if(!historical
-                            || (stored.compareTo(value) >= 0 && stored
-                                    .compareTo(value2) < 0)) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
-                    }
+                for (Value candidate : stored.subSet(value, true, value2,
+                        false)) {
+                    explore(data, candidate, historical, timestamp);
                 }
             }
             else if(operator == Operator.REGEX) {
                 Pattern p = Pattern.compile(value.getObject().toString());
-                for (Value stored : historical ? history.keySet() : present
-                        .keySet()) {
-                    Matcher m = p.matcher(stored.getObject().toString());
+                for (Value candidate : stored) {
+                    Matcher m = p.matcher(candidate.getObject().toString());
                     if(m.matches()) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
+                        explore(data, candidate, historical, timestamp);
                     }
                 }
             }
             else if(operator == Operator.NOT_REGEX) {
                 Pattern p = Pattern.compile(value.getObject().toString());
-                for (Value stored : historical ? history.keySet() : present
-                        .keySet()) {
-                    Matcher m = p.matcher(stored.getObject().toString());
+                for (Value candidate : stored) {
+                    Matcher m = p.matcher(candidate.getObject().toString());
                     if(!m.matches()) {
-                        for (PrimaryKey record : historical ? get(stored,
-                                timestamp) : get(stored)) {
-                            MultimapViews.put(data, record, stored);
-                        }
+                        explore(data, candidate, historical, timestamp);
                     }
                 }
             }
@@ -262,4 +271,36 @@ final class SecondaryRecord extends BrowsableRecord<Text, Value, PrimaryKey> {
         }
     }
 
+    /**
+     * Add a mapping from each of the PrimaryKeys that are (or were at
+     * {@code timestamp} if {@code historical} is {@code true}) mapped from
+     * {@code value} to {@code value} in {@code data}.
+     * 
+     * @param data
+     * @param value
+     * @param historical
+     * @param timestamp
+     */
+    private void explore(Map<PrimaryKey, Set<Value>> data, Value value,
+            boolean historical, long timestamp) {
+        for (PrimaryKey record : historical ? get(value, timestamp)
+                : get(value)) {
+            MultimapViews.put(data, record, value);
+        }
+    }
+
+    /**
+     * Return the sum of the sizes of each of the {@code buckets}.
+     * 
+     * @param buckets
+     * @return the total number of PrimaryKeys in the buckets
+     */
+    private static long count(Collection<Set<PrimaryKey>> buckets) {
+        long count = 0;
+        for (Set<PrimaryKey> bucket : buckets) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
 }
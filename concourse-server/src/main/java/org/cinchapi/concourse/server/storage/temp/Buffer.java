@@ -16,20 +16,28 @@
 package org.cinchapi.concourse.server.storage.temp;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel.MapMode;
 import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -41,6 +49,7 @@ import org.cinchapi.concourse.server.concurrent.PriorityReadWriteLock;
 import org.cinchapi.concourse.server.concurrent.Locks;
 import org.cinchapi.concourse.server.io.ByteableCollections;
 import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.Inventory;
 import org.cinchapi.concourse.server.storage.PermanentStore;
@@ -54,6 +63,7 @@ import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.Logger;
 import org.cinchapi.concourse.util.NaturalSorter;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -70,6 +80,20 @@ import static org.cinchapi.concourse.server.GlobalState.*;
  * is minimal and writes are fast because the entire backing store is memory
  * mapped and the writes are always appended.
  * </p>
+ * <p>
+ * Each Page also keeps in-memory indexes of the positions of its Writes by
+ * record, by key, by key and record and by key and sorted value, so reads
+ * only visit the Writes that are relevant to the query instead of scanning
+ * the entire Buffer. Writes that have been transported are skipped because
+ * they are before the head of their Page, and the indexes for a Page are
+ * discarded along with it.
+ * </p>
+ * <p>
+ * If {@link GlobalState#BUFFER_GROUP_COMMIT_WINDOW group commit} is enabled,
+ * a Write that must be synced is appended without syncing and the writer
+ * waits for a {@link GroupCommitter} that syncs once on behalf of all the
+ * Writes that were appended since its last sync.
+ * </p>
  * 
  * @author Jeff Nelson
  */
@@ -236,6 +260,24 @@ public final class Buffer extends Limbo {
      */
     private int transportRate = 1;
 
+    /**
+     * The policy that decides how many Writes are transported in each cycle
+     * and how long the transport thread sleeps in between.
+     */
+    private volatile TransportMode transportMode = TransportMode
+            .forName(TRANSPORT_MODE);
+
+    /**
+     * The timestamp of the most recent read from the Buffer.
+     */
+    private volatile long timeOfLastRead = 0;
+
+    /**
+     * The number of milliseconds that the Database took to sync the Blocks
+     * for the most recently transported page.
+     */
+    private volatile long syncCostInMs = 0;
+
     /**
      * A pointer to the inventory that is used within the Engine.
      */
@@ -266,6 +308,13 @@ public final class Buffer extends Limbo {
 
     };
 
+    /**
+     * The thread that syncs on behalf of groups of concurrent writers, if
+     * group commit is enabled.
+     */
+    @Nullable
+    private volatile GroupCommitter groupCommitter = null;
+
     /**
      * The prefix for the threads that are responsible for flushing data to
      * disk. This is normally set by the Engine using the
@@ -298,6 +347,13 @@ public final class Buffer extends Limbo {
      */
     private static int MAX_TRANSPORT_RATE = 8192;
 
+    /**
+     * The maximum number of Writes that are synced in a single group commit.
+     * The {@link GroupCommitter} does not wait for the rest of the window once
+     * this many Writes are pending.
+     */
+    private static final int MAX_GROUP_COMMIT_SIZE = 1024;
+
     /**
      * The number of slots to put in each Page's bloom filter. We want this
      * small enough to have few hash functions, but large enough so that the
@@ -521,7 +577,30 @@ public final class Buffer extends Limbo {
 
     @Override
     public int getDesiredTransportSleepTimeInMs() {
-        return transportThreadSleepTimeInMs;
+        return transportMode.getSleepTimeInMs(getTransportPressure());
+    }
+
+    /**
+     * Return the {@link TransportMode} that the Buffer currently uses.
+     * 
+     * @return the transport mode
+     */
+    public TransportMode getTransportMode() {
+        return transportMode;
+    }
+
+    /**
+     * Return a description of the {@link TransportMode} and the current
+     * {@link TransportMode.Pressure pressure} on the Buffer.
+     * 
+     * @return the transport status
+     */
+    public String getTransportStatus() {
+        TransportMode.Pressure pressure = getTransportPressure();
+        return transportMode + " mode: " + pressure + "; transporting "
+                + transportMode.getBatchSize(pressure)
+                + " writes per cycle every "
+                + transportMode.getSleepTimeInMs(pressure) + " ms";
     }
 
     /**
@@ -581,124 +660,51 @@ public final class Buffer extends Limbo {
 
     @Override
     public boolean insert(Write write, boolean sync) {
-        writeLock.lock();
-        try {
-            boolean notify = pages.size() == 2 && currentPage.size == 0;
-            currentPage.append(write, sync);
-            if(notify) {
-                synchronized (transportable) {
-                    transportable.notify();
-                }
-            }
-        }
-        catch (CapacityException e) {
-            addPage();
-            insert(write, sync);
+        GroupCommitter committer = groupCommitter;
+        if(sync && committer != null) {
+            append(write, false);
+            committer.commit();
         }
-        finally {
-            writeLock.unlock();
+        else {
+            append(write, sync);
         }
         return true;
     }
 
     @Override
     public Iterator<Write> iterator() {
-
-        return new Iterator<Write>() {
-
-            private Iterator<Page> pageIterator = pages.iterator();
-            private Iterator<Write> writeIterator = null;
-
-            {
-                flip();
-            }
-
-            @Override
-            public boolean hasNext() {
-                if(writeIterator == null) {
-                    return false;
-                }
-                else if(writeIterator.hasNext()) {
-                    return true;
-                }
-                else {
-                    flip();
-                    return hasNext();
-                }
-            }
-
-            @Override
-            public Write next() {
-                return writeIterator.next();
-            }
+        return iterator(new Function<Page, Iterator<Write>>() {
 
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
-            }
-
-            /**
-             * Flip to the next page in the Buffer.
-             */
-            private void flip() {
-                writeIterator = null;
-                if(pageIterator.hasNext()) {
-                    Page next = pageIterator.next();
-                    writeIterator = next.iterator();
-                }
+            public Iterator<Write> apply(Page page) {
+                return page.iterator();
             }
 
-        };
+        });
     }
 
     @Override
     public Iterator<Write> reverseIterator() {
-        return new Iterator<Write>() {
-
-            private ListIterator<Page> pageIterator = pages.listIterator(pages
-                    .size());
-            private Iterator<Write> writeIterator = null;
-
-            {
-                flip();
-            }
-
-            @Override
-            public boolean hasNext() {
-                if(writeIterator == null) {
-                    return false;
-                }
-                else if(writeIterator.hasNext()) {
-                    return true;
-                }
-                else {
-                    flip();
-                    return hasNext();
-                }
-            }
-
-            @Override
-            public Write next() {
-                return writeIterator.next();
-            }
+        return reverseIterator(new Function<Page, Iterator<Write>>() {
 
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
+            public Iterator<Write> apply(Page page) {
+                return page.reverseIterator();
             }
 
-            /**
-             * Flip to the next page in the Buffer.
-             */
-            private void flip() {
-                writeIterator = null;
-                if(pageIterator.hasPrevious()) {
-                    Page next = pageIterator.previous();
-                    writeIterator = next.reverseIterator();
-                }
-            }
+        });
+    }
 
-        };
+    @Override
+    public Map<Long, Integer> rank(String key, String query) {
+        transportLock.readLock().lock();
+        try {
+            scaleBackTransportRate();
+            return super.rank(key, query);
+        }
+        finally {
+            transportLock.readLock().unlock();
+        }
     }
 
     @Override
@@ -743,6 +749,16 @@ public final class Buffer extends Limbo {
         this.threadNamePrefix = threadNamePrefix;
     }
 
+    /**
+     * Set the {@link TransportMode} that the Buffer uses to decide how
+     * aggressively to transport Writes.
+     * 
+     * @param transportMode
+     */
+    public void setTransportMode(TransportMode transportMode) {
+        this.transportMode = transportMode;
+    }
+
     @Override
     public void start() {
         if(!running) {
@@ -764,6 +780,10 @@ public final class Buffer extends Limbo {
             else {
                 currentPage = pages.get(pages.size() - 1);
             }
+            if(BUFFER_GROUP_COMMIT_WINDOW > 0) {
+                groupCommitter = new GroupCommitter(BUFFER_GROUP_COMMIT_WINDOW);
+                groupCommitter.start();
+            }
         }
     }
 
@@ -771,6 +791,17 @@ public final class Buffer extends Limbo {
     public void stop() {
         if(running) {
             running = false;
+            GroupCommitter committer = groupCommitter;
+            if(committer != null) {
+                groupCommitter = null;
+                committer.shutdown();
+                try {
+                    committer.join();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
             synchronized (transportable) {
                 transportable.notifyAll(); // notify to allow any waiting
                                            // threads to terminate
@@ -796,19 +827,23 @@ public final class Buffer extends Limbo {
                 && !transportLock.writeLock().isHeldByCurrentThread()
                 && transportLock.writeLock().tryLock()) {
             try {
+                int batchSize = transportMode
+                        .getBatchSize(getTransportPressure());
+                if(batchSize <= 0) {
+                    return;
+                }
                 Page page = pages.get(0);
-                int i = 0;
-                while (i < transportRate) {
-                    if(page.hasNext()) {
-                        destination.accept(page.next());
-                        page.remove();
-                        ++i;
-                    }
-                    else {
-                        ((Database) destination).triggerSync();
-                        removePage();
-                        break;
-                    }
+                List<Write> batch = page.next(batchSize);
+                if(!batch.isEmpty()) {
+                    destination.accept(batch);
+                    page.remove(batch.size());
+                }
+                if(batch.size() < batchSize) {
+                    long start = Time.now();
+                    ((Database) destination).triggerSync();
+                    syncCostInMs = TimeUnit.MILLISECONDS.convert(Time.now()
+                            - start, TimeUnit.MICROSECONDS);
+                    removePage();
                 }
                 timeOfLastTransport.set(Time.now());
                 transportRate = transportRate >= MAX_TRANSPORT_RATE ? MAX_TRANSPORT_RATE
@@ -868,6 +903,96 @@ public final class Buffer extends Limbo {
         }
     }
 
+    @Override
+    protected Iterator<Write> iterator(final long record) {
+        return iterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.iterator(record);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> iterator(String key) {
+        final Text key0 = Text.wrapCached(key);
+        return iterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.iterator(key0);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> iterator(String key, final long record) {
+        final Text key0 = Text.wrapCached(key);
+        return iterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.iterator(key0, record);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> iterator(String key, final Operator operator,
+            final TObject... values) {
+        final Text key0 = Text.wrapCached(key);
+        return iterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.iterator(key0, operator, values);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> reverseIterator(final long record) {
+        return reverseIterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.reverseIterator(record);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> reverseIterator(String key) {
+        final Text key0 = Text.wrapCached(key);
+        return reverseIterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.reverseIterator(key0);
+            }
+
+        });
+    }
+
+    @Override
+    protected Iterator<Write> reverseIterator(String key, final long record) {
+        final Text key0 = Text.wrapCached(key);
+        return reverseIterator(new Function<Page, Iterator<Write>>() {
+
+            @Override
+            public Iterator<Write> apply(Page page) {
+                return page.reverseIterator(key0, record);
+            }
+
+        });
+    }
+
     /**
      * Return {@code true} if the Buffer has more than 1 page and the first page
      * has at least one element that can be transported. If this method returns
@@ -916,6 +1041,33 @@ public final class Buffer extends Limbo {
         return oldestWrite == null ? Long.MAX_VALUE : oldestWrite.getVersion();
     }
 
+    /**
+     * Append {@code write} to the current Page, adding a new Page if
+     * necessary, and optionally perform a {@code sync}.
+     * 
+     * @param write
+     * @param sync
+     */
+    private void append(Write write, boolean sync) {
+        writeLock.lock();
+        try {
+            boolean notify = pages.size() == 2 && currentPage.size == 0;
+            currentPage.append(write, sync);
+            if(notify) {
+                synchronized (transportable) {
+                    transportable.notify();
+                }
+            }
+        }
+        catch (CapacityException e) {
+            addPage();
+            append(write, sync);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
     /**
      * Add a new Page to the Buffer.
      */
@@ -958,45 +1110,410 @@ public final class Buffer extends Limbo {
     }
 
     /**
-     * Scale back the number of items that are transported in a single cycle.
-     */
-    private void scaleBackTransportRate() {
-        transportRate = 1;
-        transportThreadSleepTimeInMs = MAX_TRANSPORT_THREAD_SLEEP_TIME_IN_MS;
-    }
-
-    /**
-     * A {@link Page} represents a granular section of the {@link Buffer}. Pages
-     * are an append-only iterator over a sequence of {@link Write} objects.
-     * Pages differ from other iterators because they do not advance in the
-     * sequence until the {@link #remove()} method is called.
+     * Return an iterator that traverses, in chronological order, the Writes
+     * that {@code selector} returns from each Page.
      * 
-     * @author Jeff Nelson
+     * @param selector
+     * @return the iterator
      */
-    private class Page implements Iterator<Write>, Iterable<Write> {
-
-        // NOTE: This class does not define hashCode() and equals() because the
-        // defaults are the desired behaviour.
+    private Iterator<Write> iterator(
+            final Function<Page, Iterator<Write>> selector) {
+        return new Iterator<Write>() {
 
-        /**
-         * The filename extension.
-         */
-        private static final String ext = ".buf";
+            private Iterator<Page> pageIterator = pages.iterator();
+            private Iterator<Write> writeIterator = null;
 
-        /**
-         * The append-only list of {@link Write} objects on the Page. Elements
-         * are never deleted from this list, but are marked as "removed"
-         * depending on the location of the {@link #head} index.
-         */
-        private final Write[] writes;
+            {
+                flip();
+            }
 
-        /**
-         * The filter that tests whether a Write <em>may</em> exist on this Page
-         * or not.
-         */
+            @Override
+            public boolean hasNext() {
+                if(writeIterator == null) {
+                    return false;
+                }
+                else if(writeIterator.hasNext()) {
+                    return true;
+                }
+                else {
+                    flip();
+                    return hasNext();
+                }
+            }
+
+            @Override
+            public Write next() {
+                return writeIterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            /**
+             * Flip to the next page in the Buffer.
+             */
+            private void flip() {
+                writeIterator = null;
+                if(pageIterator.hasNext()) {
+                    Page next = pageIterator.next();
+                    writeIterator = selector.apply(next);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Return an iterator that traverses, in reverse order, the Writes that
+     * {@code selector} returns from each Page.
+     * 
+     * @param selector
+     * @return the iterator
+     */
+    private Iterator<Write> reverseIterator(
+            final Function<Page, Iterator<Write>> selector) {
+        return new Iterator<Write>() {
+
+            private ListIterator<Page> pageIterator = pages.listIterator(pages
+                    .size());
+            private Iterator<Write> writeIterator = null;
+
+            {
+                flip();
+            }
+
+            @Override
+            public boolean hasNext() {
+                if(writeIterator == null) {
+                    return false;
+                }
+                else if(writeIterator.hasNext()) {
+                    return true;
+                }
+                else {
+                    flip();
+                    return hasNext();
+                }
+            }
+
+            @Override
+            public Write next() {
+                return writeIterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            /**
+             * Flip to the next page in the Buffer.
+             */
+            private void flip() {
+                writeIterator = null;
+                if(pageIterator.hasPrevious()) {
+                    Page next = pageIterator.previous();
+                    writeIterator = selector.apply(next);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Scale back the number of items that are transported in a single cycle.
+     */
+    private void scaleBackTransportRate() {
+        timeOfLastRead = Time.now();
+        transportRate = 1;
+        transportThreadSleepTimeInMs = MAX_TRANSPORT_THREAD_SLEEP_TIME_IN_MS;
+    }
+
+    /**
+     * A thread that performs group commit for the Buffer. Each writer that
+     * needs its Write to be durable {@link #commit() joins} the pending group
+     * and waits. Once a group is pending, the thread waits for up to the
+     * commit window (or until {@link #MAX_GROUP_COMMIT_SIZE} Writes are
+     * pending) for other writers to join, performs a single {@link #sync()}
+     * and then releases every writer in the group at once.
+     * 
+     * @author Jeff Nelson
+     */
+    private final class GroupCommitter extends Thread {
+
+        /**
+         * The number of nanoseconds to wait for writers to join a group.
+         */
+        private final long windowInNanos;
+
+        /**
+         * The number of commits that have been requested.
+         */
+        @GuardedBy("this")
+        private long requested = 0;
+
+        /**
+         * The number of commits that have been made durable. A writer whose
+         * request is numbered at or below this value can proceed.
+         */
+        @GuardedBy("this")
+        private long synced = 0;
+
+        /**
+         * A flag that indicates whether the thread should continue to accept
+         * commits.
+         */
+        @GuardedBy("this")
+        private boolean alive = true;
+
+        /**
+         * The groups whose sync failed, keyed by the first ticket in each
+         * group. A failure is kept until each writer in the group has seen
+         * it.
+         */
+        @GuardedBy("this")
+        private final NavigableMap<Long, Failure> failures = Maps.newTreeMap();
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param windowInMicros
+         */
+        public GroupCommitter(int windowInMicros) {
+            super(threadNamePrefix + "-group-commit");
+            setDaemon(true);
+            this.windowInNanos = TimeUnit.MICROSECONDS.toNanos(windowInMicros);
+        }
+
+        /**
+         * Block until all the Writes that the calling thread has appended to
+         * the Buffer have been synced. If the committer has been shutdown, the
+         * calling thread syncs the Buffer itself.
+         * 
+         * @throws IllegalStateException if the sync for the group that
+         *             contains the calling thread's commit failed, in which
+         *             case its Writes are not durable
+         */
+        public void commit() {
+            long ticket;
+            synchronized (this) {
+                if(!alive) {
+                    ticket = -1;
+                }
+                else {
+                    ticket = ++requested;
+                    long pending = requested - synced;
+                    if(pending == 1 || pending >= MAX_GROUP_COMMIT_SIZE) {
+                        notifyAll();
+                    }
+                }
+            }
+            if(ticket < 0) {
+                sync();
+            }
+            else {
+                boolean interrupted = false;
+                Failure failure = null;
+                synchronized (this) {
+                    while (synced < ticket) {
+                        try {
+                            wait();
+                        }
+                        catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    Map.Entry<Long, Failure> entry = failures
+                            .floorEntry(ticket);
+                    if(entry != null && ticket <= entry.getValue().last) {
+                        failure = entry.getValue();
+                        if(--failure.unseen == 0) {
+                            failures.remove(entry.getKey());
+                        }
+                    }
+                }
+                if(interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if(failure != null) {
+                    throw new IllegalStateException(
+                            "Unable to sync the group commit", failure.error);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long first;
+                long target;
+                synchronized (this) {
+                    try {
+                        while (alive && requested == synced) {
+                            wait();
+                        }
+                        if(requested == synced) {
+                            break; // shutdown and there is nothing to commit
+                        }
+                        long deadline = System.nanoTime() + windowInNanos;
+                        long remaining;
+                        while (alive
+                                && requested - synced < MAX_GROUP_COMMIT_SIZE
+                                && (remaining = deadline - System.nanoTime()) > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        }
+                    }
+                    catch (InterruptedException e) {
+                        continue;
+                    }
+                    first = synced + 1;
+                    target = requested;
+                }
+                RuntimeException error = null;
+                try {
+                    sync();
+                }
+                catch (RuntimeException e) {
+                    Logger.error("Unable to sync a group commit in {}:",
+                            getName(), e);
+                    error = e;
+                }
+                synchronized (this) {
+                    if(error != null) {
+                        failures.put(first, new Failure(first, target, error));
+                    }
+                    synced = target;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Stop accepting commits. The thread syncs any pending commits before
+         * it terminates.
+         */
+        public void shutdown() {
+            synchronized (this) {
+                alive = false;
+                notifyAll();
+            }
+        }
+
+        /**
+         * The error from a group whose sync failed.
+         * 
+         * @author Jeff Nelson
+         */
+        private final class Failure {
+
+            /**
+             * The error that the sync threw.
+             */
+            private final RuntimeException error;
+
+            /**
+             * The last ticket in the group.
+             */
+            private final long last;
+
+            /**
+             * The number of writers in the group that have not seen the
+             * failure.
+             */
+            private long unseen;
+
+            /**
+             * Construct a new instance.
+             * 
+             * @param first
+             * @param last
+             * @param error
+             */
+            Failure(long first, long last, RuntimeException error) {
+                this.last = last;
+                this.error = error;
+                this.unseen = last - first + 1;
+            }
+
+        }
+
+    }
+
+    /**
+     * Return a snapshot of the signals that the {@link #transportMode}
+     * considers.
+     * 
+     * @return the transport pressure
+     */
+    private TransportMode.Pressure getTransportPressure() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        double load = os.getSystemLoadAverage();
+        return new TransportMode.Pressure(pages.size(), transportRate,
+                transportThreadSleepTimeInMs, TimeUnit.MILLISECONDS.convert(
+                        Time.now() - timeOfLastRead, TimeUnit.MICROSECONDS),
+                load < 0 ? load : load / os.getAvailableProcessors(),
+                syncCostInMs);
+    }
+
+    /**
+     * A {@link Page} represents a granular section of the {@link Buffer}. Pages
+     * are an append-only iterator over a sequence of {@link Write} objects.
+     * Pages differ from other iterators because they do not advance in the
+     * sequence until the {@link #remove()} method is called.
+     * 
+     * @author Jeff Nelson
+     */
+    private class Page implements Iterator<Write>, Iterable<Write> {
+
+        // NOTE: This class does not define hashCode() and equals() because the
+        // defaults are the desired behaviour.
+
+        /**
+         * The filename extension.
+         */
+        private static final String ext = ".buf";
+
+        /**
+         * The append-only list of {@link Write} objects on the Page. Elements
+         * are never deleted from this list, but are marked as "removed"
+         * depending on the location of the {@link #head} index.
+         */
+        private final Write[] writes;
+
+        /**
+         * The filter that tests whether a Write <em>may</em> exist on this Page
+         * or not.
+         */
         private final BloomFilter filter = BloomFilter
                 .create(PER_PAGE_BLOOM_FILTER_CAPACITY);
 
+        /**
+         * The positions in {@link #writes} of the Writes for each record.
+         */
+        private final Map<Long, Positions> recordIndex = Maps.newHashMap();
+
+        /**
+         * The positions in {@link #writes} of the Writes for each key.
+         */
+        private final Map<Text, Positions> keyIndex = Maps.newHashMap();
+
+        /**
+         * The positions in {@link #writes} of the Writes for each key in each
+         * record.
+         */
+        private final Map<Text, Map<Long, Positions>> keyRecordIndex = Maps
+                .newHashMap();
+
+        /**
+         * The positions in {@link #writes} of the Writes for each key, sorted
+         * by value so that the Writes that might match a find query can be
+         * selected without visiting the others.
+         */
+        private final Map<Text, NavigableMap<Value, Positions>> keyValueIndex = Maps
+                .newHashMap();
+
         /**
          * The append-only buffer that contains the content of the backing file.
          * Data is never deleted from the buffer, until the entire Page is
@@ -1221,6 +1738,96 @@ public final class Buffer extends Limbo {
             };
         }
 
+        /**
+         * Return an iterator that traverses the Writes for {@code record} on
+         * the Page in chronological order.
+         * 
+         * @param record
+         * @return the iterator
+         */
+        public Iterator<Write> iterator(long record) {
+            return iterator(lookup(recordIndex, record), false);
+        }
+
+        /**
+         * Return an iterator that traverses the Writes for {@code key} on the
+         * Page in chronological order.
+         * 
+         * @param key
+         * @return the iterator
+         */
+        public Iterator<Write> iterator(Text key) {
+            return iterator(lookup(keyIndex, key), false);
+        }
+
+        /**
+         * Return an iterator that traverses the Writes for {@code key} in
+         * {@code record} on the Page in chronological order.
+         * 
+         * @param key
+         * @param record
+         * @return the iterator
+         */
+        public Iterator<Write> iterator(Text key, long record) {
+            return iterator(lookup(key, record), false);
+        }
+
+        /**
+         * Return an iterator that traverses, in chronological order, the
+         * Writes for {@code key} on the Page whose values might match
+         * {@code operator} in relation to {@code values}.
+         * 
+         * @param key
+         * @param operator
+         * @param values
+         * @return the iterator
+         */
+        public Iterator<Write> iterator(Text key, Operator operator,
+                TObject... values) {
+            Locks.lockIfCondition(pageLock.readLock(), this == currentPage);
+            try {
+                NavigableMap<Value, Positions> index = keyValueIndex.get(key);
+                if(index == null) {
+                    return iterator((Positions) null, false);
+                }
+                Value v1 = Value.wrap(values[0]);
+                Collection<Positions> candidates;
+                switch (operator) {
+                case EQUALS:
+                    Positions positions = index.get(v1);
+                    candidates = positions == null ? Collections
+                            .<Positions> emptySet() : Collections
+                            .singleton(positions);
+                    break;
+                case GREATER_THAN:
+                    candidates = index.tailMap(v1, false).values();
+                    break;
+                case GREATER_THAN_OR_EQUALS:
+                    candidates = index.tailMap(v1, true).values();
+                    break;
+                case LESS_THAN:
+                    candidates = index.headMap(v1, false).values();
+                    break;
+                case LESS_THAN_OR_EQUALS:
+                    candidates = index.headMap(v1, true).values();
+                    break;
+                case BETWEEN:
+                    Value v2 = Value.wrap(values[1]);
+                    candidates = Value.Sorter.INSTANCE.compare(v1, v2) < 0 ? index
+                            .subMap(v1, true, v2, false).values() : Collections
+                            .<Positions> emptySet();
+                    break;
+                default:
+                    return iterator(keyIndex.get(key), false);
+                }
+                return iterator(Positions.merge(candidates), false);
+            }
+            finally {
+                Locks.unlockIfCondition(pageLock.readLock(),
+                        this == currentPage);
+            }
+        }
+
         /**
          * Return {@code true} if the data in {@code write} exists locally
          * <em>on this page</em> at {@code timestamp}, which means that
@@ -1239,7 +1846,8 @@ public final class Buffer extends Limbo {
             Locks.lockIfCondition(pageLock.readLock(), this == currentPage);
             try {
                 boolean exists = false;
-                Iterator<Write> it = iterator();
+                Iterator<Write> it = iterator(write.getKey(), write.getRecord()
+                        .longValue());
                 while (it.hasNext()) {
                     Write current = it.next();
                     if(timestamp >= current.getVersion()) {
@@ -1317,6 +1925,47 @@ public final class Buffer extends Limbo {
             }
         }
 
+        /**
+         * Returns the contiguous run of at most {@code max} Writes that starts
+         * at index {@link #head} in {@link #writes}.
+         * <p>
+         * <strong>NOTE:</strong>
+         * <em>This method will return the same elements on multiple
+         * invocations until {@link #remove(int)} is called.</em>
+         * </p>
+         * 
+         * @param max
+         * @return the Writes
+         */
+        public List<Write> next(int max) {
+            Locks.lockIfCondition(pageLock.readLock(), this == currentPage);
+            try {
+                return Arrays.asList(Arrays.copyOfRange(writes, head,
+                        Math.min(size, head + max)));
+            }
+            finally {
+                Locks.unlockIfCondition(pageLock.readLock(),
+                        this == currentPage);
+            }
+        }
+
+        /**
+         * Simulates the removal of the {@code count} Writes at the head of the
+         * Page, which are the ones returned from {@link #next(int)}.
+         * 
+         * @param count
+         */
+        public void remove(int count) {
+            Locks.lockIfCondition(pageLock.writeLock(), this == currentPage);
+            try {
+                head += count;
+            }
+            finally {
+                Locks.unlockIfCondition(pageLock.writeLock(),
+                        this == currentPage);
+            }
+        }
+
         /**
          * Simulates the removal of the head Write from the Page. This method
          * only updates the {@link #head} and {@link #pos} metadata and does not
@@ -1399,6 +2048,40 @@ public final class Buffer extends Limbo {
             };
         }
 
+        /**
+         * Return an iterator that traverses the Writes for {@code record} on
+         * the Page in reverse order.
+         * 
+         * @param record
+         * @return the iterator
+         */
+        public Iterator<Write> reverseIterator(long record) {
+            return iterator(lookup(recordIndex, record), true);
+        }
+
+        /**
+         * Return an iterator that traverses the Writes for {@code key} on the
+         * Page in reverse order.
+         * 
+         * @param key
+         * @return the iterator
+         */
+        public Iterator<Write> reverseIterator(Text key) {
+            return iterator(lookup(keyIndex, key), true);
+        }
+
+        /**
+         * Return an iterator that traverses the Writes for {@code key} in
+         * {@code record} on the Page in reverse order.
+         * 
+         * @param key
+         * @param record
+         * @return the iterator
+         */
+        public Iterator<Write> reverseIterator(Text key, long record) {
+            return iterator(lookup(key, record), true);
+        }
+
         @Override
         public String toString() {
             return filename;
@@ -1451,6 +2134,22 @@ public final class Buffer extends Limbo {
                 // the bloom filter hashing
                 filter.putCached(write.getRecord(), write.getKey(),
                         write.getValue());
+                long record = write.getRecord().longValue();
+                Text key = write.getKey();
+                Positions.of(recordIndex, record).add(size);
+                Positions.of(keyIndex, key).add(size);
+                Map<Long, Positions> records = keyRecordIndex.get(key);
+                if(records == null) {
+                    records = Maps.newHashMap();
+                    keyRecordIndex.put(key, records);
+                }
+                Positions.of(records, record).add(size);
+                NavigableMap<Value, Positions> values = keyValueIndex.get(key);
+                if(values == null) {
+                    values = Maps.newTreeMap(Value.Sorter.INSTANCE);
+                    keyValueIndex.put(key, values);
+                }
+                Positions.of(values, write.getValue()).add(size);
                 writes[size] = write;
                 ++size;
             }
@@ -1458,5 +2157,202 @@ public final class Buffer extends Limbo {
                 throw CapacityException.INSTANCE;
             }
         }
+
+        /**
+         * Return an iterator that traverses the Writes at {@code positions} on
+         * the Page, which have not been transported, in chronological or
+         * {@code reverse} order.
+         * 
+         * @param positions
+         * @param reverse
+         * @return the iterator
+         */
+        private Iterator<Write> iterator(@Nullable final Positions positions,
+                final boolean reverse) {
+            if(positions == null) {
+                return Collections.emptyIterator();
+            }
+            return new Iterator<Write>() {
+
+                /**
+                 * The index in {@code positions} of the "next" element.
+                 */
+                private int index = reverse ? positions.size() - 1 : 0;
+
+                @Override
+                public boolean hasNext() {
+                    Locks.lockIfCondition(pageLock.readLock(),
+                            Page.this == currentPage);
+                    try {
+                        if(reverse) {
+                            return index >= 0 && positions.get(index) >= head;
+                        }
+                        else {
+                            while (index < positions.size()
+                                    && positions.get(index) < head) {
+                                ++index;
+                            }
+                            return index < positions.size();
+                        }
+                    }
+                    finally {
+                        Locks.unlockIfCondition(pageLock.readLock(),
+                                Page.this == currentPage);
+                    }
+                }
+
+                @Override
+                public Write next() {
+                    Locks.lockIfCondition(pageLock.readLock(),
+                            Page.this == currentPage);
+                    try {
+                        Write next = writes[positions.get(index)];
+                        index += reverse ? -1 : 1;
+                        return next;
+                    }
+                    finally {
+                        Locks.unlockIfCondition(pageLock.readLock(),
+                                Page.this == currentPage);
+                    }
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+            };
+        }
+
+        /**
+         * Return the Positions in {@code index} that are mapped from
+         * {@code key}, if they exist.
+         * 
+         * @param index
+         * @param key
+         * @return the Positions or {@code null}
+         */
+        @Nullable
+        private <K> Positions lookup(Map<K, Positions> index, K key) {
+            Locks.lockIfCondition(pageLock.readLock(), this == currentPage);
+            try {
+                return index.get(key);
+            }
+            finally {
+                Locks.unlockIfCondition(pageLock.readLock(),
+                        this == currentPage);
+            }
+        }
+
+        /**
+         * Return the Positions of the Writes for {@code key} in {@code record},
+         * if they exist.
+         * 
+         * @param key
+         * @param record
+         * @return the Positions or {@code null}
+         */
+        @Nullable
+        private Positions lookup(Text key, long record) {
+            Locks.lockIfCondition(pageLock.readLock(), this == currentPage);
+            try {
+                Map<Long, Positions> records = keyRecordIndex.get(key);
+                return records == null ? null : records.get(record);
+            }
+            finally {
+                Locks.unlockIfCondition(pageLock.readLock(),
+                        this == currentPage);
+            }
+        }
+    }
+
+    /**
+     * A compact, append-only list of the positions in a {@link Page} of the
+     * Writes that share some component. Positions are always appended in
+     * increasing order.
+     * 
+     * @author Jeff Nelson
+     */
+    private static final class Positions {
+
+        /**
+         * Return a Positions object that contains all of the positions in each
+         * of the {@code candidates}, in increasing order.
+         * 
+         * @param candidates
+         * @return the merged Positions
+         */
+        public static Positions merge(Collection<Positions> candidates) {
+            if(candidates.size() == 1) {
+                return candidates.iterator().next();
+            }
+            Positions merged = new Positions();
+            for (Positions positions : candidates) {
+                for (int i = 0; i < positions.size; ++i) {
+                    merged.add(positions.array[i]);
+                }
+            }
+            Arrays.sort(merged.array, 0, merged.size);
+            return merged;
+        }
+
+        /**
+         * Return the Positions that are mapped from {@code key} in
+         * {@code index}, after creating and mapping them if necessary.
+         * 
+         * @param index
+         * @param key
+         * @return the Positions
+         */
+        public static <K> Positions of(Map<K, Positions> index, K key) {
+            Positions positions = index.get(key);
+            if(positions == null) {
+                positions = new Positions();
+                index.put(key, positions);
+            }
+            return positions;
+        }
+
+        /**
+         * The positions, of which only the first {@link #size} are valid.
+         */
+        private int[] array = new int[2];
+
+        /**
+         * The number of positions.
+         */
+        private int size = 0;
+
+        /**
+         * Append {@code position}.
+         * 
+         * @param position
+         */
+        public void add(int position) {
+            if(size == array.length) {
+                array = Arrays.copyOf(array, size * 2);
+            }
+            array[size] = position;
+            ++size;
+        }
+
+        /**
+         * Return the position at {@code index}.
+         * 
+         * @param index
+         * @return the position
+         */
+        public int get(int index) {
+            return array[index];
+        }
+
+        /**
+         * Return the number of positions.
+         * 
+         * @return the size
+         */
+        public int size() {
+            return size;
+        }
     }
 }
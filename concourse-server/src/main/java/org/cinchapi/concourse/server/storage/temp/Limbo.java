@@ -34,6 +34,7 @@ import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.Action;
 import org.cinchapi.concourse.server.storage.BaseStore;
 import org.cinchapi.concourse.server.storage.PermanentStore;
+import org.cinchapi.concourse.server.storage.Stores;
 import org.cinchapi.concourse.server.storage.VersionGetter;
 import org.cinchapi.concourse.server.storage.Versioned;
 import org.cinchapi.concourse.server.storage.db.Database;
@@ -42,9 +43,10 @@ import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.thrift.Type;
 import org.cinchapi.concourse.time.Time;
 
-import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -68,6 +70,9 @@ import static com.google.common.collect.Maps.newLinkedHashMap;
  * </p>
  * <sup>1</sup> - All reads are O(n) because {@code Limbo} uses an
  * {@link #iterator()} to traverse the {@link Write} objects that it stores.
+ * Each read only asks for the Writes that involve the relevant record and/or
+ * key (e.g. {@link #iterator(String, long)}), so a subclass that indexes its
+ * Writes can override those methods to avoid the full scan.
  * 
  * @author Jeff Nelson
  */
@@ -76,46 +81,6 @@ public abstract class Limbo extends BaseStore implements
         Iterable<Write>,
         VersionGetter {
 
-    /**
-     * Return {@code true} if {@code input} matches {@code operator} in relation
-     * to {@code values}.
-     * 
-     * @param input
-     * @param operator
-     * @param values
-     * @return {@code true} if {@code input} matches
-     */
-    private static boolean matches(Value input, Operator operator,
-            TObject... values) {
-        Value v1 = Value.wrap(values[0]);
-        switch (operator) {
-        case EQUALS:
-            return v1.equals(input);
-        case NOT_EQUALS:
-            return !v1.equals(input);
-        case GREATER_THAN:
-            return v1.compareTo(input) < 0;
-        case GREATER_THAN_OR_EQUALS:
-            return v1.compareTo(input) <= 0;
-        case LESS_THAN:
-            return v1.compareTo(input) > 0;
-        case LESS_THAN_OR_EQUALS:
-            return v1.compareTo(input) >= 0;
-        case BETWEEN:
-            Preconditions.checkArgument(values.length > 1);
-            Value v2 = Value.wrap(values[1]);
-            return v1.compareTo(input) <= 0 && v2.compareTo(input) > 0;
-        case REGEX:
-            return input.getObject().toString()
-                    .matches(v1.getObject().toString());
-        case NOT_REGEX:
-            return !input.getObject().toString()
-                    .matches(v1.getObject().toString());
-        default:
-            throw new UnsupportedOperationException();
-        }
-    }
-
     /**
      * A Predicate that is used to filter out empty sets.
      */
@@ -138,12 +103,10 @@ public abstract class Limbo extends BaseStore implements
     @Override
     public Map<Long, String> audit(long record) {
         Map<Long, String> audit = Maps.newTreeMap();
-        Iterator<Write> it = iterator();
+        Iterator<Write> it = iterator(record);
         while (it.hasNext()) {
             Write write = it.next();
-            if(write.getRecord().longValue() == record) {
-                audit.put(write.getVersion(), write.toString());
-            }
+            audit.put(write.getVersion(), write.toString());
         }
         return audit;
 
@@ -152,13 +115,10 @@ public abstract class Limbo extends BaseStore implements
     @Override
     public Map<Long, String> audit(String key, long record) {
         Map<Long, String> audit = Maps.newTreeMap();
-        Iterator<Write> it = iterator();
+        Iterator<Write> it = iterator(key, record);
         while (it.hasNext()) {
             Write write = it.next();
-            if(write.getKey().toString().equals(key)
-                    && write.getRecord().longValue() == record) {
-                audit.put(write.getVersion(), write.toString());
-            }
+            audit.put(write.getVersion(), write.toString());
         }
         return audit;
 
@@ -195,11 +155,10 @@ public abstract class Limbo extends BaseStore implements
     public Map<String, Set<TObject>> browse(long record, long timestamp,
             Map<String, Set<TObject>> context) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(record);
             while (it.hasNext()) {
                 Write write = it.next();
-                if(write.getRecord().longValue() == record
-                        && write.getVersion() <= timestamp) {
+                if(write.getVersion() <= timestamp) {
                     Set<TObject> values;
                     values = context.get(write.getKey().toString());
                     if(values == null) {
@@ -213,11 +172,8 @@ public abstract class Limbo extends BaseStore implements
                         values.remove(write.getValue().getTObject());
                     }
                 }
-                else if(write.getVersion() > timestamp) {
-                    break;
-                }
                 else {
-                    continue;
+                    break;
                 }
             }
         }
@@ -249,11 +205,10 @@ public abstract class Limbo extends BaseStore implements
     public Map<TObject, Set<Long>> browse(String key, long timestamp,
             Map<TObject, Set<Long>> context) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(key);
             while (it.hasNext()) {
                 Write write = it.next();
-                if(write.getKey().toString().equals(key)
-                        && write.getVersion() <= timestamp) {
+                if(write.getVersion() <= timestamp) {
                     Set<Long> records = context.get(write.getValue()
                             .getTObject());
                     if(records == null) {
@@ -267,11 +222,8 @@ public abstract class Limbo extends BaseStore implements
                         records.remove(write.getRecord().longValue());
                     }
                 }
-                else if(write.getVersion() > timestamp) {
-                    break;
-                }
                 else {
-                    continue;
+                    break;
                 }
             }
         }
@@ -291,11 +243,10 @@ public abstract class Limbo extends BaseStore implements
     public Set<String> describe(long record, long timestamp,
             Map<String, Set<TObject>> context) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(record);
             while (it.hasNext()) {
                 Write write = it.next();
-                if(write.getRecord().longValue() == record
-                        && write.getVersion() <= timestamp) {
+                if(write.getVersion() <= timestamp) {
                     Set<TObject> values;
                     values = context.get(write.getKey().toString());
                     if(values == null) {
@@ -309,11 +260,8 @@ public abstract class Limbo extends BaseStore implements
                         values.remove(write.getValue().getTObject());
                     }
                 }
-                else if(write.getVersion() > timestamp) {
-                    break;
-                }
                 else {
-                    continue;
+                    break;
                 }
             }
         }
@@ -338,13 +286,12 @@ public abstract class Limbo extends BaseStore implements
     public Map<Long, Set<TObject>> explore(Map<Long, Set<TObject>> context,
             long timestamp, String key, Operator operator, TObject... values) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(key, operator, values);
             while (it.hasNext()) {
                 Write write = it.next();
                 long record = write.getRecord().longValue();
                 if(write.getVersion() <= timestamp) {
-                    if(write.getKey().toString().equals(key)
-                            && matches(write.getValue(), operator, values)) {
+                    if(Stores.matches(write.getValue(), operator, values)) {
                         if(write.getType() == Action.ADD) {
                             MultimapViews.put(context, record, write.getValue()
                                     .getTObject());
@@ -387,18 +334,15 @@ public abstract class Limbo extends BaseStore implements
     public Set<TObject> select(String key, long record, long timestamp,
             Set<TObject> context) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(key, record);
             while (it.hasNext()) {
                 Write write = it.next();
                 if(write.getVersion() <= timestamp) {
-                    if(key.equals(write.getKey().toString())
-                            && record == write.getRecord().longValue()) {
-                        if(write.getType() == Action.ADD) {
-                            context.add(write.getValue().getTObject());
-                        }
-                        else {
-                            context.remove(write.getValue().getTObject());
-                        }
+                    if(write.getType() == Action.ADD) {
+                        context.add(write.getValue().getTObject());
+                    }
+                    else {
+                        context.remove(write.getValue().getTObject());
                     }
                 }
                 else {
@@ -426,29 +370,15 @@ public abstract class Limbo extends BaseStore implements
 
     @Override
     public long getVersion(String key) {
-        Iterator<Write> it = reverseIterator();
-        while (it.hasNext()) {
-            Write write = it.next();
-            if(write.getKey().equals(Text.wrapCached(key))) {
-                return write.getVersion();
-            }
-        }
-        return Versioned.NO_VERSION;
+        Iterator<Write> it = reverseIterator(key);
+        return it.hasNext() ? it.next().getVersion() : Versioned.NO_VERSION;
     }
 
     @Override
     public long getVersion(String key, long record) {
-        key = Strings.nullToEmpty(key);
-        Iterator<Write> it = reverseIterator();
-        while (it.hasNext()) {
-            Write write = it.next();
-            if(record == write.getRecord().longValue()
-                    && (Strings.isNullOrEmpty(key) || write.getKey().equals(
-                            Text.wrapCached(key)))) {
-                return write.getVersion();
-            }
-        }
-        return Versioned.NO_VERSION;
+        Iterator<Write> it = Strings.isNullOrEmpty(key) ? reverseIterator(record)
+                : reverseIterator(key, record);
+        return it.hasNext() ? it.next().getVersion() : Versioned.NO_VERSION;
     }
 
     /**
@@ -506,16 +436,120 @@ public abstract class Limbo extends BaseStore implements
      */
     public abstract Iterator<Write> reverseIterator();
 
+    /**
+     * Return an iterator that traverses the Writes for {@code record} in
+     * chronological order.
+     * <p>
+     * This implementation filters {@link #iterator()}, but a subclass that
+     * indexes its Writes should override this method.
+     * </p>
+     * 
+     * @param record
+     * @return the iterator
+     */
+    protected Iterator<Write> iterator(long record) {
+        return Iterators.filter(iterator(), recordFilter(record));
+    }
+
+    /**
+     * Return an iterator that traverses the Writes for {@code key} in
+     * chronological order.
+     * <p>
+     * This implementation filters {@link #iterator()}, but a subclass that
+     * indexes its Writes should override this method.
+     * </p>
+     * 
+     * @param key
+     * @return the iterator
+     */
+    protected Iterator<Write> iterator(String key) {
+        return Iterators.filter(iterator(), keyFilter(key));
+    }
+
+    /**
+     * Return an iterator that traverses the Writes for {@code key} in
+     * {@code record} in chronological order.
+     * <p>
+     * This implementation filters {@link #iterator()}, but a subclass that
+     * indexes its Writes should override this method.
+     * </p>
+     * 
+     * @param key
+     * @param record
+     * @return the iterator
+     */
+    protected Iterator<Write> iterator(String key, long record) {
+        return Iterators.filter(iterator(),
+                Predicates.and(keyFilter(key), recordFilter(record)));
+    }
+
+    /**
+     * Return an iterator that traverses, in chronological order, the Writes
+     * for {@code key} whose value <em>might</em> match {@code operator} in
+     * relation to {@code values}. The caller must check each Write with
+     * {@link Stores#matches(Value, Operator, TObject...)}.
+     * <p>
+     * This implementation returns {@link #iterator(String)}, but a subclass
+     * that indexes its Writes by value should override this method.
+     * </p>
+     * 
+     * @param key
+     * @param operator
+     * @param values
+     * @return the iterator
+     */
+    protected Iterator<Write> iterator(String key, Operator operator,
+            TObject... values) {
+        return iterator(key);
+    }
+
+    /**
+     * Return an iterator that traverses the Writes for {@code record} in
+     * reverse order.
+     * 
+     * @param record
+     * @return the iterator
+     * @see #iterator(long)
+     */
+    protected Iterator<Write> reverseIterator(long record) {
+        return Iterators.filter(reverseIterator(), recordFilter(record));
+    }
+
+    /**
+     * Return an iterator that traverses the Writes for {@code key} in reverse
+     * order.
+     * 
+     * @param key
+     * @return the iterator
+     * @see #iterator(String)
+     */
+    protected Iterator<Write> reverseIterator(String key) {
+        return Iterators.filter(reverseIterator(), keyFilter(key));
+    }
+
+    /**
+     * Return an iterator that traverses the Writes for {@code key} in
+     * {@code record} in reverse order.
+     * 
+     * @param key
+     * @param record
+     * @return the iterator
+     * @see #iterator(String, long)
+     */
+    protected Iterator<Write> reverseIterator(String key, long record) {
+        return Iterators.filter(reverseIterator(),
+                Predicates.and(keyFilter(key), recordFilter(record)));
+    }
+
     @Override
-    public Set<Long> search(String key, String query) {
+    public Map<Long, Integer> rank(String key, String query) {
         Map<Long, Set<Value>> rtv = Maps.newHashMap();
-        Iterator<Write> it = iterator();
+        Iterator<Write> it = iterator(key);
         while (it.hasNext()) {
             Write write = it.next();
             Value value = write.getValue();
             long record = write.getRecord().longValue();
-            if(write.getKey().toString().equals(key)
-                    && value.getType() == Type.STRING) {
+            if(value.getType() == Type.STRING) {
                 /*
                  * NOTE: It is not enough to merely check if the stored text
                  * contains the query because the Database does infix
@@ -549,10 +583,27 @@ public abstract class Limbo extends BaseStore implements
                 }
             }
         }
-        // FIXME sort search results based on frequency (see
-        // SearchRecord#search())
-        return newLinkedHashMap(Maps.filterValues(rtv, emptySetFilter))
-                .keySet();
+        // Score each record the same way as SearchRecord#search(), which is
+        // the number of times the query appears in the values that are
+        // currently stored.
+        Map<Long, Integer> scores = Maps.newHashMap();
+        for (Map.Entry<Long, Set<Value>> entry : rtv.entrySet()) {
+            int score = 0;
+            for (Value value : entry.getValue()) {
+                score += TStrings.countInfixSearchMatches(query, TStrings
+                        .stripStopWords(((String) (value.getObject()))
+                                .toLowerCase()));
+            }
+            if(score > 0) {
+                scores.put(entry.getKey(), score);
+            }
+        }
+        return scores;
+    }
+
+    @Override
+    public Set<Long> search(String key, String query) {
+        return TMaps.top(rank(key, query), 0, 0, 0).keySet();
     }
 
     /**
@@ -645,7 +696,8 @@ public abstract class Limbo extends BaseStore implements
      */
     public boolean verify(Write write, long timestamp, boolean exists) {
         if(timestamp >= getOldestWriteTimstamp()) {
-            Iterator<Write> it = iterator();
+            Iterator<Write> it = iterator(write.getKey().toString(), write
+                    .getRecord().longValue());
             while (it.hasNext()) {
                 Write stored = it.next();
                 if(stored.getVersion() <= timestamp) {
@@ -685,4 +737,39 @@ public abstract class Limbo extends BaseStore implements
         return explore(Time.now(), key, operator, values);
     }
 
+    /**
+     * Return a Predicate that only accepts the Writes for {@code key}.
+     * 
+     * @param key
+     * @return the Predicate
+     */
+    private static Predicate<Write> keyFilter(String key) {
+        final Text key0 = Text.wrapCached(key);
+        return new Predicate<Write>() {
+
+            @Override
+            public boolean apply(Write input) {
+                return input.getKey().equals(key0);
+            }
+
+        };
+    }
+
+    /**
+     * Return a Predicate that only accepts the Writes for {@code record}.
+     * 
+     * @param record
+     * @return the Predicate
+     */
+    private static Predicate<Write> recordFilter(final long record) {
+        return new Predicate<Write>() {
+
+            @Override
+            public boolean apply(Write input) {
+                return input.getRecord().longValue() == record;
+            }
+
+        };
+    }
+
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.temp;
+
+import java.text.MessageFormat;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The policy that decides how aggressively a {@link Buffer} transports Writes
+ * to the Database. Each cycle of the background transport thread, the Buffer
+ * takes a {@link Pressure snapshot} of its backlog, the recent read activity,
+ * the processor load and the cost of the last Block sync and asks its mode
+ * how many Writes to transport and how long to sleep before the next cycle.
+ * <p>
+ * Regardless of the mode, the Buffer never transports more than
+ * {@link #MAX_BATCH_SIZE} Writes per cycle. Every mode except
+ * {@link #ADAPTIVE}, which keeps the Buffer's original behaviour, transports
+ * at full speed once the backlog reaches {@link #MAX_BACKLOG} pages so that the
+ * Buffer cannot grow without bound.
+ * </p>
+ * 
+ * @author Jeff Nelson
+ */
+public enum TransportMode {
+
+    /**
+     * Ramp the number of Writes per cycle up (and the sleep time down) while
+     * there are no reads and scale back as soon as a read occurs. This is the
+     * default and it is exactly how the Buffer transported before modes were
+     * pluggable, so it ignores the backlog and the processor load.
+     */
+    ADAPTIVE {
+
+        @Override
+        public int getBatchSize(Pressure pressure) {
+            return pressure.adaptiveBatchSize;
+        }
+
+        @Override
+        public int getSleepTimeInMs(Pressure pressure) {
+            return pressure.adaptiveSleepTimeInMs;
+        }
+
+    },
+
+    /**
+     * Always transport as many Writes as possible with the shortest sleep,
+     * regardless of reads. This maximizes ingest throughput at the expense of
+     * read latency.
+     */
+    THROUGHPUT {
+
+        @Override
+        public int getBatchSize(Pressure pressure) {
+            return MAX_BATCH_SIZE;
+        }
+
+        @Override
+        public int getSleepTimeInMs(Pressure pressure) {
+            return MIN_SLEEP_TIME_IN_MS;
+        }
+
+    },
+
+    /**
+     * Hold transport while reads are happening so that reads never wait for
+     * a transport (or the Block sync at the end of a page). Once reads have
+     * been quiet for {@link #READ_QUIET_PERIOD_IN_MS}, this mode behaves like
+     * {@link #ADAPTIVE}, but it waits at least as long as the last Block sync
+     * took between cycles and twice as long while the processors are
+     * saturated.
+     */
+    LOW_LATENCY_READS {
+
+        @Override
+        public int getBatchSize(Pressure pressure) {
+            return pressure.isOverBacklog() ? MAX_BATCH_SIZE : pressure
+                    .isReading() ? 0 : ADAPTIVE.getBatchSize(pressure);
+        }
+
+        @Override
+        public int getSleepTimeInMs(Pressure pressure) {
+            if(pressure.isOverBacklog()) {
+                return MIN_SLEEP_TIME_IN_MS;
+            }
+            else {
+                int sleep = Math.max(ADAPTIVE.getSleepTimeInMs(pressure),
+                        (int) Math.min(pressure.syncCostInMs,
+                                MAX_SLEEP_TIME_IN_MS));
+                return pressure.isSaturated() ? Math.min(sleep * 2,
+                        MAX_SLEEP_TIME_IN_MS) : sleep;
+            }
+        }
+
+    },
+
+    /**
+     * Only transport while there are no reads and the processors are not
+     * saturated, which leaves the most resources for the foreground at the
+     * cost of a larger Buffer.
+     */
+    IDLE_ONLY {
+
+        @Override
+        public int getBatchSize(Pressure pressure) {
+            return pressure.isOverBacklog() ? MAX_BATCH_SIZE : pressure
+                    .isReading() || pressure.isSaturated() ? 0 : MAX_BATCH_SIZE;
+        }
+
+        @Override
+        public int getSleepTimeInMs(Pressure pressure) {
+            return pressure.isOverBacklog() ? MIN_SLEEP_TIME_IN_MS
+                    : MAX_SLEEP_TIME_IN_MS;
+        }
+
+    };
+
+    /**
+     * Return the TransportMode with the case insensitive {@code name}, in
+     * which words may be separated by spaces, dashes or underscores.
+     * 
+     * @param name
+     * @return the TransportMode
+     */
+    public static TransportMode forName(String name) {
+        return valueOf(name.trim().replaceAll("[\\s-]+", "_").toUpperCase());
+    }
+
+    /**
+     * The maximum number of Writes that are transported in a single cycle.
+     */
+    public static final int MAX_BATCH_SIZE = 8192;
+
+    /**
+     * The number of pages in the Buffer at which every mode transports at full
+     * speed.
+     */
+    public static final int MAX_BACKLOG = 64;
+
+    /**
+     * The number of milliseconds after a read during which the Buffer is
+     * considered to be actively serving reads.
+     */
+    public static final int READ_QUIET_PERIOD_IN_MS = 100;
+
+    /**
+     * The maximum number of milliseconds to sleep between transport cycles.
+     */
+    public static final int MAX_SLEEP_TIME_IN_MS = 100;
+
+    /**
+     * The minimum number of milliseconds to sleep between transport cycles.
+     */
+    public static final int MIN_SLEEP_TIME_IN_MS = 5;
+
+    /**
+     * Return the number of Writes to transport in the next cycle, given the
+     * current {@code pressure}. A return value of 0 means that the cycle
+     * should be skipped.
+     * 
+     * @param pressure
+     * @return the batch size
+     */
+    public abstract int getBatchSize(Pressure pressure);
+
+    /**
+     * Return the number of milliseconds that the transport thread should sleep
+     * before the next cycle, given the current {@code pressure}.
+     * 
+     * @param pressure
+     * @return the sleep time
+     */
+    public abstract int getSleepTimeInMs(Pressure pressure);
+
+    /**
+     * A snapshot of the signals that a {@link TransportMode} considers.
+     * 
+     * @author Jeff Nelson
+     */
+    @Immutable
+    public static final class Pressure {
+
+        /**
+         * The number of pages in the Buffer, including the current one.
+         */
+        private final int pageCount;
+
+        /**
+         * The batch size that the Buffer has ramped up to since the last
+         * read.
+         */
+        private final int adaptiveBatchSize;
+
+        /**
+         * The sleep time that the Buffer has ramped down to since the last
+         * read.
+         */
+        private final int adaptiveSleepTimeInMs;
+
+        /**
+         * The number of milliseconds since the last read.
+         */
+        private final long millisSinceLastRead;
+
+        /**
+         * The system load average divided by the number of processors, or a
+         * negative value if the load is not available.
+         */
+        private final double loadPerProcessor;
+
+        /**
+         * The number of milliseconds that the last Block sync took.
+         */
+        private final long syncCostInMs;
+
+        /**
+         * Construct a new instance.
+         * 
+         * @param pageCount
+         * @param adaptiveBatchSize
+         * @param adaptiveSleepTimeInMs
+         * @param millisSinceLastRead
+         * @param loadPerProcessor
+         * @param syncCostInMs
+         */
+        public Pressure(int pageCount, int adaptiveBatchSize,
+                int adaptiveSleepTimeInMs, long millisSinceLastRead,
+                double loadPerProcessor, long syncCostInMs) {
+            this.pageCount = pageCount;
+            this.adaptiveBatchSize = adaptiveBatchSize;
+            this.adaptiveSleepTimeInMs = adaptiveSleepTimeInMs;
+            this.millisSinceLastRead = millisSinceLastRead;
+            this.loadPerProcessor = loadPerProcessor;
+            this.syncCostInMs = syncCostInMs;
+        }
+
+        /**
+         * Return {@code true} if the Buffer has served a read within the last
+         * {@link TransportMode#READ_QUIET_PERIOD_IN_MS}.
+         * 
+         * @return {@code true} if reads are happening
+         */
+        public boolean isReading() {
+            return millisSinceLastRead < READ_QUIET_PERIOD_IN_MS;
+        }
+
+        /**
+         * Return {@code true} if the backlog has reached
+         * {@link TransportMode#MAX_BACKLOG} pages.
+         * 
+         * @return {@code true} if the backlog is too large
+         */
+        public boolean isOverBacklog() {
+            return pageCount >= MAX_BACKLOG;
+        }
+
+        /**
+         * Return {@code true} if there is no processor headroom.
+         * 
+         * @return {@code true} if the processors are saturated
+         */
+        public boolean isSaturated() {
+            return loadPerProcessor >= 1;
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format("{0} pages, {1} ms since last read, "
+                    + "{2} load per processor, {3} ms last block sync",
+                    pageCount, millisSinceLastRead,
+                    loadPerProcessor < 0 ? "unknown" : String.format("%.2f",
+                            loadPerProcessor), syncCostInMs);
+        }
+
+    }
+
+}
@@ -16,9 +16,12 @@
 package org.cinchapi.concourse.util;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -104,6 +107,64 @@ public final class TMaps {
         return map;
     }
 
+    /**
+     * Return a map that contains the entries from {@code scores} whose score
+     * is at least {@code threshold}, ranked from the highest to the lowest
+     * score (with ties broken by the natural order of the keys), after
+     * skipping the first {@code offset} entries and keeping at most
+     * {@code limit} of the rest. A non-positive {@code limit} keeps all the
+     * remaining entries.
+     * <p>
+     * Only {@code offset + limit} entries are held in a bounded heap while
+     * {@code scores} is traversed, so the entire map is never sorted.
+     * </p>
+     * 
+     * @param scores
+     * @param offset
+     * @param limit
+     * @param threshold
+     * @return the ranked page of entries
+     */
+    public static <K extends Comparable<K>> Map<K, Integer> top(
+            Map<K, Integer> scores, int offset, int limit, int threshold) {
+        offset = Math.max(0, offset);
+        int size = limit > 0 ? (int) Math.min(Integer.MAX_VALUE, (long) offset
+                + limit) : Integer.MAX_VALUE;
+        Comparator<Entry<K, Integer>> ranking = new Comparator<Entry<K, Integer>>() {
+
+            @Override
+            public int compare(Entry<K, Integer> o1, Entry<K, Integer> o2) {
+                int c = o2.getValue().compareTo(o1.getValue());
+                return c == 0 ? o1.getKey().compareTo(o2.getKey()) : c;
+            }
+
+        };
+        // The head of the heap is the lowest ranked entry that has been kept
+        // so far, so it is the one that is evicted by a better entry.
+        PriorityQueue<Entry<K, Integer>> heap = new PriorityQueue<Entry<K, Integer>>(
+                Math.max(1, Math.min(size, scores.size())),
+                Collections.reverseOrder(ranking));
+        for (Entry<K, Integer> entry : scores.entrySet()) {
+            if(entry.getValue() >= threshold) {
+                if(heap.size() < size) {
+                    heap.offer(entry);
+                }
+                else if(ranking.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.offer(entry);
+                }
+            }
+        }
+        List<Entry<K, Integer>> ranked = Lists.newArrayList(heap);
+        Collections.sort(ranked, ranking);
+        Map<K, Integer> page = Maps.newLinkedHashMap();
+        for (Entry<K, Integer> entry : ranked.subList(
+                Math.min(offset, ranked.size()), ranked.size())) {
+            page.put(entry.getKey(), entry.getValue());
+        }
+        return page;
+    }
+
     private TMaps() {/* noop */}
 
 }
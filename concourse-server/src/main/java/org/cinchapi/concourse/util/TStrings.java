@@ -78,6 +78,37 @@ public final class TStrings {
      *         {@code needle}.
      */
     public static boolean isInfixSearchMatch(String needle, String haystack) {
+        return getInfixSearchPattern(needle).matcher(haystack).find();
+    }
+
+    /**
+     * Return the number of non-overlapping places where {@code haystack} is an
+     * {@link #isInfixSearchMatch(String, String) infix search match} for
+     * {@code needle}. This is the same score that the Database assigns to a
+     * record that matches a search query.
+     * 
+     * @param needle
+     * @param haystack
+     * @return the number of infix search matches for {@code needle} in
+     *         {@code haystack}
+     */
+    public static int countInfixSearchMatches(String needle, String haystack) {
+        Matcher matcher = getInfixSearchPattern(needle).matcher(haystack);
+        int count = 0;
+        while (matcher.find()) {
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Return the {@link Pattern} that finds the infix search matches for
+     * {@code needle}.
+     * 
+     * @param needle
+     * @return the Pattern
+     */
+    private static Pattern getInfixSearchPattern(String needle) {
         StringBuilder sb = new StringBuilder();
         boolean first = true;
         for (String term : needle
@@ -90,9 +121,7 @@ public final class TStrings {
             sb.append(REGEX_ZERO_OR_MORE_NON_WHITESPACE_CHARS);
             first = false;
         }
-        Pattern pattern = Pattern.compile(sb.toString());
-        Matcher matcher = pattern.matcher(haystack);
-        return matcher.find();
+        return Pattern.compile(sb.toString());
     }
 
     /**
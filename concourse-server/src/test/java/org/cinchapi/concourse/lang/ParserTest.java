@@ -18,6 +18,9 @@ package org.cinchapi.concourse.lang;
 import java.util.List;
 import java.util.Queue;
 
+import org.cinchapi.concourse.lang.ast.AST;
+import org.cinchapi.concourse.lang.ast.AndTree;
+import org.cinchapi.concourse.lang.ast.OrTree;
 import org.cinchapi.concourse.thrift.Operator;
 import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.TestData;
@@ -493,4 +496,15 @@ public class ParserTest {
                 Parser.toPostfixNotation(ccl));
     }
 
+    @Test
+    public void testToAbstractSyntaxTreeFromPostfixNotationRespectsPrecedence() {
+        String ccl = "a = 1 and b = 2 or c = 3";
+        AST ast = Parser.toAbstractSyntaxTree(Parser.toPostfixNotation(ccl));
+        Assert.assertTrue(ast instanceof OrTree);
+        Assert.assertTrue(((OrTree) ast).getLeftChild() instanceof AndTree);
+        Assert.assertEquals(Expression.create(KeySymbol.create("c"),
+                OperatorSymbol.create(Operator.EQUALS), ValueSymbol.create(3)),
+                ((OrTree) ast).getRightChild().getSymbol());
+    }
+
 }
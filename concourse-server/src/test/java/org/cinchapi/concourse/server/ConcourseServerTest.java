@@ -20,12 +20,20 @@ import javax.management.MBeanRegistrationException;
 import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 
+import org.apache.thrift.TException;
 import org.apache.thrift.transport.TTransportException;
 import org.cinchapi.concourse.ConcourseBaseTest;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TCommand;
+import org.cinchapi.concourse.thrift.TCommandVerb;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.Environments;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+
 /**
  * Unit tests for {@link ConcourseServer}.
  * 
@@ -82,4 +90,32 @@ public class ConcourseServerTest extends ConcourseBaseTest {
     			Environments.sanitize(env));
     }
 
+    @Test
+    public void testMalformedCommandIsRejectedWithItsIndex() {
+        TCommand valid = new TCommand(TCommandVerb.GET, "foo",
+                Lists.<TObject> newArrayList(), 1, null);
+        TCommand missingValue = new TCommand(TCommandVerb.ADD, "foo",
+                Lists.<TObject> newArrayList(), 1, null);
+        try {
+            ConcourseServer.checkCommands(Lists.newArrayList(valid, valid,
+                    missingValue));
+            Assert.fail("Expected the malformed command to be rejected");
+        }
+        catch (TException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Command 2 "));
+        }
+    }
+
+    @Test
+    public void testWellFormedCommandsAreAccepted() throws TException {
+        TCommand add = new TCommand(TCommandVerb.ADD, "foo",
+                Lists.newArrayList(Convert.javaToThrift(1)), 1, null);
+        TCommand find = new TCommand(TCommandVerb.FIND, "foo",
+                Lists.newArrayList(Convert.javaToThrift(1)), 0,
+                Operator.EQUALS);
+        TCommand describe = new TCommand(TCommandVerb.DESCRIBE, null,
+                Lists.<TObject> newArrayList(), 1, null);
+        ConcourseServer.checkCommands(Lists.newArrayList(add, find, describe));
+    }
+
 }
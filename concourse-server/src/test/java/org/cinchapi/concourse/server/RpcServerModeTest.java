@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TMessage;
+import org.apache.thrift.protocol.TMessageType;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.cinchapi.concourse.server.concurrent.Threads;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RpcServerMode}.
+ *
+ * @author Jeff Nelson
+ */
+public class RpcServerModeTest {
+
+    /**
+     * A processor that replies to each message with an empty message of the
+     * same name.
+     */
+    private static final TProcessor ECHO = new TProcessor() {
+
+        @Override
+        public boolean process(TProtocol in, TProtocol out) throws TException {
+            TMessage message = in.readMessageBegin();
+            in.readMessageEnd();
+            out.writeMessageBegin(new TMessage(message.name,
+                    TMessageType.REPLY, message.seqid));
+            out.writeMessageEnd();
+            out.getTransport().flush();
+            return true;
+        }
+
+    };
+
+    /**
+     * Return a port that is not in use.
+     *
+     * @return the port
+     */
+    private static int getOpenPort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Send a message to the server over the open {@code transport} and return
+     * the name of the reply.
+     *
+     * @param transport
+     * @return the name of the reply
+     * @throws TException
+     */
+    private static String ping(TTransport transport) throws TException {
+        TProtocol protocol = new TBinaryProtocol(transport);
+        protocol.writeMessageBegin(new TMessage("ping", TMessageType.CALL, 1));
+        protocol.writeMessageEnd();
+        transport.flush();
+        String name = protocol.readMessageBegin().name;
+        protocol.readMessageEnd();
+        return name;
+    }
+
+    /**
+     * Start serving {@code server} in the background.
+     *
+     * @param server
+     */
+    private static void serve(final TServer server) {
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                server.serve();
+            }
+
+        });
+        thread.setDaemon(true);
+        thread.start();
+        while (!server.isServing()) {
+            Threads.sleep(10);
+        }
+    }
+
+    @Test
+    public void testForNameAcceptsDashesAndCase() {
+        Assert.assertEquals(RpcServerMode.THREAD_POOL,
+                RpcServerMode.forName("Thread-Pool"));
+        Assert.assertEquals(RpcServerMode.SELECTOR,
+                RpcServerMode.forName(" selector "));
+        Assert.assertEquals(RpcServerMode.HSHA, RpcServerMode.forName("hsha"));
+    }
+
+    @Test
+    public void testNonBlockingServersUseFramedTransport() throws TException {
+        for (RpcServerMode mode : new RpcServerMode[] { RpcServerMode.HSHA,
+                RpcServerMode.SELECTOR }) {
+            int port = getOpenPort();
+            TServer server = mode.create(ECHO, port, 2, 0);
+            serve(server);
+            TTransport transport = new TFramedTransport(new TSocket(
+                    "localhost", port));
+            try {
+                transport.open();
+                Assert.assertEquals("ping", ping(transport));
+            }
+            finally {
+                transport.close();
+                server.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testSelectorServerRefusesConnectionsOverLimit()
+            throws TException {
+        int port = getOpenPort();
+        TServer server = RpcServerMode.SELECTOR.create(ECHO, port, 2, 1);
+        serve(server);
+        TTransport first = new TFramedTransport(new TSocket("localhost", port));
+        TTransport second = new TFramedTransport(new TSocket("localhost", port));
+        try {
+            first.open();
+            Assert.assertEquals("ping", ping(first));
+            second.open();
+            try {
+                ping(second);
+                Assert.fail("Expected the connection to be refused");
+            }
+            catch (TTransportException e) {
+                // expected
+            }
+            Assert.assertEquals("ping", ping(first));
+        }
+        finally {
+            first.close();
+            second.close();
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.cinchapi.concourse.ConcourseBaseTest;
+import org.cinchapi.concourse.Constants;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.storage.db.Database;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+/**
+ * Unit tests for {@link BulkLoadCli}.
+ * 
+ * @author Jeff Nelson
+ */
+public class BulkLoadCliTest extends ConcourseBaseTest {
+
+    private String directory;
+
+    @Rule
+    public TestWatcher w = new TestWatcher() {
+
+        @Override
+        protected void starting(Description description) {
+            directory = TestData.DATA_DIR + File.separator + Time.now();
+        }
+
+        @Override
+        protected void finished(Description description) {
+            if(FileSystem.hasDir(directory)) {
+                FileSystem.deleteDirectory(directory);
+            }
+        }
+
+    };
+
+    @Test
+    public void testTailOfInputIsReadable() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int record = 1; record <= 10; record++) {
+            sb.append("{\"" + Constants.JSON_RESERVED_IDENTIFIER_NAME + "\": ")
+                    .append(record).append(", \"age\": ").append(record)
+                    .append("}\n");
+        }
+        String data = write(sb.toString());
+        new BulkLoadCli(new String[] { "-d", data, "--blockSize", "3" }).load(
+                directory + File.separator + "buffer", directory
+                        + File.separator + "db");
+        Database db = new Database(directory + File.separator + "db");
+        db.start();
+        try {
+            for (int record = 1; record <= 10; record++) {
+                Assert.assertEquals(
+                        ImmutableSet.of(Convert.javaToThrift(record)),
+                        db.select("age", record));
+            }
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void testFailedLoadLeavesNoData() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int record = 1; record <= 10; record++) {
+            sb.append("{\"" + Constants.JSON_RESERVED_IDENTIFIER_NAME + "\": ")
+                    .append(record).append(", \"age\": ").append(record)
+                    .append("}\n");
+        }
+        sb.append("{\"friend\": \"")
+                .append(Convert.stringToResolvableLinkSpecification("name",
+                        "jeff")).append("\"}\n");
+        String data = write(sb.toString());
+        try {
+            new BulkLoadCli(new String[] { "-d", data, "--blockSize", "3" })
+                    .load(directory + File.separator + "buffer", directory
+                            + File.separator + "db");
+            Assert.fail("Expected the resolvable link to be rejected");
+        }
+        catch (UnsupportedOperationException e) {
+            Database db = new Database(directory + File.separator + "db");
+            db.start();
+            try {
+                for (int record = 1; record <= 10; record++) {
+                    Assert.assertTrue(db.select("age", record).isEmpty());
+                }
+            }
+            finally {
+                db.stop();
+            }
+        }
+    }
+
+    /**
+     * Write {@code content} to a new data file and return its path.
+     * 
+     * @param content
+     * @return the path of the data file
+     */
+    private String write(String content) throws IOException {
+        FileSystem.mkdirs(directory);
+        File file = new File(directory + File.separator + "data.json");
+        Files.write(content, file, StandardCharsets.UTF_8);
+        return file.getAbsolutePath();
+    }
+
+}
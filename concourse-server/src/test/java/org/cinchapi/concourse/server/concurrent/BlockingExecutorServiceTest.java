@@ -15,6 +15,9 @@
  */
 package org.cinchapi.concourse.server.concurrent;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -172,4 +175,57 @@ public class BlockingExecutorServiceTest extends ConcourseBaseTest {
         Assert.assertTrue(aSelfDone.get());
     }
 
+    @Test
+    public void testBoundedServiceRunsTaskInCallerWhenQueueIsFull() {
+        BlockingExecutorService bounded = BlockingExecutorService.create(
+                "bounded-test", 1, 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean ranInCaller = new AtomicBoolean(false);
+        Future<?> blocker = bounded.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+        });
+        Future<?> queued = bounded.submit(new Runnable() {
+
+            @Override
+            public void run() {}
+
+        });
+        bounded.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ranInCaller.set(Thread.currentThread() == caller);
+                latch.countDown();
+            }
+
+        });
+        BlockingExecutorService.await(blocker, queued);
+        Assert.assertTrue(ranInCaller.get());
+        Assert.assertTrue(bounded.getStats().contains("1 run by caller"));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testSubmitAfterShutdownIsRejected() {
+        BlockingExecutorService bounded = BlockingExecutorService.create(
+                "bounded-test", 1, 1);
+        bounded.getExecutorService().shutdown();
+        bounded.submit(new Runnable() {
+
+            @Override
+            public void run() {}
+
+        });
+    }
+
 }
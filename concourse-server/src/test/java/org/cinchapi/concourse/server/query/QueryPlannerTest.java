@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.query;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import org.cinchapi.concourse.ConcourseBaseTest;
+import org.cinchapi.concourse.lang.ConjunctionSymbol;
+import org.cinchapi.concourse.lang.Expression;
+import org.cinchapi.concourse.lang.Parser;
+import org.cinchapi.concourse.lang.PostfixNotationSymbol;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.model.TObjectSorter;
+import org.cinchapi.concourse.server.storage.AtomicOperation;
+import org.cinchapi.concourse.server.storage.Engine;
+import org.cinchapi.concourse.testing.Variables;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.TSets;
+import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests for {@link QueryPlanner}.
+ * 
+ * @author Jeff Nelson
+ */
+public class QueryPlannerTest extends ConcourseBaseTest {
+
+    private String directory;
+    private Engine engine;
+
+    @Override
+    protected void beforeEachTest() {
+        directory = TestData.DATA_DIR + File.separator + Time.now();
+        engine = new Engine(directory + File.separator + "buffer", directory
+                + File.separator + "db");
+        engine.start();
+        int count = Variables.register("count", TestData.getScaleCount());
+        for (int i = 0; i < count; i++) {
+            engine.add("a", Convert.javaToThrift(i % 10), i);
+            engine.add("b", Convert.javaToThrift(i % 3), i);
+            engine.add("c", Convert.javaToThrift(i % 2 == 0 ? "foo" : "bar"),
+                    i);
+        }
+    }
+
+    @Override
+    protected void afterEachTest() {
+        engine.stop();
+        FileSystem.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testFindAnd() {
+        doTestFind("a = 1 and b = 2");
+    }
+
+    @Test
+    public void testFindAndChain() {
+        doTestFind("a > 3 and b != 1 and c = foo");
+    }
+
+    @Test
+    public void testFindOr() {
+        doTestFind("a = 1 or b = 2 or c = bar");
+    }
+
+    @Test
+    public void testFindMixedConjunctions() {
+        doTestFind("a < 5 and b = 0 or c = bar and a >= 7");
+    }
+
+    @Test
+    public void testFindGroups() {
+        doTestFind("(a = 1 or a = 2) and (b = 0 or c != bar)");
+    }
+
+    @Test
+    public void testFindAndWithNoMatches() {
+        doTestFind("a = 100 and b = 1 and c = foo");
+    }
+
+    @Test
+    public void testFindRange() {
+        doTestFind("a bw 2 6 and c regex b.* and b <= 1");
+    }
+
+    @Test
+    public void testPageAscending() {
+        doTestPage("b != 1", "a", false, 0, 7);
+    }
+
+    @Test
+    public void testPageDescending() {
+        doTestPage("c = foo", "a", true, 3, 5);
+    }
+
+    @Test
+    public void testPageWithMissingAndMultipleValues() {
+        for (long record = 0; record < 100; record += 3) {
+            engine.add("d", Convert.javaToThrift((record * 7) % 5), record);
+            engine.add("d", Convert.javaToThrift((record * 3) % 11), record);
+        }
+        doTestPage("a > 2", "d", false, 2, 50);
+        doTestPage("a > 2", "d", true, 0, 1000);
+    }
+
+    @Test
+    public void testPagePastTheEnd() {
+        doTestPage("a = 1", "b", false, Integer.MAX_VALUE - 1, 10);
+    }
+
+    /**
+     * Assert that the {@link QueryPlanner} finds the same records as a naive
+     * evaluation of the {@code ccl} whether or not candidates are probed.
+     * 
+     * @param ccl
+     */
+    private void doTestFind(String ccl) {
+        Variables.register("ccl", ccl);
+        Set<Long> expected = findNaively(ccl);
+        Assert.assertEquals(expected, find(ccl, 0));
+        Assert.assertEquals(expected, find(ccl, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Assert that the {@link QueryPlanner} returns the same page as a naive
+     * sort of all the records that match {@code ccl}.
+     * 
+     * @param ccl
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     */
+    private void doTestPage(String ccl, final String order,
+            final boolean descending, int offset, int limit) {
+        Variables.register("ccl", ccl);
+        Variables.register("order", order);
+        List<Long> expected = Lists.newArrayList(findNaively(ccl));
+        Collections.sort(expected, new Comparator<Long>() {
+
+            @Override
+            public int compare(Long o1, Long o2) {
+                Set<TObject> v1 = engine.select(order, o1);
+                Set<TObject> v2 = engine.select(order, o2);
+                if(v1.isEmpty() || v2.isEmpty()) {
+                    return v1.isEmpty() && v2.isEmpty() ? o1.compareTo(o2)
+                            : (v1.isEmpty() ? 1 : -1);
+                }
+                int c = descending ? TObjectSorter.INSTANCE.compare(
+                        Collections.max(v2, TObjectSorter.INSTANCE),
+                        Collections.max(v1, TObjectSorter.INSTANCE))
+                        : TObjectSorter.INSTANCE.compare(
+                                Collections.min(v1, TObjectSorter.INSTANCE),
+                                Collections.min(v2, TObjectSorter.INSTANCE));
+                return c != 0 ? c : o1.compareTo(o2);
+            }
+
+        });
+        expected = offset >= expected.size() ? Collections.<Long> emptyList()
+                : expected.subList(offset,
+                        Math.min(offset + limit, expected.size()));
+        Assert.assertEquals(expected,
+                page(ccl, order, descending, offset, limit));
+    }
+
+    /**
+     * Use the {@link QueryPlanner} to find the records that match {@code ccl}
+     * and return the requested page of them, sorted by {@code order}.
+     * 
+     * @param ccl
+     * @param order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the records in the page
+     */
+    private List<Long> page(String ccl, String order, boolean descending,
+            int offset, int limit) {
+        AtomicOperation atomic = engine.startAtomicOperation();
+        List<Long> page = QueryPlanner.page(QueryPlanner.find(
+                Parser.toAbstractSyntaxTree(Parser.toPostfixNotation(ccl)),
+                atomic), order, descending, offset, limit, atomic);
+        Assert.assertTrue(atomic.commit());
+        return page;
+    }
+
+    /**
+     * Use the {@link QueryPlanner} to find the records that match {@code ccl}.
+     * 
+     * @param ccl
+     * @param maxNumProbes
+     * @return the matching records
+     */
+    private Set<Long> find(String ccl, int maxNumProbes) {
+        AtomicOperation atomic = engine.startAtomicOperation();
+        Set<Long> records = QueryPlanner.find(
+                Parser.toAbstractSyntaxTree(Parser.toPostfixNotation(ccl)),
+                atomic, maxNumProbes);
+        Assert.assertTrue(atomic.commit());
+        return Sets.newHashSet(records);
+    }
+
+    /**
+     * Find the records that match {@code ccl} by evaluating each expression
+     * in postfix order without any planning.
+     * 
+     * @param ccl
+     * @return the matching records
+     */
+    private Set<Long> findNaively(String ccl) {
+        Queue<PostfixNotationSymbol> queue = Parser.toPostfixNotation(ccl);
+        Deque<Set<Long>> stack = new ArrayDeque<Set<Long>>();
+        for (PostfixNotationSymbol symbol : queue) {
+            if(symbol == ConjunctionSymbol.AND) {
+                stack.push(TSets.intersection(stack.pop(), stack.pop()));
+            }
+            else if(symbol == ConjunctionSymbol.OR) {
+                stack.push(TSets.union(stack.pop(), stack.pop()));
+            }
+            else {
+                Expression exp = (Expression) symbol;
+                stack.push(engine.find(exp.getKeyRaw(), exp.getOperatorRaw(),
+                        exp.getValuesRaw()));
+            }
+        }
+        return Sets.newHashSet(stack.pop());
+    }
+
+}
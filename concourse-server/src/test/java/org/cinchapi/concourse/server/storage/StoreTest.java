@@ -1379,10 +1379,35 @@ public abstract class StoreTest extends ConcourseBaseTest {
     }
 
     @Test
-    @Ignore("not implemented in Limbo")
+    public void testRankScoresEachMatchByNumberOfOccurrences() {
+        add("foo", Convert.javaToThrift("concourse"), 1);
+        add("foo", Convert.javaToThrift("concourse server and concourse"), 2);
+        add("foo", Convert.javaToThrift("concourse"), 3);
+        add("foo", Convert.javaToThrift("shell concourse"), 3);
+        add("foo", Convert.javaToThrift("database"), 4);
+        add("bar", Convert.javaToThrift("concourse"), 5);
+        Map<Long, Integer> expected = Maps.newHashMap();
+        expected.put(1L, 1);
+        expected.put(2L, 2);
+        expected.put(3L, 2);
+        Assert.assertEquals(expected, store.rank("foo", "concourse"));
+    }
+
+    @Test
+    @Theory
+    public void testRankMatchesSearch(SearchType type) {
+        String query = null;
+        while (query == null) {
+            query = TestData.getString();
+        }
+        Variables.register("query", query);
+        String key = Variables.register("key", TestData.getString());
+        Set<Long> records = setupSearchTest(key, query, type);
+        Assert.assertEquals(records, store.rank(key, query).keySet());
+    }
+
+    @Test
     public void testSearchResultSorting() {
-        // FIXME this is not implemented in Limbo (cause its very difficult) so
-        // right now search result order is undefined).
         String key = Variables.register("key", TestData.getString());
         String query = Variables.register("query", TestData.getString());
         Map<Long, String> words = Variables.register("words",
@@ -16,6 +16,11 @@
 package org.cinchapi.concourse.server.storage.db;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.cinchapi.concourse.ConcourseBaseTest;
 import org.cinchapi.concourse.server.io.FileSystem;
@@ -28,6 +33,9 @@ import org.junit.Test;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
 
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+
 /**
  * Unit tests for {@link BlockIndex}.
  * 
@@ -100,4 +108,84 @@ public class BlockIndexTest extends ConcourseBaseTest {
         Assert.assertEquals(count * 2, index.getEnd(key));
     }
 
+    @Test
+    public void testMissingEntryAfterSync() {
+        int count = TestData.getScaleCount() * 2;
+        BlockIndex index = BlockIndex.create(file, count);
+        for (int i = 0; i < count; i++) {
+            PrimaryKey key = PrimaryKey.wrap(i);
+            index.putStart(i, key);
+            index.putEnd(i, key);
+        }
+        index.sync();
+        index = BlockIndex.open(file);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, index.getStart(PrimaryKey.wrap(i)));
+        }
+        Assert.assertEquals(BlockIndex.NO_ENTRY,
+                index.getStart(PrimaryKey.wrap(count)));
+        Assert.assertEquals(BlockIndex.NO_ENTRY,
+                index.getEnd(PrimaryKey.wrap(count)));
+    }
+
+    @Test
+    public void testVariableWidthIndexIsUpgraded() throws IOException {
+        int count = TestData.getScaleCount() * 2;
+        ByteBuffer bytes = ByteBuffer.allocate(count
+                * (12 + PrimaryKey.SIZE));
+        for (int i = 0; i < count; i++) {
+            bytes.putInt(8 + PrimaryKey.SIZE);
+            bytes.putInt(i);
+            bytes.putInt(i * 2);
+            PrimaryKey.wrap(i).copyTo(bytes);
+        }
+        bytes.rewind();
+        FileChannel channel = FileSystem.getFileChannel(file);
+        channel.write(bytes);
+        FileSystem.closeFileChannel(channel);
+        BlockIndex index = BlockIndex.open(file);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, index.getStart(PrimaryKey.wrap(i)));
+            Assert.assertEquals(i * 2, index.getEnd(PrimaryKey.wrap(i)));
+        }
+        Assert.assertEquals(BlockIndex.NO_ENTRY,
+                index.getStart(PrimaryKey.wrap(count)));
+        index = BlockIndex.open(file); // the upgraded file is reloaded
+        Assert.assertEquals(count - 1,
+                index.getStart(PrimaryKey.wrap(count - 1)));
+    }
+
+    @Test
+    public void testHashMatchesMurmur3() {
+        Random random = new Random();
+        long[] hash = new long[2];
+        for (int length = 0; length < 64; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            byte[] expected = Hashing.murmur3_128().hashBytes(bytes)
+                    .asBytes();
+            BlockIndex.hash(ByteBuffer.wrap(bytes), hash);
+            Assert.assertEquals(Longs.fromByteArray(expected), hash[0]);
+            Assert.assertEquals(Longs.fromByteArray(Arrays.copyOfRange(
+                    expected, 8, 16)), hash[1]);
+        }
+    }
+
+    @Test
+    public void testHashHitIsCheckedAgainstTheStoredKey() throws IOException {
+        BlockIndex index = BlockIndex.create(file, 1);
+        PrimaryKey key = PrimaryKey.wrap(1);
+        index.putStart(10, key);
+        index.putEnd(20, key);
+        index.sync();
+        // Corrupt the last byte of the stored key, which is the last byte of
+        // the file, while leaving its hash intact
+        FileChannel channel = FileSystem.getFileChannel(file);
+        channel.write(ByteBuffer.wrap(new byte[] { 2 }), channel.size() - 1);
+        FileSystem.closeFileChannel(channel);
+        index = BlockIndex.open(file);
+        Assert.assertEquals(BlockIndex.NO_ENTRY, index.getStart(key));
+        Assert.assertEquals(BlockIndex.NO_ENTRY, index.getEnd(key));
+    }
+
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.io.File;
+
+import org.cinchapi.concourse.ConcourseBaseTest;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.storage.temp.Buffer;
+import org.cinchapi.concourse.server.storage.temp.Write;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TObject;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
+import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for {@link BulkLoader}.
+ * 
+ * @author Jeff Nelson
+ */
+public class BulkLoaderTest extends ConcourseBaseTest {
+
+    private String backingStore;
+
+    private String bufferStore;
+
+    @Rule
+    public TestWatcher w = new TestWatcher() {
+
+        @Override
+        protected void starting(Description description) {
+            backingStore = TestData.DATA_DIR + File.separator + Time.now();
+            bufferStore = backingStore + ".buffer";
+        }
+
+        @Override
+        protected void finished(Description description) {
+            if(FileSystem.hasDir(backingStore)) {
+                FileSystem.deleteDirectory(backingStore);
+            }
+            if(FileSystem.hasDir(bufferStore)) {
+                FileSystem.deleteDirectory(bufferStore);
+            }
+        }
+
+    };
+
+    @Test
+    public void testLoadedDataIsReadableByDatabase() {
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore,
+                7)) {
+            for (long record = 1; record <= 20; record++) {
+                loader.add("age", Convert.javaToThrift((int) record), record);
+                loader.add("name", Convert.javaToThrift("name " + record),
+                        record);
+            }
+            Assert.assertEquals(40, loader.getCount());
+        }
+        Database db = new Database(backingStore);
+        db.start();
+        try {
+            Assert.assertEquals(ImmutableSet.of(Convert.javaToThrift(5)),
+                    db.select("age", 5));
+            Assert.assertEquals(ImmutableSet.of(18L, 19L, 20L), db.find("age",
+                    Operator.GREATER_THAN, Convert.javaToThrift(17)));
+            Assert.assertEquals(ImmutableSet.of(12L),
+                    db.search("name", "name 12"));
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void testBlocksAreSyncedWhenFull() {
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore,
+                10)) {
+            for (long record = 1; record <= 25; record++) {
+                loader.add("foo", Convert.javaToThrift(record), record);
+            }
+        }
+        Assert.assertEquals(3, countBlocks(Database.PRIMARY_BLOCK_DIRECTORY));
+        Assert.assertEquals(3, countBlocks(Database.SECONDARY_BLOCK_DIRECTORY));
+    }
+
+    @Test
+    public void testLoadIntoExistingDatabase() {
+        Database db = new Database(backingStore);
+        db.start();
+        db.accept(Write.add("foo", Convert.javaToThrift("bar"), 1));
+        db.triggerSync();
+        db.stop();
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore)) {
+            loader.add("foo", Convert.javaToThrift("baz"), 1);
+        }
+        db = new Database(backingStore);
+        db.start();
+        try {
+            TObject bar = Convert.javaToThrift("bar");
+            TObject baz = Convert.javaToThrift("baz");
+            Assert.assertEquals(ImmutableSet.of(bar, baz), db.select("foo", 1));
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void testDuplicateInputIsSkipped() {
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore,
+                4)) {
+            for (int i = 0; i < 3; i++) {
+                for (long record = 1; record <= 5; record++) {
+                    loader.add("foo", Convert.javaToThrift("bar"), record);
+                    loader.add("age", Convert.javaToThrift(i), record);
+                }
+            }
+            Assert.assertFalse(loader.add("foo", Convert.javaToThrift("bar"),
+                    1));
+            Assert.assertEquals(20, loader.getCount());
+            Assert.assertEquals(11, loader.getSkippedCount());
+        }
+        Database db = new Database(backingStore);
+        db.start();
+        try {
+            for (long record = 1; record <= 5; record++) {
+                Assert.assertEquals(
+                        ImmutableSet.of(Convert.javaToThrift("bar")),
+                        db.select("foo", record));
+                Assert.assertEquals(ImmutableSet.of(Convert.javaToThrift(0),
+                        Convert.javaToThrift(1), Convert.javaToThrift(2)),
+                        db.select("age", record));
+            }
+            Assert.assertEquals(ImmutableSet.of(1L, 2L, 3L, 4L, 5L),
+                    db.find("foo", Operator.EQUALS, Convert.javaToThrift("bar")));
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void testValuesInExistingDatabaseAreSkipped() {
+        Database db = new Database(backingStore);
+        db.start();
+        db.accept(Write.add("foo", Convert.javaToThrift("bar"), 1));
+        db.accept(Write.add("foo", Convert.javaToThrift("baz"), 1));
+        db.accept(Write.remove("foo", Convert.javaToThrift("baz"), 1));
+        db.triggerSync();
+        db.stop();
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore)) {
+            Assert.assertFalse(loader.add("foo", Convert.javaToThrift("bar"),
+                    1));
+            Assert.assertTrue(loader.add("foo", Convert.javaToThrift("baz"),
+                    1));
+        }
+        db = new Database(backingStore);
+        db.start();
+        try {
+            TObject bar = Convert.javaToThrift("bar");
+            TObject baz = Convert.javaToThrift("baz");
+            Assert.assertEquals(ImmutableSet.of(bar, baz), db.select("foo", 1));
+            Assert.assertEquals(ImmutableSet.of(1L),
+                    db.find("foo", Operator.EQUALS, bar));
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void testValuesInBufferAreSkipped() {
+        Buffer buffer = new Buffer(bufferStore);
+        buffer.start();
+        buffer.insert(Write.add("foo", Convert.javaToThrift("bar"), 1));
+        buffer.insert(Write.add("foo", Convert.javaToThrift("baz"), 1));
+        buffer.insert(Write.remove("foo", Convert.javaToThrift("baz"), 1));
+        buffer.stop();
+        try (BulkLoader loader = new BulkLoader(backingStore, bufferStore)) {
+            Assert.assertFalse(loader.add("foo", Convert.javaToThrift("bar"),
+                    1));
+            Assert.assertFalse(loader.add("foo", Convert.javaToThrift("baz"),
+                    1));
+            Assert.assertTrue(loader.add("foo", Convert.javaToThrift("bar"),
+                    2));
+            Assert.assertEquals(2, loader.getSkippedCount());
+        }
+    }
+
+    @Test
+    public void testAbortDeletesCreatedBlocks() {
+        Database db = new Database(backingStore);
+        db.start();
+        db.accept(Write.add("foo", Convert.javaToThrift("bar"), 1));
+        db.triggerSync();
+        db.stop();
+        BulkLoader loader = new BulkLoader(backingStore, bufferStore, 10);
+        for (long record = 2; record <= 25; record++) {
+            loader.add("foo", Convert.javaToThrift(record), record);
+        }
+        loader.abort();
+        Assert.assertEquals(1, countBlocks(Database.PRIMARY_BLOCK_DIRECTORY));
+        Assert.assertEquals(1, countBlocks(Database.SECONDARY_BLOCK_DIRECTORY));
+        Assert.assertEquals(1, countBlocks(Database.SEARCH_BLOCK_DIRECTORY));
+        db = new Database(backingStore);
+        db.start();
+        try {
+            Assert.assertEquals(ImmutableSet.of(Convert.javaToThrift("bar")),
+                    db.select("foo", 1));
+            Assert.assertTrue(db.select("foo", 2).isEmpty());
+        }
+        finally {
+            db.stop();
+        }
+    }
+
+    /**
+     * Return the number of block files in {@code directory}.
+     * 
+     * @param directory
+     * @return the number of blocks
+     */
+    private int countBlocks(String directory) {
+        int count = 0;
+        for (File file : new File(backingStore + File.separator + directory)
+                .listFiles()) {
+            if(file.getName().endsWith(Block.BLOCK_NAME_EXTENSION)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.util.List;
+
+import org.cinchapi.concourse.server.model.Text;
+import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.Type;
+import org.cinchapi.concourse.util.Convert;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.SortedMultiset;
+import com.google.common.collect.TreeMultiset;
+
+/**
+ * Unit tests for {@link ColumnStats}.
+ * 
+ * @author Jeff Nelson
+ */
+public class ColumnStatsTest {
+
+    @Test
+    public void testSerialization() {
+        ColumnStats stats = compute("foo", 0, 1000, 7);
+        ColumnStats copy = ColumnStats.fromByteBuffer(stats.getBytes());
+        Assert.assertEquals(stats.size(), copy.size());
+        Assert.assertEquals(stats.toString(), copy.toString());
+        Assert.assertEquals(stats.getTypeCount(Type.INTEGER),
+                copy.getTypeCount(Type.INTEGER));
+        Assert.assertEquals(
+                stats.estimateCardinality(Operator.GREATER_THAN, wrap(300)),
+                copy.estimateCardinality(Operator.GREATER_THAN, wrap(300)));
+    }
+
+    @Test
+    public void testMinAndMax() {
+        ColumnStats stats = compute("foo", 17, 500, 0);
+        Assert.assertEquals(wrap(17), stats.getMin());
+        Assert.assertEquals(wrap(499), stats.getMax());
+        Assert.assertEquals(483, stats.getDistinctCount());
+    }
+
+    @Test
+    public void testEstimateRangeIsWithinOneBucket() {
+        ColumnStats stats = compute("foo", 0, 1000, 0);
+        long tolerance = 1000 / ColumnStats.MAX_NUM_BUCKETS + 1;
+        assertWithin(499, tolerance,
+                stats.estimateCardinality(Operator.GREATER_THAN, wrap(500)));
+        assertWithin(500, tolerance, stats.estimateCardinality(
+                Operator.LESS_THAN_OR_EQUALS, wrap(499)));
+        assertWithin(200, tolerance, stats.estimateCardinality(
+                Operator.BETWEEN, wrap(100), wrap(300)));
+        Assert.assertEquals(0,
+                stats.estimateCardinality(Operator.GREATER_THAN, wrap(999)));
+        Assert.assertEquals(1000,
+                stats.estimateCardinality(Operator.GREATER_THAN_OR_EQUALS,
+                        wrap(0)));
+    }
+
+    @Test
+    public void testEstimateEquals() {
+        ColumnStats stats = compute("foo", 0, 1000, 0);
+        assertWithin(1, 1, stats.estimateCardinality(Operator.EQUALS,
+                wrap(42)));
+        Assert.assertEquals(0,
+                stats.estimateCardinality(Operator.EQUALS, wrap(5000)));
+    }
+
+    @Test
+    public void testEstimateAccountsForRemoves() {
+        ColumnStats stats = compute("foo", 0, 1000, 500);
+        assertWithin(500, 1, stats.estimateCardinality(
+                Operator.GREATER_THAN_OR_EQUALS, wrap(0)));
+    }
+
+    @Test
+    public void testMergeManyBlocks() {
+        List<ColumnStats> all = Lists.newArrayList();
+        for (int i = 0; i < 100; ++i) {
+            all.add(compute("foo", i * 100, (i + 1) * 100, 0));
+        }
+        ColumnStats stats = ColumnStats.merge(Text.wrap("foo"), all);
+        Assert.assertEquals(10000, stats.getAddCount());
+        Assert.assertEquals(wrap(0), stats.getMin());
+        Assert.assertEquals(wrap(9999), stats.getMax());
+        long tolerance = 10000 / ColumnStats.MAX_NUM_MERGED_BUCKETS * 2 + 1;
+        assertWithin(5000, tolerance, stats.estimateCardinality(
+                Operator.LESS_THAN, wrap(5000)));
+    }
+
+    @Test
+    public void testLower() {
+        ColumnStats stats = compute("foo", 0, 1000, 0);
+        Assert.assertNull(stats.lower(wrap(-1)));
+        Assert.assertNull(stats.lower(wrap(0)));
+        Value lower = stats.lower(wrap(500));
+        Assert.assertTrue(lower.compareTo(wrap(500)) < 0);
+        Assert.assertTrue(lower.compareTo(wrap(500 - 1000
+                / ColumnStats.MAX_NUM_BUCKETS - 1)) >= 0);
+        Assert.assertTrue(stats.lower(lower).compareTo(lower) < 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCannotMergeDifferentKeys() {
+        ColumnStats.merge(Text.wrap("foo"),
+                Lists.newArrayList(compute("bar", 0, 10, 0)));
+    }
+
+    /**
+     * Assert that {@code actual} is within {@code tolerance} of
+     * {@code expected}.
+     * 
+     * @param expected
+     * @param tolerance
+     * @param actual
+     */
+    private static void assertWithin(long expected, long tolerance,
+            long actual) {
+        Assert.assertTrue(actual + " is not within " + tolerance + " of "
+                + expected, Math.abs(expected - actual) <= tolerance);
+    }
+
+    /**
+     * Return ColumnStats for {@code key} where each integer between
+     * {@code start} (inclusive) and {@code end} (exclusive) was added once and
+     * there were {@code removes} removes.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @param removes
+     * @return the ColumnStats
+     */
+    private static ColumnStats compute(String key, int start, int end,
+            int removes) {
+        SortedMultiset<Value> values = TreeMultiset
+                .create(Value.Sorter.INSTANCE);
+        long[] types = new long[Type.values().length];
+        for (int i = start; i < end; ++i) {
+            values.add(wrap(i));
+            types[Type.INTEGER.ordinal()]++;
+        }
+        return ColumnStats.compute(Text.wrap(key), values, removes, types,
+                wrap(start), wrap(end - 1));
+    }
+
+    /**
+     * Return a Value that wraps {@code number}.
+     * 
+     * @param number
+     * @return the Value
+     */
+    private static Value wrap(int number) {
+        return Value.wrap(Convert.javaToThrift(number));
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.db;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.cinchapi.concourse.ConcourseBaseTest;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for {@link Compaction}.
+ *
+ * @author Jeff Nelson
+ */
+public class CompactionTest extends ConcourseBaseTest {
+
+    private static final String DIRECTORY = "cpb";
+
+    private String backingStore;
+
+    @Rule
+    public TestWatcher w = new TestWatcher() {
+
+        @Override
+        protected void starting(Description description) {
+            backingStore = TestData.DATA_DIR + File.separator + Time.now();
+        }
+
+        @Override
+        protected void finished(Description description) {
+            if(FileSystem.hasDir(backingStore)) {
+                FileSystem.deleteDirectory(backingStore);
+            }
+        }
+
+    };
+
+    @Test
+    public void testRecoverAppliesCommittedCompaction() throws IOException {
+        Compaction compaction = stage();
+        compaction.commit();
+        Compaction.recover(backingStore, DIRECTORY);
+        Assert.assertFalse(hasBlockFile(DIRECTORY, "1"));
+        Assert.assertFalse(hasBlockFile(DIRECTORY, "2"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "3"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "4"));
+        Assert.assertFalse(FileSystem.hasDir(backingStore + File.separator
+                + Compaction.DIRECTORY_NAME));
+    }
+
+    @Test
+    public void testRecoverDiscardsUncommittedCompaction() throws IOException {
+        stage();
+        Compaction.recover(backingStore, DIRECTORY);
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "1"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "2"));
+        Assert.assertFalse(hasBlockFile(DIRECTORY, "3"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "4"));
+        Assert.assertFalse(FileSystem.hasDir(backingStore + File.separator
+                + Compaction.DIRECTORY_NAME));
+    }
+
+    @Test
+    public void testRecoverFinishesPartiallyAppliedCompaction()
+            throws IOException {
+        Compaction compaction = stage();
+        compaction.commit();
+        FileSystem.replaceFile(backingStore + File.separator + DIRECTORY
+                + File.separator + "3" + Block.BLOCK_NAME_EXTENSION,
+                compaction.getStagingDirectory(DIRECTORY) + File.separator
+                        + "3" + Block.BLOCK_NAME_EXTENSION);
+        Compaction.recover(backingStore, DIRECTORY);
+        Assert.assertFalse(hasBlockFile(DIRECTORY, "1"));
+        Assert.assertFalse(hasBlockFile(DIRECTORY, "2"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "3"));
+        Assert.assertTrue(hasBlockFile(DIRECTORY, "4"));
+    }
+
+    /**
+     * Create the block files for blocks 1, 2 and 4 and stage a compaction of
+     * blocks 1 and 2 into block 3.
+     *
+     * @return the Compaction
+     * @throws IOException
+     */
+    private Compaction stage() throws IOException {
+        createBlockFile(backingStore + File.separator + DIRECTORY, "1");
+        createBlockFile(backingStore + File.separator + DIRECTORY, "2");
+        createBlockFile(backingStore + File.separator + DIRECTORY, "4");
+        Compaction compaction = new Compaction(backingStore, "3",
+                Lists.newArrayList("1", "2"), 0, DIRECTORY);
+        createBlockFile(compaction.getStagingDirectory(DIRECTORY), "3");
+        return compaction;
+    }
+
+    /**
+     * Create an empty block file for block {@code id} in {@code directory}.
+     *
+     * @param directory
+     * @param id
+     * @throws IOException
+     */
+    private void createBlockFile(String directory, String id)
+            throws IOException {
+        FileSystem.mkdirs(directory);
+        new File(directory + File.separator + id + Block.BLOCK_NAME_EXTENSION)
+                .createNewFile();
+    }
+
+    /**
+     * Return {@code true} if the block file for block {@code id} exists in
+     * {@code directory} under the backing store.
+     *
+     * @param directory
+     * @param id
+     * @return {@code true} if the block file exists
+     */
+    private boolean hasBlockFile(String directory, String id) {
+        return FileSystem.hasFile(backingStore + File.separator + directory
+                + File.separator + id + Block.BLOCK_NAME_EXTENSION);
+    }
+
+}
@@ -18,8 +18,11 @@ package org.cinchapi.concourse.server.storage.db;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.List;
+import java.util.Set;
 
+import org.cinchapi.concourse.server.GlobalState;
 import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.model.Value;
 import org.cinchapi.concourse.server.storage.Store;
 import org.cinchapi.concourse.server.storage.StoreTest;
 import org.cinchapi.concourse.server.storage.temp.Write;
@@ -31,6 +34,10 @@ import org.cinchapi.concourse.util.TestData;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.cache.Cache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
 /**
  * Unit tests for the {@link Database}.
  * 
@@ -62,6 +69,246 @@ public class DatabaseTest extends StoreTest {
         Assert.assertEquals(1, ((List<?>) cpb.get(db)).size());
     }
 
+    @Test
+    public void testEstimateCardinalityEqualsIsExactForCachedRecord() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        TObject value = TestData.getTObject();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, value, i));
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+        }
+        db.find(key, Operator.EQUALS, value); // load the record into the cache
+        Assert.assertEquals(count,
+                db.estimateCardinality(key, Operator.EQUALS, value));
+    }
+
+    @Test
+    public void testEstimateCardinalityRangeIsExactForCachedRecord() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+        }
+        int value = count / 2;
+        db.find(key, Operator.EQUALS, Convert.javaToThrift(value));
+        Assert.assertEquals(count - value - 1, db.estimateCardinality(key,
+                Operator.GREATER_THAN, Convert.javaToThrift(value)));
+        Assert.assertEquals(value, db.estimateCardinality(key,
+                Operator.LESS_THAN, Convert.javaToThrift(value)));
+        Assert.assertEquals(count - 1, db.estimateCardinality(key,
+                Operator.NOT_EQUALS, Convert.javaToThrift(value)));
+    }
+
+    @Test
+    public void testColumnStatsIncludeSyncedAndCurrentBlocks() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+        }
+        db.getColumnStats(key); // cache the stats for the synced blocks
+        db.triggerSync();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.remove(key, Convert.javaToThrift(i), i));
+        }
+        ColumnStats stats = db.getColumnStats(key);
+        Assert.assertEquals(count, stats.getAddCount());
+        Assert.assertEquals(count, stats.getRemoveCount());
+        Assert.assertEquals(0, stats.getLiveCount());
+        Assert.assertEquals(Value.wrap(Convert.javaToThrift(0)),
+                stats.getMin());
+        Assert.assertEquals(Value.wrap(Convert.javaToThrift(count - 1)),
+                stats.getMax());
+    }
+
+    @Test
+    public void testMissingColumnStatsAreGeneratedOnStartup() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+        }
+        db.triggerSync();
+        db.stop();
+        File directory = new File(current + File.separator + "csb");
+        int deleted = 0;
+        for (File file : directory.listFiles()) {
+            if(file.getName().endsWith(".stts")) {
+                FileSystem.deleteFile(file.getAbsolutePath());
+                ++deleted;
+            }
+        }
+        Assert.assertTrue(deleted > 0);
+        db = new Database(db.getBackingStore()); // simulate server restart
+        db.start();
+        int generated = 0;
+        for (File file : directory.listFiles()) {
+            if(file.getName().endsWith(".stts")) {
+                ++generated;
+            }
+        }
+        Assert.assertEquals(deleted, generated);
+        Assert.assertEquals(count, db.getColumnStats(key).getAddCount());
+    }
+
+    @Test
+    public void testRangeFindAcrossSyncedBlocks() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+            if(i % 3 == 0) {
+                db.triggerSync();
+            }
+        }
+        for (int i = 0; i < count; i += 2) {
+            db.accept(Write.remove(key, Convert.javaToThrift(i), i));
+            if(i % 5 == 0) {
+                db.triggerSync();
+            }
+        }
+        int value = count - 3;
+        Set<Long> expected = Sets.newHashSet();
+        for (long i = value + 1; i < count; i++) {
+            if(i % 2 != 0) {
+                expected.add(i);
+            }
+        }
+        Assert.assertEquals(expected, db.find(key, Operator.GREATER_THAN,
+                Convert.javaToThrift(value)));
+    }
+
+    @Test
+    public void testCachedSearchPostingsAreUpdatedByNewWrites()
+            throws Exception {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        db.accept(Write.add(key, Convert.javaToThrift("foo bar"), 1));
+        db.triggerSync();
+        Assert.assertEquals(Sets.newHashSet(1L), db.search(key, "foo ba"));
+        Field ctc = db.getClass().getDeclaredField("ctc");
+        ctc.setAccessible(true);
+        Assert.assertTrue(((Cache<?, ?>) ctc.get(db)).size() > 0);
+        db.accept(Write.add(key, Convert.javaToThrift("food bark"), 2));
+        Assert.assertEquals(Sets.newHashSet(1L, 2L), db.search(key, "foo ba"));
+        db.accept(Write.remove(key, Convert.javaToThrift("foo bar"), 1));
+        Assert.assertEquals(Sets.newHashSet(2L), db.search(key, "foo ba"));
+    }
+
+    @Test
+    public void testSearchEngineIsKeptAcrossRestarts() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        db.accept(Write.add(key, Convert.javaToThrift("concourse"), 1));
+        db.triggerSync();
+        db.stop();
+        String engine = GlobalState.SEARCH_ENGINE;
+        GlobalState.SEARCH_ENGINE = SearchEngine.INFIX.name();
+        try {
+            db = new Database(db.getBackingStore()); // simulate server restart
+            db.start();
+            db.accept(Write.add(key, Convert.javaToThrift("concurrent"), 2));
+            Assert.assertEquals(Sets.newHashSet(1L, 2L),
+                    db.search(key, "conc"));
+            Assert.assertEquals(Sets.newHashSet(1L), db.search(key, "ncour"));
+        }
+        finally {
+            GlobalState.SEARCH_ENGINE = engine;
+        }
+    }
+
+    @Test
+    public void testCompactMergesAdjacentBlocks() throws Exception {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        int count = Database.MIN_COMPACTION_RUN_LENGTH * 2;
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift("foo" + i), i));
+            db.accept(Write.add(key, Convert.javaToThrift(i), i));
+            db.triggerSync();
+        }
+        db.accept(Write.remove(key, Convert.javaToThrift("foo0"), 0));
+        db.triggerSync();
+        db.compact();
+        Field cpb = db.getClass().getDeclaredField("cpb");
+        cpb.setAccessible(true);
+        Assert.assertTrue(((List<?>) cpb.get(db)).size() < count);
+        db.stop();
+        db = new Database(db.getBackingStore()); // simulate server restart
+        db.start();
+        Assert.assertEquals(count * 2 - 1, db.browse(key).size());
+        Assert.assertEquals(count - 1, db.search(key, "foo").size());
+        Assert.assertEquals(count - 1,
+                db.find(key, Operator.GREATER_THAN_OR_EQUALS,
+                        Convert.javaToThrift(1)).size());
+        Assert.assertEquals(Sets.newHashSet(Convert.javaToThrift(0)),
+                db.select(key, 0));
+    }
+
+    @Test
+    public void testParallelSeekMatchesSerialSeek() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        long record = TestData.getLong();
+        int count = 8;
+        for (int i = 0; i < count; i++) {
+            db.accept(Write.add(key, Convert.javaToThrift("foo" + i), record));
+            db.triggerSync();
+            if(i % 2 == 0) {
+                db.accept(Write.remove(key, Convert.javaToThrift("foo" + i),
+                        record));
+                db.triggerSync();
+            }
+        }
+        Set<TObject> expected = db.select(key, record);
+        db.stop();
+        int threshold = GlobalState.PARALLEL_SEEK_THRESHOLD;
+        for (int parallel : new int[] { 0, 2 }) {
+            GlobalState.PARALLEL_SEEK_THRESHOLD = parallel;
+            try {
+                db = new Database(db.getBackingStore()); // clear the caches
+                db.start();
+                Assert.assertEquals(count / 2, expected.size());
+                Assert.assertEquals(expected, db.select(key, record));
+                Assert.assertEquals(expected, db.select(record).get(key));
+                Assert.assertEquals(Sets.newHashSet(record),
+                        db.search(key, "foo3"));
+                Assert.assertEquals(Sets.newHashSet(record), db.find(key,
+                        Operator.EQUALS, Convert.javaToThrift("foo1")));
+                db.stop();
+            }
+            finally {
+                GlobalState.PARALLEL_SEEK_THRESHOLD = threshold;
+            }
+        }
+    }
+
+    @Test
+    public void testAcceptBatchSkipsWritesThatWereAlreadyTransported() {
+        Database db = (Database) store;
+        String key = TestData.getString();
+        long record = TestData.getLong();
+        Write first = Write.add(key, Convert.javaToThrift(1), record);
+        db.accept(first);
+        db.triggerSync();
+        db.stop();
+        db = new Database(db.getBackingStore()); // simulate server restart
+        db.start();
+        db.accept(Lists.newArrayList(first,
+                Write.add(key, Convert.javaToThrift(2), record),
+                Write.add(key, Convert.javaToThrift(3), record),
+                Write.remove(key, Convert.javaToThrift(2), record)));
+        Assert.assertEquals(Sets.newHashSet(Convert.javaToThrift(1),
+                Convert.javaToThrift(3)), db.select(key, record));
+        Assert.assertEquals(4, db.audit(key, record).size());
+    }
+
     @Test
     public void testDatabaseAppendsToCachedPartialPrimaryRecords() {
         Database db = (Database) store;
@@ -103,6 +350,7 @@ public class DatabaseTest extends StoreTest {
 
     @Override
     protected void cleanup(Store store) {
+        store.stop();
         FileSystem.deleteDirectory(current);
     }
 
@@ -46,6 +46,37 @@ public class PrimaryBlockTest extends BlockTest<PrimaryKey, Text, Value> {
         Assert.assertTrue(record.get(key).contains(value));
     }
 
+    @Test
+    public void testSyncStreamsBlockLargerThanSyncBuffer() {
+        Text key = Text.wrap("foo");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append('a');
+        }
+        Value large = Value.wrap(Convert.javaToThrift(sb.toString()));
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            block.insert(PrimaryKey.wrap(i), key,
+                    Value.wrap(Convert.javaToThrift(i)), Time.now(),
+                    Action.ADD);
+            if(i == count / 2) {
+                block.insert(PrimaryKey.wrap(i), key, large, Time.now(),
+                        Action.ADD);
+            }
+        }
+        block.sync();
+        for (int i = 0; i < count; i++) {
+            PrimaryKey locator = PrimaryKey.wrap(i);
+            Record<PrimaryKey, Text, Value> record = Record
+                    .createPrimaryRecordPartial(locator, key);
+            block.seek(locator, key, record);
+            Assert.assertTrue(record.get(key).contains(
+                    Value.wrap(Convert.javaToThrift(i))));
+            Assert.assertEquals(i == count / 2 ? 2 : 1, record.get(key)
+                    .size());
+        }
+    }
+
     @Override
     protected PrimaryKey getLocator() {
         return TestData.getPrimaryKey();
@@ -15,13 +15,23 @@
  */
 package org.cinchapi.concourse.server.storage.db;
 
+import java.util.List;
+import java.util.Set;
+
 import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.storage.Action;
 import org.cinchapi.concourse.server.storage.db.Record;
 import org.cinchapi.concourse.server.storage.db.Revision;
 import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * Unit tests for {@link PrimaryRecord}.
@@ -62,4 +72,37 @@ public class PrimaryRecordTest extends BrowsableRecordTest<PrimaryKey, Text, Val
         return TestData.getValue();
     }
 
+    @Test
+    public void testHistoricalFetchAcrossCheckpoints() {
+        PrimaryKey locator = getLocator();
+        Text key = getKey();
+        PrimaryRecord record = Record.createPrimaryRecord(locator);
+        List<Long> timestamps = Lists.newArrayList();
+        List<Set<Value>> expected = Lists.newArrayList();
+        Set<Value> values = Sets.newHashSet();
+        int count = Record.CHECKPOINT_INTERVAL * 3 + 7;
+        for (int i = 0; i < count; ++i) {
+            Value value = Value.wrap(Convert.javaToThrift(i % 5));
+            Action action = values.contains(value) ? Action.REMOVE
+                    : Action.ADD;
+            long version = Time.now();
+            record.append(Revision.createPrimaryRevision(locator, key, value,
+                    version, action));
+            if(action == Action.ADD) {
+                values.add(value);
+            }
+            else {
+                values.remove(value);
+            }
+            timestamps.add(version);
+            expected.add(Sets.newHashSet(values));
+        }
+        for (int i = 0; i < count; ++i) {
+            Assert.assertEquals(expected.get(i),
+                    record.fetch(key, timestamps.get(i)));
+        }
+        Assert.assertTrue(record.fetch(key, timestamps.get(0) - 1).isEmpty());
+        Assert.assertEquals(values, record.fetch(key, Time.now()));
+    }
+
 }
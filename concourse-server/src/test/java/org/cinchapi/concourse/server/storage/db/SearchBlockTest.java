@@ -18,6 +18,8 @@ package org.cinchapi.concourse.server.storage.db;
 // import java.util.Iterator;
 // import java.util.Set;
 
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -41,6 +43,8 @@ import org.junit.Test;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 // import com.google.common.collect.Sets;
 
@@ -241,6 +245,102 @@ public class SearchBlockTest extends BlockTest<Text, Text, Position> {
         // Assert.assertEquals(lines.length, set.size());
     }
 
+    @Test
+    public void testNgramSearchMatchesInfixSearch() {
+        Text key = Variables.register("key", TestData.getText());
+        SearchBlock infix = getMutableBlock(directory, SearchEngine.INFIX);
+        SearchBlock ngram = getMutableBlock(directory, SearchEngine.NGRAM);
+        List<String> values = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            String value = TestData.getString().toLowerCase();
+            values.add(value);
+            PrimaryKey record = PrimaryKey.wrap(i);
+            long version = Time.now();
+            infix.insert(key, Value.wrap(Convert.javaToThrift(value)), record,
+                    version, Action.ADD);
+            ngram.insert(key, Value.wrap(Convert.javaToThrift(value)), record,
+                    version, Action.ADD);
+        }
+        Variables.register("values", values);
+        for (String value : values) {
+            String[] toks = value
+                    .split(TStrings.REGEX_GROUP_OF_ONE_OR_MORE_WHITESPACE_CHARS);
+            String tok = toks[TestData.getScaleCount() % toks.length];
+            if(!tok.isEmpty()) {
+                int start = TestData.getScaleCount() % tok.length();
+                int end = start + 1 + TestData.getScaleCount()
+                        % (tok.length() - start);
+                Text query = Variables.register("query",
+                        Text.wrap(tok.substring(start, end)));
+                Assert.assertEquals(search(infix, key, query,
+                        SearchEngine.INFIX),
+                        search(ngram, key, query, SearchEngine.NGRAM));
+            }
+        }
+    }
+
+    @Test
+    public void testNgramSearchVerifiesOffsets() {
+        Text key = Text.wrap("key");
+        SearchBlock block = getMutableBlock(directory, SearchEngine.NGRAM);
+        block.insert(key, Value.wrap(Convert.javaToThrift("abcxyzabcdef")),
+                PrimaryKey.wrap(1), Time.now(), Action.ADD);
+        block.insert(key, Value.wrap(Convert.javaToThrift("abczzzdefqqq")),
+                PrimaryKey.wrap(2), Time.now(), Action.ADD);
+        Assert.assertEquals(Sets.newHashSet(PrimaryKey.wrap(1)),
+                search(block, key, Text.wrap("abcdef"), SearchEngine.NGRAM));
+        Assert.assertEquals(Sets.newHashSet(PrimaryKey.wrap(2)),
+                search(block, key, Text.wrap("zzzdefq"), SearchEngine.NGRAM));
+        Assert.assertEquals(Sets.newHashSet(PrimaryKey.wrap(1),
+                PrimaryKey.wrap(2)),
+                search(block, key, Text.wrap("bc"), SearchEngine.NGRAM));
+        Assert.assertTrue(search(block, key, Text.wrap("abcdefq"),
+                SearchEngine.NGRAM).isEmpty());
+    }
+
+    @Test
+    public void testNgramIndexesLessDataThanInfix() {
+        Text key = TestData.getText();
+        Value value = Value.wrap(Convert.javaToThrift(Strings.repeat(
+                "abcdefghijklmnopqrstuvwxyz", 4)));
+        SearchBlock infix = getMutableBlock(directory, SearchEngine.INFIX);
+        SearchBlock ngram = getMutableBlock(directory, SearchEngine.NGRAM);
+        infix.insert(key, value, getRecord(), Time.now(), Action.ADD);
+        ngram.insert(key, value, getRecord(), Time.now(), Action.ADD);
+        Assert.assertTrue(ngram.size() * 10 < infix.size());
+    }
+
+    /**
+     * Seek the revisions for {@code query} from {@code block} and return the
+     * records that match according to {@code engine}.
+     * 
+     * @param block
+     * @param key
+     * @param query
+     * @param engine
+     * @return the matching records
+     */
+    private Set<PrimaryKey> search(SearchBlock block, Text key, Text query,
+            SearchEngine engine) {
+        SearchRecord record = Record.createSearchRecordPartial(key, query);
+        for (String term : engine.getSeekTerms(query.toString())) {
+            block.seek(key, Text.wrap(term), record);
+        }
+        return record.search(query, engine);
+    }
+
+    /**
+     * Return a mutable SearchBlock that uses {@code engine}.
+     * 
+     * @param directory
+     * @param engine
+     * @return the SearchBlock
+     */
+    private SearchBlock getMutableBlock(String directory, SearchEngine engine) {
+        return Block.createSearchBlock(Long.toString(Time.now()), directory,
+                engine);
+    }
+
     /**
      * The implementation of {@link #testMightContainLocatorKeyValue()}.
      * 
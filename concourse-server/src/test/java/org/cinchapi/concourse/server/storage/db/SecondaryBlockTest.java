@@ -15,13 +15,25 @@
  */
 package org.cinchapi.concourse.server.storage.db;
 
+import java.io.File;
+import java.util.Set;
+
 import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.io.FileSystem;
+import org.cinchapi.concourse.server.storage.Action;
 import org.cinchapi.concourse.server.storage.db.Block;
 import org.cinchapi.concourse.server.storage.db.SecondaryBlock;
+import org.cinchapi.concourse.thrift.Operator;
 import org.cinchapi.concourse.time.Time;
+import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.TestData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
 
 /**
  * 
@@ -30,6 +42,116 @@ import org.cinchapi.concourse.util.TestData;
  */
 public class SecondaryBlockTest extends BlockTest<Text, Value, PrimaryKey> {
 
+    @Test
+    public void testColumnStatsArePersisted() {
+        Text locator = getLocator();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; ++i) {
+            block.insert(locator, getKey(), getValue(), Time.now(), Action.ADD);
+        }
+        block.sync();
+        SecondaryBlock loaded = new SecondaryBlock(block.getId(), directory,
+                true);
+        Assert.assertEquals(count, loaded.getColumnStats(locator)
+                .getAddCount());
+        Assert.assertNull(loaded.getColumnStats(Text.wrap(locator + "1")));
+    }
+
+    @Test
+    public void testMissingColumnStatsAreGenerated() {
+        Text locator = getLocator();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; ++i) {
+            block.insert(locator, getKey(), getValue(), Time.now(), Action.ADD);
+        }
+        block.sync();
+        FileSystem.deleteFile(directory + File.separator + block.getId()
+                + ".stts");
+        SecondaryBlock loaded = new SecondaryBlock(block.getId(), directory,
+                true);
+        Assert.assertTrue(loaded.isMissingStats());
+        loaded.generateStats();
+        Assert.assertFalse(loaded.isMissingStats());
+        Assert.assertEquals(count, loaded.getColumnStats(locator)
+                .getAddCount());
+        Assert.assertTrue(FileSystem.hasFile(directory + File.separator
+                + block.getId() + ".stts"));
+    }
+
+    @Test
+    public void testSeekRange() {
+        Text locator = getLocator();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; ++i) {
+            block.insert(locator, Value.wrap(Convert.javaToThrift(i)),
+                    PrimaryKey.wrap(i), Time.now(), Action.ADD);
+        }
+        block.sync();
+        SecondaryBlock synced = new SecondaryBlock(block.getId(), directory,
+                true);
+        int lower = count / 2;
+        SecondaryRecord record = Record.createSecondaryRecord(locator);
+        synced.seek(locator, Range.atLeast(Value.wrap(Convert
+                .javaToThrift(lower))), record);
+        Set<PrimaryKey> expected = Sets.newHashSet();
+        for (int i = lower; i < count; ++i) {
+            expected.add(PrimaryKey.wrap(i));
+        }
+        Assert.assertEquals(expected, record.explore(
+                Operator.GREATER_THAN_OR_EQUALS,
+                Value.wrap(Convert.javaToThrift(lower))).keySet());
+        Assert.assertTrue(record.explore(Operator.LESS_THAN,
+                Value.wrap(Convert.javaToThrift(lower))).isEmpty());
+    }
+
+    @Test
+    public void testSeekRangeIncludesEqualValuesOfAnotherType() {
+        Text locator = getLocator();
+        for (int i = 0; i < 64; ++i) {
+            if(i == 3) {
+                // Equal values of different types are sorted by version, so
+                // these are interleaved in the Block and the index only
+                // records the start of the last run of Integer 3
+                block.insert(locator, Value.wrap(Convert.javaToThrift(3)),
+                        PrimaryKey.wrap(200), Time.now(), Action.ADD);
+                block.insert(locator, Value.wrap(Convert.javaToThrift(3.0)),
+                        PrimaryKey.wrap(1), Time.now(), Action.ADD);
+            }
+            block.insert(locator, Value.wrap(Convert.javaToThrift(i)),
+                    PrimaryKey.wrap(100 + i), Time.now(), Action.ADD);
+        }
+        block.sync();
+        SecondaryBlock synced = new SecondaryBlock(block.getId(), directory,
+                true);
+        Value three = Value.wrap(Convert.javaToThrift(3));
+        SecondaryRecord record = Record.createSecondaryRecord(locator);
+        synced.seek(locator, Range.atLeast(three), record);
+        Set<PrimaryKey> found = record.explore(
+                Operator.GREATER_THAN_OR_EQUALS, three).keySet();
+        Assert.assertTrue(found.contains(PrimaryKey.wrap(200)));
+        Assert.assertTrue(found.contains(PrimaryKey.wrap(1)));
+        Assert.assertTrue(found.contains(PrimaryKey.wrap(103)));
+        Assert.assertEquals(63, found.size());
+    }
+
+    @Test
+    public void testSeekRangeOutsideOfBoundsIsEmpty() {
+        Text locator = getLocator();
+        int count = TestData.getScaleCount();
+        for (int i = 0; i < count; ++i) {
+            block.insert(locator, Value.wrap(Convert.javaToThrift(i)),
+                    PrimaryKey.wrap(i), Time.now(), Action.ADD);
+        }
+        block.sync();
+        SecondaryBlock synced = new SecondaryBlock(block.getId(), directory,
+                true);
+        SecondaryRecord record = Record.createSecondaryRecord(locator);
+        synced.seek(locator, Range.greaterThan(Value.wrap(Convert
+                .javaToThrift(count))), record);
+        Assert.assertTrue(record.explore(Operator.GREATER_THAN,
+                Value.wrap(Convert.javaToThrift(count))).isEmpty());
+    }
+
     @Override
     protected Text getLocator() {
         return TestData.getText();
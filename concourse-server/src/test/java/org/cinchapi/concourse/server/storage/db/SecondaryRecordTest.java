@@ -21,6 +21,7 @@ import java.util.Set;
 import org.cinchapi.concourse.server.model.PrimaryKey;
 import org.cinchapi.concourse.server.model.Text;
 import org.cinchapi.concourse.server.model.Value;
+import org.cinchapi.concourse.server.storage.Action;
 import org.cinchapi.concourse.server.storage.db.Record;
 import org.cinchapi.concourse.server.storage.db.Revision;
 import org.cinchapi.concourse.server.storage.db.SecondaryRecord;
@@ -32,6 +33,8 @@ import org.cinchapi.concourse.util.TestData;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Sets;
+
 /**
  * Unit tests for {@link SecondaryRecord}.
  * 
@@ -100,4 +103,55 @@ public class SecondaryRecordTest extends
 
         }
     }
+
+    @Test
+    public void testHistoricalRangeFind() {
+        Text locator = TestData.getText();
+        SecondaryRecord record = getRecord(locator);
+        long[] timestamps = new long[100];
+        for (int i = 0; i < 100; i++) {
+            record.append(Revision.createSecondaryRevision(locator,
+                    Value.wrap(Convert.javaToThrift(i)), PrimaryKey.wrap(i),
+                    Time.now(), Action.ADD));
+            timestamps[i] = Time.now();
+        }
+        for (int i = 0; i < 100; i += 2) {
+            record.append(Revision.createSecondaryRevision(locator,
+                    Value.wrap(Convert.javaToThrift(i)), PrimaryKey.wrap(i),
+                    Time.now(), Action.REMOVE));
+        }
+        long timestamp = timestamps[59];
+        Assert.assertEquals(range(51, 60), record.find(timestamp,
+                Operator.GREATER_THAN, Value.wrap(Convert.javaToThrift(50))));
+        Assert.assertEquals(range(0, 11), record.find(timestamp,
+                Operator.LESS_THAN_OR_EQUALS,
+                Value.wrap(Convert.javaToThrift(10))));
+        Assert.assertEquals(range(20, 30), record.find(timestamp,
+                Operator.BETWEEN, Value.wrap(Convert.javaToThrift(20)),
+                Value.wrap(Convert.javaToThrift(30))));
+        Set<PrimaryKey> odds = Sets.newHashSet();
+        for (int i = 21; i < 30; i += 2) {
+            odds.add(PrimaryKey.wrap(i));
+        }
+        Assert.assertEquals(odds, record.find(Time.now(), Operator.BETWEEN,
+                Value.wrap(Convert.javaToThrift(20)),
+                Value.wrap(Convert.javaToThrift(30))));
+    }
+
+    /**
+     * Return the PrimaryKeys from {@code start} (inclusive) to {@code end}
+     * (exclusive).
+     * 
+     * @param start
+     * @param end
+     * @return the PrimaryKeys
+     */
+    private static Set<PrimaryKey> range(int start, int end) {
+        Set<PrimaryKey> keys = Sets.newHashSet();
+        for (int i = start; i < end; i++) {
+            keys.add(PrimaryKey.wrap(i));
+        }
+        return keys;
+    }
+
 }
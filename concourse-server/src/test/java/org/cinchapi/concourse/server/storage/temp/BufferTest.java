@@ -16,18 +16,23 @@
 package org.cinchapi.concourse.server.storage.temp;
 
 import java.io.File;
+import java.lang.reflect.Field;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.cinchapi.concourse.server.GlobalState;
 import org.cinchapi.concourse.server.io.FileSystem;
 import org.cinchapi.concourse.server.storage.PermanentStore;
 import org.cinchapi.concourse.server.storage.Store;
 import org.cinchapi.concourse.server.storage.temp.Buffer;
 import org.cinchapi.concourse.server.storage.temp.Limbo;
 import org.cinchapi.concourse.testing.Variables;
+import org.cinchapi.concourse.thrift.Operator;
+import org.cinchapi.concourse.thrift.TObject;
 import org.cinchapi.concourse.time.Time;
 import org.cinchapi.concourse.util.Convert;
 import org.cinchapi.concourse.util.TestData;
@@ -35,6 +40,10 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
 /**
  * Unit tests for {@link Buffer}.
  * 
@@ -182,6 +191,176 @@ public class BufferTest extends LimboTest {
         Assert.assertEquals(-1, index);
     }
 
+    @Test
+    public void testIndexedIteratorsAfterTransport() {
+        ((Buffer) store).transportRateMultiplier = 1;
+        Buffer buffer = (Buffer) store;
+        String[] keys = { "a", "b", "c" };
+        int count = 0;
+        while (!buffer.canTransport()) {
+            add(keys[count % keys.length],
+                    Convert.javaToThrift(TestData.getScaleCount()), count % 4);
+            count++;
+        }
+        for (int i = 0; i < count * 2; i++) {
+            add(keys[i % keys.length],
+                    Convert.javaToThrift(TestData.getScaleCount()), i % 4);
+        }
+        List<Write> writes = Lists.newArrayList(buffer.iterator());
+        int transports = Variables.register("transports",
+                TestData.getScaleCount() % count);
+        for (int i = 0; i < transports && buffer.canTransport(); i++) {
+            buffer.transport(MOCK_DESTINATION);
+            writes.remove(0);
+        }
+        Queue expected = new Queue(writes.size());
+        for (Write write : writes) {
+            expected.insert(write);
+        }
+        for (String key : keys) {
+            Assert.assertEquals(Lists.newArrayList(expected.iterator(key)),
+                    Lists.newArrayList(buffer.iterator(key)));
+            Assert.assertEquals(
+                    Lists.newArrayList(expected.reverseIterator(key)),
+                    Lists.newArrayList(buffer.reverseIterator(key)));
+            for (long record = 0; record < 4; record++) {
+                Assert.assertEquals(
+                        Lists.newArrayList(expected.iterator(key, record)),
+                        Lists.newArrayList(buffer.iterator(key, record)));
+                Assert.assertEquals(Lists.newArrayList(expected
+                        .reverseIterator(key, record)), Lists
+                        .newArrayList(buffer.reverseIterator(key, record)));
+            }
+        }
+        for (long record = 0; record < 4; record++) {
+            Assert.assertEquals(Lists.newArrayList(expected.iterator(record)),
+                    Lists.newArrayList(buffer.iterator(record)));
+            Assert.assertEquals(
+                    Lists.newArrayList(expected.reverseIterator(record)),
+                    Lists.newArrayList(buffer.reverseIterator(record)));
+        }
+    }
+
+    @Test
+    public void testIndexedFindMatchesScan() {
+        Buffer buffer = (Buffer) store;
+        int count = 0;
+        while (!buffer.canTransport()) {
+            add("foo", Convert.javaToThrift(count % 50), count);
+            count++;
+        }
+        for (int i = 0; i < count; i++) {
+            add("foo", Convert.javaToThrift(i % 50), i);
+            add("bar", Convert.javaToThrift(i % 50), i);
+        }
+        Queue expected = new Queue(count * 3);
+        for (Write write : buffer) {
+            expected.insert(write);
+        }
+        TObject value = Convert.javaToThrift(Variables.register("value",
+                TestData.getScaleCount() % 50));
+        TObject value2 = Convert.javaToThrift(Variables.register("value2",
+                TestData.getScaleCount() % 50));
+        long now = Time.now();
+        for (Operator operator : new Operator[] { Operator.EQUALS,
+                Operator.NOT_EQUALS, Operator.GREATER_THAN,
+                Operator.GREATER_THAN_OR_EQUALS, Operator.LESS_THAN,
+                Operator.LESS_THAN_OR_EQUALS, Operator.BETWEEN }) {
+            Assert.assertEquals(expected.explore(
+                    Maps.<Long, Set<TObject>> newHashMap(), now, "foo",
+                    operator, value, value2), buffer.explore(
+                    Maps.<Long, Set<TObject>> newHashMap(), now, "foo",
+                    operator, value, value2));
+        }
+    }
+
+    @Test
+    public void testGroupCommitPersistsConcurrentWrites()
+            throws InterruptedException {
+        int window = GlobalState.BUFFER_GROUP_COMMIT_WINDOW;
+        GlobalState.BUFFER_GROUP_COMMIT_WINDOW = 500;
+        try {
+            String directory = TestData.DATA_DIR + File.separator
+                    + Time.now();
+            final Buffer buffer = new Buffer(directory);
+            buffer.start();
+            final int writesPerThread = 50;
+            List<Thread> threads = Lists.newArrayList();
+            for (int i = 0; i < 8; i++) {
+                final long record = i;
+                Thread thread = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < writesPerThread; j++) {
+                            buffer.insert(Write.add("foo",
+                                    Convert.javaToThrift(j), record), true);
+                        }
+                    }
+
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            buffer.stop();
+            Buffer restored = new Buffer(directory); // simulate restart
+            restored.start();
+            Assert.assertEquals(threads.size() * writesPerThread, Lists
+                    .newArrayList(restored.iterator()).size());
+            for (long record = 0; record < threads.size(); record++) {
+                Assert.assertEquals(writesPerThread,
+                        restored.select("foo", record).size());
+            }
+            restored.stop();
+            FileSystem.deleteDirectory(directory);
+        }
+        finally {
+            GlobalState.BUFFER_GROUP_COMMIT_WINDOW = window;
+        }
+    }
+
+    @Test
+    public void testGroupCommitFailureIsReportedToWriters() throws Exception {
+        int window = GlobalState.BUFFER_GROUP_COMMIT_WINDOW;
+        GlobalState.BUFFER_GROUP_COMMIT_WINDOW = 500;
+        String directory = TestData.DATA_DIR + File.separator + Time.now();
+        Buffer buffer = new Buffer(directory);
+        try {
+            buffer.start();
+            Field field = Buffer.class.getDeclaredField("pageSync");
+            field.setAccessible(true);
+            Runnable pageSync = (Runnable) field.get(buffer);
+            field.set(buffer, new Runnable() {
+
+                @Override
+                public void run() {
+                    throw new RuntimeException("fsync failed");
+                }
+
+            });
+            try {
+                buffer.insert(Write.add("foo", Convert.javaToThrift(1), 1),
+                        true);
+                Assert.fail("The write was acknowledged as durable");
+            }
+            catch (IllegalStateException e) {
+                Assert.assertEquals("fsync failed", Throwables
+                        .getRootCause(e).getMessage());
+            }
+            field.set(buffer, pageSync);
+            Assert.assertTrue(buffer.insert(
+                    Write.add("foo", Convert.javaToThrift(2), 1), true));
+        }
+        finally {
+            buffer.stop();
+            FileSystem.deleteDirectory(directory);
+            GlobalState.BUFFER_GROUP_COMMIT_WINDOW = window;
+        }
+    }
+
     @Test
     public void testWaitUntilTransportable() throws InterruptedException {
         final AtomicLong later = new AtomicLong(0);
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.server.storage.temp;
+
+import org.cinchapi.concourse.server.storage.temp.TransportMode.Pressure;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TransportMode}.
+ * 
+ * @author Jeff Nelson
+ */
+public class TransportModeTest {
+
+    /**
+     * Return the Pressure on a Buffer with {@code pageCount} pages that last
+     * served a read {@code millisSinceLastRead} ago.
+     * 
+     * @param pageCount
+     * @param millisSinceLastRead
+     * @param loadPerProcessor
+     * @return the Pressure
+     */
+    private static Pressure pressure(int pageCount, long millisSinceLastRead,
+            double loadPerProcessor) {
+        return new Pressure(pageCount, 16, 50, millisSinceLastRead,
+                loadPerProcessor, 20);
+    }
+
+    @Test
+    public void testForNameAcceptsDashesAndCase() {
+        Assert.assertEquals(TransportMode.LOW_LATENCY_READS,
+                TransportMode.forName("Low-Latency-Reads"));
+        Assert.assertEquals(TransportMode.IDLE_ONLY,
+                TransportMode.forName(" idle only "));
+        Assert.assertEquals(TransportMode.THROUGHPUT,
+                TransportMode.forName("throughput"));
+    }
+
+    @Test
+    public void testAdaptiveUsesBufferRate() {
+        Pressure pressure = pressure(3, 0, 0.5);
+        Assert.assertEquals(16, TransportMode.ADAPTIVE.getBatchSize(pressure));
+        Assert.assertEquals(50,
+                TransportMode.ADAPTIVE.getSleepTimeInMs(pressure));
+    }
+
+    @Test
+    public void testAdaptiveIgnoresBacklogAndLoad() {
+        Pressure pressure = pressure(TransportMode.MAX_BACKLOG, 0, 2.0);
+        Assert.assertEquals(16, TransportMode.ADAPTIVE.getBatchSize(pressure));
+        Assert.assertEquals(50,
+                TransportMode.ADAPTIVE.getSleepTimeInMs(pressure));
+    }
+
+    @Test
+    public void testLowLatencyReadsHoldsTransportDuringReads() {
+        Assert.assertEquals(0, TransportMode.LOW_LATENCY_READS
+                .getBatchSize(pressure(3, 0, 0.5)));
+        Assert.assertEquals(16, TransportMode.LOW_LATENCY_READS
+                .getBatchSize(pressure(3,
+                        TransportMode.READ_QUIET_PERIOD_IN_MS, 0.5)));
+    }
+
+    @Test
+    public void testLowLatencyReadsBacksOffWhileSaturated() {
+        long quiet = TransportMode.READ_QUIET_PERIOD_IN_MS;
+        Assert.assertEquals(50, TransportMode.LOW_LATENCY_READS
+                .getSleepTimeInMs(pressure(3, quiet, 0.5)));
+        Assert.assertEquals(100, TransportMode.LOW_LATENCY_READS
+                .getSleepTimeInMs(pressure(3, quiet, 2.0)));
+    }
+
+    @Test
+    public void testIdleOnlyRequiresNoReadsAndSpareProcessors() {
+        long quiet = TransportMode.READ_QUIET_PERIOD_IN_MS;
+        Assert.assertEquals(0,
+                TransportMode.IDLE_ONLY.getBatchSize(pressure(3, 0, 0.5)));
+        Assert.assertEquals(0,
+                TransportMode.IDLE_ONLY.getBatchSize(pressure(3, quiet, 1.5)));
+        Assert.assertEquals(TransportMode.MAX_BATCH_SIZE,
+                TransportMode.IDLE_ONLY.getBatchSize(pressure(3, quiet, -1)));
+    }
+
+    @Test
+    public void testOtherModesTransportAtFullSpeedWhenBacklogged() {
+        Pressure pressure = pressure(TransportMode.MAX_BACKLOG, 0, 2.0);
+        for (TransportMode mode : TransportMode.values()) {
+            if(mode == TransportMode.ADAPTIVE) {
+                continue;
+            }
+            Assert.assertEquals(TransportMode.MAX_BATCH_SIZE,
+                    mode.getBatchSize(pressure));
+            Assert.assertEquals(TransportMode.MIN_SLEEP_TIME_IN_MS,
+                    mode.getSleepTimeInMs(pressure));
+        }
+    }
+
+}
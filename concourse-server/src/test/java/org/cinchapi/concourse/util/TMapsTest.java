@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2013-2015 Cinchapi, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cinchapi.concourse.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Unit tests for the {@link TMaps} util class.
+ * 
+ * @author Jeff Nelson
+ */
+public class TMapsTest {
+
+    @Test
+    public void testTopRanksByScoreThenKey() {
+        Map<Long, Integer> scores = Maps.newHashMap();
+        scores.put(1L, 3);
+        scores.put(2L, 5);
+        scores.put(3L, 3);
+        scores.put(4L, 1);
+        Assert.assertEquals(Lists.newArrayList(2L, 1L, 3L, 4L), Lists
+                .newArrayList(TMaps.top(scores, 0, 0, 0).keySet()));
+    }
+
+    @Test
+    public void testTopIsPaginated() {
+        int count = TestData.getScaleCount() + 10;
+        Map<Long, Integer> scores = Maps.newHashMap();
+        List<Long> expected = Lists.newArrayList();
+        for (int i = 0; i < count; ++i) {
+            scores.put((long) i, i);
+            expected.add((long) i);
+        }
+        Collections.reverse(expected);
+        int offset = count / 3;
+        int limit = count / 4;
+        Assert.assertEquals(expected.subList(offset, offset + limit),
+                Lists.newArrayList(TMaps.top(scores, offset, limit, 0)
+                        .keySet()));
+    }
+
+    @Test
+    public void testTopFiltersByThreshold() {
+        Map<Long, Integer> scores = Maps.newHashMap();
+        scores.put(1L, 3);
+        scores.put(2L, 5);
+        scores.put(3L, 1);
+        Map<Long, Integer> top = TMaps.top(scores, 0, 10, 3);
+        Assert.assertEquals(Lists.newArrayList(2L, 1L),
+                Lists.newArrayList(top.keySet()));
+        Assert.assertEquals((Integer) 5, top.get(2L));
+    }
+
+    @Test
+    public void testTopOffsetPastEnd() {
+        Map<Long, Integer> scores = Maps.newHashMap();
+        scores.put(1L, 3);
+        Assert.assertTrue(TMaps.top(scores, 5, 10, 0).isEmpty());
+    }
+
+}
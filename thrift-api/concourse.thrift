@@ -866,6 +866,17 @@ service ConcourseService {
     5: string environment)
   throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
 
+  map<i64, i32> searchRanked(
+    1: string key,
+    2: string query,
+    3: i32 limit,
+    4: i32 offset,
+    5: i32 minScore,
+    6: shared.AccessToken creds,
+    7: shared.TransactionToken transaction,
+    8: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
   # ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
   # ~~~~~~~~ Version Control ~~~~~~~~
   # ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -1038,4 +1049,121 @@ service ConcourseService {
   string getServerVersion() throws (
     1: shared.TSecurityException ex,
     2: shared.TTransactionException ex2);
+
+  # ~~~~~~~~~~~~~~~~~~~~~~~
+  # ~~~~~~~~ Batch ~~~~~~~~
+  # ~~~~~~~~~~~~~~~~~~~~~~~
+
+  # Execute each of the commands, in order, and return one list of values per
+  # command. If atomic is true, all of the commands are executed within a
+  # single atomic operation.
+  list<list<data.TObject>> executeCommands(
+    1: list<data.TCommand> commands,
+    2: bool atomic,
+    3: shared.AccessToken creds,
+    4: shared.TransactionToken transaction,
+    5: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  # ~~~~~~~~~~~~~~~~~~~~~~~~~
+  # ~~~~~~~~ Cursors ~~~~~~~~
+  # ~~~~~~~~~~~~~~~~~~~~~~~~~
+
+  # Open a cursor over the records that match the criteria and return its id.
+  # The rows are read lazily, one page at a time, using fetchCursor.
+  i64 openCursorCriteria(
+    1: data.TCriteria criteria,
+    2: shared.AccessToken creds,
+    3: shared.TransactionToken transaction,
+    4: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  # Open a cursor over the keys in the records that match the criteria and
+  # return its id. If the list of keys is empty, each row only contains the
+  # record.
+  i64 openCursorKeysCriteria(
+    1: list<string> keys,
+    2: data.TCriteria criteria,
+    3: shared.AccessToken creds,
+    4: shared.TransactionToken transaction,
+    5: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  # Return the next page of at most size rows from the cursor. The cursor is
+  # closed once a page with fewer than size rows is returned, or if it is not
+  # fetched for 10 minutes.
+  map<i64, map<string, set<data.TObject>>> fetchCursor(
+    1: i64 cursor,
+    2: i32 size,
+    3: shared.AccessToken creds,
+    4: shared.TransactionToken transaction,
+    5: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  # Close the cursor before all of its rows have been fetched. Closing a
+  # cursor that is already closed has no effect.
+  void closeCursor(
+    1: i64 cursor,
+    2: shared.AccessToken creds,
+    3: shared.TransactionToken transaction,
+    4: string environment)
+  throws (1: shared.TSecurityException ex);
+
+  # ~~~~~~~~~~~~~~~~~~~~~~~~
+  # ~~~~~~~~ Paging ~~~~~~~~
+  # ~~~~~~~~~~~~~~~~~~~~~~~~
+
+  # Sort the records that match the criteria by their values for the order key
+  # and return the page of at most limit records that starts at offset. A
+  # record with multiple values is sorted by its smallest value (or its largest
+  # value if descending) and the records without a value come last. The order
+  # key is read in every matching record, so the cost grows with the number of
+  # matching records regardless of the page.
+  list<i64> findCriteriaPage(
+    1: data.TCriteria criteria,
+    2: string order,
+    3: bool descending,
+    4: i32 offset,
+    5: i32 limit,
+    6: shared.AccessToken creds,
+    7: shared.TransactionToken transaction,
+    8: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  list<i64> findCclPage(
+    1: string ccl,
+    2: string order,
+    3: bool descending,
+    4: i32 offset,
+    5: i32 limit,
+    6: shared.AccessToken creds,
+    7: shared.TransactionToken transaction,
+    8: string environment)
+  throws (1: shared.TSecurityException ex,
+    2: shared.TTransactionException ex2,
+    3: shared.TParseException ex3);
+
+  map<i64, map<string, set<data.TObject>>> selectCriteriaPage(
+    1: data.TCriteria criteria,
+    2: string order,
+    3: bool descending,
+    4: i32 offset,
+    5: i32 limit,
+    6: shared.AccessToken creds,
+    7: shared.TransactionToken transaction,
+    8: string environment)
+  throws (1: shared.TSecurityException ex, 2: shared.TTransactionException ex2);
+
+  map<i64, map<string, set<data.TObject>>> selectCclPage(
+    1: string ccl,
+    2: string order,
+    3: bool descending,
+    4: i32 offset,
+    5: i32 limit,
+    6: shared.AccessToken creds,
+    7: shared.TransactionToken transaction,
+    8: string environment)
+  throws (1: shared.TSecurityException ex,
+    2: shared.TTransactionException ex2,
+    3: shared.TParseException ex3);
 }
@@ -61,3 +61,32 @@ struct TSymbol {
 struct TCriteria {
     1:required list<TSymbol> symbols
 }
+
+/**
+ * A representation for an enum that declares the operation that a TCommand
+ * performs.
+ */
+enum TCommandVerb {
+  ADD = 1,
+  REMOVE = 2,
+  SET = 3,
+  VERIFY = 4,
+  GET = 5,
+  SELECT = 6,
+  DESCRIBE = 7,
+  FIND = 8,
+  SEARCH = 9
+}
+
+/**
+ * A representation for a single operation that can be passed over the wire
+ * in a batch via Thrift. The verb determines which of the other fields the
+ * server reads when it executes the command.
+ */
+struct TCommand {
+  1:required TCommandVerb verb,
+  2:string key,
+  3:list<TObject> values,
+  4:i64 record,
+  5:shared.Operator operator
+}